@@ -0,0 +1,18 @@
+package audio;
+
+import engine.GameEventBus;
+
+/**
+ * Plays the sounds of the events of a game session, at most one of each
+ * kind per tick, so a whole volley of bullets fires a single laser sound.
+ */
+public class GameSounds implements GameEventBus.Subscriber {
+
+    @Override
+    public void onEvents(GameEventBus events) {
+        if (events.count(GameEventBus.Type.SHOT_FIRED) > 0) {
+            SoundManager.stop("sfx/laser.wav");
+            SoundManager.play("sfx/laser.wav");
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package audio;
+
+import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streams music tracks from their resources instead of holding them as clips.
+ * A dedicated thread decodes each track a few kilobytes at a time into a
+ * fixed size ring buffer, converts it to the output format, and mixes the
+ * playing tracks into one SourceDataLine. Memory use does not depend on the
+ * length of the tracks.
+ */
+public final class MusicStreamer {
+
+    /** Output sample rate. */
+    private static final float SAMPLE_RATE = 44100f;
+    /** Output format: 16 bit signed stereo, little-endian. */
+    private static final AudioFormat OUTPUT_FORMAT =
+            new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+    /** Frames of decoded audio buffered ahead for each track. */
+    private static final int RING_FRAMES = 32768;
+    /** Bytes read from a resource at a time. */
+    private static final int READ_BYTES = 4096;
+    /** Frames mixed and written to the line at a time. */
+    private static final int MIX_FRAMES = 1024;
+    /** Size of the line buffer, in frames (about 100 ms). */
+    private static final int LINE_FRAMES = 4410;
+    /** Default duration of a crossfade, in milliseconds. */
+    public static final int DEFAULT_CROSSFADE_MILLIS = 1000;
+    /** Duration of the fade out when music is stopped, in milliseconds. */
+    private static final int STOP_FADE_MILLIS = 150;
+    /** Milliseconds the thread sleeps when the line is full. */
+    private static final long IDLE_MILLIS = 5;
+
+    private static MusicStreamer instance;
+
+    /** Commands from other threads, run by the streaming thread. */
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    /** Tracks currently playing or fading out. Streaming thread only. */
+    private final List<Track> tracks = new ArrayList<>();
+    /** Mixing buffer, one int per sample. */
+    private final int[] mix = new int[MIX_FRAMES * 2];
+    /** Output buffer, converted from the mixing buffer. */
+    private final byte[] out = new byte[MIX_FRAMES * 4];
+
+    private Thread thread;
+    private SourceDataLine line;
+    private volatile boolean failed = false;
+
+    private MusicStreamer() {
+    }
+
+    public static synchronized MusicStreamer getInstance() {
+        if (instance == null) instance = new MusicStreamer();
+        return instance;
+    }
+
+    /**
+     * Starts a looping track, crossfading from the tracks already playing.
+     */
+    public void play(String resourcePath) {
+        play(resourcePath, 0, DEFAULT_CROSSFADE_MILLIS);
+    }
+
+    /**
+     * Starts a track that loops back to the given frame when it ends,
+     * crossfading from the tracks already playing.
+     *
+     * @param resourcePath WAV resource of the track.
+     * @param loopStartFrame Frame of the track, at its own sample rate, the loop restarts from.
+     * @param crossfadeMillis Duration of the crossfade.
+     */
+    public void play(String resourcePath, long loopStartFrame, int crossfadeMillis) {
+        if (failed) return;
+        final int fadeFrames = millisToFrames(crossfadeMillis);
+        commands.add(() -> {
+            for (Track t : tracks) {
+                if (t.path.equals(resourcePath) && t.target > 0f) return;  // already playing
+            }
+            Track track;
+            try {
+                track = new Track(resourcePath, loopStartFrame);
+            } catch (Exception e) {
+                System.err.println("[Music] Load failed: " + resourcePath + " -> " + e.getMessage());
+                return;
+            }
+            for (Track t : tracks) t.fadeTo(0f, fadeFrames);
+            if (tracks.isEmpty()) track.gain = 1f;
+            else track.fadeTo(1f, fadeFrames);
+            tracks.add(track);
+        });
+        ensureStarted();
+    }
+
+    /**
+     * Fades out and stops every track.
+     */
+    public void stop() {
+        if (thread == null) return;
+        final int fadeFrames = millisToFrames(STOP_FADE_MILLIS);
+        commands.add(() -> {
+            for (Track t : tracks) t.fadeTo(0f, fadeFrames);
+        });
+    }
+
+    private static int millisToFrames(int millis) {
+        return Math.max(1, (int) (SAMPLE_RATE * millis / 1000));
+    }
+
+    private synchronized void ensureStarted() {
+        if (thread != null || failed) return;
+        thread = new Thread(this::run, "music-streamer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            line = AudioSystem.getSourceDataLine(OUTPUT_FORMAT);
+            line.open(OUTPUT_FORMAT, LINE_FRAMES * 4);
+            line.start();
+        } catch (Exception e) {
+            System.err.println("[Music] Output line unavailable -> " + e.getMessage());
+            failed = true;
+            commands.clear();
+            return;
+        }
+
+        while (true) {
+            Runnable command;
+            while ((command = commands.poll()) != null) command.run();
+
+            for (Track t : tracks) t.fill();
+
+            int frames = Math.min(line.available() / 4, MIX_FRAMES);
+            if (tracks.isEmpty() || frames == 0) {
+                sleep();
+                continue;
+            }
+            mix(frames);
+            line.write(out, 0, frames * 4);
+        }
+    }
+
+    private void mix(int frames) {
+        Arrays.fill(mix, 0, frames * 2, 0);
+        Iterator<Track> it = tracks.iterator();
+        while (it.hasNext()) {
+            Track t = it.next();
+            t.mixInto(mix, frames);
+            if (t.isDone()) {
+                t.close();
+                it.remove();
+            }
+        }
+        for (int i = 0; i < frames * 2; i++) {
+            int s = mix[i];
+            if (s > Short.MAX_VALUE) s = Short.MAX_VALUE;
+            else if (s < Short.MIN_VALUE) s = Short.MIN_VALUE;
+            out[2 * i] = (byte) s;
+            out[2 * i + 1] = (byte) (s >> 8);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(IDLE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One track being streamed: its decoder, its ring buffer of frames in the
+     * output format, and its volume envelope.
+     */
+    private static final class Track {
+        final String path;
+        final long loopStartFrame;
+
+        /** Decoded stereo frames at the output rate, interleaved. */
+        final short[] ring = new short[RING_FRAMES * 2];
+        int readFrame = 0;
+        int writeFrame = 0;
+        int buffered = 0;
+
+        final byte[] chunk = new byte[READ_BYTES];
+        AudioInputStream in;
+        int channels;
+        int frameSize;
+        /** Source frames advanced per output frame. */
+        double step;
+        /** Position between the previous and the current source frame. */
+        double phase = 0;
+        int prevLeft, prevRight;
+        boolean ended = false;
+        /** Checks if any data was read since the resource was last opened. */
+        boolean readSinceOpen = false;
+
+        float gain = 0f;
+        float target = 1f;
+        float gainStep = 0f;
+
+        Track(String path, long loopStartFrame) throws IOException, UnsupportedAudioFileException {
+            this.path = path;
+            this.loopStartFrame = loopStartFrame;
+            open(false);
+        }
+
+        /** Opens the resource, skipping to the loop start when looping. */
+        private void open(boolean looping) throws IOException, UnsupportedAudioFileException {
+            String p = path.startsWith("/") ? path : "/" + path;
+            InputStream raw = MusicStreamer.class.getResourceAsStream(p);
+            if (raw == null) throw new IOException("Resource not found: " + p);
+            AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(raw));
+            AudioFormat format = source.getFormat();
+            AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16,
+                    format.getChannels(), true, false);
+            in = format.matches(pcm) ? source : AudioSystem.getAudioInputStream(pcm, source);
+            channels = pcm.getChannels();
+            frameSize = pcm.getFrameSize();
+            step = pcm.getSampleRate() / SAMPLE_RATE;
+            readSinceOpen = false;
+
+            if (looping && loopStartFrame > 0) {
+                long toSkip = loopStartFrame * frameSize;
+                while (toSkip > 0) {
+                    long skipped = in.skip(toSkip);
+                    if (skipped <= 0) break;
+                    toSkip -= skipped;
+                }
+            }
+        }
+
+        void fadeTo(float value, int frames) {
+            target = value;
+            gainStep = (value - gain) / frames;
+        }
+
+        boolean isDone() {
+            return (target == 0f && gain == 0f) || (ended && buffered == 0);
+        }
+
+        /** Decodes source data until the ring buffer is nearly full. */
+        void fill() {
+            int maxOut = (int) Math.ceil((READ_BYTES / frameSize) / step) + 2;
+            while (!ended && RING_FRAMES - buffered >= maxOut) {
+                int n;
+                try {
+                    n = in.read(chunk, 0, READ_BYTES - READ_BYTES % frameSize);
+                    if (n < 0) {
+                        in.close();
+                        if (!readSinceOpen) {  // nothing left to loop over
+                            ended = true;
+                            return;
+                        }
+                        open(true);  // loop without a gap: the ring keeps playing meanwhile
+                        continue;
+                    }
+                    readSinceOpen = true;
+                } catch (Exception e) {
+                    System.err.println("[Music] Stream failed: " + path + " -> " + e.getMessage());
+                    ended = true;
+                    return;
+                }
+                for (int off = 0; off + frameSize <= n; off += frameSize) {
+                    int left = (short) ((chunk[off] & 0xFF) | (chunk[off + 1] << 8));
+                    int right = channels > 1
+                            ? (short) ((chunk[off + 2] & 0xFF) | (chunk[off + 3] << 8))
+                            : left;
+                    // Linear interpolation between the previous and this source frame.
+                    while (phase < 1.0) {
+                        ring[writeFrame * 2] = (short) (prevLeft + (left - prevLeft) * phase);
+                        ring[writeFrame * 2 + 1] = (short) (prevRight + (right - prevRight) * phase);
+                        writeFrame = (writeFrame + 1) % RING_FRAMES;
+                        buffered++;
+                        phase += step;
+                    }
+                    phase -= 1.0;
+                    prevLeft = left;
+                    prevRight = right;
+                }
+            }
+        }
+
+        /** Adds the next frames of the track, scaled by its envelope. */
+        void mixInto(int[] mix, int frames) {
+            int count = Math.min(frames, buffered);
+            for (int i = 0; i < count; i++) {
+                if (gain != target) {
+                    gain += gainStep;
+                    if ((gainStep > 0 && gain > target) || (gainStep < 0 && gain < target) || gainStep == 0)
+                        gain = target;
+                }
+                mix[2 * i] += (int) (ring[readFrame * 2] * gain);
+                mix[2 * i + 1] += (int) (ring[readFrame * 2 + 1] * gain);
+                readFrame = (readFrame + 1) % RING_FRAMES;
+            }
+            buffered -= count;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package audio;
+
+import javax.sound.sampled.Clip;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cache of opened sound effect clips with a budget on the PCM bytes they hold
+ * and on the audio lines they keep open. When a budget is exceeded the least
+ * recently used clips are closed, except pinned ones and ones still playing.
+ *
+ * Budgets can be set with the system properties invaders.sound.maxBytes and
+ * invaders.sound.maxLines.
+ */
+public final class SoundBank {
+
+    /** Default budget of PCM data held by clips, in bytes. */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    /** Default budget of open clips, each holding an audio line. */
+    public static final int DEFAULT_MAX_LINES = 24;
+
+    private static final class Entry {
+        final Clip clip;
+        final long bytes;
+
+        Entry(Clip clip, long bytes) {
+            this.clip = clip;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final int maxLines;
+    /** Clips by resource path, least recently used first. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> pinned = new HashSet<>();
+
+    private long residentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public SoundBank(long maxBytes, int maxLines) {
+        this.maxBytes = maxBytes;
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Creates a bank with the budgets set in the system properties, or the
+     * defaults.
+     */
+    public static SoundBank fromSystemProperties() {
+        return new SoundBank(
+                Long.getLong("invaders.sound.maxBytes", DEFAULT_MAX_BYTES),
+                Integer.getInteger("invaders.sound.maxLines", DEFAULT_MAX_LINES));
+    }
+
+    /**
+     * Keeps a sound in the bank whatever its last use.
+     */
+    public synchronized void pin(String resourcePath) {
+        pinned.add(resourcePath);
+    }
+
+    /**
+     * Returns the clip of a sound and marks it as recently used, counting a
+     * hit or a miss.
+     *
+     * @return The clip, null if the sound is not in the bank.
+     */
+    public synchronized Clip get(String resourcePath) {
+        Entry e = entries.get(resourcePath);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.clip;
+    }
+
+    /**
+     * Returns the clip of a sound without counting a hit or a miss.
+     */
+    public synchronized Clip peek(String resourcePath) {
+        Entry e = entries.get(resourcePath);
+        return e == null ? null : e.clip;
+    }
+
+    /**
+     * Checks if a sound is in the bank, without counting it as a use.
+     */
+    public synchronized boolean contains(String resourcePath) {
+        return entries.containsKey(resourcePath);
+    }
+
+    /**
+     * Adds the clip of a sound, evicting others if a budget is exceeded.
+     * If the sound was added meanwhile by another thread, the given clip is
+     * closed and the one in the bank is returned.
+     */
+    public synchronized Clip put(String resourcePath, Clip clip) {
+        Entry existing = entries.get(resourcePath);
+        if (existing != null) {
+            clip.close();
+            return existing.clip;
+        }
+        long bytes = (long) clip.getFrameLength() * clip.getFormat().getFrameSize();
+        entries.put(resourcePath, new Entry(clip, bytes));
+        residentBytes += bytes;
+        evictOverBudget(resourcePath);
+        return clip;
+    }
+
+    private void evictOverBudget(String keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((residentBytes > maxBytes || entries.size() > maxLines) && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            String path = eldest.getKey();
+            Clip clip = eldest.getValue().clip;
+            if (path.equals(keep) || pinned.contains(path) || clip.isRunning()) continue;
+            it.remove();
+            residentBytes -= eldest.getValue().bytes;
+            evictions++;
+            clip.close();  // releases the audio line
+        }
+    }
+
+    /**
+     * Runs an action on every clip in the bank.
+     */
+    public synchronized void forEachClip(Consumer<Clip> action) {
+        for (Entry e : entries.values()) action.accept(e.clip);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /** Number of clips, and so of audio lines, held by the bank. */
+    public synchronized int getLineCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SoundBank[clips=%d/%d, bytes=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                entries.size(), maxLines, residentBytes, maxBytes, hits, misses, evictions);
+    }
+}
@@ -2,19 +2,40 @@ package audio;
 
 import javax.sound.sampled.*;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+
+import engine.jfr.AssetLoadEvent;
 
 public class SoundManager {
-    private static final Map<String, Clip> CACHE = new ConcurrentHashMap<>();
+    private static final SoundBank BANK = SoundBank.fromSystemProperties();
     private static volatile boolean muted = false;  // global state of sound
     private static volatile String currentLooping = null;
+    private static volatile String currentMusic = null;
+
+    static {
+        // Played constantly in game, never worth evicting
+        BANK.pin("sfx/laser.wav");
+        BANK.pin("sfx/impact.wav");
+    }
+
+    /** Cache of opened clips, for sizing its budgets. */
+    public static SoundBank getSoundBank() {
+        return BANK;
+    }
+
+    /** Returns the clip of a sound, opening it if it is not in the bank. */
+    private static Clip obtain(String resourcePath) {
+        Clip c = BANK.get(resourcePath);
+        if (c != null) return c;
+        c = loadClip(resourcePath);
+        return c == null ? null : BANK.put(resourcePath, c);
+    }
 
     public static void play(String resourcePath) {
         if (muted) return;  // no sound played
         try {
-            Clip c = CACHE.computeIfAbsent(resourcePath, SoundManager::loadClip);
+            Clip c = obtain(resourcePath);
             if (c == null) return;
             if (c.isRunning()) c.stop();
             c.setFramePosition(0);
@@ -24,18 +45,44 @@ public class SoundManager {
         }
     }
 
+    /**
+     * Opens the clip of an already loaded sound file ahead of its first play,
+     * so playing it later does not decode or open an audio line.
+     */
+    public static void preload(String resourcePath, byte[] data) {
+        if (BANK.contains(resourcePath)) return;
+        Clip c = openClip(resourcePath, new ByteArrayInputStream(data));
+        if (c != null) BANK.put(resourcePath, c);
+    }
+
     private static Clip loadClip(String path) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
         String p = path.startsWith("/") ? path : "/" + path;
-        try (InputStream raw = SoundManager.class.getResourceAsStream(p)) {
-            if (raw == null) throw new IllegalArgumentException("Resource not found: " + p);
-            try (BufferedInputStream in = new BufferedInputStream(raw);
-                 AudioInputStream ais = AudioSystem.getAudioInputStream(in)) {
-                Clip clip = AudioSystem.getClip();
-                clip.open(ais);
-                return clip;
-            }
+        InputStream raw = SoundManager.class.getResourceAsStream(p);
+        Clip clip = null;
+        if (raw == null) {
+            System.err.println("[Sound] Load failed: " + p + " -> Resource not found");
+        } else {
+            clip = openClip(p, new BufferedInputStream(raw));
+        }
+        if (event.shouldCommit()) {
+            event.kind = "sound";
+            event.path = p;
+            event.loaded = clip != null;
+            event.commit();
+        }
+        return clip;
+    }
+
+    private static Clip openClip(String path, InputStream in) {
+        try (InputStream source = in;
+             AudioInputStream ais = AudioSystem.getAudioInputStream(source)) {
+            Clip clip = AudioSystem.getClip();
+            clip.open(ais);
+            return clip;
         } catch (Exception e) {
-            System.err.println("[Sound] Load failed: " + p + " -> " + e);
+            System.err.println("[Sound] Load failed: " + path + " -> " + e);
             return null;
         }
     }
@@ -44,7 +91,7 @@ public class SoundManager {
     public static void playLoop(String resourcePath) {
         if (muted) return;  // no sound played
         try {
-            Clip c = CACHE.computeIfAbsent(resourcePath, SoundManager::loadClip);
+            Clip c = obtain(resourcePath);
             if (c == null) return;
             stopAll();
             c.setFramePosition(0);
@@ -56,6 +103,21 @@ public class SoundManager {
         }
     }
 
+    /**
+     * Plays a looping music track, streamed instead of cached as a clip,
+     * crossfading from the music already playing.
+     */
+    public static void playMusic(String resourcePath) {
+        currentMusic = resourcePath;  // resumed on unmute
+        if (muted) return;
+        MusicStreamer.getInstance().play(resourcePath);
+    }
+
+    public static void stopMusic() {
+        currentMusic = null;
+        MusicStreamer.getInstance().stop();
+    }
+
     public static void cutAllSound() {
         muted = true;
         stopAll();
@@ -69,11 +131,14 @@ public class SoundManager {
         if (currentLooping != null) {  // when unmute
             playLoop(currentLooping);
         }
+        if (currentMusic != null) {
+            MusicStreamer.getInstance().play(currentMusic);
+        }
     }
 
     public static void stop(String resourcePath) {
         try {
-            Clip c = CACHE.get(resourcePath);
+            Clip c = BANK.peek(resourcePath);
             if (c != null && c.isRunning()) {
                 c.stop();
                 c.setFramePosition(0);
@@ -84,8 +149,9 @@ public class SoundManager {
     }
 
     public static void stopAll() {
-        for (Clip c : CACHE.values()) {
+        BANK.forEachClip(c -> {
             if (c.isRunning()) c.stop();
-        }
+        });
+        MusicStreamer.getInstance().stop();
     }
 }
@@ -0,0 +1,56 @@
+package engine;
+
+/**
+ * Game events the achievement rules can listen to. Each has the key used
+ * for it in the achievement file.
+ */
+public enum AchievementEvent {
+    /** The player fired a shot. */
+    SHOT_FIRED("shotFired"),
+    /** The player destroyed an enemy. */
+    ENEMY_DEFEATED("enemyDefeated"),
+    /** The player destroyed a boss. */
+    BOSS_DEFEATED("bossDefeated"),
+    /** The player cleared a level, the value being its number. */
+    LEVEL_CLEARED("levelCleared"),
+    /** Seconds played in the level so far. */
+    SECONDS_SURVIVED("secondsSurvived"),
+    /** Coins the player has. */
+    COINS("coins");
+
+    /** Key of the event in the achievement file. */
+    private final String key;
+
+    /**
+     * Constructor.
+     *
+     * @param key Key of the event in the achievement file.
+     */
+    AchievementEvent(final String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the key of the event in the achievement file.
+     *
+     * @return Key of the event.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Finds the event of a key.
+     *
+     * @param key Key of the event in the achievement file.
+     * @return The event, or null if there is none with that key.
+     */
+    public static AchievementEvent fromKey(final String key) {
+        for (AchievementEvent event : values()) {
+            if (event.key.equals(key)) {
+                return event;
+            }
+        }
+        return null;
+    }
+}
@@ -3,59 +3,209 @@ package engine;
 import screen.GameScreen;
 
 import java.awt.Color;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import engine.level.JsonLoader;
 
 /**
  * Manages all game achievements (including their state, unlocking logic, and persistence).
+ * The game window shares one persistent instance between its sessions, while
+ * headless sessions each track theirs without touching the achievement file.
+ *
+ * The achievements and their rules are read from achievements/achievements.json.
+ * A rule listens to one game event and unlocks its achievement when a counter
+ * reaches a threshold. Events only reach the rules listening to them, and a
+ * rule stops listening once unlocked, so game events cost little however many
+ * achievements there are.
  */
-public class AchievementManager {
-    /** Stores the single instance of the AchievementManager. */
-    private static AchievementManager instance;
+public class AchievementManager implements GameEventBus.Subscriber {
+    /** Resource with the achievement definitions. */
+    private static final String RULES_PATH = "achievements/achievements.json";
+    /** Rule adding the event values, unlocking at the threshold. */
+    private static final byte MODE_COUNT = 0;
+    /** Rule keeping the highest event value, unlocking at the threshold. */
+    private static final byte MODE_MAX = 1;
+    /** Rule unlocking when an event value equals the threshold. */
+    private static final byte MODE_EQUALS = 2;
+    /** Rule unlocking when its event adds up to at most the threshold times another one. */
+    private static final byte MODE_RATIO_AT_MOST = 3;
+    /** Rule without an event, only unlocked by name. */
+    private static final byte MODE_NONE = 4;
+
+    /** Achievement definitions read from the file, shared by all instances. */
+    private static List<Map<String, Object>> definitions;
+
+    /** Application logger. */
+    private static final Logger LOGGER = Core.getLogger();
+
+    /** Checks if unlocks are saved to file and unlock reward colors. */
+    private final boolean persistent;
     /** Stores the current screen **/
     private GameScreen currentScreen;
     /** List of all achievements in the game. */
     private List<Achievement> achievements;
-    /** Counter for the total number of shots fired by the player. */
-    private int shotsFired = 0;
-    /** Counter for the total number of shots that hit an enemy. */
-    private int shotsHit = 0;
-    /** Flag to ensure the 'First Blood' achievement is unlocked only once. */
-    private boolean firstKillUnlocked = false;
-    /** Flag to ensure the 'Bad Sniper' achievement is unlocked only once. */
-    private boolean sniperUnlocked = false;
-    /** Flag to ensure the 'Bear Grylls' achievement is unlocked only once. */
-    private boolean survivorUnlocked = false;
-
-    /** Private constructor (singleton pattern). */
-    private AchievementManager() {
-        achievements = new ArrayList<>();
-        // Assign achievement colors to achievements
-        achievements.add(new Achievement("Beginner", "Clear level 1", ShipColorManager.ACHIEVEMENT_COLORS[0]));
-        achievements.add(new Achievement("Intermediate", "Clear level 3", ShipColorManager.ACHIEVEMENT_COLORS[1]));
-        achievements.add(new Achievement("Boss Slayer", "Defeat a boss", ShipColorManager.ACHIEVEMENT_COLORS[2]));
-        achievements.add(new Achievement("Mr. Greedy", "Have more than 2000 coins", ShipColorManager.ACHIEVEMENT_COLORS[3]));
-        achievements.add(new Achievement("First Blood", "Defeat your first enemy", ShipColorManager.ACHIEVEMENT_COLORS[4]));
-        achievements.add(new Achievement("Bear Grylls", "Survive for 60 seconds", ShipColorManager.ACHIEVEMENT_COLORS[5]));
-        achievements.add(new Achievement("Bad Sniper", "Under 80% accuracy", ShipColorManager.ACHIEVEMENT_COLORS[6]));
-        achievements.add(new Achievement("Conqueror", "Clear the final level", ShipColorManager.ACHIEVEMENT_COLORS[7]));
-
-        loadAchievements();
-        // Unlock colors for achievements that were already unlocked
-        unlockAchievementRewards();
+    /** Index of each achievement by name. */
+    private final Map<String, Integer> indexByName;
+
+    /** Mode of the rule of each achievement. */
+    private final byte[] modes;
+    /** Threshold of the rule of each achievement. */
+    private final double[] thresholds;
+    /** Counter of the rule of each achievement. */
+    private final long[] counters;
+    /** Second counter of the ratio rules. */
+    private final long[] totals;
+    /** Second counter a ratio rule needs before it can unlock. */
+    private final long[] minimums;
+    /** Rules listening to each event, as rule index * 2 + 1 for the second counter. */
+    private final int[][] listeners;
+    /** Number of rules listening to each event. */
+    private final int[] listenerCounts;
+    /** Last seconds survived sent to the rules. */
+    private int lastSeconds = -1;
+
+    /**
+     * Constructor, loading the unlocked achievements if persistent.
+     *
+     * @param persistent
+     *            True to load and save the achievements and unlock their colors.
+     */
+    public AchievementManager(final boolean persistent) {
+        List<Map<String, Object>> rules = getDefinitions();
+        // Without definitions, saving would erase the unlocks of the file.
+        this.persistent = persistent && !rules.isEmpty();
+        int size = rules.size();
+        this.achievements = new ArrayList<>(size);
+        this.indexByName = new HashMap<>();
+        this.modes = new byte[size];
+        this.thresholds = new double[size];
+        this.counters = new long[size];
+        this.totals = new long[size];
+        this.minimums = new long[size];
+        AchievementEvent[] events = AchievementEvent.values();
+        this.listeners = new int[events.length][];
+        this.listenerCounts = new int[events.length];
+        for (int e = 0; e < events.length; e++)
+            this.listeners[e] = new int[4];
+
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> rule = rules.get(i);
+            String name = (String) rule.get("name");
+            Color rewardColor = null;
+            if (rule.get("rewardColor") != null) {
+                rewardColor = ShipColorManager.ACHIEVEMENT_COLORS[
+                        ((Number) rule.get("rewardColor")).intValue()];
+            }
+            achievements.add(new Achievement(name, (String) rule.get("description"), rewardColor));
+            indexByName.put(name, i);
+            modes[i] = parseMode(rule);
+            thresholds[i] = rule.get("threshold") == null ? 1
+                    : ((Number) rule.get("threshold")).doubleValue();
+            minimums[i] = rule.get("minimum") == null ? 0
+                    : ((Number) rule.get("minimum")).longValue();
+        }
+
+        if (this.persistent) {
+            loadAchievements();
+            // Unlock colors for achievements that were already unlocked
+            unlockAchievementRewards();
+        }
+
+        // Only rules still locked listen to the events.
+        for (int i = 0; i < size; i++) {
+            if (modes[i] == MODE_NONE || achievements.get(i).isUnlocked())
+                continue;
+            Map<String, Object> rule = rules.get(i);
+            listen(AchievementEvent.fromKey((String) rule.get("event")), i * 2);
+            if (modes[i] == MODE_RATIO_AT_MOST)
+                listen(AchievementEvent.fromKey((String) rule.get("over")), i * 2 + 1);
+        }
     }
 
-    public void setCurrentScreen(GameScreen screen) {
-        this.currentScreen = screen;
+    /**
+     * Reads the achievement definitions the first time they are needed.
+     *
+     * @return Definition of each achievement, empty if they could not be read.
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized List<Map<String, Object>> getDefinitions() {
+        if (definitions != null)
+            return definitions;
+        try (InputStream inputStream = AssetManager.getInstance().openStream(RULES_PATH)) {
+            if (inputStream == null)
+                throw new IOException("Cannot find resource file: " + RULES_PATH);
+            String jsonContent;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                jsonContent = reader.lines().collect(Collectors.joining("\n"));
+            }
+            Map<String, Object> root = (Map<String, Object>) JsonLoader.parseTree(jsonContent);
+            List<Map<String, Object>> rules = (List<Map<String, Object>>) root.get("achievements");
+            for (Map<String, Object> rule : rules) {
+                parseMode(rule);
+            }
+            definitions = Collections.unmodifiableList(rules);
+        } catch (Exception e) {
+            LOGGER.warning("Failed to load achievements: " + e.getMessage());
+            definitions = Collections.emptyList();
+        }
+        return definitions;
     }
 
-    /** Singleton access */
-    public static AchievementManager getInstance() {
-        if (instance == null) {
-            instance = new AchievementManager();
+    /**
+     * Reads the mode of a rule, checking it has the events it needs.
+     *
+     * @param rule Definition of the achievement.
+     * @return Mode of the rule.
+     */
+    private static byte parseMode(final Map<String, Object> rule) {
+        if (rule.get("event") == null)
+            return MODE_NONE;
+        if (AchievementEvent.fromKey((String) rule.get("event")) == null)
+            throw new IllegalArgumentException("Unknown event: " + rule.get("event"));
+        String mode = rule.get("mode") == null ? "count" : (String) rule.get("mode");
+        switch (mode) {
+            case "count":
+                return MODE_COUNT;
+            case "max":
+                return MODE_MAX;
+            case "equals":
+                return MODE_EQUALS;
+            case "ratioAtMost":
+                if (AchievementEvent.fromKey((String) rule.get("over")) == null)
+                    throw new IllegalArgumentException("Unknown event: " + rule.get("over"));
+                return MODE_RATIO_AT_MOST;
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
         }
-        return instance;
+    }
+
+    /**
+     * Makes a rule listen to an event.
+     *
+     * @param event Event to listen to.
+     * @param entry Rule index * 2, plus 1 for its second counter.
+     */
+    private void listen(final AchievementEvent event, final int entry) {
+        int e = event.ordinal();
+        if (listenerCounts[e] == listeners[e].length)
+            listeners[e] = Arrays.copyOf(listeners[e], listeners[e].length * 2);
+        listeners[e][listenerCounts[e]++] = entry;
+    }
+
+    public void setCurrentScreen(GameScreen screen) {
+        this.currentScreen = screen;
     }
 
     public List<Achievement> getAchievements() {
@@ -65,33 +215,88 @@ public class AchievementManager {
     private String recentlyUnlocked = null;
 
     public void unlockAchievement(String name) {
-        for (Achievement achievement : achievements) {
-            if (achievement.getName().equals(name)) {
-                // Always set recentlyUnlocked, even if already unlocked
-                recentlyUnlocked = name;
+        Integer index = indexByName.get(name);
+        if (index == null)
+            return;
+        Achievement achievement = achievements.get(index);
 
-                // Only unlock and save if not already unlocked
-                if (!achievement.isUnlocked()) {
-                    achievement.unlock();
-                    
-                    // Unlock the reward color if the achievement has one
-                    if (achievement.hasReward()) {
-                        ShipColorManager colorManager = ShipColorManager.getInstance();
-                        colorManager.unlockColor(achievement.getRewardColor());
-                    }
-                    
-                    saveAchievements();
-                }
+        // Always set recentlyUnlocked, even if already unlocked
+        recentlyUnlocked = name;
 
-                // Show the popup directly via GameScreen
-                if (currentScreen != null) {
-                    currentScreen.showAchievement(name);
-                }
+        // Only unlock and save if not already unlocked
+        if (!achievement.isUnlocked()) {
+            achievement.unlock();
+
+            // Unlock the reward color if the achievement has one
+            if (achievement.hasReward() && this.persistent) {
+                ShipColorManager colorManager = ShipColorManager.getInstance();
+                colorManager.unlockColor(achievement.getRewardColor());
+            }
+
+            if (this.persistent)
+                saveAchievements();
+        }
+
+        // Show the popup directly via GameScreen
+        if (currentScreen != null) {
+            currentScreen.showAchievement(name);
+        }
+    }
 
-                break;
+    /**
+     * Passes a game event to the rules listening to it, unlocking the
+     * achievements whose rules are met.
+     *
+     * @param event Event that happened.
+     * @param value Amount or value of the event.
+     */
+    public void onEvent(final AchievementEvent event, final long value) {
+        int e = event.ordinal();
+        int[] entries = listeners[e];
+        int i = 0;
+        while (i < listenerCounts[e]) {
+            int rule = entries[i] >> 1;
+            if (!achievements.get(rule).isUnlocked() && isMet(rule, (entries[i] & 1) != 0, value))
+                unlockAchievement(achievements.get(rule).getName());
+            if (achievements.get(rule).isUnlocked()) {
+                // Unlocked rules stop listening.
+                entries[i] = entries[--listenerCounts[e]];
+            } else {
+                i++;
             }
         }
     }
+
+    /**
+     * Updates the counters of a rule with an event.
+     *
+     * @param rule   Index of the rule.
+     * @param second True if the event is the second counter of a ratio rule.
+     * @param value  Amount or value of the event.
+     * @return True if the rule is met.
+     */
+    private boolean isMet(final int rule, final boolean second, final long value) {
+        switch (modes[rule]) {
+            case MODE_COUNT:
+                counters[rule] += value;
+                return counters[rule] >= thresholds[rule];
+            case MODE_MAX:
+                counters[rule] = Math.max(counters[rule], value);
+                return counters[rule] >= thresholds[rule];
+            case MODE_EQUALS:
+                return value == thresholds[rule];
+            case MODE_RATIO_AT_MOST:
+                if (second) {
+                    totals[rule] += value;
+                    return false;
+                }
+                counters[rule] += value;
+                return totals[rule] >= minimums[rule] && totals[rule] > 0
+                        && counters[rule] <= thresholds[rule] * totals[rule];
+            default:
+                return false;
+        }
+    }
     
     /**
      * Unlocks reward colors for achievements that were already unlocked (when loading from file).
@@ -120,33 +325,57 @@ public class AchievementManager {
 
     /** Called when an enemy is defeated */
     public void onEnemyDefeated() {
-        if (!firstKillUnlocked) {
-            unlockAchievement("First Blood");
-            firstKillUnlocked = true;
-        }
+        onEvent(AchievementEvent.ENEMY_DEFEATED, 1);
+    }
 
-        shotsHit++;
+    /** Called when a boss is defeated */
+    public void onBossDefeated() {
+        onEvent(AchievementEvent.BOSS_DEFEATED, 1);
+    }
 
-        if (!sniperUnlocked && shotsFired > 5) {
-            double accuracy = (shotsHit / (double) shotsFired) * 100.0;
-            if (accuracy <= 80.0) {
-                unlockAchievement("Bad Sniper");
-                sniperUnlocked = true;
-            }
-        }
+    /** Called when a level is cleared */
+    public void onLevelCleared(int level) {
+        onEvent(AchievementEvent.LEVEL_CLEARED, level);
+    }
+
+    /** Called when the coins of the player are known */
+    public void onCoins(int coins) {
+        onEvent(AchievementEvent.COINS, coins);
     }
 
     /** Called periodically to track elapsed time */
     public void onTimeElapsedSeconds(int elapsedSeconds) {
-        if (!survivorUnlocked && elapsedSeconds >= 60) {
-            unlockAchievement("Bear Grylls");
-            survivorUnlocked = true;
-        }
+        // Called every frame, so only new values reach the rules.
+        if (elapsedSeconds == lastSeconds)
+            return;
+        lastSeconds = elapsedSeconds;
+        onEvent(AchievementEvent.SECONDS_SURVIVED, elapsedSeconds);
     }
 
     /** Called whenever a shot is fired */
     public void onShotFired() {
-        shotsFired++;
+        onEvent(AchievementEvent.SHOT_FIRED, 1);
+    }
+
+    /** Counts the shots, enemies and bosses of a tick of the game */
+    @Override
+    public void onEvents(GameEventBus events) {
+        for (int i = 0; i < events.size(); i++) {
+            switch (events.getType(i)) {
+                case SHOT_FIRED:
+                    onShotFired();
+                    break;
+                case ENEMY_DESTROYED:
+                    onEnemyDefeated();
+                    break;
+                case BOSS_PHASE:
+                    if (events.getValue(i) == GameEventBus.BOSS_DEFEATED)
+                        onBossDefeated();
+                    break;
+                default:
+                    break;
+            }
+        }
     }
 
     /** Load achievements from file */
@@ -0,0 +1,68 @@
+package engine;
+
+/**
+ * Time shared by the animations of a game session, read from the system
+ * clock once per tick instead of by every entity.
+ *
+ * Sprites derive their frame from the time of the tick and the time their
+ * animation started, their phase, so a formation of any size animates
+ * without a cooldown per ship. Effects that last a while, such as
+ * explosions, keep the time they end at and compare it to the clock.
+ */
+public final class AnimationClock {
+
+	/** Time of the current tick, in milliseconds. */
+	private long now;
+
+	/**
+	 * Constructor, starting at the current time.
+	 */
+	public AnimationClock() {
+		this.now = System.currentTimeMillis();
+	}
+
+	/**
+	 * Moves the clock to the current time, once at the start of each tick.
+	 */
+	public void advance() {
+		this.now = System.currentTimeMillis();
+	}
+
+	/**
+	 * Gets the time of the current tick.
+	 *
+	 * @return Time of the tick, in milliseconds.
+	 */
+	public long now() {
+		return this.now;
+	}
+
+	/**
+	 * Gets the frame an animation is on.
+	 *
+	 * @param phase
+	 *            Time the animation started, in milliseconds.
+	 * @param period
+	 *            Time each frame is shown, in milliseconds.
+	 * @param frames
+	 *            Number of frames, looping.
+	 * @return Frame from 0 included to frames excluded.
+	 */
+	public int frame(final long phase, final int period, final int frames) {
+		long elapsed = this.now - phase;
+		if (elapsed <= 0)
+			return 0;
+		return (int) ((elapsed / period) % frames);
+	}
+
+	/**
+	 * Checks if something that ends at a given time is over.
+	 *
+	 * @param endTime
+	 *            Time it ends, in milliseconds.
+	 * @return True once the tick is past that time.
+	 */
+	public boolean isPast(final long endTime) {
+		return this.now > endTime;
+	}
+}
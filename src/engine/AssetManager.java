@@ -0,0 +1,244 @@
+package engine;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import audio.SoundManager;
+
+/**
+ * Loads every resource listed in the asset manifest on background threads,
+ * so the game thread never waits on disk or audio lines once a level starts.
+ * Loaded resources are kept in memory and served from there, except sounds,
+ * which are only kept as the clips opened from them.
+ */
+public final class AssetManager {
+
+	/** Resource listing the assets to load. */
+	private static final String MANIFEST = "assets.manifest";
+	/** Type of the resources opened as sound clips once loaded. */
+	private static final String TYPE_SOUND = "sound";
+	/** Times the drawing paths are run to warm them up. */
+	private static final int WARM_UP_ITERATIONS = 200;
+
+	/** Singleton instance of the class. */
+	private static AssetManager instance;
+	/** Application logger. */
+	private static Logger logger;
+
+	/** Resource contents by path, completed when loaded, null for sounds. */
+	private final Map<String, CompletableFuture<byte[]>> assets;
+	/** Number of assets in the manifest. */
+	private volatile int total;
+	/** Number of assets done loading, successfully or not. */
+	private final AtomicInteger loaded;
+	/** Completed when every asset is loaded and the warm-up is done. */
+	private volatile CompletableFuture<Void> finished;
+
+	/**
+	 * private constructor.
+	 */
+	private AssetManager() {
+		logger = Core.getLogger();
+		this.assets = new LinkedHashMap<String, CompletableFuture<byte[]>>();
+		this.loaded = new AtomicInteger();
+	}
+
+	/**
+	 * Returns shared instance of AssetManager.
+	 *
+	 * @return Shared instance of AssetManager.
+	 */
+	public static AssetManager getInstance() {
+		if (instance == null)
+			instance = new AssetManager();
+		return instance;
+	}
+
+	/**
+	 * Starts loading every asset of the manifest in the background. Does
+	 * nothing if loading has already started.
+	 */
+	public synchronized void startLoading() {
+		if (this.finished != null)
+			return;
+
+		List<String[]> entries = readManifest();
+		this.total = entries.size();
+		int threads = Math.max(1, Math.min(4,
+				Runtime.getRuntime().availableProcessors() - 1));
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				runnable -> {
+					Thread thread = new Thread(runnable, "asset-loader");
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		final long start = System.currentTimeMillis();
+		List<CompletableFuture<byte[]>> loads = new ArrayList<CompletableFuture<byte[]>>();
+		for (String[] entry : entries) {
+			final String type = entry[0];
+			final String path = entry[1];
+			CompletableFuture<byte[]> load = CompletableFuture.supplyAsync(() -> {
+				try {
+					byte[] data = readResource(path);
+					if (!TYPE_SOUND.equals(type))
+						return data;
+					// The clip holds its own copy of the sound.
+					SoundManager.preload(path, data);
+					return null;
+				} catch (IOException e) {
+					logger.warning("Failed to load asset " + path + ": " + e.getMessage());
+					return null;
+				} finally {
+					this.loaded.incrementAndGet();
+				}
+			}, executor);
+			synchronized (this.assets) {
+				this.assets.put(path, load);
+			}
+			loads.add(load);
+		}
+
+		this.finished = CompletableFuture
+				.allOf(loads.toArray(new CompletableFuture<?>[0]))
+				.thenRunAsync(() -> {
+					warmUp();
+					logger.info("Loaded " + this.total + " assets in "
+							+ (System.currentTimeMillis() - start) + "ms.");
+				}, executor)
+				.whenComplete((result, error) -> executor.shutdown());
+	}
+
+	/**
+	 * Reads the list of assets.
+	 *
+	 * @return Type and path of every asset.
+	 */
+	private List<String[]> readManifest() {
+		List<String[]> entries = new ArrayList<String[]>();
+		InputStream inputStream = AssetManager.class.getClassLoader()
+				.getResourceAsStream(MANIFEST);
+		if (inputStream == null) {
+			logger.warning("Asset manifest not found, assets load on demand.");
+			return entries;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				inputStream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] entry = line.split("\\s+", 2);
+				if (entry.length == 2)
+					entries.add(entry);
+				else
+					logger.warning("Malformed asset manifest line: " + line);
+			}
+		} catch (IOException e) {
+			logger.warning("Failed to read asset manifest: " + e.getMessage());
+		}
+		return entries;
+	}
+
+	/**
+	 * Reads a whole resource into memory.
+	 *
+	 * @param path
+	 *            Path of the resource.
+	 * @return Contents of the resource.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	private static byte[] readResource(final String path) throws IOException {
+		try (InputStream inputStream = AssetManager.class.getClassLoader()
+				.getResourceAsStream(path)) {
+			if (inputStream == null)
+				throw new IOException("Resource not found: " + path);
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int read;
+			while ((read = inputStream.read(chunk)) != -1)
+				buffer.write(chunk, 0, read);
+			return buffer.toByteArray();
+		}
+	}
+
+	/**
+	 * Runs the drawing paths used every frame a number of times on a scratch
+	 * image, so they are compiled before the first level starts.
+	 */
+	private void warmUp() {
+		BufferedImage scratch = new BufferedImage(Core.WIDTH, Core.HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		int[] pixels = new int[Core.WIDTH * Core.HEIGHT];
+		ParticleSystem particles = new ParticleSystem(512, 512,
+				new GameRandom(0));
+		for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+			Graphics graphics = scratch.getGraphics();
+			DrawManager.warmUpSprites(graphics);
+			graphics.dispose();
+			particles.emitExplosion(Core.WIDTH / 2f, Core.HEIGHT / 2f, 0xFFFFFF, 24);
+			particles.emitDebris(Core.WIDTH / 2f, Core.HEIGHT / 2f, 0xFFFFFF, 8);
+			particles.update();
+			particles.draw(pixels, Core.WIDTH, Core.HEIGHT, i, Core.WIDTH / 2,
+					Core.HEIGHT / 2);
+		}
+	}
+
+	/**
+	 * Opens a resource, from memory if it has been loaded. Waits for the
+	 * resource if it is still being loaded.
+	 *
+	 * @param path
+	 *            Path of the resource.
+	 * @return Stream of the contents, null if the resource does not exist.
+	 */
+	public InputStream openStream(final String path) {
+		CompletableFuture<byte[]> load;
+		synchronized (this.assets) {
+			load = this.assets.get(path);
+		}
+		byte[] data = load != null ? load.join() : null;
+		if (data != null)
+			return new ByteArrayInputStream(data);
+		return AssetManager.class.getClassLoader().getResourceAsStream(path);
+	}
+
+	/**
+	 * Returns the fraction of the assets loaded so far.
+	 *
+	 * @return Progress, from 0 to 1.
+	 */
+	public float getProgress() {
+		if (this.total == 0)
+			return this.finished != null ? 1f : 0f;
+		return Math.min(1f, (float) this.loaded.get() / this.total);
+	}
+
+	/**
+	 * Checks if every asset is loaded and warmed up.
+	 *
+	 * @return True when loading is finished.
+	 */
+	public boolean isFinished() {
+		return this.finished != null && this.finished.isDone();
+	}
+}
@@ -0,0 +1,407 @@
+package engine;
+
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import entity.BossBullet;
+import entity.Bullet;
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import entity.Entity;
+import entity.Ship;
+
+/**
+ * Plays the first player of a game session by pressing the keys of its
+ * input manager, so the game handles it like a person at the keyboard. Used
+ * to keep sessions alive for soak and load tests.
+ *
+ * Every tick it places the falling bullets in a grid of columns, looks up
+ * the ones near the ship and predicts where they cross its row within a
+ * horizon of ticks. That gives a cost for every position the ship can
+ * reach, along with the distance to the shooter it aims for, and the ship
+ * heads for the cheapest one. It fires while under a shooter or the boss.
+ *
+ * A decision should take less than BUDGET_NANOS. When one takes longer,
+ * the horizon shrinks, and it grows back while decisions are fast.
+ */
+public final class Autopilot {
+
+	/** Time a decision should take at most, in nanoseconds. */
+	public static final long BUDGET_NANOS = 100000;
+
+	/** Width of a column of the bullet grid. */
+	private static final int BUCKET_WIDTH = 32;
+	/** Width of a cell of the cost field. */
+	private static final int CELL = 4;
+	/** Most bullets considered. */
+	private static final int MAX_PROJECTILES = 512;
+	/** Longest horizon, in ticks. */
+	private static final int MAX_HORIZON = 60;
+	/** Shortest horizon, in ticks. */
+	private static final int MIN_HORIZON = 10;
+	/** Extra distance kept from the bullets on each side. */
+	private static final int MARGIN = 3;
+	/** Ticks of error allowed when timing a bullet crossing the ship path. */
+	private static final int SLACK = 2;
+	/** Distance to a shooter considered aligned. */
+	private static final int ALIGNED = 4;
+	/** Distance above the ship where enemies are avoided. */
+	private static final int RAM_DISTANCE = 12;
+	/** Distance above the ship at which the boss is avoided. */
+	private static final int BOSS_DISTANCE = 80;
+	/** Distance kept to the sides of the screen when avoiding the boss. */
+	private static final int SIDE = 8;
+	/** Cost of a bullet crossing the ship. */
+	private static final double HIT_COST = 100;
+	/** Cost of running into an enemy. */
+	private static final double RAM_COST = 100;
+	/** Cost of the whole screen width between the ship and its target. */
+	private static final double AIM_COST = 1;
+
+	/** Keys pressed by the autopilot. */
+	private final InputManager inputManager;
+	/** Screen width. */
+	private final int screenWidth;
+	/** Cells of the cost field. */
+	private final int cells;
+
+	/** First bullet of each grid column, and the end of the last one. */
+	private final int[] bucketStart;
+	/** Next free place of each grid column while sorting. */
+	private final int[] bucketNext;
+	/** Grid column of each bullet found, in the order found. */
+	private final int[] foundBucket = new int[MAX_PROJECTILES];
+	/** Bullets found, in the order found: x, y, width, height, dx, dy. */
+	private final int[] found = new int[MAX_PROJECTILES * 6];
+	/** Bullets sorted by grid column: x, y, width, height, dx, dy. */
+	private final int[] sorted = new int[MAX_PROJECTILES * 6];
+
+	/** Danger of each cell. */
+	private final double[] danger;
+	/** Earliest tick a bullet crosses each cell, MAX_VALUE if none. */
+	private final int[] arrival;
+	/** Cells where the ship would run into an enemy. */
+	private final boolean[] rammed;
+
+	/** Current horizon, in ticks. */
+	private int horizon = MAX_HORIZON;
+	/** Decisions taken. */
+	private long decisions;
+	/** Time spent deciding, in nanoseconds. */
+	private long totalNanos;
+	/** Longest decision, in nanoseconds. */
+	private long maxNanos;
+	/** Decisions over the budget. */
+	private long overBudget;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inputManager
+	 *            Input manager of the session to play.
+	 * @param screenWidth
+	 *            Screen width.
+	 */
+	public Autopilot(final InputManager inputManager, final int screenWidth) {
+		this.inputManager = inputManager;
+		this.screenWidth = screenWidth;
+		this.cells = screenWidth / CELL + 1;
+		this.bucketStart = new int[screenWidth / BUCKET_WIDTH + 2];
+		this.bucketNext = new int[this.bucketStart.length];
+		this.danger = new double[this.cells];
+		this.arrival = new int[this.cells];
+		this.rammed = new boolean[this.cells];
+	}
+
+	/**
+	 * Chooses the keys of the first player for this tick.
+	 *
+	 * @param ship
+	 *            Ship of the first player.
+	 * @param bullets
+	 *            Bullets on screen.
+	 * @param bossBullets
+	 *            Boss bullets on screen.
+	 * @param formation
+	 *            Enemy formation, null if none.
+	 * @param boss
+	 *            Boss on screen, null if none.
+	 */
+	public void drive(final Ship ship, final Collection<Bullet> bullets,
+			final Collection<BossBullet> bossBullets,
+			final EnemyShipFormation formation, final Entity boss) {
+		long start = System.nanoTime();
+		boolean left = false;
+		boolean right = false;
+		boolean fire = false;
+		if (!ship.isDestroyed()) {
+			List<EnemyShip> shooters = formation == null ? null
+					: formation.getShooters();
+			int move = chooseMove(ship, bullets, bossBullets, shooters, boss);
+			left = move < 0;
+			right = move > 0;
+			fire = isAligned(ship, shooters, boss);
+		}
+		this.inputManager.setKeyDown(KeyEvent.VK_A, left);
+		this.inputManager.setKeyDown(KeyEvent.VK_D, right);
+		this.inputManager.setKeyDown(KeyEvent.VK_W, false);
+		this.inputManager.setKeyDown(KeyEvent.VK_S, false);
+		this.inputManager.setKeyDown(KeyEvent.VK_SPACE, fire);
+
+		long elapsed = System.nanoTime() - start;
+		this.decisions++;
+		this.totalNanos += elapsed;
+		this.maxNanos = Math.max(this.maxNanos, elapsed);
+		if (elapsed > BUDGET_NANOS) {
+			this.overBudget++;
+			this.horizon = Math.max(MIN_HORIZON, this.horizon * 3 / 4);
+		} else if (elapsed < BUDGET_NANOS / 4 && this.horizon < MAX_HORIZON) {
+			this.horizon++;
+		}
+	}
+
+	/**
+	 * Releases the keys pressed by the autopilot.
+	 */
+	public void release() {
+		this.inputManager.setKeyDown(KeyEvent.VK_A, false);
+		this.inputManager.setKeyDown(KeyEvent.VK_D, false);
+		this.inputManager.setKeyDown(KeyEvent.VK_SPACE, false);
+	}
+
+	/**
+	 * Builds the cost field and picks the direction towards its cheapest
+	 * cell.
+	 *
+	 * @return -1 for left, 1 for right, 0 to stay.
+	 */
+	private int chooseMove(final Ship ship, final Collection<Bullet> bullets,
+			final Collection<BossBullet> bossBullets,
+			final List<EnemyShip> shooters, final Entity boss) {
+		int shipX = ship.getPositionX();
+		int shipY = ship.getPositionY();
+		int shipWidth = ship.getWidth();
+		int speed = Math.max(1, ship.getSpeed());
+		int reach = speed * this.horizon;
+
+		fillGrid(bullets, bossBullets);
+		Arrays.fill(this.danger, 0);
+		Arrays.fill(this.arrival, Integer.MAX_VALUE);
+		Arrays.fill(this.rammed, false);
+
+		// Bullets can drift sideways while they fall, so look a bit wider.
+		int from = Math.max(0, (shipX - reach - MAX_HORIZON * 2) / BUCKET_WIDTH);
+		int to = Math.min(this.bucketStart.length - 2,
+				(shipX + shipWidth + reach + MAX_HORIZON * 2) / BUCKET_WIDTH);
+		for (int i = this.bucketStart[from]; i < this.bucketStart[to + 1]; i++)
+			markBullet(i * 6, shipY, ship.getHeight(), shipWidth);
+
+		if (shooters != null)
+			for (EnemyShip enemy : shooters)
+				markRam(enemy, shipY, shipWidth);
+		if (boss != null)
+			markRam(boss, shipY, shipWidth);
+
+		int target = target(ship, shooters, boss);
+		int current = Math.min(this.cells - 1, shipX / CELL);
+		// Keeps one cell away from the left border, as the game does.
+		int lowest = Math.max(1, (shipX - reach) / CELL);
+		int highest = Math.min(this.cells - 1, (shipX + reach) / CELL);
+		highest = Math.min(highest, (this.screenWidth - shipWidth - 1) / CELL);
+
+		int best = current;
+		double bestCost = cellCost(current, 0, shipX, speed, target);
+		for (int direction = -1; direction <= 1; direction += 2) {
+			double path = 0;
+			for (int c = current + direction; c >= lowest && c <= highest; c += direction) {
+				int ticks = Math.abs(c * CELL - shipX) / speed;
+				if (this.rammed[c] || this.arrival[c] >= ticks - SLACK
+						&& this.arrival[c] <= ticks + SLACK)
+					path += HIT_COST;
+				double cost = path + cellCost(c, ticks, shipX, speed, target);
+				if (cost < bestCost) {
+					bestCost = cost;
+					best = c;
+				}
+			}
+		}
+		if (best * CELL < shipX - speed / 2)
+			return -1;
+		if (best * CELL > shipX + speed / 2)
+			return 1;
+		return 0;
+	}
+
+	/**
+	 * Cost of ending up in a cell.
+	 */
+	private double cellCost(final int cell, final int ticks, final int shipX,
+			final int speed, final int target) {
+		double cost = AIM_COST * Math.abs(cell * CELL - target) / this.screenWidth;
+		if (this.rammed[cell])
+			cost += RAM_COST;
+		if (this.arrival[cell] != Integer.MAX_VALUE)
+			cost += HIT_COST * this.danger[cell];
+		return cost;
+	}
+
+	/**
+	 * Sorts the falling bullets in the columns of the grid.
+	 */
+	private void fillGrid(final Collection<Bullet> bullets,
+			final Collection<BossBullet> bossBullets) {
+		int buckets = this.bucketStart.length - 1;
+		Arrays.fill(this.bucketStart, 0);
+		int count = 0;
+		for (Bullet bullet : bullets) {
+			if (bullet.getSpeed() <= 0 || count == MAX_PROJECTILES)
+				continue;
+			count = addFound(count, bullet, 0, bullet.getSpeed(), buckets);
+		}
+		for (BossBullet bullet : bossBullets) {
+			if (bullet.getDy() <= 0 || count == MAX_PROJECTILES)
+				continue;
+			count = addFound(count, bullet, bullet.getDx(), bullet.getDy(), buckets);
+		}
+
+		// Counting sort, so each column is a contiguous range.
+		int total = 0;
+		for (int b = 0; b <= buckets; b++) {
+			int size = this.bucketStart[b];
+			this.bucketStart[b] = total;
+			total += size;
+		}
+		System.arraycopy(this.bucketStart, 0, this.bucketNext, 0, buckets);
+		for (int i = 0; i < count; i++) {
+			int to = this.bucketNext[this.foundBucket[i]]++;
+			System.arraycopy(this.found, i * 6, this.sorted, to * 6, 6);
+		}
+	}
+
+	/**
+	 * Adds a bullet found to its grid column.
+	 */
+	private int addFound(final int count, final Entity bullet, final int dx,
+			final int dy, final int buckets) {
+		int x = bullet.getPositionX();
+		int bucket = Math.max(0, Math.min(buckets - 1, x / BUCKET_WIDTH));
+		int at = count * 6;
+		this.found[at] = x;
+		this.found[at + 1] = bullet.getPositionY();
+		this.found[at + 2] = bullet.getWidth();
+		this.found[at + 3] = bullet.getHeight();
+		this.found[at + 4] = dx;
+		this.found[at + 5] = dy;
+		this.foundBucket[count] = bucket;
+		this.bucketStart[bucket]++;
+		return count + 1;
+	}
+
+	/**
+	 * Marks the cells where a bullet would hit the ship when it crosses its
+	 * row.
+	 */
+	private void markBullet(final int at, final int shipY, final int shipHeight,
+			final int shipWidth) {
+		int y = this.sorted[at + 1];
+		int height = this.sorted[at + 3];
+		int dy = this.sorted[at + 5];
+		int gap = shipY - (y + height);
+		if (gap < -shipHeight - height)
+			return;
+		int ticks = Math.max(0, gap / dy);
+		if (ticks > this.horizon)
+			return;
+		int x = this.sorted[at] + this.sorted[at + 4] * ticks;
+		int first = Math.max(0, (x - shipWidth - MARGIN) / CELL);
+		int last = Math.min(this.cells - 1, (x + this.sorted[at + 2] + MARGIN) / CELL);
+		double weight = 1.0 / (ticks + 1);
+		for (int c = first; c <= last; c++) {
+			this.danger[c] += weight;
+			this.arrival[c] = Math.min(this.arrival[c], ticks);
+		}
+	}
+
+	/**
+	 * Marks the cells where the ship would run into an enemy low enough.
+	 */
+	private void markRam(final Entity enemy, final int shipY,
+			final int shipWidth) {
+		if (enemy.getPositionY() + enemy.getHeight() <= shipY - RAM_DISTANCE)
+			return;
+		int first = Math.max(0, (enemy.getPositionX() - shipWidth - MARGIN) / CELL);
+		int last = Math.min(this.cells - 1,
+				(enemy.getPositionX() + enemy.getWidth() + MARGIN) / CELL);
+		for (int c = first; c <= last; c++)
+			this.rammed[c] = true;
+	}
+
+	/**
+	 * Chooses where the ship should be: under the boss, or on the far side
+	 * while it comes down, else under the nearest shooter.
+	 */
+	private int target(final Ship ship, final List<EnemyShip> shooters,
+			final Entity boss) {
+		int shipX = ship.getPositionX();
+		if (boss != null) {
+			int center = boss.getPositionX() + boss.getWidth() / 2;
+			if (boss.getPositionY() + boss.getHeight() > ship.getPositionY() - BOSS_DISTANCE)
+				return center < this.screenWidth / 2
+						? this.screenWidth - ship.getWidth() - SIDE : SIDE;
+			return center - ship.getWidth() / 2;
+		}
+		int best = shipX;
+		int bestDistance = Integer.MAX_VALUE;
+		if (shooters != null)
+			for (EnemyShip enemy : shooters) {
+				if (enemy.isDestroyed())
+					continue;
+				int x = enemy.getPositionX() + enemy.getWidth() / 2 - ship.getWidth() / 2;
+				if (Math.abs(x - shipX) < bestDistance) {
+					best = x;
+					bestDistance = Math.abs(x - shipX);
+				}
+			}
+		return best;
+	}
+
+	/**
+	 * Checks if a shot would hit a shooter or the boss.
+	 */
+	private static boolean isAligned(final Ship ship,
+			final List<EnemyShip> shooters, final Entity boss) {
+		int center = ship.getPositionX() + ship.getWidth() / 2;
+		if (boss != null && center >= boss.getPositionX() - ALIGNED
+				&& center <= boss.getPositionX() + boss.getWidth() + ALIGNED)
+			return true;
+		if (shooters != null)
+			for (EnemyShip enemy : shooters)
+				if (!enemy.isDestroyed() && center >= enemy.getPositionX() - ALIGNED
+						&& center <= enemy.getPositionX() + enemy.getWidth() + ALIGNED)
+					return true;
+		return false;
+	}
+
+	/**
+	 * Describes the time taken by the decisions.
+	 *
+	 * @return Statistics of the autopilot.
+	 */
+	public String getStats() {
+		return String.format("%d decisions, avg %.1fus max %.1fus, %d over "
+				+ "budget, horizon %d ticks", this.decisions,
+				this.decisions == 0 ? 0.0 : this.totalNanos / 1000.0 / this.decisions,
+				this.maxNanos / 1000.0, this.overBudget, this.horizon);
+	}
+
+	/**
+	 * Getter for the number of decisions over the budget.
+	 *
+	 * @return Decisions that took longer than BUDGET_NANOS.
+	 */
+	public long getOverBudgetCount() {
+		return this.overBudget;
+	}
+}
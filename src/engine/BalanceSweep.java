@@ -0,0 +1,394 @@
+package engine;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import engine.level.JsonLoader;
+import engine.level.Level;
+
+/**
+ * Plays a level of a map file thousands of times with a ScriptedPilot for
+ * every combination of a grid of settings, and prints for each one a CSV
+ * line with the clear rate, the time to clear, the lives lost and the coins
+ * earned, with their 95% confidence intervals. The rules of the game
+ * LevelSimulation models are printed once to the error output. The runs are
+ * split among all cores, and each line is printed as soon as its
+ * combination is done.
+ *
+ * Run with the map file, the level number and any of baseSpeed,
+ * shootingFrecuency, formationWidth, formationHeight, dropChance and
+ * reaction as name=values arguments, values being a list or a
+ * from:to:step range, e.g. res/maps/maps.json 2 baseSpeed=30:90:15
+ * shootingFrecuency=1500,2500 runs=2000. The runs, seed, seconds and out
+ * arguments set the runs per combination, the first seed, the seconds
+ * after which a run is given up and a file to write to.
+ */
+public final class BalanceSweep {
+
+	/** Settings of the grid, in column order. */
+	private static final String[] SETTINGS = { "baseSpeed",
+			"shootingFrecuency", "formationWidth", "formationHeight",
+			"dropChance", "reaction" };
+	/** Runs played by a task without splitting it. */
+	private static final int RUNS_PER_TASK = 16;
+	/** Normal quantile of a 95% confidence interval. */
+	private static final double Z = 1.96;
+
+	/**
+	 * Private constructor.
+	 */
+	private BalanceSweep() {
+
+	}
+
+	/**
+	 * Mean and variance of a value, updated one sample at a time.
+	 */
+	private static final class Moments {
+
+		/** Number of samples. */
+		private long count;
+		/** Mean of the samples. */
+		private double mean;
+		/** Sum of the squared differences to the mean. */
+		private double squares;
+
+		/**
+		 * Adds a sample.
+		 */
+		void add(final double value) {
+			this.count++;
+			double delta = value - this.mean;
+			this.mean += delta / this.count;
+			this.squares += delta * (value - this.mean);
+		}
+
+		/**
+		 * Adds the samples of another one.
+		 */
+		void merge(final Moments other) {
+			if (other.count == 0)
+				return;
+			long total = this.count + other.count;
+			double delta = other.mean - this.mean;
+			this.squares += other.squares + delta * delta * this.count
+					* other.count / total;
+			this.mean += delta * other.count / total;
+			this.count = total;
+		}
+
+		/**
+		 * Half width of the 95% confidence interval of the mean.
+		 */
+		double margin() {
+			if (this.count < 2)
+				return 0;
+			return Z * Math.sqrt(this.squares / (this.count - 1) / this.count);
+		}
+	}
+
+	/**
+	 * Results of some runs of one combination.
+	 */
+	private static final class Summary {
+
+		/** Runs played. */
+		private int runs;
+		/** Runs cleared. */
+		private int clears;
+		/** Seconds taken by the cleared runs. */
+		private final Moments clearSeconds = new Moments();
+		/** Lives lost per run. */
+		private final Moments livesLost = new Moments();
+		/** Coins earned per run. */
+		private final Moments coins = new Moments();
+
+		/**
+		 * Adds a finished run.
+		 */
+		void add(final LevelSimulation run) {
+			this.runs++;
+			if (run.isCleared()) {
+				this.clears++;
+				this.clearSeconds.add(run.getSeconds());
+			}
+			this.livesLost.add(run.getLivesLost());
+			this.coins.add(run.getCoins());
+		}
+
+		/**
+		 * Adds the runs of another summary.
+		 */
+		void merge(final Summary other) {
+			this.runs += other.runs;
+			this.clears += other.clears;
+			this.clearSeconds.merge(other.clearSeconds);
+			this.livesLost.merge(other.livesLost);
+			this.coins.merge(other.coins);
+		}
+
+		/**
+		 * Writes the CSV columns of the results.
+		 */
+		String toCsv() {
+			// Wilson score interval, which stays within 0 and 1.
+			double n = this.runs;
+			double rate = this.clears / n;
+			double center = (rate + Z * Z / (2 * n)) / (1 + Z * Z / n);
+			double margin = Z * Math.sqrt(rate * (1 - rate) / n + Z * Z / (4 * n * n))
+					/ (1 + Z * Z / n);
+			return String.format(Locale.ROOT,
+					"%d,%.4f,%.4f,%.4f,%.2f,%.2f,%.3f,%.3f,%.2f,%.2f",
+					this.runs, rate, center - margin, center + margin,
+					this.clearSeconds.mean, this.clearSeconds.margin(),
+					this.livesLost.mean, this.livesLost.margin(),
+					this.coins.mean, this.coins.margin());
+		}
+	}
+
+	/**
+	 * Plays a range of runs of one combination, splitting it in halves
+	 * until it is small enough.
+	 */
+	private static final class Runs extends RecursiveTask<Summary> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Level of the combination. */
+		private final Level level;
+		/** Reaction ticks of the pilot. */
+		private final int reaction;
+		/** Seed of the combination. */
+		private final long seed;
+		/** Seconds after which a run is given up. */
+		private final int seconds;
+		/** First run. */
+		private final int from;
+		/** Run after the last one. */
+		private final int to;
+
+		/**
+		 * Constructor.
+		 */
+		Runs(final Level level, final int reaction, final long seed,
+				final int seconds, final int from, final int to) {
+			this.level = level;
+			this.reaction = reaction;
+			this.seed = seed;
+			this.seconds = seconds;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Summary compute() {
+			if (this.to - this.from > RUNS_PER_TASK) {
+				int middle = (this.from + this.to) >>> 1;
+				Runs left = new Runs(this.level, this.reaction, this.seed,
+						this.seconds, this.from, middle);
+				left.fork();
+				Summary summary = new Runs(this.level, this.reaction,
+						this.seed, this.seconds, middle, this.to).compute();
+				summary.merge(left.join());
+				return summary;
+			}
+			Summary summary = new Summary();
+			ScriptedPilot pilot = new ScriptedPilot(this.reaction);
+			for (int run = this.from; run < this.to; run++)
+				summary.add(new LevelSimulation(this.level, this.seed + run,
+						this.seconds).run(pilot));
+			return summary;
+		}
+	}
+
+	/**
+	 * Runs the sweep.
+	 *
+	 * @param args
+	 *            Map file, level number and name=values arguments; the
+	 *            settings of the level, 1000 runs, seed 1, 300 seconds, a
+	 *            reaction of 30 ticks and the standard output by default.
+	 * @throws IOException
+	 *             In case the map file cannot be read.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BalanceSweep <maps.json> <level> [name=values...]");
+			return;
+		}
+		String json = new String(Files.readAllBytes(Paths.get(args[0])),
+				StandardCharsets.UTF_8);
+		int levelNumber = Integer.parseInt(args[1]);
+		Map<String, Object> base = null;
+		for (Map<String, Object> map : JsonLoader.parseLevelMaps(json))
+			if (((Number) map.get("level")).intValue() == levelNumber)
+				base = map;
+		if (base == null) {
+			System.err.println("No level " + levelNumber + " in " + args[0]);
+			return;
+		}
+
+		Level original = new Level(base);
+		Map<String, double[]> grid = new LinkedHashMap<String, double[]>();
+		grid.put("baseSpeed", new double[] { original.getBaseSpeed() });
+		grid.put("shootingFrecuency", new double[] { original.getShootingFrecuency() });
+		grid.put("formationWidth", new double[] { original.getFormationWidth() });
+		grid.put("formationHeight", new double[] { original.getFormationHeight() });
+		grid.put("dropChance", new double[] { -1 });
+		grid.put("reaction", new double[] { 30 });
+		int runs = 1000;
+		long seed = 1;
+		int seconds = 300;
+		String out = null;
+		for (int i = 2; i < args.length; i++) {
+			int equals = args[i].indexOf('=');
+			if (equals < 0)
+				throw new IllegalArgumentException("Expected name=values: " + args[i]);
+			String name = args[i].substring(0, equals);
+			String value = args[i].substring(equals + 1);
+			if (name.equals("runs"))
+				runs = Integer.parseInt(value);
+			else if (name.equals("seed"))
+				seed = Long.parseLong(value);
+			else if (name.equals("seconds"))
+				seconds = Integer.parseInt(value);
+			else if (name.equals("out"))
+				out = value;
+			else if (grid.containsKey(name))
+				grid.put(name, parseValues(value));
+			else
+				throw new IllegalArgumentException("Unknown setting: " + name);
+		}
+
+		int combinations = 1;
+		for (double[] values : grid.values())
+			combinations *= values.length;
+
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		List<ForkJoinTask<Summary>> tasks = new ArrayList<ForkJoinTask<Summary>>();
+		List<double[]> points = new ArrayList<double[]>();
+		for (int c = 0; c < combinations; c++) {
+			double[] point = new double[SETTINGS.length];
+			int rest = c;
+			for (int s = SETTINGS.length - 1; s >= 0; s--) {
+				double[] values = grid.get(SETTINGS[s]);
+				point[s] = values[rest % values.length];
+				rest /= values.length;
+			}
+			points.add(point);
+			tasks.add(pool.submit(new Runs(variant(base, point), (int) point[5],
+					seed + (long) c * runs, seconds, 0, runs)));
+		}
+
+		long start = System.nanoTime();
+		PrintWriter writer = out == null ? new PrintWriter(System.out)
+				: new PrintWriter(new OutputStreamWriter(new FileOutputStream(out),
+						StandardCharsets.UTF_8));
+		try {
+			writer.println(String.join(",", SETTINGS) + ",runs,clearRate,"
+					+ "clearRateLow,clearRateHigh,clearSeconds,clearSecondsMargin,"
+					+ "livesLost,livesLostMargin,coins,coinsMargin");
+			for (int c = 0; c < combinations; c++) {
+				double[] point = points.get(c);
+				StringBuilder line = new StringBuilder();
+				for (int s = 0; s < SETTINGS.length; s++) {
+					if (s == 4)
+						line.append(point[s] < 0 ? "" : String.format(Locale.ROOT,
+								"%.4f", point[s]));
+					else
+						line.append((long) point[s]);
+					line.append(',');
+				}
+				writer.println(line.append(tasks.get(c).join().toCsv()));
+				writer.flush();
+			}
+		} finally {
+			if (out == null)
+				writer.flush();
+			else
+				writer.close();
+			pool.shutdown();
+		}
+		System.err.printf(Locale.ROOT, "%d runs in %.1f s on %d threads.%n",
+				(long) combinations * runs, (System.nanoTime() - start) / 1e9,
+				pool.getParallelism());
+		System.err.println("Rules modelled: " + LevelSimulation.RULES);
+	}
+
+	/**
+	 * Parses a list of values, or a from:to:step range.
+	 */
+	private static double[] parseValues(final String text) {
+		String[] range = text.split(":");
+		if (range.length == 3) {
+			double from = Double.parseDouble(range[0]);
+			double to = Double.parseDouble(range[1]);
+			double step = Double.parseDouble(range[2]);
+			if (step <= 0)
+				throw new IllegalArgumentException("Step must be positive: " + text);
+			int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+			double[] values = new double[count];
+			for (int i = 0; i < count; i++)
+				values[i] = from + i * step;
+			return values;
+		}
+		String[] parts = text.split(",");
+		double[] values = new double[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			values[i] = Double.parseDouble(parts[i]);
+		return values;
+	}
+
+	/**
+	 * Builds the level of a combination from a copy of the level map.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Level variant(final Map<String, Object> base,
+			final double[] point) {
+		Map<String, Object> map = (Map<String, Object>) copy(base);
+		Map<String, Object> formation = (Map<String, Object>) map.get("enemyFormation");
+		if (formation == null) {
+			formation = new LinkedHashMap<String, Object>();
+			map.put("enemyFormation", formation);
+		}
+		for (int s = 0; s < 4; s++)
+			formation.put(SETTINGS[s], (int) point[s]);
+		if (point[4] >= 0 && map.get("itemDrops") != null)
+			for (Map<String, Object> drop : (List<Map<String, Object>>) map.get("itemDrops"))
+				drop.put("dropChance", point[4]);
+		return new Level(map);
+	}
+
+	/**
+	 * Copies the maps and lists of parsed JSON, keeping the values.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object copy(final Object value) {
+		if (value instanceof Map) {
+			Map<String, Object> copy = new LinkedHashMap<String, Object>();
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet())
+				copy.put(entry.getKey(), copy(entry.getValue()));
+			return copy;
+		}
+		if (value instanceof List) {
+			List<Object> copy = new ArrayList<Object>();
+			for (Object element : (List<Object>) value)
+				copy.add(copy(element));
+			return copy;
+		}
+		return value;
+	}
+}
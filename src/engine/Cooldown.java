@@ -16,6 +16,8 @@ public class Cooldown {
 	private int duration;
 	/** Beginning time. */
 	private long time;
+	/** Draws the durations, null without variance. */
+	private final GameRandom random;
 
 	/**
 	 * Constructor, established the time until the action can be performed
@@ -29,6 +31,7 @@ public class Cooldown {
 		this.variance = 0;
 		this.duration = milliseconds;
 		this.time = 0;
+		this.random = null;
 	}
 
 	/**
@@ -39,11 +42,15 @@ public class Cooldown {
 	 *            Time until cooldown period is finished.
 	 * @param variance
 	 *            Variance in the cooldown period.
+	 * @param random
+	 *            Stream drawing the durations.
 	 */
-	protected Cooldown(final int milliseconds, final int variance) {
+	protected Cooldown(final int milliseconds, final int variance,
+			final GameRandom random) {
 		this.milliseconds = milliseconds;
 		this.variance = variance;
 		this.time = 0;
+		this.random = random;
 	}
 
 	/**
@@ -64,9 +71,26 @@ public class Cooldown {
 	public final void reset() {
 		this.time = System.currentTimeMillis();
 		if (this.variance != 0)
-			this.duration = (this.milliseconds - this.variance)
-					+ (int) (Math.random()
-							* (this.milliseconds + this.variance));
+			this.duration = drawDuration(this.milliseconds, this.variance,
+					this.random);
+	}
+
+	/**
+	 * Draws the duration of a cooldown with variance, e.g. to schedule a
+	 * timer with it.
+	 *
+	 * @param milliseconds
+	 *            Duration of the cooldown.
+	 * @param variance
+	 *            Variation in the cooldown duration.
+	 * @param random
+	 *            Stream drawing the duration.
+	 * @return Duration drawn, in milliseconds.
+	 */
+	public static int drawDuration(final int milliseconds, final int variance,
+			final GameRandom random) {
+		return (milliseconds - variance)
+				+ (int) (random.nextDouble() * (milliseconds + variance));
 	}
 
 	/**
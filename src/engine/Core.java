@@ -2,6 +2,11 @@ package engine;
 
 import audio.SoundManager;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.ConsoleHandler;
@@ -10,7 +15,6 @@ import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import entity.ShopItem;
 import screen.GameScreen;
 import screen.HighScoreScreen;
 import screen.ScoreScreen;
@@ -18,7 +22,19 @@ import screen.Screen;
 import screen.ShopScreen;
 import screen.TitleScreen;
 import screen.AchievementScreen;
+import engine.level.LevelGenerator;
 import engine.level.LevelManager;
+import engine.level.LevelPrefetcher;
+import engine.jfr.AssetLoadEvent;
+import engine.jfr.CollisionPassEvent;
+import engine.jfr.FrameEvent;
+import engine.jfr.LevelLoadEvent;
+import engine.jfr.PersistenceWriteEvent;
+import engine.jfr.PoolMissEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import net.SpectatorServer;
 import screen.ShopScreen;
 import screen.*;
 
@@ -39,9 +55,9 @@ public final class Core {
     public static void setTwoPlayerGame(final boolean enabled) { isTwoPlayerGame = enabled; }
 
 	/** Width of current screen. */
-	private static final int WIDTH = 448;
+	static final int WIDTH = 448;
 	/** Height of current screen. */
-	private static final int HEIGHT = 520;
+	static final int HEIGHT = 520;
 	/** Max fps of current screen. */
 	private static final int FPS = 60;
 
@@ -56,6 +72,18 @@ public final class Core {
 	private static Screen currentScreen;
 	/** Level manager for loading level settings. */
 	private static LevelManager levelManager;
+	/** Achievements of the player, shared by every game in the window. */
+	private static AchievementManager achievementManager;
+	/** Session played in the window, replaced when a new game starts. */
+	private static GameContext gameContext;
+	/** Saves the telemetry of the sessions, null if disabled. */
+	private static TelemetryWriter telemetryWriter;
+	/**
+	 * Random streams of the application, seeding the sessions, from the
+	 * system property invaders.seed if set.
+	 */
+	private static final RandomService RANDOM = new RandomService(
+			Long.getLong("invaders.seed", System.nanoTime()));
 	/** Application logger. */
 	private static final Logger LOGGER = Logger.getLogger(Core.class
 			.getSimpleName());
@@ -90,43 +118,54 @@ public final class Core {
 			e.printStackTrace();
 		}
 
+		LOGGER.info("Random seed " + RANDOM.getSeed() + ".");
+		startFlightRecording();
+
+		// Assets load in the background while the window opens and the
+		// title screen is shown.
+		AssetManager.getInstance().startLoading();
+
 		frame = new Frame(WIDTH, HEIGHT);
 		DrawManager.getInstance().setFrame(frame);
+		startSpectatorServer();
+		startTelemetry();
 		int width = frame.getWidth();
 		int height = frame.getHeight();
 
 		levelManager = new LevelManager();
         
         // Initialize AchievementManager to load achievements and unlock their reward colors
-        AchievementManager.getInstance();
+        achievementManager = new AchievementManager(true);
+        gameContext = newGameContext();
         
         // Reset ship colors only at program startup (not between games)
         // This ensures colors are reset when restarting the program, but preserved between games
         ShipColorManager.reset();
         // Restore achievement reward colors after reset (achievements are persistent)
-        AchievementManager.getInstance().restoreAchievementRewards();
+        achievementManager.restoreAchievementRewards();
 
         // Initialize coins at program startup (will be preserved between games)
         int persistentCoins = 100;
         GameState gameState = null; // Will be initialized when starting first game
 
-        int returnCode = 1;
+        // Watch another game instead of playing, if asked to.
+        InetSocketAddress spectated = parseAddress(System.getProperty("invaders.spectate"));
+        int returnCode = spectated != null ? 10 : 1;
 		do {
 			switch (returnCode) {
                 case 1:
                     // Main menu.
                     currentScreen = new TitleScreen(width, height, FPS);
-					SoundManager.stopAll();
-					SoundManager.playLoop("sfx/menu_music.wav");
+					SoundManager.playMusic("sfx/menu_music.wav");
                     LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
                             + " title screen at " + FPS + " fps.");
                     returnCode = frame.setScreen(currentScreen);
                     LOGGER.info("Closing title screen.");
                     break;
                 case 2:
-                    // Reset shop items for new game session
+                    // New game session, with no shop items
                     // Colors and coins are NOT reset - they persist between games in the same session
-                    ShopItem.resetAllItems();
+                    gameContext = newGameContext();
                     // Use persistent coins (not reset to 100)
                     // If gameState exists from previous game, use its coins, otherwise use persistentCoins
                     if (gameState != null) {
@@ -134,30 +173,29 @@ public final class Core {
                     }
                     gameState = new GameState(1, 0, MAX_LIVES, isTwoPlayerGame ? MAX_LIVES : 0, 0, 0, persistentCoins);
                     LOGGER.info("Starting new game - reset items. Colors and coins preserved. Coins: " + persistentCoins);
+                    LevelPrefetcher endlessLevels = startEndlessLevels();
                     do {
                         // One extra life every few levels
                         boolean bonusLife = gameState.getLevel()
                                 % EXTRA_LIFE_FRECUENCY == 0
                                 && gameState.getLivesRemaining() < MAX_LIVES;
 
-						// Music for each level
-						SoundManager.stopAll();
-						SoundManager.playLoop("sfx/level" + gameState.getLevel() + ".wav");
-
                         engine.level.Level currentLevel = levelManager.getLevel(gameState.getLevel());
 
-                        // TODO: Handle case where level is not found after JSON loading is implemented.
+                        // Past the last map, endless games go on with generated levels
+                        if (currentLevel == null && endlessLevels != null) {
+                            currentLevel = endlessLevels.take(gameState.getLevel());
+                        }
                         if (currentLevel == null) {
-                          // For now, we can just break or default to level 1 if we run out of levels.
-                          // This will be important when the number of levels is defined by maps.json
                           break;
                         }
 
-						SoundManager.stopAll();
-						SoundManager.playLoop("sfx/level" + gameState.getLevel() + ".wav");
+						// Music for each level, streamed and crossfaded
+						SoundManager.playMusic("sfx/level" + gameState.getLevel() + ".wav");
 
                         // Start a new level
                         currentScreen = new GameScreen(
+                                gameContext,
                                 gameState,
                                 currentLevel,
                                 bonusLife,
@@ -183,7 +221,7 @@ public final class Core {
                                     + gameState.getCoin() + " coins.");
 
                             //Launch the ShopScreen (between levels)
-                            currentScreen = new ShopScreen(gameState, width, height, FPS, true);
+                            currentScreen = new ShopScreen(gameContext, gameState, width, height, FPS, true);
 
                             frame.setScreen(currentScreen);
                             LOGGER.info("Closing shop screen.");
@@ -208,7 +246,12 @@ public final class Core {
                         // Loop while player still has lives and levels remaining
                     } while (true); // Changed to infinite loop, break on game over
 
+                    if (endlessLevels != null) {
+                        endlessLevels.close();
+                    }
+
 					SoundManager.stopAll();
+					LOGGER.info("Sound effects: " + SoundManager.getSoundBank());
 					SoundManager.play("sfx/gameover.wav");
 
                     // Save coins from finished game before showing score screen
@@ -246,7 +289,7 @@ public final class Core {
                         gameState = shopGameState;
                     }
                     
-                    currentScreen = new ShopScreen(shopGameState, width, height, FPS, false);
+                    currentScreen = new ShopScreen(gameContext, shopGameState, width, height, FPS, false);
                     LOGGER.info("Starting shop screen (menu) with " + shopGameState.getCoin() + " coins.");
                     returnCode = frame.setScreen(currentScreen);
                     LOGGER.info("Closing shop screen (menu).");
@@ -256,7 +299,7 @@ public final class Core {
                     break;
                 case 6:
                     // Achievements
-                    currentScreen = new AchievementScreen(width, height, FPS);
+                    currentScreen = new AchievementScreen(width, height, FPS, achievementManager);
                     LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
                             + " achievement screen at " + FPS + " fps.");
                     returnCode = frame.setScreen(currentScreen);
@@ -277,22 +320,149 @@ public final class Core {
 					break;
                 case 9:
                     // PvP duel mode
-                    currentScreen = new PvPScreen(width, height, FPS);
+                    currentScreen = new PvPScreen(gameContext, width, height, FPS);
                     LOGGER.info("Starting PvP screen at " + FPS + " fps.");
                     returnCode = frame.setScreen(currentScreen);
                     LOGGER.info("Closing PvP screen.");
                     break;
+                case 10:
+                    // Spectator mode
+                    currentScreen = new SpectatorScreen(width, height, FPS, spectated);
+                    LOGGER.info("Spectating " + spectated + " at " + FPS + " fps.");
+                    returnCode = frame.setScreen(currentScreen);
+                    LOGGER.info("Closing spectator screen.");
+                    break;
                 default:
                     break;
             }
 
         } while (returnCode != 0);
 
+        if (telemetryWriter != null)
+            telemetryWriter.close();
         fileHandler.flush();
         fileHandler.close();
         System.exit(0);
 	}
 
+	/**
+	 * Creates a session played in the window, with its input and drawing
+	 * and the persistent achievements. The first player is left to the
+	 * autopilot if the system property invaders.autopilot is true.
+	 * 
+	 * @return A new session.
+	 */
+	private static GameContext newGameContext() {
+		GameContext context = new GameContext(InputManager.getInstance(),
+				DrawManager.getInstance(), achievementManager,
+				RANDOM.nextSessionSeed());
+		if (Boolean.getBoolean("invaders.autopilot"))
+			context.setAutopilot(new Autopilot(context.getInputManager(), WIDTH));
+		context.getTelemetry().setWriter(telemetryWriter);
+		return context;
+	}
+
+	/**
+	 * Starts generating the levels past the last map in the background, if
+	 * the system property invaders.endless is true. They are seeded from the
+	 * session, so the same seed gives the same levels.
+	 * 
+	 * @return Generated levels, null if the game ends after the last map.
+	 */
+	private static LevelPrefetcher startEndlessLevels() {
+		if (!Boolean.getBoolean("invaders.endless"))
+			return null;
+		engine.level.Level last = levelManager.getLevel(levelManager.getNumberOfLevels());
+		if (last == null)
+			return null;
+		long seed = gameContext.getRandom(RandomService.Stream.LEVELS).nextLong();
+		return new LevelPrefetcher(new LevelGenerator(seed, last));
+	}
+
+	/**
+	 * Starts saving the telemetry of the sessions to the telemetry directory
+	 * next to the application if the system property invaders.telemetry is
+	 * true.
+	 */
+	private static void startTelemetry() {
+		if (!Boolean.getBoolean("invaders.telemetry"))
+			return;
+		try {
+			File directory = getFileManager().getUserFile("telemetry");
+			telemetryWriter = new TelemetryWriter(directory);
+			LOGGER.info("Saving telemetry to " + directory + ".");
+		} catch (IOException e) {
+			LOGGER.warning("Telemetry disabled: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Records the session with the flight recorder, engine events included,
+	 * into the file named by the system property invaders.jfr, if set. The
+	 * recording uses the default settings and is written when the game
+	 * exits, to be opened with JDK Mission Control.
+	 */
+	private static void startFlightRecording() {
+		String file = System.getProperty("invaders.jfr");
+		if (file == null)
+			return;
+		try {
+			Recording recording = new Recording(Configuration.getConfiguration("default"));
+			List<Class<? extends Event>> types = List.of(FrameEvent.class,
+					CollisionPassEvent.class, LevelLoadEvent.class, AssetLoadEvent.class,
+					PersistenceWriteEvent.class, PoolMissEvent.class);
+			for (Class<? extends Event> type : types)
+				recording.enable(type);
+			recording.setName("invaders");
+			recording.setDestination(Paths.get(file));
+			recording.setDumpOnExit(true);
+			recording.start();
+			LOGGER.info("Flight recording to " + file + ".");
+		} catch (IOException | ParseException | IllegalStateException e) {
+			LOGGER.warning("Flight recording disabled: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts streaming the game to spectators if the system property
+	 * invaders.spectate.port is set.
+	 */
+	private static void startSpectatorServer() {
+		Integer port = Integer.getInteger("invaders.spectate.port");
+		if (port == null)
+			return;
+		try {
+			SpectatorServer server = new SpectatorServer(port);
+			server.start();
+			DrawManager.setFrameRecorder(server);
+			LOGGER.info("Spectators can watch on port " + server.getPort() + ".");
+		} catch (IOException e) {
+			LOGGER.warning("Couldn't start the spectator server: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Parses a host:port address.
+	 * 
+	 * @param address
+	 *            Address to parse, may be null.
+	 * @return The address, null if missing or malformed.
+	 */
+	private static InetSocketAddress parseAddress(final String address) {
+		if (address == null || address.isEmpty())
+			return null;
+		int separator = address.lastIndexOf(':');
+		try {
+			if (separator < 0)
+				return new InetSocketAddress(address, SpectatorServer.DEFAULT_PORT);
+			return new InetSocketAddress(address.substring(0, separator),
+					Integer.parseInt(address.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			LOGGER.warning("Invalid address: " + address);
+			return null;
+		}
+	}
+
 	/**
 	 * Constructor, not called.
 	 */
@@ -309,6 +479,18 @@ public final class Core {
 		return LOGGER;
 	}
 
+	/**
+	 * Controls access to the random streams of the application, used
+	 * outside of the game sessions, e.g. by the menus.
+	 *
+	 * @param stream
+	 *            Subsystem drawing the numbers.
+	 * @return Its stream, only to be used on the thread of the window.
+	 */
+	public static GameRandom getRandom(final RandomService.Stream stream) {
+		return RANDOM.get(stream);
+	}
+
 	/**
 	 * Controls access to the drawing manager.
 	 * 
@@ -354,10 +536,12 @@ public final class Core {
 	 *            Duration of the cooldown.
 	 * @param variance
 	 *            Variation in the cooldown duration.
+	 * @param random
+	 *            Stream drawing the durations.
 	 * @return A new cooldown with variance.
 	 */
 	public static Cooldown getVariableCooldown(final int milliseconds,
-			final int variance) {
-		return new Cooldown(milliseconds, variance);
+			final int variance, final GameRandom random) {
+		return new Cooldown(milliseconds, variance, random);
 	}
 }
\ No newline at end of file
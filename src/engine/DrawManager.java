@@ -1,12 +1,17 @@
 package engine;
 
 import java.awt.Color;
+import java.awt.Container;
 import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,7 +25,6 @@ import screen.CreditScreen;
 import screen.Screen;
 import engine.Score;
 import screen.TitleScreen;
-import screen.TitleScreen.Star;
 import screen.TitleScreen.ShootingStar;
 
 /**
@@ -34,32 +38,106 @@ public final class DrawManager {
     /** Singleton instance of the class. */
     private static DrawManager instance;
     /** Current frame. */
-    private static Frame frame;
+    private Frame frame;
     /** FileManager instance. */
     private static FileManager fileManager;
     /** Application logger. */
     private static final Logger logger = Core.getLogger();
     /** Graphics context. */
-    private static Graphics graphics;
+    private Graphics graphics;
     /** Buffer Graphics. */
-    private static Graphics backBufferGraphics;
+    private Graphics backBufferGraphics;
     /** Buffer image. */
-    private static BufferedImage backBuffer;
+    private BufferedImage backBuffer;
+    /**
+     * Translucent layer the particles are drawn into. Its pixels are written
+     * directly, which Java2D cannot accelerate, so it is kept apart from the
+     * back buffer.
+     */
+    private BufferedImage particleLayer;
+    /** Pixels of the particle layer. */
+    private int[] particlePixels;
     /** Normal sized font. */
     private static Font fontRegular;
     /** Normal sized font properties. */
-    private static FontMetrics fontRegularMetrics;
+    private FontMetrics fontRegularMetrics;
     /** Big sized font. */
     private static Font fontBig;
     /** Big sized font properties. */
-    private static FontMetrics fontBigMetrics;
+    private FontMetrics fontBigMetrics;
     /** Small sized font for credits. */
     private static Font fontSmall;
     /** Small sized font properties. */
-    private static FontMetrics fontSmallMetrics;
+    private FontMetrics fontSmallMetrics;
+    /** Pre-rasterized glyphs of the normal sized font. */
+    private static GlyphAtlas regularAtlas;
+    /** Pre-rasterized glyphs of the big sized font. */
+    private static GlyphAtlas bigAtlas;
+    /** Pre-rasterized glyphs of the small sized font. */
+    private static GlyphAtlas smallAtlas;
 
     /** Sprite types mapped to their images. */
     private static Map<SpriteType, boolean[][]> spriteMap;
+    /** Checks if the sprites are loaded and can be read from other threads. */
+    private static volatile boolean spritesLoaded;
+
+    /** Number of distinct colors of the pulsing menu selection. */
+    private static final int PULSE_STEPS = 15;
+    /** Background of the in-game pop-ups. */
+    private static final Color POPUP_BACKGROUND = new Color(0, 0, 0, 200);
+    /** Text color of the health gain pop-up. */
+    private static final Color HEALTH_GAIN_COLOR = new Color(50, 255, 50);
+    /** Text color of the health loss pop-up. */
+    private static final Color HEALTH_LOSS_COLOR = new Color(255, 50, 50);
+
+    /** Screen the HUD layers were last rendered for. */
+    private Screen hudScreen;
+    /** Cached HUD widgets, rendered again only when their value changes. */
+    private final HUDLayer scoreLayer = new HUDLayer();
+    private final HUDLayer scoreP2Layer = new HUDLayer();
+    private final HUDLayer timeLayer = new HUDLayer();
+    private final HUDLayer coinLayer = new HUDLayer();
+    private final HUDLayer livesLayer = new HUDLayer();
+    private final HUDLayer livesP2Layer = new HUDLayer();
+    private final HUDLayer itemsLayer = new HUDLayer();
+    private final HUDLayer levelLayer = new HUDLayer();
+
+    /** HUD value recorded for spectators: score of P1. */
+    public static final int HUD_SCORE = 0;
+    /** HUD value recorded for spectators: score of P2. */
+    public static final int HUD_SCORE_P2 = 1;
+    /** HUD value recorded for spectators: lives of P1. */
+    public static final int HUD_LIVES = 2;
+    /** HUD value recorded for spectators: lives of P2. */
+    public static final int HUD_LIVES_P2 = 3;
+    /** HUD value recorded for spectators: coins. */
+    public static final int HUD_COIN = 4;
+    /** HUD value recorded for spectators: elapsed seconds. */
+    public static final int HUD_TIME = 5;
+    /** Number of HUD values recorded for spectators. */
+    public static final int HUD_FIELDS = 6;
+
+    /**
+     * Receives what is drawn on broadcast screens, one frame at a time.
+     */
+    public interface FrameRecorder {
+        /** Starts recording a frame. */
+        void beginFrame();
+
+        /** Records a sprite drawn at a position, with an RGB color. */
+        void recordSprite(SpriteType type, int positionX, int positionY, int rgb);
+
+        /** Records a HUD value, one of the HUD_ constants. */
+        void recordHUD(int field, int value);
+
+        /** Ends the frame, which can then be sent. */
+        void endFrame();
+    }
+
+    /** Receives the frames of broadcast screens, null if not recording. */
+    private static FrameRecorder recorder;
+    /** Checks if the frame being drawn is recorded. */
+    private boolean recording;
 
     /** Sprite types. */
     public static enum SpriteType {
@@ -110,11 +188,15 @@ public final class DrawManager {
             // Portal sprite temporarily commented out - will cause error if graphics file doesn't have it
             // spriteMap.put(SpriteType.Portal, new boolean[8][8]);
             fileManager.loadSprite(spriteMap);
+            spritesLoaded = true;
             logger.info("Finished loading the sprites.");
 
             fontRegular = fileManager.loadFont(14f);
             fontBig = fileManager.loadFont(24f);
             fontSmall = fileManager.loadFont(9f);
+            regularAtlas = new GlyphAtlas(fontRegular);
+            bigAtlas = new GlyphAtlas(fontBig);
+            smallAtlas = new GlyphAtlas(fontSmall);
             logger.info("Finished loading the fonts.");
 
         } catch (IOException e) {
@@ -144,9 +226,16 @@ public final class DrawManager {
      * First part of the drawing process.
      */
     public void initDrawing(final Screen screen) {
-        backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
-                BufferedImage.TYPE_INT_RGB);
-
+        // The back buffer stays at logical resolution, whatever the window size.
+        if (backBuffer == null || backBuffer.getWidth() != screen.getWidth()
+                || backBuffer.getHeight() != screen.getHeight())
+            backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+
+        if (graphics != null)
+            graphics.dispose();
+        if (backBufferGraphics != null)
+            backBufferGraphics.dispose();
         graphics = frame.getGraphics();
         backBufferGraphics = backBuffer.getGraphics();
 
@@ -156,124 +245,246 @@ public final class DrawManager {
         fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
         fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
         fontSmallMetrics = backBufferGraphics.getFontMetrics(fontSmall);
+
+        if (hudScreen != screen) {
+            hudScreen = screen;
+            invalidateHUD();
+        }
+
+        recording = recorder != null && screen.isBroadcast();
+        if (recording)
+            recorder.beginFrame();
+    }
+
+    /**
+     * Sets what receives the frames of broadcast screens.
+     *
+     * @param frameRecorder
+     *            Recorder of the frames, null to stop recording.
+     */
+    public static void setFrameRecorder(final FrameRecorder frameRecorder) {
+        recorder = frameRecorder;
+    }
+
+    /**
+     * Records a HUD value of a broadcast screen.
+     */
+    private void recordHUD(final int field, final int value) {
+        if (recording)
+            recorder.recordHUD(field, value);
     }
 
     /**
      * Draws the completed drawing on screen.
      */
     public void completeDrawing(final Screen screen) {
-        graphics.drawImage(backBuffer, frame.getInsets().left,
-                frame.getInsets().top, frame);
+        if (recording) {
+            recorder.endFrame();
+            recording = false;
+        }
+        Insets insets = frame.getInsets();
+        Container content = frame.getContentPane();
+        int areaWidth = content.getWidth() > 0 ? content.getWidth() : screen.getWidth();
+        int areaHeight = content.getHeight() > 0 ? content.getHeight() : screen.getHeight();
+        IntegerScaler.blit((Graphics2D) graphics, backBuffer, screen.getWidth(),
+                screen.getHeight(), insets.left, insets.top, areaWidth, areaHeight);
     }
 
     /**
      * Draws an entity.
      */
     public void drawEntity(final Entity entity, final int positionX, final int positionY) {
-        boolean[][] image = spriteMap.get(entity.getSpriteType());
+        drawSprite(entity.getSpriteType(), positionX, positionY, entity.getColor());
+    }
+
+    /**
+     * Draws a sprite with the given color.
+     */
+    public void drawSprite(final SpriteType type, final int positionX, final int positionY,
+            final Color color) {
+        boolean[][] image = spriteMap.get(type);
         if (image == null) {
-            logger.warning("Sprite not found for type: " + entity.getSpriteType());
+            logger.warning("Sprite not found for type: " + type);
             return;
         }
-        backBufferGraphics.setColor(entity.getColor());
+        if (recording)
+            recorder.recordSprite(type, positionX, positionY, color.getRGB());
+        backBufferGraphics.setColor(color);
+        drawSprite(backBufferGraphics, image, positionX, positionY);
+    }
+
+    /**
+     * Draws every sprite once on the given graphics, to warm up the sprite
+     * drawing path before it is needed in game. Does nothing until the
+     * sprites are loaded.
+     */
+    static void warmUpSprites(final Graphics graphics) {
+        if (!spritesLoaded)
+            return;
+        graphics.setColor(Color.WHITE);
+        for (boolean[][] image : spriteMap.values())
+            drawSprite(graphics, image, 0, 0);
+    }
+
+    /**
+     * Draws a sprite image with the current color of the given graphics.
+     */
+    private static void drawSprite(final Graphics graphics, final boolean[][] image,
+            final int positionX, final int positionY) {
         for (int i = 0; i < image.length; i++)
             for (int j = 0; j < image[i].length; j++)
                 if (image[i][j])
-                    backBufferGraphics.drawRect(positionX + i * 2, positionY + j * 2, 1, 1);
-
-
+                    graphics.drawRect(positionX + i * 2, positionY + j * 2, 1, 1);
     }
 
     /**
      * Draws current score on screen.
      */
     public void drawScore(final Screen screen, final int score) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        String scoreString = String.format("P1:%04d", score);
-        backBufferGraphics.drawString(scoreString, screen.getWidth() - 120, 25);
+        recordHUD(HUD_SCORE, score);
+        if (scoreLayer.isStale(score))
+            renderTextLayer(scoreLayer, score, String.format("P1:%04d", score),
+                    screen.getWidth() - 120, 25, Color.WHITE);
+        scoreLayer.blit(backBufferGraphics);
     }
     //  === [ADD] Draw P2's score on the line below P1's score ===
     public void drawScoreP2(final Screen screen, final int scoreP2) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        String text = String.format("P2:%04d", scoreP2);
+        recordHUD(HUD_SCORE_P2, scoreP2);
         //  Y coordinate is 15px lower than P1 score to avoid overlapping
-        backBufferGraphics.drawString(text, screen.getWidth() - 120, 40);
+        if (scoreP2Layer.isStale(scoreP2))
+            renderTextLayer(scoreP2Layer, scoreP2, String.format("P2:%04d", scoreP2),
+                    screen.getWidth() - 120, 40, Color.WHITE);
+        scoreP2Layer.blit(backBufferGraphics);
     }
 
     /**
      * Draws the elapsed time on screen.
      */
     public void drawTime(final Screen screen, final long milliseconds) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.GRAY);
         long seconds = milliseconds / 1000;
-        long minutes = seconds / 60;
-        seconds %= 60;
-        String timeString = String.format("Time: %02d:%02d", minutes, seconds);
-        int x = 10;
-        int y = screen.getHeight() - 20;
-        backBufferGraphics.drawString(timeString, x, y);
+        recordHUD(HUD_TIME, (int) seconds);
+        if (timeLayer.isStale(seconds)) {
+            long minutes = seconds / 60;
+            String timeString = String.format("Time: %02d:%02d", minutes, seconds % 60);
+            renderTextLayer(timeLayer, seconds, timeString, 10,
+                    screen.getHeight() - 20, Color.GRAY);
+        }
+        timeLayer.blit(backBufferGraphics);
     }
 
     /**
      * Draws current coin on screen.
      */
     public void drawCoin(final Screen screen, final int coin) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        String coinString = String.format("%03d$", coin);
-        int x = screen.getWidth() / 2 - fontRegularMetrics.stringWidth(coinString) / 2;
-        int y = screen.getHeight() - 50;
-        backBufferGraphics.drawString(coinString, x, y);
+        recordHUD(HUD_COIN, coin);
+        if (coinLayer.isStale(coin)) {
+            String coinString = String.format("%03d$", coin);
+            int x = screen.getWidth() / 2 - regularAtlas.stringWidth(coinString) / 2;
+            renderTextLayer(coinLayer, coin, coinString, x,
+                    screen.getHeight() - 50, Color.WHITE);
+        }
+        coinLayer.blit(backBufferGraphics);
     }
 
     /**
      * Draws number of remaining lives on screen.
      */
     public void drawLives(final Screen screen, final int lives) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        // backBufferGraphics.drawString("P1:" + Integer.toString(lives), 10, 25);
-        backBufferGraphics.drawString("P1:", 15, 25);
-        Ship dummyShip = new Ship(0, 0,Color.green);
-        for (int i = 0; i < lives; i++)
-            drawEntity(dummyShip, 40 + 35 * i, 10);
+        recordHUD(HUD_LIVES, lives);
+        if (livesLayer.isStale(lives))
+            renderLivesLayer(livesLayer, lives, "P1:", 25, 10, Color.green);
+        livesLayer.blit(backBufferGraphics);
     }
 
     public void drawLivesP2(final Screen screen, final int lives) {
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        // backBufferGraphics.drawString("P2:" + Integer.toString(lives), 10, 40);
-        backBufferGraphics.drawString("P2:", 15, 40);
-
-        Ship dummyShip = new Ship(0, 0,Color.pink);
-        for (int i = 0; i < lives; i++) {
-            drawEntity(dummyShip, 40 + 35 * i, 30);
-        }
+        recordHUD(HUD_LIVES_P2, lives);
+        if (livesP2Layer.isStale(lives))
+            renderLivesLayer(livesP2Layer, lives, "P2:", 40, 30, Color.pink);
+        livesP2Layer.blit(backBufferGraphics);
     }
 
 
     /**
      * Draws the items HUD.
      */
-    public void drawItemsHUD(final Screen screen) {
-        ItemHUDManager itemHUD = ItemHUDManager.getInstance();
+    public void drawItemsHUD(final Screen screen, final ItemHUDManager itemHUD) {
         itemHUD.initialize(screen);
-        itemHUD.drawItems(screen, backBufferGraphics);
+        long key = itemHUD.getStateKey();
+        if (itemsLayer.isStale(key)) {
+            Graphics2D graphics = itemsLayer.begin(itemHUD.getAreaX(),
+                    itemHUD.getAreaY(), itemHUD.getAreaWidth(),
+                    itemHUD.getAreaHeight(), key);
+            graphics.setFont(fontRegular);
+            itemHUD.drawItems(screen, graphics);
+            graphics.dispose();
+        }
+        itemsLayer.blit(backBufferGraphics);
     }
 
     /**
      * Draws the current level on the bottom-left of the screen.
      */
     public void drawLevel(final Screen screen, final String levelName) {
+        if (levelName == null)
+            return;
         final int paddingX = 20;
         final int paddingY = 50;
-        backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.setColor(Color.WHITE);
-        int yPos = screen.getHeight() - paddingY;
-        backBufferGraphics.drawString(levelName, paddingX, yPos);
+        if (levelLayer.isStale(levelName.hashCode()))
+            renderTextLayer(levelLayer, levelName.hashCode(), levelName,
+                    paddingX, screen.getHeight() - paddingY, Color.WHITE);
+        levelLayer.blit(backBufferGraphics);
+    }
+
+    /**
+     * Renders a single line of regular text into a HUD layer.
+     */
+    private void renderTextLayer(final HUDLayer layer, final long key,
+            final String text, final int positionX, final int baseline,
+            final Color color) {
+        Graphics2D graphics = layer.begin(positionX,
+                baseline - fontRegularMetrics.getAscent(),
+                regularAtlas.stringWidth(text) + 1,
+                fontRegularMetrics.getHeight(), key);
+        graphics.setFont(fontRegular);
+        graphics.setColor(color);
+        drawText(graphics, text, positionX, baseline);
+        graphics.dispose();
+    }
+
+    /**
+     * Renders a player label followed by one ship per remaining life into a
+     * HUD layer.
+     */
+    private void renderLivesLayer(final HUDLayer layer, final int lives,
+            final String label, final int baseline, final int shipsY,
+            final Color shipColor) {
+        boolean[][] shipImage = spriteMap.get(SpriteType.Ship);
+        int top = Math.min(baseline - fontRegularMetrics.getAscent(), shipsY);
+        int bottom = Math.max(baseline + fontRegularMetrics.getDescent(),
+                shipsY + shipImage[0].length * 2);
+        int width = 40 + 35 * Math.max(lives, 0) + shipImage.length * 2;
+        Graphics2D graphics = layer.begin(0, top, width, bottom - top, lives);
+        graphics.setFont(fontRegular);
+        graphics.setColor(Color.WHITE);
+        drawText(graphics, label, 15, baseline);
+        graphics.setColor(shipColor);
+        for (int i = 0; i < lives; i++)
+            drawSprite(graphics, shipImage, 40 + 35 * i, shipsY);
+        graphics.dispose();
+    }
+
+    /**
+     * Forces every HUD widget to be rendered again on its next use.
+     */
+    private void invalidateHUD() {
+        scoreLayer.invalidate();
+        scoreP2Layer.invalidate();
+        timeLayer.invalidate();
+        coinLayer.invalidate();
+        livesLayer.invalidate();
+        livesP2Layer.invalidate();
+        itemsLayer.invalidate();
+        levelLayer.invalidate();
     }
 
     /**
@@ -284,7 +495,7 @@ public final class DrawManager {
         int popupHeight = 50;
         int x = screen.getWidth() / 2 - popupWidth / 2;
         int y = 80;
-        backBufferGraphics.setColor(new Color(0, 0, 0, 200));
+        backBufferGraphics.setColor(POPUP_BACKGROUND);
         backBufferGraphics.fillRoundRect(x, y, popupWidth, popupHeight, 15, 15);
         backBufferGraphics.setColor(Color.YELLOW);
         backBufferGraphics.drawRoundRect(x, y, popupWidth, popupHeight, 15, 15);
@@ -301,15 +512,9 @@ public final class DrawManager {
         int popupHeight = 40;
         int x = screen.getWidth() / 2 - popupWidth / 2;
         int y = 100;
-        backBufferGraphics.setColor(new Color(0, 0, 0, 200));
+        backBufferGraphics.setColor(POPUP_BACKGROUND);
         backBufferGraphics.fillRoundRect(x, y, popupWidth, popupHeight, 15, 15);
-        Color textColor;
-        if (text.startsWith("+")) {
-            textColor = new Color(50, 255, 50);
-        } else {
-            textColor = new Color(255, 50, 50);
-        }
-        backBufferGraphics.setColor(textColor);
+        backBufferGraphics.setColor(text.startsWith("+") ? HEALTH_GAIN_COLOR : HEALTH_LOSS_COLOR);
         drawCenteredBigString(screen, text, y + popupHeight / 2 + 5);
     }
 
@@ -355,6 +560,25 @@ public final class DrawManager {
         drawCenteredBigString(screen, titleString, screen.getHeight() / 3);
     }
 
+    /**
+     * Draws a progress bar for the assets loading in the background.
+     *
+     * @param screen
+     *            Screen to draw on.
+     * @param progress
+     *            Fraction of the assets loaded, from 0 to 1.
+     */
+    public void drawLoadingProgress(final Screen screen, final float progress) {
+        final int barWidth = screen.getWidth() / 3;
+        final int barHeight = 4;
+        final int x = screen.getWidth() / 2 - barWidth / 2;
+        final int y = screen.getHeight() - 20;
+        backBufferGraphics.setColor(Color.DARK_GRAY);
+        backBufferGraphics.fillRect(x, y, barWidth, barHeight);
+        backBufferGraphics.setColor(Color.GREEN);
+        backBufferGraphics.fillRect(x, y, (int) (barWidth * progress), barHeight);
+    }
+
     /**
      * Draws main menu.
      */
@@ -369,6 +593,8 @@ public final class DrawManager {
 
         // Pulsing color for selected item
         float pulse = (float) ((Math.sin(System.currentTimeMillis() / 200.0) + 1.0) / 2.0);
+        // Quantized so the menu text only needs a few tinted glyph atlases
+        pulse = Math.round(pulse * PULSE_STEPS) / (float) PULSE_STEPS;
         Color pulseColor = new Color(0, 0.5f + pulse * 0.5f, 0);
 
         if (option == 2) backBufferGraphics.setColor(pulseColor);
@@ -462,7 +688,7 @@ public final class DrawManager {
             else backBufferGraphics.setColor(Color.WHITE);
             positionX += fontRegularMetrics.getWidths()[name[i]] / 2;
             positionX = i == 0 ? positionX : positionX + (fontRegularMetrics.getWidths()[name[i - 1]] + fontRegularMetrics.getWidths()[' ']) / 2;
-            backBufferGraphics.drawString(Character.toString(name[i]), positionX, screen.getHeight() / 4 + fontRegularMetrics.getHeight() * 14);
+            drawText(backBufferGraphics, Character.toString(name[i]), positionX, screen.getHeight() / 4 + fontRegularMetrics.getHeight() * 14);
         }
     }
 
@@ -579,7 +805,7 @@ public final class DrawManager {
                 
                 // Draw selection arrow
                 backBufferGraphics.setColor(Color.GREEN);
-                backBufferGraphics.drawString(">", screen.getWidth() / 4 - 20, yPos);
+                drawText(backBufferGraphics, ">", screen.getWidth() / 4 - 20, yPos);
             }
             
             // Draw color box
@@ -598,12 +824,12 @@ public final class DrawManager {
             } else {
                 backBufferGraphics.setColor(Color.WHITE);
             }
-            backBufferGraphics.drawString(colorName, colorBoxX + colorBoxSize + 20, yPos);
+            drawText(backBufferGraphics, colorName, colorBoxX + colorBoxSize + 20, yPos);
             
             // Draw "Selected" indicator if this is the currently selected color
             if (color.equals(currentSelected)) {
                 backBufferGraphics.setColor(Color.CYAN);
-                backBufferGraphics.drawString("(Selected)", colorBoxX + colorBoxSize + 20 + fontRegularMetrics.stringWidth(colorName) + 10, yPos);
+                drawText(backBufferGraphics, "(Selected)", colorBoxX + colorBoxSize + 20 + regularAtlas.stringWidth(colorName) + 10, yPos);
             }
         }
         
@@ -647,18 +873,55 @@ public final class DrawManager {
         for (CreditScreen.Credit credit : creditList) {
             backBufferGraphics.setColor(Color.GREEN);
             String teamInfo = String.format("%s - %s", credit.getTeamName(), credit.getRole());
-            backBufferGraphics.drawString(teamInfo, xPosition, yPosition);
+            drawText(backBufferGraphics, teamInfo, xPosition, yPosition);
             yPosition += lineSpacing;
             yPosition += teamSpacing;
         }
     }
 
+    /**
+     * Returns the glyph atlas matching the font set on the given graphics.
+     */
+    private static GlyphAtlas atlasFor(final Graphics graphics) {
+        Font font = graphics.getFont();
+        if (regularAtlas != null && font == regularAtlas.getFont())
+            return regularAtlas;
+        if (bigAtlas != null && font == bigAtlas.getFont())
+            return bigAtlas;
+        if (smallAtlas != null && font == smallAtlas.getFont())
+            return smallAtlas;
+        return null;
+    }
+
+    /**
+     * Draws a string with the current font and color of the given graphics,
+     * from the glyph atlas when the font has one.
+     */
+    private static void drawText(final Graphics graphics, final String string,
+            final int positionX, final int positionY) {
+        GlyphAtlas atlas = atlasFor(graphics);
+        if (atlas != null)
+            atlas.drawString(graphics, string, positionX, positionY);
+        else
+            graphics.drawString(string, positionX, positionY);
+    }
+
+    /**
+     * Returns the width of a string in the current font of the given graphics.
+     */
+    private static int textWidth(final Graphics graphics, final String string) {
+        GlyphAtlas atlas = atlasFor(graphics);
+        if (atlas != null)
+            return atlas.stringWidth(string);
+        return graphics.getFontMetrics().stringWidth(string);
+    }
+
     /**
      * Draws a centered string on regular font.
      */
     public void drawCenteredRegularString(final Screen screen, final String string, final int height) {
         backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.drawString(string, screen.getWidth() / 2 - fontRegularMetrics.stringWidth(string) / 2, height);
+        drawText(backBufferGraphics, string, screen.getWidth() / 2 - regularAtlas.stringWidth(string) / 2, height);
     }
 
     /**
@@ -666,7 +929,7 @@ public final class DrawManager {
      */
     public void drawCenteredBigString(final Screen screen, final String string, final int height) {
         backBufferGraphics.setFont(fontBig);
-        backBufferGraphics.drawString(string, screen.getWidth() / 2 - fontBigMetrics.stringWidth(string) / 2, height);
+        drawText(backBufferGraphics, string, screen.getWidth() / 2 - bigAtlas.stringWidth(string) / 2, height);
     }
 
     /**
@@ -773,11 +1036,11 @@ public final class DrawManager {
         }
         String levelInfo = currentLevel > 0 ? " [Lv." + currentLevel + "/" + maxLevel + "]" : " [Not Owned]";
         backBufferGraphics.setFont(fontRegular);
-        backBufferGraphics.drawString(itemName + levelInfo, 30, yPosition);
+        drawText(backBufferGraphics, itemName + levelInfo, 30, yPosition);
 
         if (isSelected || isLevelSelection) {
             backBufferGraphics.setColor(Color.GRAY);
-            backBufferGraphics.drawString(description, 30, yPosition + 15);
+            drawText(backBufferGraphics, description, 30, yPosition + 15);
         }
 
         if (isLevelSelection) {
@@ -804,13 +1067,13 @@ public final class DrawManager {
                     backBufferGraphics.setColor(Color.RED);
                 }
                 String levelText = "Lv." + lvl + (isOwned ? " [OWNED]" : " (" + price + "$)");
-                int textWidth = fontRegularMetrics.stringWidth(levelText);
+                int textWidth = regularAtlas.stringWidth(levelText);
 
                 if (currX + textWidth > levelStartX + maxWidth) {
                     currX = levelStartX;
                     currY += fontRegularMetrics.getHeight() + 3;
                 }
-                backBufferGraphics.drawString(levelText, currX, currY);
+                drawText(backBufferGraphics, levelText, currX, currY);
                 currX += textWidth + spaceBetween;
             }
         }
@@ -877,9 +1140,9 @@ public final class DrawManager {
         backBufferGraphics.setFont(fontBig);
         FontMetrics metrics = backBufferGraphics.getFontMetrics();
         String itemsText = "ITEMS";
-        int textX = itemsX + (tabWidth - metrics.stringWidth(itemsText)) / 2;
+        int textX = itemsX + (tabWidth - textWidth(backBufferGraphics, itemsText)) / 2;
         int textY = tabY + tabHeight / 2 + metrics.getHeight() / 3;
-        backBufferGraphics.drawString(itemsText, textX, textY);
+        drawText(backBufferGraphics, itemsText, textX, textY);
         
         // Gacha tab
         if (selectedTab == 1) {
@@ -891,8 +1154,8 @@ public final class DrawManager {
         backBufferGraphics.fillRoundRect(gachaX, tabY, tabWidth, tabHeight, 10, 10);
         backBufferGraphics.setColor(Color.BLACK);
         String gachaText = "GACHA";
-        textX = gachaX + (tabWidth - metrics.stringWidth(gachaText)) / 2;
-        backBufferGraphics.drawString(gachaText, textX, textY);
+        textX = gachaX + (tabWidth - textWidth(backBufferGraphics, gachaText)) / 2;
+        drawText(backBufferGraphics, gachaText, textX, textY);
     }
 
     /**
@@ -937,10 +1200,9 @@ public final class DrawManager {
                 backBufferGraphics.setColor(Color.WHITE);
                 backBufferGraphics.setFont(fontSmall);
                 String colorName = ShipColorManager.getColorName(displayColor);
-                FontMetrics smallMetrics = backBufferGraphics.getFontMetrics();
-                int nameX = x + (colorWidth - smallMetrics.stringWidth(colorName)) / 2;
+                int nameX = x + (colorWidth - smallAtlas.stringWidth(colorName)) / 2;
                 int nameY = rouletteY + 50;
-                backBufferGraphics.drawString(colorName, nameX, nameY);
+                drawText(backBufferGraphics, colorName, nameX, nameY);
             }
             
             // Draw center indicator
@@ -1012,10 +1274,10 @@ public final class DrawManager {
         backBufferGraphics.setFont(fontRegular);
         String buttonText = isSpinning ? "SPINNING..." : "ROLL (" + gachaPrice + " coins)";
         FontMetrics buttonMetrics = backBufferGraphics.getFontMetrics();
-        int buttonTextX = buttonX + (buttonWidth - buttonMetrics.stringWidth(buttonText)) / 2;
+        int buttonTextX = buttonX + (buttonWidth - regularAtlas.stringWidth(buttonText)) / 2;
         int buttonTextY = buttonY + buttonHeight / 2 + buttonMetrics.getHeight() / 3;
         backBufferGraphics.setColor(Color.WHITE);
-        backBufferGraphics.drawString(buttonText, buttonTextX, buttonTextY);
+        drawText(backBufferGraphics, buttonText, buttonTextX, buttonTextY);
         
         // Draw instructions
         backBufferGraphics.setColor(Color.GRAY);
@@ -1041,39 +1303,29 @@ public final class DrawManager {
     }
 
     /**
-     * Draws the starfield background.
+     * Draws a particle system into its layer, then the layer over the back
+     * buffer.
      *
      * @param screen
      *            Screen to draw on.
-     * @param stars
-     *            List of stars to draw.
+     * @param particles
+     *            Particles to draw.
      * @param angle
-     *            Current rotation angle.
+     *            Rotation of the particles around the screen center.
      */
-    public void drawStars(final Screen screen, final List<Star> stars, final float angle) {
-        final int centerX = screen.getWidth() / 2;
-        final int centerY = screen.getHeight() / 2;
-        final double angleRad = Math.toRadians(angle);
-        final double cosAngle = Math.cos(angleRad);
-        final double sinAngle = Math.sin(angleRad);
-
-        for (Star star : stars) {
-            float relX = star.baseX - centerX;
-            float relY = star.baseY - centerY;
-
-            double rotatedX = relX * cosAngle - relY * sinAngle;
-            double rotatedY = relX * sinAngle + relY * cosAngle;
-
-            int screenX = (int) (rotatedX + centerX);
-            int screenY = (int) (rotatedY + centerY);
-
-            // Use star's brightness to set its color for twinkling effect
-            float b = star.brightness;
-            if (b < 0) b = 0;
-            if (b > 1) b = 1;
-            backBufferGraphics.setColor(new Color(b, b, b));
-            backBufferGraphics.drawRect(screenX, screenY, 1, 1);
+    public void drawParticles(final Screen screen, final ParticleSystem particles, final float angle) {
+        int width = backBuffer.getWidth();
+        int height = backBuffer.getHeight();
+        if (particleLayer == null || particleLayer.getWidth() != width
+                || particleLayer.getHeight() != height) {
+            particleLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            particlePixels = ((DataBufferInt) particleLayer.getRaster().getDataBuffer()).getData();
+        } else {
+            Arrays.fill(particlePixels, 0);
         }
+        particles.draw(particlePixels, width, height, angle,
+                screen.getWidth() / 2, screen.getHeight() / 2);
+        backBufferGraphics.drawImage(particleLayer, 0, 0, null);
     }
 
     public void drawShootingStars(final Screen screen, final List<ShootingStar> shootingStars, final float angle) {    }
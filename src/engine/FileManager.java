@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.logging.Logger;
 
 import engine.DrawManager.SpriteType;
+import engine.jfr.AssetLoadEvent;
+import engine.jfr.PersistenceWriteEvent;
 
 /**
  * Manages files used in the application.
@@ -38,6 +40,10 @@ public final class FileManager {
 	private static Logger logger;
 	/** Max number of high scores. */
 	private static final int MAX_SCORES = 7;
+	/** Font file contents, sizes are derived from it. */
+	private static Font baseFont;
+	/** Directory user files are saved in, next to the application. */
+	private static File userDirectory;
 
 	/**
 	 * private constructor.
@@ -57,6 +63,26 @@ public final class FileManager {
 		return instance;
 	}
 
+	/**
+	 * Returns a file in the directory the application is run from, where user
+	 * data is saved. The directory is resolved once.
+	 * 
+	 * @param fileName
+	 *            Name of the file.
+	 * @return File next to the application.
+	 * @throws IOException
+	 *             In case the directory cannot be resolved.
+	 */
+	public File getUserFile(final String fileName) throws IOException {
+		if (userDirectory == null) {
+			String jarPath = FileManager.class.getProtectionDomain()
+					.getCodeSource().getLocation().getPath();
+			jarPath = URLDecoder.decode(jarPath, "UTF-8");
+			userDirectory = new File(jarPath).getParentFile();
+		}
+		return new File(userDirectory, fileName);
+	}
+
 	/**
 	 * Loads sprites from disk.
 	 * 
@@ -69,10 +95,12 @@ public final class FileManager {
 	public void loadSprite(final Map<SpriteType, boolean[][]> spriteMap)
 			throws IOException {
 		InputStream inputStream = null;
+		AssetLoadEvent event = new AssetLoadEvent();
+		event.begin();
+		boolean loaded = false;
 
 		try {
-			inputStream = DrawManager.class.getClassLoader()
-                    .getResourceAsStream("graphics");
+			inputStream = AssetManager.getInstance().openStream("graphics");
             char c;
 
 			// Sprite loading.
@@ -91,11 +119,18 @@ public final class FileManager {
 					}
 				logger.fine("Sprite " + sprite.getKey() + " loaded.");
 			}
+			loaded = true;
 			if (inputStream != null)
 				inputStream.close();
 		} finally {
 			if (inputStream != null)
 				inputStream.close();
+			if (event.shouldCommit()) {
+				event.kind = "sprite";
+				event.path = "graphics";
+				event.loaded = loaded;
+				event.commit();
+			}
 		}
 	}
 
@@ -112,21 +147,20 @@ public final class FileManager {
 	 */
 	public Font loadFont(final float size) throws IOException,
 			FontFormatException {
-		InputStream inputStream = null;
-		Font font;
-
-		try {
-			// Font loading.
-			inputStream = FileManager.class.getClassLoader()
-					.getResourceAsStream("font.ttf");
-			font = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(
-					size);
-		} finally {
-			if (inputStream != null)
-				inputStream.close();
+		if (baseFont == null) {
+			InputStream inputStream = null;
+
+			try {
+				// Font loading, done once for every size.
+				inputStream = AssetManager.getInstance().openStream("font.ttf");
+				baseFont = Font.createFont(Font.TRUETYPE_FONT, inputStream);
+			} finally {
+				if (inputStream != null)
+					inputStream.close();
+			}
 		}
 
-		return font;
+		return baseFont.deriveFont(size);
 	}
 
 	/**
@@ -180,15 +214,7 @@ public final class FileManager {
 		BufferedReader bufferedReader = null;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			File scoresFile = getUserFile("scores");
 			inputStream = new FileInputStream(scoresFile);
 			bufferedReader = new BufferedReader(new InputStreamReader(
 					inputStream, Charset.forName("UTF-8")));
@@ -231,17 +257,13 @@ public final class FileManager {
 			throws IOException {
 		OutputStream outputStream = null;
 		BufferedWriter bufferedWriter = null;
+		PersistenceWriteEvent event = new PersistenceWriteEvent();
+		event.begin();
+		File scoresFile = null;
+		int savedCount = 0;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			scoresFile = getUserFile("scores");
 
 			if (!scoresFile.exists())
 				scoresFile.createNewFile();
@@ -253,7 +275,6 @@ public final class FileManager {
 			logger.info("Saving user high scores.");
 
 			// Saves 7 or less scores.
-			int savedCount = 0;
 			for (Score score : highScores) {
 				if (savedCount >= MAX_SCORES)
 					break;
@@ -267,6 +288,11 @@ public final class FileManager {
 		} finally {
 			if (bufferedWriter != null)
 				bufferedWriter.close();
+			if (event.shouldCommit()) {
+				event.file = scoresFile == null ? null : scoresFile.getPath();
+				event.records = savedCount;
+				event.commit();
+			}
 		}
 	}
 	/**
@@ -307,6 +333,9 @@ public final class FileManager {
 	 */
 	public void saveAchievements(final List<Achievement> achievements) throws IOException {
 		String path = "achievements.dat";
+		PersistenceWriteEvent event = new PersistenceWriteEvent();
+		event.begin();
+		int saved = 0;
 		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), "UTF-8"))) {
 			logger.info("Saving achievements to file");
 
@@ -315,6 +344,13 @@ public final class FileManager {
 				writer.write(achievement.getName() + ":" + achievement.isUnlocked());
 				writer.newLine();
 			}
+			saved = achievements.size();
+		} finally {
+			if (event.shouldCommit()) {
+				event.file = path;
+				event.records = saved;
+				event.commit();
+			}
 		}
 	}
 
@@ -1,5 +1,8 @@
 package engine;
 
+import java.awt.Dimension;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
 import java.awt.Insets;
 
 import javax.swing.JFrame;
@@ -21,6 +24,8 @@ public class Frame extends JFrame {
 	private int height;
 	/** Screen currently shown. */
 	private Screen currentScreen;
+	/** System property that starts the game in fullscreen. */
+	private static final String FULLSCREEN_PROPERTY = "invaders.fullscreen";
 
 	/**
 	 * Initializes the new frame.
@@ -31,12 +36,23 @@ public class Frame extends JFrame {
 	 *            Frame height.
 	 */
 	public Frame(final int width, final int height) {
+		boolean fullscreen = Boolean.getBoolean(FULLSCREEN_PROPERTY);
+		GraphicsDevice device = GraphicsEnvironment
+				.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+
 		setSize(width, height);
-		setResizable(false);
+		setMinimumSize(new Dimension(width, height));
+		// The image is scaled up to the window, see DrawManager.
+		setResizable(true);
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
+		setIgnoreRepaint(true);
+		if (fullscreen)
+			setUndecorated(true);
 
 		setLocationRelativeTo(null);
 		setVisible(true);
+		if (fullscreen && device.isFullScreenSupported())
+			device.setFullScreenWindow(this);
 
 		Insets insets = getInsets();
 		this.width = width - insets.left - insets.right;
@@ -0,0 +1,292 @@
+package engine;
+
+import audio.GameSounds;
+import entity.BulletPool;
+import entity.ItemPool;
+import entity.ShopItem;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Holds the state of one game session: its input, upgrades, pools, HUD
+ * items, achievements and item effects. Each session gets its own, so
+ * several games can run in the same process without sharing any of it.
+ *
+ * The game window plays its sessions with its own input and draw managers
+ * and the persistent achievements. Headless sessions, run without a
+ * window, have an input manager fed by their owner and no draw manager.
+ *
+ * Gameplay events of the session go through its event bus, which passes
+ * them once per tick to the achievements, the HUD items, the telemetry
+ * and, in the game window, the sounds.
+ *
+ * Gameplay randomness of the session comes from its own random service, so
+ * a session replayed with the same seed and input plays out the same.
+ */
+public final class GameContext {
+
+	/** Keys pressed in this session. */
+	private final InputManager inputManager;
+	/** Draws the session, null if headless. */
+	private final DrawManager drawManager;
+	/** Tracks the achievements of the session. */
+	private final AchievementManager achievementManager;
+	/** Upgrades bought in the session. */
+	private final ShopItem shopItem;
+	/** Bullets recycled in the session. */
+	private final BulletPool bulletPool;
+	/** Items recycled in the session. */
+	private final ItemPool itemPool;
+	/** Items shown in the HUD of the session. */
+	private final ItemHUDManager itemHUDManager;
+	/** Time the freeze item wears off, in milliseconds, 0 if not active. */
+	private long freezeEndTime;
+	/** Plays the session in place of the first player, null if none. */
+	private Autopilot autopilot;
+	/** Passes the gameplay events of each tick to their subscribers. */
+	private final GameEventBus eventBus;
+	/** Aggregates how the session is played. */
+	private final Telemetry telemetry;
+	/** Random streams of the session. */
+	private final RandomService random;
+	/** Time shared by the animations of the session. */
+	private final AnimationClock animationClock;
+	/** Runs the timed actions of the session. */
+	private final TimerWheel scheduler;
+
+	/**
+	 * Constructor, for a session with no upgrades.
+	 *
+	 * @param inputManager
+	 *            Keys pressed in the session.
+	 * @param drawManager
+	 *            Draws the session, null if headless.
+	 * @param achievementManager
+	 *            Tracks the achievements of the session.
+	 * @param seed
+	 *            Seed of the random streams of the session.
+	 */
+	public GameContext(final InputManager inputManager,
+			final DrawManager drawManager,
+			final AchievementManager achievementManager, final long seed) {
+		this.inputManager = inputManager;
+		this.drawManager = drawManager;
+		this.achievementManager = achievementManager;
+		this.random = new RandomService(seed);
+		this.animationClock = new AnimationClock();
+		this.scheduler = new TimerWheel(this.animationClock.now());
+		this.shopItem = new ShopItem();
+		this.bulletPool = new BulletPool(this.shopItem);
+		this.itemPool = new ItemPool();
+		this.itemHUDManager = new ItemHUDManager(this.shopItem, this.scheduler);
+		this.eventBus = new GameEventBus();
+		this.eventBus.subscribe(this.achievementManager);
+		this.eventBus.subscribe(this.itemHUDManager);
+		this.telemetry = new Telemetry(ThreadLocalRandom.current().nextLong());
+		this.eventBus.subscribe(this.telemetry);
+		if (drawManager != null)
+			this.eventBus.subscribe(new GameSounds());
+	}
+
+	/**
+	 * Creates a session run without a window, with its own input and
+	 * achievements that are not saved.
+	 *
+	 * @return A new headless session.
+	 */
+	public static GameContext headless() {
+		return headless(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a session run without a window, with its own input and
+	 * achievements that are not saved, and seeded random streams.
+	 *
+	 * @param seed
+	 *            Seed of the random streams of the session.
+	 * @return A new headless session.
+	 */
+	public static GameContext headless(final long seed) {
+		return new GameContext(new InputManager(), null,
+				new AchievementManager(false), seed);
+	}
+
+	/**
+	 * Checks if the session runs without a window.
+	 *
+	 * @return True if there is no draw manager.
+	 */
+	public boolean isHeadless() {
+		return this.drawManager == null;
+	}
+
+	/**
+	 * Getter for the input manager.
+	 *
+	 * @return Keys pressed in the session.
+	 */
+	public InputManager getInputManager() {
+		return this.inputManager;
+	}
+
+	/**
+	 * Getter for the draw manager.
+	 *
+	 * @return Draw manager, null if headless.
+	 */
+	public DrawManager getDrawManager() {
+		return this.drawManager;
+	}
+
+	/**
+	 * Getter for the achievement manager.
+	 *
+	 * @return Achievements of the session.
+	 */
+	public AchievementManager getAchievementManager() {
+		return this.achievementManager;
+	}
+
+	/**
+	 * Getter for the upgrades.
+	 *
+	 * @return Upgrades bought in the session.
+	 */
+	public ShopItem getShopItem() {
+		return this.shopItem;
+	}
+
+	/**
+	 * Getter for the bullet pool.
+	 *
+	 * @return Bullets recycled in the session.
+	 */
+	public BulletPool getBulletPool() {
+		return this.bulletPool;
+	}
+
+	/**
+	 * Getter for the item pool.
+	 *
+	 * @return Items recycled in the session.
+	 */
+	public ItemPool getItemPool() {
+		return this.itemPool;
+	}
+
+	/**
+	 * Getter for the HUD items.
+	 *
+	 * @return Items shown in the HUD of the session.
+	 */
+	public ItemHUDManager getItemHUDManager() {
+		return this.itemHUDManager;
+	}
+
+	/**
+	 * Getter for the event bus.
+	 *
+	 * @return Event bus of the session.
+	 */
+	public GameEventBus getEventBus() {
+		return this.eventBus;
+	}
+
+	/**
+	 * Getter for the telemetry.
+	 *
+	 * @return Statistics of the session.
+	 */
+	public Telemetry getTelemetry() {
+		return this.telemetry;
+	}
+
+	/**
+	 * Getter for the random streams.
+	 *
+	 * @return Random streams of the session.
+	 */
+	public RandomService getRandom() {
+		return this.random;
+	}
+
+	/**
+	 * Gets one random stream of the session.
+	 *
+	 * @param stream
+	 *            Subsystem drawing the numbers.
+	 * @return Its stream.
+	 */
+	public GameRandom getRandom(final RandomService.Stream stream) {
+		return this.random.get(stream);
+	}
+
+	/**
+	 * Getter for the animation clock.
+	 *
+	 * @return Time shared by the animations of the session.
+	 */
+	public AnimationClock getAnimationClock() {
+		return this.animationClock;
+	}
+
+	/**
+	 * Getter for the scheduler.
+	 *
+	 * @return Runs the timed actions of the session.
+	 */
+	public TimerWheel getScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * Starts a tick of the session: moves the animation clock to the
+	 * current time and runs the timed actions due by then.
+	 */
+	public void tick() {
+		this.animationClock.advance();
+		this.scheduler.advance(this.animationClock.now());
+	}
+
+	/**
+	 * Getter for the autopilot.
+	 *
+	 * @return Autopilot playing the session, null if none.
+	 */
+	public Autopilot getAutopilot() {
+		return this.autopilot;
+	}
+
+	/**
+	 * Lets an autopilot play the session in place of the first player. It
+	 * presses the keys of the session input manager.
+	 *
+	 * @param autopilot
+	 *            Autopilot to play, null to give back control.
+	 */
+	public void setAutopilot(final Autopilot autopilot) {
+		this.autopilot = autopilot;
+	}
+
+	/**
+	 * Freezes the enemies, except the special ones, for a while.
+	 *
+	 * @param durationMillis
+	 *            Duration of the freeze, in milliseconds.
+	 */
+	public void applyTimeFreeze(final int durationMillis) {
+		this.freezeEndTime = System.currentTimeMillis() + durationMillis;
+	}
+
+	/**
+	 * Checks if the enemies are frozen.
+	 *
+	 * @return True while the freeze item is active.
+	 */
+	public boolean isTimeFreezeActive() {
+		if (this.freezeEndTime > 0
+				&& System.currentTimeMillis() >= this.freezeEndTime)
+			this.freezeEndTime = 0;
+		return this.freezeEndTime > 0;
+	}
+}
@@ -0,0 +1,296 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Collects what happens in a game session during one tick and hands it to
+ * its subscribers all at once, at the end of the tick.
+ *
+ * Gameplay code only appends to the buffer while it runs its collision
+ * loops, so sounds, achievements, the HUD or the log are updated once per
+ * tick, outside of them, and can coalesce the events of the same kind, such
+ * as playing one laser sound for a whole volley. The buffer is allocated
+ * up front and reused every tick.
+ *
+ * Events are kept as parallel arrays of their type, the player they concern,
+ * a value, a detail and a position. What the value and the detail mean
+ * depends on the type.
+ */
+public final class GameEventBus {
+
+	/** Kinds of events. */
+	public enum Type {
+		/**
+		 * A player fired. The value is the number of bullets fired and the
+		 * position that of the ship.
+		 */
+		SHOT_FIRED,
+		/**
+		 * An enemy of the formation was destroyed by a bullet. The value is
+		 * its point value, the detail the index of its type among those of
+		 * the level, -1 if not listed, and the position its center.
+		 */
+		ENEMY_DESTROYED,
+		/**
+		 * A player picked an item. The value is the ordinal of its type and
+		 * the position its center.
+		 */
+		ITEM_PICKED,
+		/**
+		 * A player lost a life. The value is the lives left, the detail one
+		 * of the HIT constants and the position that of the ship.
+		 */
+		PLAYER_HIT,
+		/**
+		 * A boss changed phase. The value is one of the BOSS constants and
+		 * the position the center of the boss.
+		 */
+		BOSS_PHASE
+	}
+
+	/**
+	 * Receives the events of each tick.
+	 */
+	public interface Subscriber {
+		/**
+		 * Called once per tick with the events of the tick, if any. The bus
+		 * must not be posted to from here.
+		 *
+		 * @param events
+		 *            Bus holding the events of the tick.
+		 */
+		void onEvents(GameEventBus events);
+	}
+
+	/** The player was hit by a bullet. */
+	public static final int HIT_BULLET = 0;
+	/** The player collided with an enemy. */
+	public static final int HIT_ENEMY = 1;
+	/** The player collided with a boss. */
+	public static final int HIT_BOSS = 2;
+
+	/** The boss appeared. */
+	public static final int BOSS_SPAWNED = 0;
+	/** The boss was weakened and changed its attacks. */
+	public static final int BOSS_ENRAGED = 1;
+	/** The boss was destroyed. */
+	public static final int BOSS_DEFEATED = 2;
+
+	/** Events allocated for a tick, grown if ever exceeded. */
+	private static final int INITIAL_CAPACITY = 256;
+	/** Subscribers allocated up front, grown if ever exceeded. */
+	private static final int INITIAL_SUBSCRIBERS = 8;
+
+	/** Type of each event. */
+	private Type[] types;
+	/** Player of each event, 1 or 2, 0 if none. */
+	private int[] players;
+	/** Value of each event. */
+	private int[] values;
+	/** Detail of each event. */
+	private int[] details;
+	/** Horizontal position of each event. */
+	private int[] xs;
+	/** Vertical position of each event. */
+	private int[] ys;
+	/** Number of events in the tick. */
+	private int size;
+	/** Number of events of each type in the tick. */
+	private final int[] counts = new int[Type.values().length];
+
+	/** Subscribers, in the order they are called. */
+	private Subscriber[] subscribers = new Subscriber[INITIAL_SUBSCRIBERS];
+	/** Number of subscribers. */
+	private int subscriberCount;
+
+	/**
+	 * Constructor.
+	 */
+	public GameEventBus() {
+		this.types = new Type[INITIAL_CAPACITY];
+		this.players = new int[INITIAL_CAPACITY];
+		this.values = new int[INITIAL_CAPACITY];
+		this.details = new int[INITIAL_CAPACITY];
+		this.xs = new int[INITIAL_CAPACITY];
+		this.ys = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds a subscriber, called after the ones already added.
+	 *
+	 * @param subscriber
+	 *            Subscriber to add.
+	 */
+	public void subscribe(final Subscriber subscriber) {
+		if (this.subscriberCount == this.subscribers.length)
+			this.subscribers = Arrays.copyOf(this.subscribers,
+					this.subscribers.length * 2);
+		this.subscribers[this.subscriberCount++] = subscriber;
+	}
+
+	/**
+	 * Removes a subscriber.
+	 *
+	 * @param subscriber
+	 *            Subscriber to remove.
+	 */
+	public void unsubscribe(final Subscriber subscriber) {
+		for (int i = 0; i < this.subscriberCount; i++)
+			if (this.subscribers[i] == subscriber) {
+				System.arraycopy(this.subscribers, i + 1, this.subscribers, i,
+						this.subscriberCount - i - 1);
+				this.subscribers[--this.subscriberCount] = null;
+				return;
+			}
+	}
+
+	/**
+	 * Appends an event to the tick.
+	 *
+	 * @param type
+	 *            Type of the event.
+	 * @param player
+	 *            Player of the event, 1 or 2, 0 if none.
+	 * @param value
+	 *            Value of the event.
+	 * @param detail
+	 *            Detail of the event.
+	 * @param x
+	 *            Horizontal position of the event.
+	 * @param y
+	 *            Vertical position of the event.
+	 */
+	public void post(final Type type, final int player, final int value,
+			final int detail, final int x, final int y) {
+		if (this.size == this.types.length)
+			grow();
+		int i = this.size++;
+		this.types[i] = type;
+		this.players[i] = player;
+		this.values[i] = value;
+		this.details[i] = detail;
+		this.xs[i] = x;
+		this.ys[i] = y;
+		this.counts[type.ordinal()]++;
+	}
+
+	/**
+	 * Hands the events of the tick to the subscribers and empties the
+	 * buffer for the next one. Does nothing if the tick had no events.
+	 */
+	public void flush() {
+		if (this.size == 0)
+			return;
+		for (int s = 0; s < this.subscriberCount; s++)
+			this.subscribers[s].onEvents(this);
+		clear();
+	}
+
+	/**
+	 * Drops the events of the tick without handing them to anyone.
+	 */
+	public void clear() {
+		// Types are kept, they are overwritten before being read again.
+		this.size = 0;
+		Arrays.fill(this.counts, 0);
+	}
+
+	/**
+	 * Doubles the capacity of the buffer.
+	 */
+	private void grow() {
+		int capacity = this.types.length * 2;
+		this.types = Arrays.copyOf(this.types, capacity);
+		this.players = Arrays.copyOf(this.players, capacity);
+		this.values = Arrays.copyOf(this.values, capacity);
+		this.details = Arrays.copyOf(this.details, capacity);
+		this.xs = Arrays.copyOf(this.xs, capacity);
+		this.ys = Arrays.copyOf(this.ys, capacity);
+	}
+
+	/**
+	 * Gets the number of events in the tick.
+	 *
+	 * @return Number of events.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the number of events of a type in the tick.
+	 *
+	 * @param type
+	 *            Type of the events.
+	 * @return Number of events of that type.
+	 */
+	public int count(final Type type) {
+		return this.counts[type.ordinal()];
+	}
+
+	/**
+	 * Gets the type of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Type of the event.
+	 */
+	public Type getType(final int i) {
+		return this.types[i];
+	}
+
+	/**
+	 * Gets the player of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Player of the event, 1 or 2, 0 if none.
+	 */
+	public int getPlayer(final int i) {
+		return this.players[i];
+	}
+
+	/**
+	 * Gets the value of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Value of the event.
+	 */
+	public int getValue(final int i) {
+		return this.values[i];
+	}
+
+	/**
+	 * Gets the detail of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Detail of the event.
+	 */
+	public int getDetail(final int i) {
+		return this.details[i];
+	}
+
+	/**
+	 * Gets the horizontal position of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Horizontal position of the event.
+	 */
+	public int getX(final int i) {
+		return this.xs[i];
+	}
+
+	/**
+	 * Gets the vertical position of an event.
+	 *
+	 * @param i
+	 *            Index of the event in the tick.
+	 * @return Vertical position of the event.
+	 */
+	public int getY(final int i) {
+		return this.ys[i];
+	}
+}
@@ -0,0 +1,13 @@
+package engine;
+
+/**
+ * Ways a game can be played, used to rank runs separately.
+ */
+public enum GameMode {
+	/** One player. */
+	SINGLE,
+	/** Two players cooperating. */
+	COOP,
+	/** Two players against each other. */
+	PVP
+}
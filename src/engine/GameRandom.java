@@ -0,0 +1,111 @@
+package engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * One stream of random numbers, for one subsystem of a game session or of
+ * the application. Built on SplittableRandom, which is fast and keeps no
+ * shared state, so streams used on different threads never contend, unlike
+ * Math.random. None of the methods allocate.
+ *
+ * A stream is not thread safe: it must only be used by the thread running
+ * its session or subsystem.
+ */
+public final class GameRandom {
+
+	/** Generator of the stream. */
+	private final SplittableRandom random;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            Seed of the stream, the same seed giving the same numbers.
+	 */
+	public GameRandom(final long seed) {
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Gets a random integer.
+	 *
+	 * @param bound
+	 *            Upper bound, excluded, must be positive.
+	 * @return Integer from 0 included to bound excluded.
+	 */
+	public int nextInt(final int bound) {
+		return this.random.nextInt(bound);
+	}
+
+	/**
+	 * Gets a random integer in a range.
+	 *
+	 * @param origin
+	 *            Lower bound, included.
+	 * @param bound
+	 *            Upper bound, excluded, must be greater than origin.
+	 * @return Integer from origin included to bound excluded.
+	 */
+	public int nextInt(final int origin, final int bound) {
+		return this.random.nextInt(origin, bound);
+	}
+
+	/**
+	 * Gets a random long, e.g. to seed another stream.
+	 *
+	 * @return Any long.
+	 */
+	public long nextLong() {
+		return this.random.nextLong();
+	}
+
+	/**
+	 * Gets a random float.
+	 *
+	 * @return Float from 0 included to 1 excluded.
+	 */
+	public float nextFloat() {
+		return (this.random.nextInt() >>> 8) * 0x1.0p-24f;
+	}
+
+	/**
+	 * Gets a random double.
+	 *
+	 * @return Double from 0 included to 1 excluded.
+	 */
+	public double nextDouble() {
+		return this.random.nextDouble();
+	}
+
+	/**
+	 * Decides on something happening with a chance.
+	 *
+	 * @param probability
+	 *            Chance of it happening, from 0 to 1.
+	 * @return True if it happens.
+	 */
+	public boolean chance(final double probability) {
+		return this.random.nextDouble() < probability;
+	}
+
+	/**
+	 * Picks an index at random, each with a chance proportional to its
+	 * weight.
+	 *
+	 * @param weights
+	 *            Weight of each index, none negative.
+	 * @param total
+	 *            Sum of the weights, must be positive.
+	 * @return Index picked.
+	 */
+	public int pick(final int[] weights, final int total) {
+		int roll = this.random.nextInt(total);
+		int last = weights.length - 1;
+		for (int i = 0; i < last; i++) {
+			roll -= weights[i];
+			if (roll < 0)
+				return i;
+		}
+		return last;
+	}
+}
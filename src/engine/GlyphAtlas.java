@@ -0,0 +1,240 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rasterized glyphs of one font size. Printable ASCII and, when the font
+ * covers them, Latin-1 characters are drawn once into an atlas image so
+ * strings can be drawn as image blits instead of going through the text
+ * pipeline every frame.
+ */
+final class GlyphAtlas {
+
+	/** First character in the atlas. */
+	private static final char FIRST_CHAR = 32;
+	/** Last character in the atlas. */
+	private static final char LAST_CHAR = 255;
+	/** Characters between ASCII and Latin-1 that are never in the atlas. */
+	private static final char CONTROL_START = 127;
+	/** First printable Latin-1 character. */
+	private static final char CONTROL_END = 160;
+	/** Glyphs per row of the atlas. */
+	private static final int GLYPHS_PER_ROW = 32;
+	/** Maximum number of tinted copies of the atlas kept. */
+	private static final int MAX_TINTS = 24;
+	/** Maximum number of measured string widths kept. */
+	private static final int MAX_WIDTHS = 256;
+
+	/** Font the atlas was rasterized from. */
+	private final Font font;
+	/** Metrics of the font, used for characters outside the atlas. */
+	private final FontMetrics metrics;
+	/** White glyphs, tinted on demand. */
+	private final BufferedImage atlas;
+	/** Width of one cell of the atlas. */
+	private final int cellWidth;
+	/** Height of one cell of the atlas. */
+	private final int cellHeight;
+	/** Offset from the left edge of a cell to the glyph origin. */
+	private final int originX;
+	/** Offset from the top edge of a cell to the baseline. */
+	private final int originY;
+	/** Horizontal advance of each character, -1 if not in the atlas. */
+	private final int[] advances;
+	/** Tinted copies of the atlas by ARGB value, least recently used first. */
+	private final Map<Integer, BufferedImage> tints;
+	/** Measured string widths, least recently used first. */
+	private final Map<String, Integer> widths;
+
+	/**
+	 * Constructor, rasterizes the glyphs.
+	 *
+	 * @param font
+	 *            Font to rasterize.
+	 */
+	GlyphAtlas(final Font font) {
+		this.font = font;
+		BufferedImage scratch = new BufferedImage(1, 1,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics scratchGraphics = scratch.getGraphics();
+		this.metrics = scratchGraphics.getFontMetrics(font);
+		scratchGraphics.dispose();
+
+		int padding = Math.max(2, font.getSize() / 4);
+		this.originX = padding;
+		this.originY = this.metrics.getMaxAscent() + padding;
+		this.cellWidth = this.metrics.getMaxAdvance() > 0
+				? this.metrics.getMaxAdvance() + 2 * padding
+				: font.getSize() * 2 + 2 * padding;
+		this.cellHeight = this.metrics.getMaxAscent()
+				+ this.metrics.getMaxDescent() + 2 * padding;
+
+		int glyphCount = LAST_CHAR - FIRST_CHAR + 1;
+		int rows = (glyphCount + GLYPHS_PER_ROW - 1) / GLYPHS_PER_ROW;
+		this.atlas = new BufferedImage(GLYPHS_PER_ROW * this.cellWidth,
+				rows * this.cellHeight, BufferedImage.TYPE_INT_ARGB);
+		this.advances = new int[LAST_CHAR + 1];
+		Arrays.fill(this.advances, -1);
+
+		Graphics2D graphics = this.atlas.createGraphics();
+		graphics.setFont(font);
+		graphics.setColor(Color.WHITE);
+		for (char c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+			if (c >= CONTROL_START && c < CONTROL_END)
+				continue;
+			if (!font.canDisplay(c))
+				continue;
+			int index = c - FIRST_CHAR;
+			int cellX = (index % GLYPHS_PER_ROW) * this.cellWidth;
+			int cellY = (index / GLYPHS_PER_ROW) * this.cellHeight;
+			graphics.setClip(cellX, cellY, this.cellWidth, this.cellHeight);
+			graphics.drawString(String.valueOf(c), cellX + this.originX,
+					cellY + this.originY);
+			this.advances[c] = this.metrics.charWidth(c);
+		}
+		graphics.dispose();
+
+		this.tints = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<Integer, BufferedImage> eldest) {
+				return size() > MAX_TINTS;
+			}
+		};
+		this.widths = new LinkedHashMap<String, Integer>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<String, Integer> eldest) {
+				return size() > MAX_WIDTHS;
+			}
+		};
+	}
+
+	/**
+	 * Getter for the font the atlas was rasterized from.
+	 *
+	 * @return Font of the atlas.
+	 */
+	Font getFont() {
+		return this.font;
+	}
+
+	/**
+	 * Checks if every character of a string is in the atlas.
+	 *
+	 * @param string
+	 *            String to check.
+	 * @return True if the string can be drawn from the atlas.
+	 */
+	private boolean covers(final String string) {
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c > LAST_CHAR || this.advances[c] < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the advance width of a string, measured once and cached.
+	 *
+	 * @param string
+	 *            String to measure.
+	 * @return Width of the string in pixels.
+	 */
+	int stringWidth(final String string) {
+		Integer cached = this.widths.get(string);
+		if (cached != null)
+			return cached;
+
+		int width;
+		if (covers(string)) {
+			width = 0;
+			for (int i = 0; i < string.length(); i++)
+				width += this.advances[string.charAt(i)];
+		} else {
+			width = this.metrics.stringWidth(string);
+		}
+		this.widths.put(string, width);
+		return width;
+	}
+
+	/**
+	 * Draws a string with the color currently set on the graphics.
+	 *
+	 * @param graphics
+	 *            Graphics to draw on.
+	 * @param string
+	 *            String to draw.
+	 * @param positionX
+	 *            Position in the x-axis of the start of the baseline.
+	 * @param positionY
+	 *            Position in the y-axis of the baseline.
+	 */
+	void drawString(final Graphics graphics, final String string,
+			final int positionX, final int positionY) {
+		if (!covers(string)) {
+			Font previous = graphics.getFont();
+			graphics.setFont(this.font);
+			graphics.drawString(string, positionX, positionY);
+			graphics.setFont(previous);
+			return;
+		}
+
+		BufferedImage tinted = getTint(graphics.getColor());
+		int x = positionX - this.originX;
+		int y = positionY - this.originY;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c != ' ') {
+				int index = c - FIRST_CHAR;
+				int cellX = (index % GLYPHS_PER_ROW) * this.cellWidth;
+				int cellY = (index / GLYPHS_PER_ROW) * this.cellHeight;
+				graphics.drawImage(tinted, x, y, x + this.cellWidth,
+						y + this.cellHeight, cellX, cellY,
+						cellX + this.cellWidth, cellY + this.cellHeight, null);
+			}
+			x += this.advances[c];
+		}
+	}
+
+	/**
+	 * Returns a copy of the atlas in the given color, creating it if needed.
+	 *
+	 * @param color
+	 *            Color of the glyphs.
+	 * @return Tinted atlas.
+	 */
+	private BufferedImage getTint(final Color color) {
+		int argb = color.getRGB();
+		BufferedImage tinted = this.tints.get(argb);
+		if (tinted != null)
+			return tinted;
+
+		int width = this.atlas.getWidth();
+		int height = this.atlas.getHeight();
+		int[] pixels = this.atlas.getRGB(0, 0, width, height, null, 0, width);
+		int alpha = argb >>> 24;
+		int rgb = argb & 0xFFFFFF;
+		for (int i = 0; i < pixels.length; i++) {
+			int glyphAlpha = (pixels[i] >>> 24) * alpha / 255;
+			pixels[i] = glyphAlpha == 0 ? 0 : (glyphAlpha << 24) | rgb;
+		}
+		tinted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		tinted.setRGB(0, 0, width, height, pixels, 0, width);
+		this.tints.put(argb, tinted);
+		return tinted;
+	}
+}
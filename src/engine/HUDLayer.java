@@ -0,0 +1,101 @@
+package engine;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Retained image holding a single HUD widget. The widget is only rendered
+ * again when the value it displays changes; every other frame it is
+ * composited on the back buffer with a single blit.
+ */
+final class HUDLayer {
+
+	/** Cached rendering of the widget. */
+	private BufferedImage image;
+	/** Position in the x-axis of the cached rendering on screen. */
+	private int positionX;
+	/** Position in the y-axis of the cached rendering on screen. */
+	private int positionY;
+	/** Width of the area currently used in the image. */
+	private int width;
+	/** Height of the area currently used in the image. */
+	private int height;
+	/** Input value the cached rendering corresponds to. */
+	private long key;
+	/** Checks if the cached rendering can be used. */
+	private boolean valid;
+
+	/**
+	 * Checks if the widget has to be rendered again.
+	 *
+	 * @param key
+	 *            Current input value of the widget.
+	 * @return True if the cached rendering does not match the input.
+	 */
+	boolean isStale(final long key) {
+		return !this.valid || this.key != key;
+	}
+
+	/**
+	 * Clears the layer and prepares it for rendering. The returned graphics
+	 * are translated so the widget can be drawn in screen coordinates.
+	 *
+	 * @param positionX
+	 *            Position in the x-axis of the widget area.
+	 * @param positionY
+	 *            Position in the y-axis of the widget area.
+	 * @param width
+	 *            Width of the widget area.
+	 * @param height
+	 *            Height of the widget area.
+	 * @param key
+	 *            Input value the new rendering corresponds to.
+	 * @return Graphics to draw the widget with, to be disposed by the caller.
+	 */
+	Graphics2D begin(final int positionX, final int positionY,
+			final int width, final int height, final long key) {
+		this.positionX = positionX;
+		this.positionY = positionY;
+		this.width = Math.max(1, width);
+		this.height = Math.max(1, height);
+		this.key = key;
+		this.valid = true;
+
+		if (this.image == null || this.image.getWidth() < this.width
+				|| this.image.getHeight() < this.height)
+			this.image = new BufferedImage(this.width, this.height,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+
+		Graphics2D graphics = this.image.createGraphics();
+		Composite composite = graphics.getComposite();
+		graphics.setComposite(AlphaComposite.Clear);
+		graphics.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+		graphics.setComposite(composite);
+		graphics.setClip(0, 0, this.width, this.height);
+		graphics.translate(-positionX, -positionY);
+		return graphics;
+	}
+
+	/**
+	 * Draws the cached rendering.
+	 *
+	 * @param graphics
+	 *            Graphics of the back buffer.
+	 */
+	void blit(final Graphics graphics) {
+		if (this.valid)
+			graphics.drawImage(this.image, this.positionX, this.positionY,
+					this.positionX + this.width, this.positionY + this.height,
+					0, 0, this.width, this.height, null);
+	}
+
+	/**
+	 * Forces the widget to be rendered again on its next use.
+	 */
+	void invalidate() {
+		this.valid = false;
+	}
+}
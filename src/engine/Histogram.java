@@ -0,0 +1,94 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Counts values in buckets of a fixed width, the last one also holding every
+ * value past the others, so recording never allocates and percentiles are
+ * read from the counts.
+ */
+public final class Histogram {
+
+	/** Width of each bucket. */
+	private final int bucketWidth;
+	/** Values in each bucket. */
+	private final long[] counts;
+	/** Values recorded. */
+	private long total;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bucketWidth
+	 *            Width of each bucket.
+	 * @param buckets
+	 *            Number of buckets, the last one open ended.
+	 */
+	public Histogram(final int bucketWidth, final int buckets) {
+		this.bucketWidth = bucketWidth;
+		this.counts = new long[buckets];
+	}
+
+	/**
+	 * Records a value. Negative values count in the first bucket.
+	 *
+	 * @param value
+	 *            Value to record.
+	 */
+	public void add(final long value) {
+		long bucket = Math.max(0, value) / this.bucketWidth;
+		this.counts[(int) Math.min(bucket, this.counts.length - 1)]++;
+		this.total++;
+	}
+
+	/**
+	 * Adds the counts of a histogram with the same buckets.
+	 *
+	 * @param other
+	 *            Histogram to add.
+	 */
+	public void addAll(final Histogram other) {
+		for (int i = 0; i < this.counts.length; i++)
+			this.counts[i] += other.counts[i];
+		this.total += other.total;
+	}
+
+	/**
+	 * Empties the histogram.
+	 */
+	public void clear() {
+		Arrays.fill(this.counts, 0);
+		this.total = 0;
+	}
+
+	/**
+	 * Gets the number of values recorded.
+	 *
+	 * @return Values recorded.
+	 */
+	public long getTotal() {
+		return this.total;
+	}
+
+	/**
+	 * Estimates a percentile as the upper bound of the bucket it falls in.
+	 * Values in the last bucket are only known to be past its lower bound,
+	 * which is returned for them.
+	 *
+	 * @param percentile
+	 *            Percentile, from 0 to 100.
+	 * @return Estimated value, 0 if nothing was recorded.
+	 */
+	public long percentile(final double percentile) {
+		if (this.total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.total));
+		long seen = 0;
+		for (int i = 0; i < this.counts.length - 1; i++) {
+			seen += this.counts[i];
+			if (seen >= rank)
+				return (long) (i + 1) * this.bucketWidth;
+		}
+		return (long) (this.counts.length - 1) * this.bucketWidth;
+	}
+}
@@ -14,21 +14,22 @@ public final class InputManager implements KeyListener {
 	/** Number of recognised keys. */
 	private static final int NUM_KEYS = 256;
 	/** Array with the jeys marked as pressed or not. */
-	private static boolean[] keys;
-	/** Singleton instance of the class. */
+	private final boolean[] keys;
+	/** Instance listening to the game window. */
 	private static InputManager instance;
 
 	/**
-	 * Private constructor.
+	 * Constructor, with every key released. Instances other than the one of
+	 * the window are fed with setKeyDown.
 	 */
-	private InputManager() {
-		keys = new boolean[NUM_KEYS];
+	public InputManager() {
+		this.keys = new boolean[NUM_KEYS];
 	}
 
 	/**
-	 * Returns shared instance of InputManager.
+	 * Returns the instance listening to the game window.
 	 * 
-	 * @return Shared instance of InputManager.
+	 * @return Instance of the game window.
 	 */
 	protected static InputManager getInstance() {
 		if (instance == null)
@@ -44,7 +45,20 @@ public final class InputManager implements KeyListener {
 	 * @return Key state.
 	 */
 	public boolean isKeyDown(final int keyCode) {
-		return keys[keyCode];
+		return this.keys[keyCode];
+	}
+
+	/**
+	 * Changes the state of a key, as if it was pressed or released.
+	 * 
+	 * @param keyCode
+	 *            Key number to change.
+	 * @param pressed
+	 *            True if the key is pressed.
+	 */
+	public void setKeyDown(final int keyCode, final boolean pressed) {
+		if (keyCode >= 0 && keyCode < NUM_KEYS)
+			this.keys[keyCode] = pressed;
 	}
 
 	/**
@@ -55,8 +69,7 @@ public final class InputManager implements KeyListener {
 	 */
 	@Override
 	public void keyPressed(final KeyEvent key) {
-		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
-			keys[key.getKeyCode()] = true;
+		setKeyDown(key.getKeyCode(), true);
 	}
 
 	/**
@@ -67,8 +80,7 @@ public final class InputManager implements KeyListener {
 	 */
 	@Override
 	public void keyReleased(final KeyEvent key) {
-		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
-			keys[key.getKeyCode()] = false;
+		setKeyDown(key.getKeyCode(), false);
 	}
 
 	/**
@@ -0,0 +1,99 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+
+/**
+ * Presents the back buffer in an output area of any size. The image is
+ * enlarged by the biggest integer factor that fits, with nearest-neighbour
+ * sampling so pixels stay square, and centered between black bars.
+ */
+public final class IntegerScaler {
+
+	/** Color of the bars around the scaled image. */
+	private static final Color LETTERBOX_COLOR = Color.BLACK;
+
+	/**
+	 * Private constructor, only static methods.
+	 */
+	private IntegerScaler() {
+
+	}
+
+	/**
+	 * Returns the biggest integer factor an image can be enlarged by to fit
+	 * in an area. Never less than 1.
+	 *
+	 * @param sourceWidth
+	 *            Width of the image.
+	 * @param sourceHeight
+	 *            Height of the image.
+	 * @param areaWidth
+	 *            Width of the area.
+	 * @param areaHeight
+	 *            Height of the area.
+	 * @return Scale factor.
+	 */
+	public static int computeScale(final int sourceWidth,
+			final int sourceHeight, final int areaWidth, final int areaHeight) {
+		if (sourceWidth <= 0 || sourceHeight <= 0)
+			return 1;
+		return Math.max(1, Math.min(areaWidth / sourceWidth,
+				areaHeight / sourceHeight));
+	}
+
+	/**
+	 * Draws an image scaled by an integer factor and centered in an area,
+	 * filling the rest of the area with black bars.
+	 *
+	 * @param graphics
+	 *            Graphics of the output.
+	 * @param image
+	 *            Image to draw.
+	 * @param sourceWidth
+	 *            Width of the part of the image to draw.
+	 * @param sourceHeight
+	 *            Height of the part of the image to draw.
+	 * @param areaX
+	 *            Position in the x-axis of the area.
+	 * @param areaY
+	 *            Position in the y-axis of the area.
+	 * @param areaWidth
+	 *            Width of the area.
+	 * @param areaHeight
+	 *            Height of the area.
+	 */
+	public static void blit(final Graphics2D graphics, final Image image,
+			final int sourceWidth, final int sourceHeight, final int areaX,
+			final int areaY, final int areaWidth, final int areaHeight) {
+		int scale = computeScale(sourceWidth, sourceHeight, areaWidth,
+				areaHeight);
+		int width = sourceWidth * scale;
+		int height = sourceHeight * scale;
+		int x = areaX + Math.max(0, (areaWidth - width) / 2);
+		int y = areaY + Math.max(0, (areaHeight - height) / 2);
+
+		graphics.setColor(LETTERBOX_COLOR);
+		if (y > areaY)
+			graphics.fillRect(areaX, areaY, areaWidth, y - areaY);
+		if (y + height < areaY + areaHeight)
+			graphics.fillRect(areaX, y + height, areaWidth,
+					areaY + areaHeight - y - height);
+		if (x > areaX)
+			graphics.fillRect(areaX, y, x - areaX, height);
+		if (x + width < areaX + areaWidth)
+			graphics.fillRect(x + width, y, areaX + areaWidth - x - width,
+					height);
+
+		if (scale == 1) {
+			graphics.drawImage(image, x, y, null);
+		} else {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+			graphics.drawImage(image, x, y, x + width, y + height, 0, 0,
+					sourceWidth, sourceHeight, null);
+		}
+	}
+}
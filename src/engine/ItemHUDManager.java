@@ -18,10 +18,13 @@ import screen.Screen;
  * 
  * @author Team 8 - HUD Implementation
  */
-public class ItemHUDManager {
+public class ItemHUDManager implements GameEventBus.Subscriber {
     
-    /** Singleton instance */
-    private static ItemHUDManager instance;
+    /** Upgrades of the session shown in the fixed squares */
+    private final ShopItem shopItem;
+    
+    /** Removes the dropped items once their display time is over */
+    private final TimerWheel scheduler;
     
     /** Size of each item square */
     private static final int ITEM_SQUARE_SIZE = 20;
@@ -41,6 +44,9 @@ public class ItemHUDManager {
     /** Currently active dropped items */
     private List<DroppedItemInfo> activeDroppedItems;
     
+    /** Item types, by ordinal */
+    private static final DropItem.ItemType[] ITEM_TYPES = DropItem.ItemType.values();
+    
     /** Maximum number of dynamic items that can be displayed */
     private static final int MAX_DYNAMIC_ITEMS = 6;
     
@@ -50,37 +56,25 @@ public class ItemHUDManager {
     /**
      * Information about a dropped item being displayed
      */
-    private static class DroppedItemInfo {
+    private class DroppedItemInfo {
         public DropItem.ItemType itemType;
-        public long displayStartTime;
+        public final TimerWheel.Timer expiry;
         
         public DroppedItemInfo(DropItem.ItemType itemType) {
             this.itemType = itemType;
-            this.displayStartTime = System.currentTimeMillis();
-        }
-        
-        public boolean isExpired() {
-            return System.currentTimeMillis() - displayStartTime > DROPPED_ITEM_DISPLAY_DURATION;
+            this.expiry = new TimerWheel.Timer(() -> activeDroppedItems.remove(this));
         }
     }
     
     /**
-     * Private constructor for singleton pattern
+     * Constructor, for the items of one game session
      */
-    private ItemHUDManager() {
+    public ItemHUDManager(ShopItem shopItem, TimerWheel scheduler) {
+        this.shopItem = shopItem;
+        this.scheduler = scheduler;
         this.activeDroppedItems = new ArrayList<>();
     }
     
-    /**
-     * Get singleton instance
-     */
-    public static ItemHUDManager getInstance() {
-        if (instance == null) {
-            instance = new ItemHUDManager();
-        }
-        return instance;
-    }
-    
     /**
      * Initialize the HUD manager with screen dimensions
      */
@@ -94,32 +88,71 @@ public class ItemHUDManager {
      * Add a dropped item to be displayed
      */
     public void addDroppedItem(DropItem.ItemType itemType) {
-        // Remove expired items first
-        cleanupExpiredItems();
-        
-        // If we have space, add the new item
-        if (activeDroppedItems.size() < MAX_DYNAMIC_ITEMS) {
-            activeDroppedItems.add(new DroppedItemInfo(itemType));
-        } else {
-            // Replace the oldest item
-            activeDroppedItems.remove(0);
-            activeDroppedItems.add(new DroppedItemInfo(itemType));
+        // Replace the oldest item if there is no space left
+        if (activeDroppedItems.size() >= MAX_DYNAMIC_ITEMS) {
+            scheduler.cancel(activeDroppedItems.remove(0).expiry);
         }
+        DroppedItemInfo item = new DroppedItemInfo(itemType);
+        activeDroppedItems.add(item);
+        scheduler.schedule(item.expiry, DROPPED_ITEM_DISPLAY_DURATION);
     }
     
     /**
-     * Remove expired dropped items
+     * Add the items picked during a tick of the game
      */
-    private void cleanupExpiredItems() {
-        activeDroppedItems.removeIf(DroppedItemInfo::isExpired);
+    @Override
+    public void onEvents(GameEventBus events) {
+        if (events.count(GameEventBus.Type.ITEM_PICKED) == 0)
+            return;
+        for (int i = 0; i < events.size(); i++) {
+            if (events.getType(i) == GameEventBus.Type.ITEM_PICKED)
+                addDroppedItem(ITEM_TYPES[events.getValue(i)]);
+        }
+    }
+    
+    /**
+     * Get a value identifying what the HUD currently shows.
+     * Changes whenever a shop level, an active state or a dropped item changes,
+     * so the HUD only needs to be drawn again when this value differs.
+     */
+    public long getStateKey() {
+        long key = 0;
+        for (ShopItemType itemType : ShopItemType.values()) {
+            key = (key << 5) | (getShopItemLevel(itemType) & 0x1F);
+            key = (key << 1) | (isShopItemActive(itemType) ? 1 : 0);
+        }
+        for (int i = 0; i < MAX_DYNAMIC_ITEMS; i++) {
+            int slot = i < activeDroppedItems.size()
+                    ? activeDroppedItems.get(i).itemType.ordinal() + 1 : 0;
+            key = (key << 3) | slot;
+        }
+        return key;
+    }
+    
+    /** Get the x position of the area covered by the HUD items */
+    public int getAreaX() {
+        return startX;
+    }
+    
+    /** Get the y position of the area covered by the HUD items */
+    public int getAreaY() {
+        return DYNAMIC_ITEMS_Y;
+    }
+    
+    /** Get the width of the area covered by the HUD items, borders included */
+    public int getAreaWidth() {
+        return MAX_DYNAMIC_ITEMS * (ITEM_SQUARE_SIZE + SQUARE_SPACING) + 1;
+    }
+    
+    /** Get the height of the area covered by the HUD items, borders included */
+    public int getAreaHeight() {
+        return FIXED_ITEMS_Y - DYNAMIC_ITEMS_Y + ITEM_SQUARE_SIZE + 1;
     }
     
     /**
      * Draw all items on the HUD
      */
     public void drawItems(Screen screen, Graphics graphics) {
-        cleanupExpiredItems();
-        
         // Draw fixed shop items (bottom row)
         drawFixedShopItems(screen, graphics);
         
@@ -235,15 +268,15 @@ public class ItemHUDManager {
     private boolean isShopItemActive(ShopItemType itemType) {
         switch (itemType) {
             case MULTI_SHOT:
-                return ShopItem.isMultiShotActive();
+                return this.shopItem.isMultiShotActive();
             case RAPID_FIRE:
-                return ShopItem.getRapidFireLevel() > 0;
+                return this.shopItem.getRapidFireLevel() > 0;
             case PENETRATION:
-                return ShopItem.isPenetrationActive();
+                return this.shopItem.isPenetrationActive();
             case BULLET_SPEED:
-                return ShopItem.getBulletSpeedLevel() > 0;
+                return this.shopItem.getBulletSpeedLevel() > 0;
             case SHIP_SPEED:
-                return ShopItem.getSHIPSpeedCOUNT() > 0;
+                return this.shopItem.getSHIPSpeedCOUNT() > 0;
             default:
                 return false;
         }
@@ -255,15 +288,15 @@ public class ItemHUDManager {
     private int getShopItemLevel(ShopItemType itemType) {
         switch (itemType) {
             case MULTI_SHOT:
-                return ShopItem.getMultiShotLevel();
+                return this.shopItem.getMultiShotLevel();
             case RAPID_FIRE:
-                return ShopItem.getRapidFireLevel();
+                return this.shopItem.getRapidFireLevel();
             case PENETRATION:
-                return ShopItem.getPenetrationLevel();
+                return this.shopItem.getPenetrationLevel();
             case BULLET_SPEED:
-                return ShopItem.getBulletSpeedLevel();
+                return this.shopItem.getBulletSpeedLevel();
             case SHIP_SPEED:
-                return ShopItem.getSHIPSpeedCOUNT();
+                return this.shopItem.getSHIPSpeedCOUNT();
             default:
                 return 0;
         }
@@ -0,0 +1,385 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import engine.jfr.PersistenceWriteEvent;
+
+/**
+ * Every run ever submitted, kept in memory in sorted indexes and saved to a
+ * binary file that only grows by appending the new runs. The file is read
+ * once, the first time the leaderboard is used.
+ *
+ * Indexes are sorted best first, so the top entries are a prefix of them and
+ * ranks are found by binary search.
+ */
+public final class Leaderboard {
+
+	/** Name of the leaderboard file. */
+	private static final String FILE_NAME = "scores.bin";
+	/** Marks the start of a leaderboard file. */
+	private static final int MAGIC = 0x494E5653;
+	/** Version of the record format. */
+	private static final int VERSION = 1;
+
+	/** Singleton instance of the class. */
+	private static Leaderboard instance;
+	/** Application logger. */
+	private static Logger logger;
+
+	/** Every run, best first. */
+	private final List<Score> all;
+	/** Runs of each mode, best first. */
+	private final Map<GameMode, List<Score>> byMode;
+	/** Runs reaching each stage, best first. */
+	private final Map<Integer, List<Score>> byStage;
+	/** File the runs are saved to, null if it cannot be written. */
+	private File file;
+
+	/**
+	 * private constructor, loads the saved runs.
+	 */
+	private Leaderboard() {
+		logger = Core.getLogger();
+		this.all = new ArrayList<Score>();
+		this.byMode = new EnumMap<GameMode, List<Score>>(GameMode.class);
+		this.byStage = new HashMap<Integer, List<Score>>();
+		load();
+	}
+
+	/**
+	 * Returns shared instance of Leaderboard.
+	 *
+	 * @return Shared instance of Leaderboard.
+	 */
+	public static synchronized Leaderboard getInstance() {
+		if (instance == null)
+			instance = new Leaderboard();
+		return instance;
+	}
+
+	/**
+	 * Reads the leaderboard file. If there is none yet, the high scores of
+	 * the older text format are imported into a new one.
+	 */
+	private void load() {
+		try {
+			this.file = Core.getFileManager().getUserFile(FILE_NAME);
+		} catch (IOException e) {
+			logger.warning("Couldn't locate the leaderboard file, runs won't be saved.");
+			this.file = null;
+		}
+
+		if (this.file != null && this.file.exists()) {
+			// Offset after the last complete record, where the file is cut
+			// if it ends with a record cut short by a crash, so the runs
+			// appended next are not read out of step.
+			long complete = 0;
+			long length = 0;
+			try {
+				byte[] data = Files.readAllBytes(this.file.toPath());
+				length = data.length;
+				ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+				DataInputStream input = new DataInputStream(bytes);
+				if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+					logger.warning("Unknown leaderboard format, runs won't be saved.");
+					this.file = null;
+				} else {
+					complete = length - bytes.available();
+					while (complete < length) {
+						index(readRecord(input), false);
+						complete = length - bytes.available();
+					}
+				}
+			} catch (EOFException e) {
+				// The last record, or the header, was cut short.
+			} catch (IOException e) {
+				logger.warning("Couldn't read the leaderboard: " + e.getMessage());
+			}
+			if (this.file != null && complete < length) {
+				logger.warning("Dropping " + (length - complete)
+						+ " bytes of a run cut short from the leaderboard.");
+				try (RandomAccessFile truncated = new RandomAccessFile(this.file, "rw")) {
+					truncated.setLength(complete);
+				} catch (IOException e) {
+					logger.warning("Couldn't repair the leaderboard, runs won't be saved.");
+					this.file = null;
+				}
+			}
+			sortIndexes();
+			logger.info("Loaded " + this.all.size() + " runs in the leaderboard.");
+			return;
+		}
+
+		try {
+			List<Score> legacy = Core.getFileManager().loadHighScores();
+			for (Score score : legacy)
+				index(score, false);
+			sortIndexes();
+			if (this.file != null) {
+				PersistenceWriteEvent event = new PersistenceWriteEvent();
+				event.begin();
+				try (DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(this.file)))) {
+					output.writeInt(MAGIC);
+					output.writeInt(VERSION);
+					for (Score score : legacy)
+						writeRecord(output, score);
+				} finally {
+					if (event.shouldCommit()) {
+						event.file = this.file.getPath();
+						event.records = legacy.size();
+						event.commit();
+					}
+				}
+			}
+			logger.info("Imported " + legacy.size() + " high scores into the leaderboard.");
+		} catch (IOException e) {
+			logger.warning("Couldn't import the high scores: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads one run, as saved in the leaderboard file.
+	 *
+	 * @param input
+	 *            Stream positioned at the start of a record.
+	 * @return The run.
+	 * @throws IOException
+	 *             In case of loading problems, EOFException at the end.
+	 */
+	public static Score readRecord(final DataInputStream input)
+			throws IOException {
+		String name = input.readUTF();
+		int points = input.readInt();
+		int stage = input.readInt();
+		int killed = input.readInt();
+		int bullets = input.readInt();
+		float accuracy = input.readFloat();
+		int mode = input.readUnsignedByte();
+		GameMode[] modes = GameMode.values();
+		return new Score(name, points, stage, killed, bullets, accuracy,
+				mode < modes.length ? modes[mode] : GameMode.SINGLE);
+	}
+
+	/**
+	 * Writes one run, as saved in the leaderboard file.
+	 *
+	 * @param output
+	 *            Stream to write to.
+	 * @param score
+	 *            The run.
+	 * @throws IOException
+	 *             In case of saving problems.
+	 */
+	public static void writeRecord(final DataOutputStream output,
+			final Score score) throws IOException {
+		output.writeUTF(score.getName());
+		output.writeInt(score.getScore());
+		output.writeInt(score.getStage());
+		output.writeInt(score.getKilled());
+		output.writeInt(score.getBullets());
+		output.writeFloat(score.getAccuracy());
+		output.writeByte(score.getMode().ordinal());
+	}
+
+	/**
+	 * Adds a run to every index it belongs to.
+	 *
+	 * @param score
+	 *            The run.
+	 * @param sorted
+	 *            True to insert in order, false to append and sort later.
+	 */
+	private void index(final Score score, final boolean sorted) {
+		add(this.all, score, sorted);
+		add(this.byMode.computeIfAbsent(score.getMode(),
+				mode -> new ArrayList<Score>()), score, sorted);
+		add(this.byStage.computeIfAbsent(score.getStage(),
+				stage -> new ArrayList<Score>()), score, sorted);
+	}
+
+	/**
+	 * Adds a run to an index.
+	 */
+	private static void add(final List<Score> list, final Score score,
+			final boolean sorted) {
+		if (sorted)
+			list.add(insertionPoint(list, score), score);
+		else
+			list.add(score);
+	}
+
+	/**
+	 * Sorts every index, after appending runs to them.
+	 */
+	private void sortIndexes() {
+		Collections.sort(this.all);
+		for (List<Score> list : this.byMode.values())
+			Collections.sort(list);
+		for (List<Score> list : this.byStage.values())
+			Collections.sort(list);
+	}
+
+	/**
+	 * Returns the position a run goes in an index, after the runs it ties
+	 * with.
+	 */
+	private static int insertionPoint(final List<Score> list, final Score score) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (list.get(middle).compareTo(score) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of runs in an index with more points than given.
+	 */
+	private static int countAbove(final List<Score> list, final int points) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (list.get(middle).getScore() > points)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Adds a finished run and appends it to the leaderboard file.
+	 *
+	 * @param score
+	 *            The run.
+	 */
+	public synchronized void submit(final Score score) {
+		index(score, true);
+		if (this.file == null)
+			return;
+
+		boolean created = this.file.length() == 0;
+		PersistenceWriteEvent event = new PersistenceWriteEvent();
+		event.begin();
+		int written = 0;
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(this.file, true)))) {
+			if (created) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+			}
+			writeRecord(output, score);
+			written = 1;
+		} catch (IOException e) {
+			logger.warning("Couldn't save the run: " + e.getMessage());
+		}
+		if (event.shouldCommit()) {
+			event.file = this.file.getPath();
+			event.records = written;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the best runs.
+	 *
+	 * @param count
+	 *            Maximum number of runs.
+	 * @return Best runs, best first.
+	 */
+	public synchronized List<Score> getTop(final int count) {
+		return top(this.all, count);
+	}
+
+	/**
+	 * Returns the best runs of a mode.
+	 *
+	 * @param mode
+	 *            Game mode.
+	 * @param count
+	 *            Maximum number of runs.
+	 * @return Best runs, best first.
+	 */
+	public synchronized List<Score> getTop(final GameMode mode, final int count) {
+		return top(this.byMode.get(mode), count);
+	}
+
+	/**
+	 * Returns the best runs that ended in a stage.
+	 *
+	 * @param stage
+	 *            Stage the runs ended in.
+	 * @param count
+	 *            Maximum number of runs.
+	 * @return Best runs, best first.
+	 */
+	public synchronized List<Score> getTopOfStage(final int stage, final int count) {
+		return top(this.byStage.get(stage), count);
+	}
+
+	/**
+	 * Copies the start of an index.
+	 */
+	private static List<Score> top(final List<Score> list, final int count) {
+		if (list == null)
+			return new ArrayList<Score>();
+		return new ArrayList<Score>(list.subList(0, Math.min(count, list.size())));
+	}
+
+	/**
+	 * Returns the rank a number of points would have among every run.
+	 *
+	 * @param points
+	 *            Points of the run.
+	 * @return Rank, 1 being the best.
+	 */
+	public synchronized int getRank(final int points) {
+		return countAbove(this.all, points) + 1;
+	}
+
+	/**
+	 * Returns the rank a number of points would have among the runs of a
+	 * mode.
+	 *
+	 * @param mode
+	 *            Game mode.
+	 * @param points
+	 *            Points of the run.
+	 * @return Rank, 1 being the best.
+	 */
+	public synchronized int getRank(final GameMode mode, final int points) {
+		List<Score> list = this.byMode.get(mode);
+		return (list == null ? 0 : countAbove(list, points)) + 1;
+	}
+
+	/**
+	 * Getter for the number of runs.
+	 *
+	 * @return Number of runs in the leaderboard.
+	 */
+	public synchronized int size() {
+		return this.all.size();
+	}
+}
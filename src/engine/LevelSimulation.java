@@ -0,0 +1,1175 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import engine.level.EnemyType;
+import engine.level.DropTable;
+import engine.level.ItemDrop;
+import engine.level.Level;
+
+/**
+ * Plays a level without a window, one tick at a time, as fast as the
+ * machine allows. It follows the rules of GameScreen for a single player
+ * without upgrades: the enemy formation with its movement, shots and item
+ * drops, the items, and the omega and final bosses. Time only moves with
+ * the ticks, so a whole level takes a few milliseconds and the same seed
+ * and inputs always give the same result.
+ *
+ * It is a model of the game, not the game itself: GameScreen follows the
+ * clock of the window. Drops are rolled from the drop tables of the level,
+ * and randomness is drawn from the streams of a session with the same
+ * seed, as the game does, but the special enemies, portals and upgrades
+ * are left out. RULES names what is modelled, for the results to say so.
+ */
+public final class LevelSimulation {
+
+	/**
+	 * Chooses the input of the player every tick.
+	 */
+	public interface Pilot {
+
+		/**
+		 * Chooses the input for the next tick.
+		 *
+		 * @param simulation
+		 *            Level being played.
+		 * @return Input bits, as in PvPState.
+		 */
+		int decide(LevelSimulation simulation);
+	}
+
+	/** Rules of the game the simulation follows. */
+	public static final String RULES = "formation+drops+items+bosses;"
+			+ "no special enemies, portals or upgrades";
+
+	/** Screen width. */
+	public static final int WIDTH = 448;
+	/** Screen height. */
+	public static final int HEIGHT = 520;
+	/** Ticks per second. */
+	public static final int FPS = 60;
+	/** Lives at the start of a level. */
+	public static final int MAX_LIVES = 3;
+	/** Highest position of the ship. */
+	public static final int TOP_LINE = 45;
+	/** Lowest position of the ship. */
+	public static final int BOTTOM_LINE = 400;
+
+	/** Ship width. */
+	public static final int SHIP_WIDTH = 13 * 2;
+	/** Ship height. */
+	public static final int SHIP_HEIGHT = 8 * 2;
+	/** Enemy width. */
+	public static final int ENEMY_WIDTH = 12 * 2;
+	/** Enemy height. */
+	public static final int ENEMY_HEIGHT = 8 * 2;
+	/** Bullet width. */
+	public static final int BULLET_WIDTH = 3 * 2;
+	/** Bullet height. */
+	public static final int BULLET_HEIGHT = 5 * 2;
+	/** Item width and height. */
+	public static final int ITEM_SIZE = 5 * 2;
+
+	/** Most bullets on screen at once. */
+	private static final int MAX_BULLETS = 128;
+	/** Most items on screen at once. */
+	private static final int MAX_ITEMS = 32;
+
+	/** Ship movement per tick. */
+	private static final int SHIP_SPEED = 2;
+	/** Speed of the ship bullets. */
+	private static final int SHIP_BULLET_SPEED = -6;
+	/** Milliseconds between shots of the ship. */
+	private static final int SHOOTING_INTERVAL = 750;
+	/** Milliseconds the ship stays destroyed after a hit. */
+	private static final int DESTRUCTION_TIME = 1000;
+
+	/** Position of the first enemy in the X axis. */
+	private static final int FORMATION_X = 20;
+	/** Position of the first enemy in the Y axis. */
+	private static final int FORMATION_Y = 100;
+	/** Distance between two enemies. */
+	private static final int SEPARATION_DISTANCE = 40;
+	/** Proportion of C enemies when the level gives no enemy types. */
+	private static final double PROPORTION_C = 0.2;
+	/** Proportion of B enemies when the level gives no enemy types. */
+	private static final double PROPORTION_B = 0.4;
+	/** Formation movement in the X axis. */
+	private static final int FORMATION_X_SPEED = 8;
+	/** Formation movement in the X axis while slowed down. */
+	private static final int SLOWED_X_SPEED = 4;
+	/** Formation moves slowed down by the slow item. */
+	private static final int SLOWDOWN_MOVES = 18;
+	/** Formation movement in the Y axis. */
+	private static final int FORMATION_Y_SPEED = 4;
+	/** Ticks between formation moves at least. */
+	private static final int MINIMUM_SPEED = 10;
+	/** Distance kept to the sides of the screen. */
+	private static final int SIDE_MARGIN = 20;
+	/** Speed of the enemy bullets. */
+	private static final int ENEMY_BULLET_SPEED = 4;
+	/** Variation of the time between enemy shots. */
+	private static final double SHOOTING_VARIANCE = .2;
+
+	/** Speed of the items. */
+	private static final int ITEM_SPEED = 2;
+	/** Milliseconds of invincibility given by the shield item. */
+	private static final int SHIELD_TIME = 5000;
+	/** Milliseconds the enemies stay frozen by the stop item. */
+	private static final int FREEZE_TIME = 3000;
+	/** Distance the push item moves the enemies up. */
+	private static final int PUSH_DISTANCE = 20;
+	/** Points per enemy destroyed by the explode item. */
+	private static final int EXPLODE_POINTS = 5;
+
+	/** No boss on screen. */
+	private static final int NO_BOSS = 0;
+	/** Omega boss on screen. */
+	private static final int OMEGA_BOSS = 1;
+	/** Final boss on screen. */
+	private static final int FINAL_BOSS = 2;
+
+	/** Items of the game, in the order of their ids. */
+	private static final String[] ITEMS = { "Heal", "Shield", "Stop",
+			"Push", "Explode", "Slow" };
+
+	/** Level played. */
+	private final Level level;
+	/** Enemy picked to shoot next. */
+	private final GameRandom shotRandom;
+	/** Time between enemy shots. */
+	private final GameRandom cooldownRandom;
+	/** Items dropped by destroyed enemies. */
+	private final GameRandom dropRandom;
+	/** Attacks of the bosses. */
+	private final GameRandom bossRandom;
+	/** Ticks a ship shot takes to reload. */
+	private final int shootingTicks;
+	/** Ticks the ship stays destroyed. */
+	private final int destructionTicks;
+	/** Tick limit, after which the level counts as not cleared. */
+	private final int maxTicks;
+
+	/** Ticks simulated. */
+	private int tick;
+	/** True once the formation and the bosses are destroyed. */
+	private boolean cleared;
+	/** True once the ship has no lives left. */
+	private boolean failed;
+	/** Points earned. */
+	private int score;
+	/** Coins earned, with the completion bonus once cleared. */
+	private int coins;
+	/** Lives lost, even if healed back. */
+	private int livesLost;
+
+	/** Ship position in the X axis. */
+	private int shipX;
+	/** Ship position in the Y axis. */
+	private int shipY;
+	/** Lives left. */
+	private int lives;
+	/** Ticks until the ship can shoot again. */
+	private int shootWait;
+	/** Ticks until the ship is no longer destroyed. */
+	private int destroyedWait;
+	/** Ticks until the ship is no longer invincible. */
+	private int invincibleWait;
+
+	/** Columns of the formation. */
+	private final int columns;
+	/** Rows of the formation. */
+	private final int rows;
+	/** Enemy positions in the X axis, column after column. */
+	private final int[] enemyX;
+	/** Enemy positions in the Y axis, column after column. */
+	private final int[] enemyY;
+	/** Enemy types, 0 for A to 2 for C. */
+	private final int[] enemyKind;
+	/** Enemies not destroyed. */
+	private final boolean[] enemyAlive;
+	/** Enemies left. */
+	private int enemyCount;
+	/** Formation direction in the X axis, 1 right or -1 left. */
+	private int formationDx = 1;
+	/** Formation direction in the Y axis, 1 down or -1 up. */
+	private int formationDy = 1;
+	/** Ticks since the formation last moved. */
+	private int movementInterval;
+	/** Formation moves left slowed down. */
+	private int slowedMoves;
+	/** Ticks until the enemies are no longer frozen. */
+	private int freezeWait;
+	/** Ticks until the next enemy shot. */
+	private int enemyShootWait;
+
+	/** Boss on screen. */
+	private int boss;
+	/** True once the boss wave started. */
+	private boolean bossWave;
+	/** Boss position in the X axis. */
+	private int bossX;
+	/** Boss position in the Y axis. */
+	private int bossY;
+	/** Boss width. */
+	private int bossWidth;
+	/** Boss height. */
+	private int bossHeight;
+	/** Boss health. */
+	private int bossHp;
+	/** Boss health when it appeared. */
+	private int bossMaxHp;
+	/** Boss direction in the X axis. */
+	private int bossDx;
+	/** Boss direction in the Y axis. */
+	private int bossDy;
+	/** Ticks until each shot pattern of the final boss is ready. */
+	private final int[] bossShootWait = new int[3];
+	/** True once the final boss cleared its bullets to get angry. */
+	private boolean bossAngry;
+
+	/** Number of bullets on screen. */
+	private int bulletTotal;
+	/** Bullet positions in the X axis. */
+	private final int[] bulletX = new int[MAX_BULLETS];
+	/** Bullet positions in the Y axis. */
+	private final int[] bulletY = new int[MAX_BULLETS];
+	/** Bullet movement in the X axis, only for boss bullets. */
+	private final int[] bulletDx = new int[MAX_BULLETS];
+	/** Bullet movement in the Y axis, negative for the ship bullets. */
+	private final int[] bulletDy = new int[MAX_BULLETS];
+	/** True for the boss bullets. */
+	private final boolean[] bulletBoss = new boolean[MAX_BULLETS];
+
+	/** Number of items on screen. */
+	private int itemTotal;
+	/** Item positions in the X axis. */
+	private final int[] itemX = new int[MAX_ITEMS];
+	/** Item positions in the Y axis. */
+	private final int[] itemY = new int[MAX_ITEMS];
+	/** Item ids, indexes of ITEMS. */
+	private final int[] itemId = new int[MAX_ITEMS];
+
+
+	/**
+	 * Constructor, places the ship and the formation for the start of the
+	 * level.
+	 *
+	 * @param level
+	 *            Level to play.
+	 * @param seed
+	 *            Seed of the session, as in GameContext.headless.
+	 * @param maxSeconds
+	 *            Seconds of play after which the level is given up.
+	 */
+	public LevelSimulation(final Level level, final long seed,
+			final int maxSeconds) {
+		this.level = level;
+		RandomService random = new RandomService(seed);
+		this.shotRandom = random.get(RandomService.Stream.ENEMY_SHOTS);
+		this.cooldownRandom = random.get(RandomService.Stream.COOLDOWNS);
+		this.dropRandom = random.get(RandomService.Stream.DROPS);
+		this.bossRandom = random.get(RandomService.Stream.BOSS);
+		this.shootingTicks = toTicks(SHOOTING_INTERVAL);
+		this.destructionTicks = toTicks(DESTRUCTION_TIME);
+		this.maxTicks = maxSeconds * FPS;
+
+		this.shipX = WIDTH / 2 - 100;
+		this.shipY = BOTTOM_LINE - 20;
+		this.lives = MAX_LIVES;
+
+		this.columns = level.getFormationWidth();
+		this.rows = level.getFormationHeight();
+		int cells = this.columns * this.rows;
+		this.enemyX = new int[cells];
+		this.enemyY = new int[cells];
+		this.enemyKind = new int[cells];
+		this.enemyAlive = new boolean[cells];
+		placeFormation();
+		this.enemyShootWait = nextEnemyShot();
+	}
+
+	/**
+	 * Converts milliseconds to ticks, rounding up.
+	 */
+	private static int toTicks(final int milliseconds) {
+		return (milliseconds * FPS + 999) / 1000;
+	}
+
+	/**
+	 * Places the enemies, giving them the types of the level in layers: C
+	 * at the top, then B, then A, filling row after row.
+	 */
+	private void placeFormation() {
+		int[] counts = new int[3];
+		List<EnemyType> types = this.level.getEnemyTypes();
+		boolean layered = types != null && !types.isEmpty();
+		if (layered) {
+			for (EnemyType type : types) {
+				String kind = type.getType() == null ? "enemya"
+						: type.getType().trim().toLowerCase();
+				int count = Math.max(0, type.getCount());
+				if (kind.equals("enemyc") || kind.equals("c"))
+					counts[2] += count;
+				else if (kind.equals("enemyb") || kind.equals("b"))
+					counts[1] += count;
+				else
+					counts[0] += count;
+			}
+		}
+
+		for (int row = 0; row < this.rows; row++) {
+			for (int column = 0; column < this.columns; column++) {
+				int kind;
+				if (!layered) {
+					if (row / (float) this.rows < PROPORTION_C)
+						kind = 2;
+					else if (row / (float) this.rows < PROPORTION_B + PROPORTION_C)
+						kind = 1;
+					else
+						kind = 0;
+				} else if (counts[2] > 0) {
+					kind = 2;
+				} else if (counts[1] > 0) {
+					kind = 1;
+				} else {
+					kind = 0;
+				}
+				counts[kind]--;
+				int e = column * this.rows + row;
+				this.enemyX[e] = SEPARATION_DISTANCE * column + FORMATION_X;
+				this.enemyY[e] = SEPARATION_DISTANCE * row + FORMATION_Y;
+				this.enemyKind[e] = kind;
+				this.enemyAlive[e] = true;
+			}
+		}
+		this.enemyCount = this.columns * this.rows;
+	}
+
+	/**
+	 * Finds the id of an item.
+	 */
+	private static int itemIndex(final String name) {
+		for (int i = 0; i < ITEMS.length; i++)
+			if (ITEMS[i].equalsIgnoreCase(name))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Picks the ticks until the next enemy shot. The range matches the one of
+	 * a variable Cooldown, which goes past the nominal interval.
+	 */
+	private int nextEnemyShot() {
+		int milliseconds = this.level.getShootingFrecuency();
+		int variance = (int) (milliseconds * SHOOTING_VARIANCE);
+		return toTicks(Cooldown.drawDuration(milliseconds, variance,
+				this.cooldownRandom));
+	}
+
+	/**
+	 * Plays the level until it is cleared, lost or given up.
+	 *
+	 * @param pilot
+	 *            Chooses the input of the player.
+	 * @return This simulation, finished.
+	 */
+	public LevelSimulation run(final Pilot pilot) {
+		while (!isFinished())
+			step(pilot.decide(this));
+		return this;
+	}
+
+	/**
+	 * Advances the level one tick.
+	 *
+	 * @param input
+	 *            Input bits of the player, as in PvPState.
+	 */
+	public void step(final int input) {
+		if (isFinished())
+			return;
+		this.tick++;
+
+		if (this.shootWait > 0)
+			this.shootWait--;
+		if (this.destroyedWait > 0)
+			this.destroyedWait--;
+		if (this.invincibleWait > 0)
+			this.invincibleWait--;
+		if (this.destroyedWait == 0)
+			moveShip(input);
+
+		if (!this.bossWave) {
+			if (this.freezeWait > 0) {
+				// The shooting interval keeps running while frozen.
+				this.freezeWait--;
+				if (this.enemyShootWait > 1)
+					this.enemyShootWait--;
+			} else {
+				moveFormation();
+				enemyShoot();
+			}
+			if (this.enemyCount == 0)
+				startBossWave();
+		} else {
+			updateBoss();
+		}
+
+		moveItems();
+		bulletCollisions();
+		shipEnemyCollisions();
+		itemCollisions();
+		moveBullets();
+
+		if (this.lives == 0)
+			this.failed = true;
+		if (this.cleared && this.level.getCompletionBonus() != null)
+			this.coins += this.level.getCompletionBonus().getCurrency();
+	}
+
+	/**
+	 * Moves the ship and shoots.
+	 */
+	private void moveShip(final int input) {
+		boolean right = (input & PvPState.INPUT_RIGHT) != 0
+				&& this.shipX + SHIP_WIDTH + SHIP_SPEED <= WIDTH - 1;
+		boolean left = (input & PvPState.INPUT_LEFT) != 0
+				&& this.shipX - SHIP_SPEED >= 1;
+		boolean up = (input & PvPState.INPUT_UP) != 0
+				&& this.shipY - SHIP_SPEED >= TOP_LINE;
+		boolean down = (input & PvPState.INPUT_DOWN) != 0
+				&& this.shipY + SHIP_HEIGHT + SHIP_SPEED <= BOTTOM_LINE;
+		if (right)
+			this.shipX += SHIP_SPEED;
+		if (left)
+			this.shipX -= SHIP_SPEED;
+		if (up)
+			this.shipY -= SHIP_SPEED;
+		if (down)
+			this.shipY += SHIP_SPEED;
+
+		if ((input & PvPState.INPUT_FIRE) != 0 && this.shootWait == 0) {
+			addBullet(this.shipX + SHIP_WIDTH / 2 - BULLET_WIDTH / 2,
+					this.shipY, 0, SHIP_BULLET_SPEED, false);
+			this.shootWait = this.shootingTicks;
+		}
+	}
+
+	/**
+	 * Moves the formation diagonally when its turn comes, bouncing on the
+	 * sides, the item line and its starting height. It gets faster as it
+	 * loses enemies.
+	 */
+	private void moveFormation() {
+		double remaining = (double) this.enemyCount / (this.columns * this.rows);
+		int movementSpeed = (int) (Math.pow(remaining, 2)
+				* this.level.getBaseSpeed()) + MINIMUM_SPEED;
+		if (++this.movementInterval < movementSpeed)
+			return;
+		this.movementInterval = 0;
+		if (this.slowedMoves > 0)
+			this.slowedMoves--;
+
+		int left = Integer.MAX_VALUE;
+		int right = Integer.MIN_VALUE;
+		int top = Integer.MAX_VALUE;
+		int bottom = Integer.MIN_VALUE;
+		for (int e = 0; e < this.enemyX.length; e++) {
+			if (!this.enemyAlive[e])
+				continue;
+			left = Math.min(left, this.enemyX[e]);
+			right = Math.max(right, this.enemyX[e] + ENEMY_WIDTH);
+			top = Math.min(top, this.enemyY[e]);
+			bottom = Math.max(bottom, this.enemyY[e] + ENEMY_HEIGHT);
+		}
+		if (left == Integer.MAX_VALUE)
+			return;
+
+		boolean atBottom = bottom > BOTTOM_LINE;
+		boolean atTop = top <= FORMATION_Y;
+		boolean atRight = right >= WIDTH - SIDE_MARGIN;
+		boolean atLeft = left <= SIDE_MARGIN;
+		if (this.formationDy > 0 && atBottom)
+			this.formationDy = -1;
+		else if (this.formationDy < 0 && atTop)
+			this.formationDy = 1;
+		if (this.formationDx > 0 && atRight)
+			this.formationDx = -1;
+		else if (this.formationDx < 0 && atLeft)
+			this.formationDx = 1;
+
+		int dx = this.formationDx
+				* (this.slowedMoves > 0 ? SLOWED_X_SPEED : FORMATION_X_SPEED);
+		int dy = this.formationDy * FORMATION_Y_SPEED;
+		for (int e = 0; e < this.enemyX.length; e++) {
+			this.enemyX[e] += dx;
+			this.enemyY[e] += dy;
+		}
+	}
+
+	/**
+	 * Shoots from the bottom enemy of a random column when the shooting
+	 * interval has passed.
+	 */
+	private void enemyShoot() {
+		if (this.enemyShootWait > 0 && --this.enemyShootWait > 0)
+			return;
+		this.enemyShootWait = nextEnemyShot();
+		int shooters = 0;
+		for (int column = 0; column < this.columns; column++)
+			if (bottomEnemy(column) >= 0)
+				shooters++;
+		if (shooters == 0)
+			return;
+		int pick = this.shotRandom.nextInt(shooters);
+		for (int column = 0; column < this.columns; column++) {
+			int e = bottomEnemy(column);
+			if (e >= 0 && pick-- == 0) {
+				addBullet(this.enemyX[e] + ENEMY_WIDTH / 2 - BULLET_WIDTH / 2,
+						this.enemyY[e], 0, ENEMY_BULLET_SPEED, false);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Finds the lowest enemy left in a column.
+	 *
+	 * @param column
+	 *            Column of the formation.
+	 * @return Index of the enemy, -1 if the column is empty.
+	 */
+	public int bottomEnemy(final int column) {
+		for (int row = this.rows - 1; row >= 0; row--)
+			if (this.enemyAlive[column * this.rows + row])
+				return column * this.rows + row;
+		return -1;
+	}
+
+	/**
+	 * Brings the boss of the level, or clears it if it has none.
+	 */
+	private void startBossWave() {
+		this.bossWave = true;
+		String bossId = this.level.getBossId();
+		if ("omegaBoss".equals(bossId) || "omegaAndFinal".equals(bossId))
+			spawnBoss(OMEGA_BOSS);
+		else if ("finalBoss".equals(bossId))
+			spawnBoss(FINAL_BOSS);
+		else
+			this.cleared = true;
+	}
+
+	/**
+	 * Places a boss at the top of the screen.
+	 */
+	private void spawnBoss(final int kind) {
+		this.boss = kind;
+		this.bossDx = 1;
+		this.bossDy = 1;
+		if (kind == OMEGA_BOSS) {
+			this.bossX = 224;
+			this.bossY = 50;
+			this.bossWidth = 64;
+			this.bossHeight = 28;
+			this.bossHp = 45;
+		} else {
+			this.bossX = WIDTH / 2 - 50;
+			this.bossY = 50;
+			this.bossWidth = 100;
+			this.bossHeight = 80;
+			this.bossHp = 80;
+			this.bossAngry = false;
+			Arrays.fill(this.bossShootWait, 0);
+		}
+		this.bossMaxHp = this.bossHp;
+	}
+
+	/**
+	 * Moves the boss and, for the final boss, shoots its patterns.
+	 */
+	private void updateBoss() {
+		if (this.boss == OMEGA_BOSS) {
+			if (this.bossHp >= this.bossMaxHp / 2) {
+				this.bossX += this.bossDx;
+				if (this.bossX <= 0)
+					this.bossDx = 1;
+				else if (this.bossX + this.bossWidth >= WIDTH)
+					this.bossDx = -1;
+			} else {
+				this.bossX += this.bossDx * 4;
+				this.bossY += this.bossDy * 3;
+				if (this.bossX <= 0) {
+					this.bossX = 0;
+					this.bossDx = 1;
+				} else if (this.bossX + this.bossWidth >= WIDTH) {
+					this.bossX = WIDTH - this.bossWidth;
+					this.bossDx = -1;
+				}
+				if (this.bossY <= 50) {
+					this.bossY = 50;
+					this.bossDy = 1;
+				} else if (this.bossY + this.bossHeight >= BOTTOM_LINE) {
+					this.bossY = BOTTOM_LINE - this.bossHeight;
+					this.bossDy = -1;
+				}
+			}
+		} else if (this.boss == FINAL_BOSS) {
+			if (this.bossHp <= this.bossMaxHp / 2) {
+				int zig = this.bossHp > this.bossMaxHp / 4 ? 4 : 2;
+				int vertical = this.bossHp > this.bossMaxHp / 4 ? 3 : 1;
+				this.bossX += this.bossDx * zig;
+				if (this.bossX <= 0 || this.bossX >= WIDTH - this.bossWidth)
+					this.bossDx = -this.bossDx;
+				this.bossY += this.bossDy * vertical;
+				if (this.bossDy > 0 && this.bossY >= HEIGHT / 2 - this.bossHeight)
+					this.bossDy = -1;
+				else if (this.bossDy < 0 && this.bossY <= 0)
+					this.bossDy = 1;
+			}
+			for (int i = 0; i < 3; i++)
+				if (this.bossShootWait[i] > 0)
+					this.bossShootWait[i]--;
+			if (this.bossHp > this.bossMaxHp / 4) {
+				if (this.bossShootWait[0] == 0) {
+					this.bossShootWait[0] = toTicks(5000);
+					for (int dx = -2; dx <= 2; dx++)
+						addBullet(this.bossX + this.bossWidth / 2 - 3,
+								this.bossY + this.bossHeight, dx, 4, true);
+				}
+				if (this.bossShootWait[1] == 0) {
+					this.bossShootWait[1] = toTicks(400);
+					addBullet(this.bossRandom.nextInt(WIDTH), 1, 0, 2, true);
+				}
+			} else if (!this.bossAngry) {
+				this.bossAngry = true;
+				for (int b = this.bulletTotal - 1; b >= 0; b--)
+					if (this.bulletBoss[b])
+						removeBullet(b);
+			} else if (this.bossShootWait[2] == 0) {
+				this.bossShootWait[2] = toTicks(300);
+				addBullet(this.bossX + this.bossWidth / 2 - 3 + 70, this.bossY, 0, 5, true);
+				addBullet(this.bossX + this.bossWidth / 2 - 3 - 70, this.bossY, 0, 5, true);
+			}
+		}
+	}
+
+	/**
+	 * Damages the boss, bringing the next one or clearing the level when it
+	 * is destroyed.
+	 */
+	private void hitBoss() {
+		this.bossHp -= this.boss == OMEGA_BOSS ? 2 : 1;
+		if (this.bossHp > 0)
+			return;
+		int points = this.boss == OMEGA_BOSS ? 500 : 1000;
+		this.score += points;
+		this.coins += points / 10;
+		if (this.boss == OMEGA_BOSS && "omegaAndFinal".equals(this.level.getBossId())) {
+			spawnBoss(FINAL_BOSS);
+		} else {
+			this.boss = NO_BOSS;
+			this.cleared = true;
+		}
+	}
+
+	/**
+	 * Destroys an enemy hit by a bullet, giving its points and maybe
+	 * dropping an item.
+	 */
+	private void shootEnemy(final int e) {
+		this.enemyAlive[e] = false;
+		this.enemyCount--;
+		int kind = this.enemyKind[e];
+		int points = (kind + 1) * 10;
+		this.score += points;
+		this.coins += points / 10;
+
+		DropTable table = this.level.getDropTable("enemy" + (char) ('A' + kind));
+		if (table == null)
+			return;
+		ItemDrop drop = table.roll(this.dropRandom.nextDouble());
+		int chosen = drop == null ? -1 : itemIndex(drop.getItemId());
+		if (chosen >= 0 && this.itemTotal < MAX_ITEMS) {
+			this.itemX[this.itemTotal] = this.enemyX[e] + ENEMY_WIDTH / 2;
+			this.itemY[this.itemTotal] = this.enemyY[e] + ENEMY_HEIGHT / 2;
+			this.itemId[this.itemTotal] = chosen;
+			this.itemTotal++;
+		}
+	}
+
+	/**
+	 * Makes the ship lose a life.
+	 */
+	private void loseLife() {
+		this.destroyedWait = this.destructionTicks;
+		this.lives--;
+		this.livesLost++;
+	}
+
+	/**
+	 * Checks the bullets against the ship, the enemies and the bosses.
+	 */
+	private void bulletCollisions() {
+		for (int b = this.bulletTotal - 1; b >= 0; b--) {
+			int x = this.bulletX[b];
+			int y = this.bulletY[b];
+			if (this.bulletDy[b] > 0) {
+				if (this.lives > 0 && overlaps(x, y, BULLET_WIDTH, BULLET_HEIGHT,
+						this.shipX, this.shipY, SHIP_WIDTH, SHIP_HEIGHT)) {
+					boolean shielded = !this.bulletBoss[b] && this.invincibleWait > 0;
+					if (!shielded && this.destroyedWait == 0)
+						loseLife();
+					removeBullet(b);
+				}
+				continue;
+			}
+			boolean hit = false;
+			for (int e = 0; e < this.enemyX.length && !hit; e++) {
+				if (this.enemyAlive[e] && overlaps(x, y, BULLET_WIDTH, BULLET_HEIGHT,
+						this.enemyX[e], this.enemyY[e], ENEMY_WIDTH, ENEMY_HEIGHT)) {
+					shootEnemy(e);
+					hit = true;
+				}
+			}
+			if (!hit && this.boss != NO_BOSS && overlaps(x, y, BULLET_WIDTH,
+					BULLET_HEIGHT, this.bossX, this.bossY, this.bossWidth, this.bossHeight)) {
+				hitBoss();
+				hit = true;
+			}
+			if (hit)
+				removeBullet(b);
+		}
+	}
+
+	/**
+	 * Checks the ship against the enemies and the bosses.
+	 */
+	private void shipEnemyCollisions() {
+		if (this.lives == 0 || this.destroyedWait > 0 || this.invincibleWait > 0)
+			return;
+		for (int e = 0; e < this.enemyX.length; e++) {
+			if (this.enemyAlive[e] && overlaps(this.shipX, this.shipY, SHIP_WIDTH,
+					SHIP_HEIGHT, this.enemyX[e], this.enemyY[e], ENEMY_WIDTH, ENEMY_HEIGHT)) {
+				this.enemyAlive[e] = false;
+				this.enemyCount--;
+				loseLife();
+				return;
+			}
+		}
+		if (this.boss != NO_BOSS && overlaps(this.shipX, this.shipY, SHIP_WIDTH,
+				SHIP_HEIGHT, this.bossX, this.bossY, this.bossWidth, this.bossHeight))
+			loseLife();
+	}
+
+	/**
+	 * Moves the items down, removing the ones off screen.
+	 */
+	private void moveItems() {
+		for (int i = this.itemTotal - 1; i >= 0; i--) {
+			this.itemY[i] += ITEM_SPEED;
+			if (this.itemY[i] > HEIGHT)
+				removeItem(i);
+		}
+	}
+
+	/**
+	 * Picks up the items the ship touches and applies them.
+	 */
+	private void itemCollisions() {
+		if (this.lives == 0 || this.destroyedWait > 0)
+			return;
+		for (int i = this.itemTotal - 1; i >= 0; i--) {
+			if (!overlaps(this.shipX, this.shipY, SHIP_WIDTH, SHIP_HEIGHT,
+					this.itemX[i], this.itemY[i], ITEM_SIZE, ITEM_SIZE))
+				continue;
+			switch (ITEMS[this.itemId[i]]) {
+			case "Heal":
+				if (this.lives < MAX_LIVES)
+					this.lives++;
+				break;
+			case "Shield":
+				this.invincibleWait = toTicks(SHIELD_TIME);
+				break;
+			case "Stop":
+				this.freezeWait = toTicks(FREEZE_TIME);
+				break;
+			case "Push":
+				for (int e = 0; e < this.enemyY.length; e++)
+					this.enemyY[e] -= PUSH_DISTANCE;
+				break;
+			case "Explode":
+				this.score += this.enemyCount * EXPLODE_POINTS;
+				Arrays.fill(this.enemyAlive, false);
+				this.enemyCount = 0;
+				break;
+			case "Slow":
+				this.slowedMoves = SLOWDOWN_MOVES;
+				break;
+			default:
+				break;
+			}
+			removeItem(i);
+		}
+	}
+
+	/**
+	 * Moves the bullets, removing the ones off screen.
+	 */
+	private void moveBullets() {
+		for (int b = this.bulletTotal - 1; b >= 0; b--) {
+			this.bulletX[b] += this.bulletDx[b];
+			this.bulletY[b] += this.bulletDy[b];
+			boolean off = this.bulletBoss[b]
+					? this.bulletX[b] < 0 || this.bulletX[b] > WIDTH
+							|| this.bulletY[b] < 0 || this.bulletY[b] > HEIGHT
+					: this.bulletY[b] < TOP_LINE || this.bulletY[b] > HEIGHT;
+			if (off)
+				removeBullet(b);
+		}
+	}
+
+	/**
+	 * Adds a bullet, unless the screen is full of them.
+	 */
+	private void addBullet(final int x, final int y, final int dx,
+			final int dy, final boolean fromBoss) {
+		if (this.bulletTotal == MAX_BULLETS)
+			return;
+		int b = this.bulletTotal++;
+		this.bulletX[b] = x;
+		this.bulletY[b] = y;
+		this.bulletDx[b] = dx;
+		this.bulletDy[b] = dy;
+		this.bulletBoss[b] = fromBoss;
+	}
+
+	/**
+	 * Removes a bullet, moving the last one in its place.
+	 */
+	private void removeBullet(final int b) {
+		int last = --this.bulletTotal;
+		this.bulletX[b] = this.bulletX[last];
+		this.bulletY[b] = this.bulletY[last];
+		this.bulletDx[b] = this.bulletDx[last];
+		this.bulletDy[b] = this.bulletDy[last];
+		this.bulletBoss[b] = this.bulletBoss[last];
+	}
+
+	/**
+	 * Removes an item, moving the last one in its place.
+	 */
+	private void removeItem(final int i) {
+		int last = --this.itemTotal;
+		this.itemX[i] = this.itemX[last];
+		this.itemY[i] = this.itemY[last];
+		this.itemId[i] = this.itemId[last];
+	}
+
+	/**
+	 * Checks if two rectangles overlap.
+	 */
+	private static boolean overlaps(final int ax, final int ay, final int aw,
+			final int ah, final int bx, final int by, final int bw, final int bh) {
+		return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+	}
+
+	/**
+	 * Checks if the level is over.
+	 *
+	 * @return True once cleared, lost or given up.
+	 */
+	public boolean isFinished() {
+		return this.cleared || this.failed || this.tick >= this.maxTicks;
+	}
+
+	/**
+	 * Checks if the level was cleared.
+	 *
+	 * @return True if the formation and the bosses were destroyed.
+	 */
+	public boolean isCleared() {
+		return this.cleared;
+	}
+
+	/**
+	 * Checks if the level was lost.
+	 *
+	 * @return True if the ship has no lives left.
+	 */
+	public boolean isFailed() {
+		return this.failed;
+	}
+
+	/**
+	 * Getter for the ticks simulated.
+	 *
+	 * @return Ticks simulated.
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Getter for the time played.
+	 *
+	 * @return Seconds of play simulated.
+	 */
+	public double getSeconds() {
+		return (double) this.tick / FPS;
+	}
+
+	/**
+	 * Getter for the score.
+	 *
+	 * @return Points earned.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Getter for the coins.
+	 *
+	 * @return Coins earned, with the completion bonus once cleared.
+	 */
+	public int getCoins() {
+		return this.coins;
+	}
+
+	/**
+	 * Getter for the lives lost.
+	 *
+	 * @return Lives lost, even if healed back.
+	 */
+	public int getLivesLost() {
+		return this.livesLost;
+	}
+
+	/**
+	 * Getter for the lives left.
+	 *
+	 * @return Lives left.
+	 */
+	public int getLives() {
+		return this.lives;
+	}
+
+	/**
+	 * Getter for the ship position in the X axis.
+	 *
+	 * @return Ship position in the X axis.
+	 */
+	public int getShipX() {
+		return this.shipX;
+	}
+
+	/**
+	 * Getter for the ship position in the Y axis.
+	 *
+	 * @return Ship position in the Y axis.
+	 */
+	public int getShipY() {
+		return this.shipY;
+	}
+
+	/**
+	 * Checks if the ship is destroyed.
+	 *
+	 * @return True while the ship recovers from a hit.
+	 */
+	public boolean isShipDestroyed() {
+		return this.destroyedWait > 0;
+	}
+
+	/**
+	 * Checks if the ship can shoot.
+	 *
+	 * @return True if the ship reloaded.
+	 */
+	public boolean canShoot() {
+		return this.shootWait == 0;
+	}
+
+	/**
+	 * Getter for the number of formation columns.
+	 *
+	 * @return Columns of the formation.
+	 */
+	public int getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * Getter for the number of enemies, destroyed or not.
+	 *
+	 * @return Enemies of the formation.
+	 */
+	public int getEnemyTotal() {
+		return this.enemyX.length;
+	}
+
+	/**
+	 * Checks if an enemy is still there.
+	 *
+	 * @param e
+	 *            Index of the enemy.
+	 * @return True if not destroyed.
+	 */
+	public boolean isEnemyAlive(final int e) {
+		return this.enemyAlive[e];
+	}
+
+	/**
+	 * Getter for an enemy position in the X axis.
+	 *
+	 * @param e
+	 *            Index of the enemy.
+	 * @return Position in the X axis.
+	 */
+	public int getEnemyX(final int e) {
+		return this.enemyX[e];
+	}
+
+	/**
+	 * Getter for an enemy position in the Y axis.
+	 *
+	 * @param e
+	 *            Index of the enemy.
+	 * @return Position in the Y axis.
+	 */
+	public int getEnemyY(final int e) {
+		return this.enemyY[e];
+	}
+
+	/**
+	 * Checks if a boss is on screen.
+	 *
+	 * @return True during a boss fight.
+	 */
+	public boolean hasBoss() {
+		return this.boss != NO_BOSS;
+	}
+
+	/**
+	 * Getter for the boss position in the X axis.
+	 *
+	 * @return Position in the X axis.
+	 */
+	public int getBossX() {
+		return this.bossX;
+	}
+
+	/**
+	 * Getter for the boss position in the Y axis.
+	 *
+	 * @return Position in the Y axis.
+	 */
+	public int getBossY() {
+		return this.bossY;
+	}
+
+	/**
+	 * Getter for the boss width.
+	 *
+	 * @return Width of the boss.
+	 */
+	public int getBossWidth() {
+		return this.bossWidth;
+	}
+
+	/**
+	 * Getter for the boss height.
+	 *
+	 * @return Height of the boss.
+	 */
+	public int getBossHeight() {
+		return this.bossHeight;
+	}
+
+	/**
+	 * Getter for the number of bullets on screen.
+	 *
+	 * @return Bullets on screen.
+	 */
+	public int getBulletCount() {
+		return this.bulletTotal;
+	}
+
+	/**
+	 * Getter for a bullet position in the X axis.
+	 *
+	 * @param b
+	 *            Index of the bullet.
+	 * @return Position in the X axis.
+	 */
+	public int getBulletX(final int b) {
+		return this.bulletX[b];
+	}
+
+	/**
+	 * Getter for a bullet position in the Y axis.
+	 *
+	 * @param b
+	 *            Index of the bullet.
+	 * @return Position in the Y axis.
+	 */
+	public int getBulletY(final int b) {
+		return this.bulletY[b];
+	}
+
+	/**
+	 * Getter for a bullet movement in the X axis.
+	 *
+	 * @param b
+	 *            Index of the bullet.
+	 * @return Movement per tick in the X axis.
+	 */
+	public int getBulletDx(final int b) {
+		return this.bulletDx[b];
+	}
+
+	/**
+	 * Getter for a bullet movement in the Y axis.
+	 *
+	 * @param b
+	 *            Index of the bullet.
+	 * @return Movement per tick, positive for the bullets falling on the ship.
+	 */
+	public int getBulletDy(final int b) {
+		return this.bulletDy[b];
+	}
+
+	/**
+	 * Getter for the number of items on screen.
+	 *
+	 * @return Items on screen.
+	 */
+	public int getItemCount() {
+		return this.itemTotal;
+	}
+
+	/**
+	 * Getter for an item position in the X axis.
+	 *
+	 * @param i
+	 *            Index of the item.
+	 * @return Position in the X axis.
+	 */
+	public int getItemX(final int i) {
+		return this.itemX[i];
+	}
+
+	/**
+	 * Getter for an item position in the Y axis.
+	 *
+	 * @param i
+	 *            Index of the item.
+	 * @return Position in the Y axis.
+	 */
+	public int getItemY(final int i) {
+		return this.itemY[i];
+	}
+}
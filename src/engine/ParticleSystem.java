@@ -0,0 +1,394 @@
+package engine;
+
+/**
+ * Fixed capacity particle engine. Particles are kept as parallel arrays and
+ * drawn straight into the pixels of a translucent layer, fading out through
+ * their alpha, so neither emitting, updating nor drawing a particle
+ * allocates anything.
+ */
+public final class ParticleSystem {
+
+	/** Particle that fades out and dies. */
+	private static final byte KIND_EFFECT = 0;
+	/** Background star that wraps around the screen and twinkles. */
+	private static final byte KIND_STAR = 1;
+
+	/** Entries of the sine table, a power of two. */
+	private static final int TABLE_SIZE = 1024;
+	/** Mask to wrap a table index. */
+	private static final int TABLE_MASK = TABLE_SIZE - 1;
+	/** Sine of TABLE_SIZE equally spaced angles of a full turn. */
+	private static final float[] SIN = new float[TABLE_SIZE];
+	/** Milliseconds for the twinkle phase of the stars to advance one radian. */
+	private static final double TWINKLE_PERIOD = 500.0;
+
+	static {
+		for (int i = 0; i < TABLE_SIZE; i++)
+			SIN[i] = (float) Math.sin(i * 2 * Math.PI / TABLE_SIZE);
+	}
+
+	/** Maximum number of live particles. */
+	private final int capacity;
+	/** Maximum number of particles emitted between two updates. */
+	private final int frameBudget;
+	/** Number of live particles, stored in the first slots of the arrays. */
+	private int count;
+	/** Particles emitted since the last update. */
+	private int emittedThisFrame;
+
+	/** Position in the x-axis. */
+	private final float[] positionX;
+	/** Position in the y-axis. */
+	private final float[] positionY;
+	/** Speed in the x-axis, per frame. */
+	private final float[] speedX;
+	/** Speed in the y-axis, per frame. */
+	private final float[] speedY;
+	/** Acceleration in the y-axis, per frame. */
+	private final float[] gravity;
+	/** Remaining life, from 1 to 0. */
+	private final float[] life;
+	/** Life lost per frame. */
+	private final float[] decay;
+	/** Side of the square drawn, in pixels. */
+	private final float[] size;
+	/** Twinkle phase of stars, as an index of the sine table. */
+	private final float[] phase;
+	/** RGB color at full life. */
+	private final int[] color;
+	/** Behaviour of the particle. */
+	private final byte[] kind;
+
+	/** Width of the area stars wrap in. */
+	private int boundsWidth;
+	/** Height of the area stars wrap in. */
+	private int boundsHeight;
+	/** Twinkle phase shared by every star in the current frame. */
+	private int twinkleIndex;
+	/** Random number generator for the emitters. */
+	private final GameRandom random;
+
+	/**
+	 * Constructor, allocates the storage for every particle.
+	 *
+	 * @param capacity
+	 *            Maximum number of live particles.
+	 * @param frameBudget
+	 *            Maximum number of particles emitted between two updates.
+	 * @param random
+	 *            Stream drawing the particles.
+	 */
+	public ParticleSystem(final int capacity, final int frameBudget,
+			final GameRandom random) {
+		this.capacity = capacity;
+		this.frameBudget = frameBudget;
+		this.positionX = new float[capacity];
+		this.positionY = new float[capacity];
+		this.speedX = new float[capacity];
+		this.speedY = new float[capacity];
+		this.gravity = new float[capacity];
+		this.life = new float[capacity];
+		this.decay = new float[capacity];
+		this.size = new float[capacity];
+		this.phase = new float[capacity];
+		this.color = new int[capacity];
+		this.kind = new byte[capacity];
+		this.random = random;
+	}
+
+	/**
+	 * Sets the area stars move in.
+	 *
+	 * @param width
+	 *            Width of the area.
+	 * @param height
+	 *            Height of the area.
+	 */
+	public void setBounds(final int width, final int height) {
+		this.boundsWidth = width;
+		this.boundsHeight = height;
+	}
+
+	/**
+	 * Getter for the number of live particles.
+	 *
+	 * @return Number of live particles.
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Removes every particle.
+	 */
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Reserves the slot of a new particle.
+	 *
+	 * @return Index of the slot, -1 if the capacity or the budget of the
+	 *         frame is exhausted.
+	 */
+	private int allocate() {
+		if (this.count >= this.capacity
+				|| this.emittedThisFrame >= this.frameBudget)
+			return -1;
+		this.emittedThisFrame++;
+		return this.count++;
+	}
+
+	/**
+	 * Emits a single particle that fades out.
+	 *
+	 * @param x
+	 *            Position in the x-axis.
+	 * @param y
+	 *            Position in the y-axis.
+	 * @param vx
+	 *            Speed in the x-axis.
+	 * @param vy
+	 *            Speed in the y-axis.
+	 * @param frames
+	 *            Frames until the particle dies.
+	 * @param rgb
+	 *            Color of the particle.
+	 * @param side
+	 *            Side of the square drawn.
+	 * @param ay
+	 *            Acceleration in the y-axis.
+	 * @return True if the particle was emitted.
+	 */
+	public boolean emit(final float x, final float y, final float vx,
+			final float vy, final int frames, final int rgb, final float side,
+			final float ay) {
+		int i = allocate();
+		if (i < 0)
+			return false;
+		this.positionX[i] = x;
+		this.positionY[i] = y;
+		this.speedX[i] = vx;
+		this.speedY[i] = vy;
+		this.gravity[i] = ay;
+		this.life[i] = 1f;
+		this.decay[i] = 1f / Math.max(1, frames);
+		this.size[i] = side;
+		this.color[i] = rgb;
+		this.kind[i] = KIND_EFFECT;
+		return true;
+	}
+
+	/**
+	 * Emits a burst of particles in every direction.
+	 *
+	 * @param x
+	 *            Center in the x-axis.
+	 * @param y
+	 *            Center in the y-axis.
+	 * @param rgb
+	 *            Color of the burst.
+	 * @param amount
+	 *            Number of particles.
+	 */
+	public void emitExplosion(final float x, final float y, final int rgb,
+			final int amount) {
+		for (int n = 0; n < amount; n++) {
+			int angle = this.random.nextInt(TABLE_SIZE);
+			float speed = 0.5f + this.random.nextFloat() * 2.5f;
+			if (!emit(x, y, cos(angle) * speed, SIN[angle] * speed,
+					20 + this.random.nextInt(20), rgb,
+					1 + this.random.nextInt(2), 0f))
+				return;
+		}
+	}
+
+	/**
+	 * Emits heavy fragments thrown upwards that fall back down.
+	 *
+	 * @param x
+	 *            Center in the x-axis.
+	 * @param y
+	 *            Center in the y-axis.
+	 * @param rgb
+	 *            Color of the fragments.
+	 * @param amount
+	 *            Number of fragments.
+	 */
+	public void emitDebris(final float x, final float y, final int rgb,
+			final int amount) {
+		for (int n = 0; n < amount; n++) {
+			float vx = (this.random.nextFloat() - 0.5f) * 3f;
+			float vy = -1f - this.random.nextFloat() * 2.5f;
+			if (!emit(x, y, vx, vy, 40 + this.random.nextInt(20), rgb, 2,
+					0.15f))
+				return;
+		}
+	}
+
+	/**
+	 * Emits the exhaust of a ship for one frame.
+	 *
+	 * @param x
+	 *            Position in the x-axis of the nozzle.
+	 * @param y
+	 *            Position in the y-axis of the nozzle.
+	 * @param rgb
+	 *            Color of the exhaust.
+	 */
+	public void emitThruster(final float x, final float y, final int rgb) {
+		float vx = (this.random.nextFloat() - 0.5f) * 0.6f;
+		float vy = 1f + this.random.nextFloat() * 1.5f;
+		emit(x + this.random.nextInt(3) - 1, y, vx, vy,
+				8 + this.random.nextInt(6), rgb, 1, 0f);
+	}
+
+	/**
+	 * Adds a background star that scrolls down and twinkles forever.
+	 *
+	 * @param x
+	 *            Position in the x-axis.
+	 * @param y
+	 *            Position in the y-axis.
+	 * @param speed
+	 *            Scroll speed, per frame.
+	 * @return True if the star was added.
+	 */
+	public boolean addStar(final float x, final float y, final float speed) {
+		int i = allocate();
+		if (i < 0)
+			return false;
+		this.positionX[i] = x;
+		this.positionY[i] = y;
+		this.speedX[i] = 0f;
+		this.speedY[i] = speed;
+		this.gravity[i] = 0f;
+		this.life[i] = 1f;
+		this.decay[i] = 0f;
+		this.size[i] = 2f;
+		this.phase[i] = this.random.nextInt(TABLE_SIZE);
+		this.color[i] = 0xFFFFFF;
+		this.kind[i] = KIND_STAR;
+		return true;
+	}
+
+	/**
+	 * Advances every particle one frame and removes the dead ones.
+	 */
+	public void update() {
+		this.twinkleIndex = (int) (System.currentTimeMillis() / TWINKLE_PERIOD
+				* TABLE_SIZE / (2 * Math.PI));
+
+		int i = 0;
+		while (i < this.count) {
+			this.speedY[i] += this.gravity[i];
+			this.positionX[i] += this.speedX[i];
+			this.positionY[i] += this.speedY[i];
+
+			if (this.kind[i] == KIND_STAR) {
+				if (this.positionY[i] > this.boundsHeight) {
+					this.positionY[i] = 0;
+					this.positionX[i] = this.random.nextFloat() * this.boundsWidth;
+				}
+				i++;
+				continue;
+			}
+
+			this.life[i] -= this.decay[i];
+			if (this.life[i] <= 0f)
+				remove(i);
+			else
+				i++;
+		}
+		this.emittedThisFrame = 0;
+	}
+
+	/**
+	 * Removes a particle by moving the last live one into its slot.
+	 *
+	 * @param i
+	 *            Slot to free.
+	 */
+	private void remove(final int i) {
+		int last = --this.count;
+		this.positionX[i] = this.positionX[last];
+		this.positionY[i] = this.positionY[last];
+		this.speedX[i] = this.speedX[last];
+		this.speedY[i] = this.speedY[last];
+		this.gravity[i] = this.gravity[last];
+		this.life[i] = this.life[last];
+		this.decay[i] = this.decay[last];
+		this.size[i] = this.size[last];
+		this.phase[i] = this.phase[last];
+		this.color[i] = this.color[last];
+		this.kind[i] = this.kind[last];
+	}
+
+	/**
+	 * Draws every particle into a packed ARGB pixel array, rotated around a
+	 * center point. The intensity of a particle sets its alpha, so a fading
+	 * particle shows what is under the layer rather than darkening it. Where
+	 * particles overlap, the most opaque one is kept.
+	 *
+	 * @param pixels
+	 *            Pixels of the layer, one int per pixel, cleared to
+	 *            transparent.
+	 * @param width
+	 *            Width of the image.
+	 * @param height
+	 *            Height of the image.
+	 * @param angle
+	 *            Rotation of the whole batch, in degrees.
+	 * @param centerX
+	 *            Center of the rotation in the x-axis.
+	 * @param centerY
+	 *            Center of the rotation in the y-axis.
+	 */
+	public void draw(final int[] pixels, final int width, final int height,
+			final float angle, final int centerX, final int centerY) {
+		int angleIndex = Math.round(angle * TABLE_SIZE / 360f);
+		final float cosAngle = cos(angleIndex);
+		final float sinAngle = SIN[angleIndex & TABLE_MASK];
+
+		for (int i = 0; i < this.count; i++) {
+			float relX = this.positionX[i] - centerX;
+			float relY = this.positionY[i] - centerY;
+			int x = (int) (relX * cosAngle - relY * sinAngle + centerX);
+			int y = (int) (relX * sinAngle + relY * cosAngle + centerY);
+
+			float intensity;
+			if (this.kind[i] == KIND_STAR)
+				intensity = 0.5f + (SIN[((int) this.phase[i] + this.twinkleIndex)
+						& TABLE_MASK] + 1f) / 4f;
+			else
+				intensity = this.life[i];
+			int alpha = (int) (Math.min(1f, Math.max(0f, intensity)) * 255);
+			if (alpha == 0)
+				continue;
+			int argb = (alpha << 24) | (this.color[i] & 0xFFFFFF);
+
+			int side = Math.max(1, (int) this.size[i]);
+			int startX = Math.max(0, x);
+			int startY = Math.max(0, y);
+			int endX = Math.min(width, x + side);
+			int endY = Math.min(height, y + side);
+			for (int py = startY; py < endY; py++) {
+				int row = py * width;
+				for (int px = startX; px < endX; px++)
+					if (pixels[row + px] >>> 24 < alpha)
+						pixels[row + px] = argb;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cosine of an angle of the table.
+	 *
+	 * @param index
+	 *            Angle, as an index of the sine table.
+	 * @return Cosine of the angle.
+	 */
+	private static float cos(final int index) {
+		return SIN[(index + TABLE_SIZE / 4) & TABLE_MASK];
+	}
+}
@@ -0,0 +1,498 @@
+package engine;
+
+import entity.ShopItem;
+
+/**
+ * Complete state of a PvP duel, advanced one tick at a time from the inputs
+ * of both players. The same inputs from the same state always give the same
+ * result, and the state can be copied cheaply, so it can be saved every tick
+ * and rolled back when a late input changes the past.
+ *
+ * Ship 0 is the bottom player (P1), shooting upwards; ship 1 is the top
+ * player (P2), shooting downwards.
+ */
+public final class PvPState {
+
+	/** Input bit moving the ship left. */
+	public static final int INPUT_LEFT = 1;
+	/** Input bit moving the ship right. */
+	public static final int INPUT_RIGHT = 1 << 1;
+	/** Input bit moving the ship up. */
+	public static final int INPUT_UP = 1 << 2;
+	/** Input bit moving the ship down. */
+	public static final int INPUT_DOWN = 1 << 3;
+	/** Input bit shooting. */
+	public static final int INPUT_FIRE = 1 << 4;
+
+	/** Lives of each player at the start of a duel. */
+	public static final int MAX_LIVES = 3;
+	/** Most bullets on screen at once. */
+	public static final int MAX_BULLETS = 64;
+
+	/** Ship width. */
+	public static final int SHIP_WIDTH = 13 * 2;
+	/** Ship height. */
+	public static final int SHIP_HEIGHT = 8 * 2;
+	/** Bullet width. */
+	public static final int BULLET_WIDTH = 3 * 2;
+	/** Bullet height. */
+	public static final int BULLET_HEIGHT = 5 * 2;
+
+	/** Base ship movement, used for the border checks. */
+	private static final int SHIP_SPEED = 2;
+	/** Bullet speed. */
+	private static final int BULLET_SPEED = 6;
+	/** Milliseconds a ship stays destroyed after a hit. */
+	private static final int DESTRUCTION_TIME = 1000;
+	/** Standard time between shots, in milliseconds. */
+	private static final int STANDARD_SHOOTING_INTERVAL = 750;
+
+	/** Screen width. */
+	private final int width;
+	/** Screen height. */
+	private final int height;
+	/** Lowest position of the top half. */
+	private final int topZoneBottom;
+	/** Highest position of the bottom half. */
+	private final int bottomZoneTop;
+	/** Ticks between shots. */
+	private final int shootingTicks;
+	/** Ticks a ship stays destroyed. */
+	private final int destructionTicks;
+	/** Bullets per shot. */
+	private final int bulletCount;
+	/** Distance between the bullets of a shot. */
+	private final int bulletSpacing;
+	/** Ships a bullet goes through before disappearing. */
+	private final int penetration;
+	/** Ship movement per tick. */
+	private final int moveStep;
+
+	/** Number of ticks simulated. */
+	private int tick;
+	/** Winning player, 0 while the duel goes on. */
+	private int winner;
+
+	/** Ship positions in the X axis. */
+	private final int[] shipX = new int[2];
+	/** Ship positions in the Y axis. */
+	private final int[] shipY = new int[2];
+	/** Lives left. */
+	private final int[] lives = new int[2];
+	/** Ticks until each ship can shoot again. */
+	private final int[] shootWait = new int[2];
+	/** Ticks until each ship is no longer destroyed. */
+	private final int[] destroyedWait = new int[2];
+	/** Shots fired by each ship. */
+	private final int[] shots = new int[2];
+
+	/** Number of bullets on screen. */
+	private int bulletTotal;
+	/** Bullet positions in the X axis. */
+	private final int[] bulletX = new int[MAX_BULLETS];
+	/** Bullet positions in the Y axis. */
+	private final int[] bulletY = new int[MAX_BULLETS];
+	/** Bullet speeds, positive is down. */
+	private final int[] bulletSpeed = new int[MAX_BULLETS];
+	/** Ship that shot each bullet. */
+	private final int[] bulletOwner = new int[MAX_BULLETS];
+	/** Ships each bullet can still go through. */
+	private final int[] bulletPierce = new int[MAX_BULLETS];
+
+	/**
+	 * Constructor, places both ships for the start of a duel.
+	 *
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param fps
+	 *            Ticks per second.
+	 * @param shootingInterval
+	 *            Milliseconds between shots.
+	 * @param bulletCount
+	 *            Bullets per shot.
+	 * @param bulletSpacing
+	 *            Distance between the bullets of a shot.
+	 * @param penetration
+	 *            Ships a bullet goes through.
+	 * @param moveStep
+	 *            Ship movement per tick.
+	 */
+	public PvPState(final int width, final int height, final int fps,
+			final int shootingInterval, final int bulletCount,
+			final int bulletSpacing, final int penetration, final int moveStep) {
+		this(width, height, fps, shootingInterval, bulletCount, bulletSpacing,
+				penetration, moveStep, toTicks(shootingInterval, fps),
+				toTicks(DESTRUCTION_TIME, fps));
+	}
+
+	/**
+	 * Constructor with the durations already in ticks.
+	 */
+	private PvPState(final int width, final int height, final int fps,
+			final int shootingInterval, final int bulletCount,
+			final int bulletSpacing, final int penetration, final int moveStep,
+			final int shootingTicks, final int destructionTicks) {
+		this.width = width;
+		this.height = height;
+		this.topZoneBottom = height / 2 - 40;
+		this.bottomZoneTop = height / 2 + 40;
+		this.shootingTicks = shootingTicks;
+		this.destructionTicks = destructionTicks;
+		this.bulletCount = bulletCount;
+		this.bulletSpacing = bulletSpacing;
+		this.penetration = penetration;
+		this.moveStep = moveStep;
+
+		this.shipX[0] = width / 2 - 26;
+		this.shipY[0] = height - 100;
+		this.shipX[1] = width / 2 - 26;
+		this.shipY[1] = 80;
+		this.lives[0] = MAX_LIVES;
+		this.lives[1] = MAX_LIVES;
+	}
+
+	/**
+	 * Creates a duel using the upgrades bought in the shop, for two players
+	 * on the same machine.
+	 *
+	 * @param shopItem
+	 *            Upgrades bought in the shop.
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param fps
+	 *            Ticks per second.
+	 * @return New duel.
+	 */
+	public static PvPState withUpgrades(final ShopItem shopItem,
+			final int width, final int height, final int fps) {
+		return new PvPState(width, height, fps,
+				shopItem.getShootingInterval(),
+				shopItem.getMultiShotBulletCount(),
+				shopItem.getMultiShotSpacing(),
+				shopItem.getPenetrationCount(),
+				SHIP_SPEED * (1 + shopItem.getSHIPSpeedCOUNT() / 10));
+	}
+
+	/**
+	 * Creates a duel without upgrades, so both machines of an online duel
+	 * simulate the same rules.
+	 *
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param fps
+	 *            Ticks per second.
+	 * @return New duel.
+	 */
+	public static PvPState standard(final int width, final int height,
+			final int fps) {
+		return new PvPState(width, height, fps, STANDARD_SHOOTING_INTERVAL,
+				1, 0, 0, SHIP_SPEED);
+	}
+
+	/**
+	 * Converts milliseconds to ticks, rounding up.
+	 */
+	private static int toTicks(final int milliseconds, final int fps) {
+		return (milliseconds * fps + 999) / 1000;
+	}
+
+	/**
+	 * Creates a copy of this state.
+	 *
+	 * @return New state of the same duel, at the same tick.
+	 */
+	public PvPState copy() {
+		PvPState copy = new PvPState(this.width, this.height, 1000, 0,
+				this.bulletCount, this.bulletSpacing, this.penetration,
+				this.moveStep, this.shootingTicks, this.destructionTicks);
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Copies the changing part of another state of the same duel.
+	 *
+	 * @param other
+	 *            State to copy.
+	 */
+	public void copyFrom(final PvPState other) {
+		this.tick = other.tick;
+		this.winner = other.winner;
+		for (int i = 0; i < 2; i++) {
+			this.shipX[i] = other.shipX[i];
+			this.shipY[i] = other.shipY[i];
+			this.lives[i] = other.lives[i];
+			this.shootWait[i] = other.shootWait[i];
+			this.destroyedWait[i] = other.destroyedWait[i];
+			this.shots[i] = other.shots[i];
+		}
+		int n = other.bulletTotal;
+		this.bulletTotal = n;
+		System.arraycopy(other.bulletX, 0, this.bulletX, 0, n);
+		System.arraycopy(other.bulletY, 0, this.bulletY, 0, n);
+		System.arraycopy(other.bulletSpeed, 0, this.bulletSpeed, 0, n);
+		System.arraycopy(other.bulletOwner, 0, this.bulletOwner, 0, n);
+		System.arraycopy(other.bulletPierce, 0, this.bulletPierce, 0, n);
+	}
+
+	/**
+	 * Advances the duel one tick.
+	 *
+	 * @param bottomInput
+	 *            Input bits of the bottom player.
+	 * @param topInput
+	 *            Input bits of the top player.
+	 */
+	public void step(final int bottomInput, final int topInput) {
+		this.tick++;
+		if (this.winner != 0)
+			return;
+
+		for (int i = 0; i < 2; i++) {
+			if (this.shootWait[i] > 0)
+				this.shootWait[i]--;
+			if (this.destroyedWait[i] > 0)
+				this.destroyedWait[i]--;
+		}
+		moveShip(0, bottomInput, this.bottomZoneTop, this.height - 30);
+		moveShip(1, topInput, 30, this.topZoneBottom);
+		updateBullets();
+	}
+
+	/**
+	 * Moves a ship and shoots, inside its half of the screen.
+	 */
+	private void moveShip(final int ship, final int input, final int top,
+			final int bottom) {
+		if (!isAlive(ship))
+			return;
+		int x = this.shipX[ship];
+		int y = this.shipY[ship];
+		if ((input & INPUT_RIGHT) != 0
+				&& x + SHIP_WIDTH + SHIP_SPEED < this.width - 10)
+			x += this.moveStep;
+		if ((input & INPUT_LEFT) != 0 && x - SHIP_SPEED > 10)
+			x -= this.moveStep;
+		if ((input & INPUT_UP) != 0 && y - SHIP_SPEED > top)
+			y -= this.moveStep;
+		if ((input & INPUT_DOWN) != 0
+				&& y + SHIP_HEIGHT + SHIP_SPEED < bottom)
+			y += this.moveStep;
+		this.shipX[ship] = x;
+		this.shipY[ship] = y;
+
+		if ((input & INPUT_FIRE) != 0 && this.shootWait[ship] == 0) {
+			this.shootWait[ship] = this.shootingTicks;
+			this.shots[ship]++;
+			int centerX = x + SHIP_WIDTH / 2;
+			int centerY = ship == 0 ? y : y + SHIP_HEIGHT;
+			int speed = ship == 0 ? -BULLET_SPEED : BULLET_SPEED;
+			int offset = -(this.bulletCount / 2) * this.bulletSpacing;
+			for (int i = 0; i < this.bulletCount
+					&& this.bulletTotal < MAX_BULLETS; i++) {
+				int b = this.bulletTotal++;
+				this.bulletX[b] = centerX + offset + i * this.bulletSpacing
+						- BULLET_WIDTH / 2;
+				this.bulletY[b] = centerY;
+				this.bulletSpeed[b] = speed;
+				this.bulletOwner[b] = ship;
+				this.bulletPierce[b] = this.penetration;
+			}
+		}
+	}
+
+	/**
+	 * Moves the bullets and applies their hits.
+	 */
+	private void updateBullets() {
+		int kept = 0;
+		for (int b = 0; b < this.bulletTotal; b++) {
+			int y = this.bulletY[b] + this.bulletSpeed[b];
+			this.bulletY[b] = y;
+			if (y < 0 || y > this.height)
+				continue;
+
+			int target = 1 - this.bulletOwner[b];
+			if (isAlive(target) && overlaps(b, target)) {
+				this.destroyedWait[target] = this.destructionTicks;
+				this.lives[target]--;
+				if (this.lives[target] <= 0 && this.winner == 0)
+					this.winner = this.bulletOwner[b] + 1;
+				if (this.bulletPierce[b]-- <= 0)
+					continue;
+			}
+
+			this.bulletX[kept] = this.bulletX[b];
+			this.bulletY[kept] = y;
+			this.bulletSpeed[kept] = this.bulletSpeed[b];
+			this.bulletOwner[kept] = this.bulletOwner[b];
+			this.bulletPierce[kept] = this.bulletPierce[b];
+			kept++;
+		}
+		this.bulletTotal = kept;
+	}
+
+	/**
+	 * Checks if a bullet overlaps a ship.
+	 */
+	private boolean overlaps(final int bullet, final int ship) {
+		int distanceX = Math.abs(2 * this.bulletX[bullet] + BULLET_WIDTH
+				- 2 * this.shipX[ship] - SHIP_WIDTH);
+		int distanceY = Math.abs(2 * this.bulletY[bullet] + BULLET_HEIGHT
+				- 2 * this.shipY[ship] - SHIP_HEIGHT);
+		return distanceX < BULLET_WIDTH + SHIP_WIDTH
+				&& distanceY < BULLET_HEIGHT + SHIP_HEIGHT;
+	}
+
+	/**
+	 * Checks if a ship has lives left and is not destroyed.
+	 */
+	private boolean isAlive(final int ship) {
+		return this.lives[ship] > 0 && this.destroyedWait[ship] == 0;
+	}
+
+	/**
+	 * Returns a hash of the whole state, to check two machines simulated the
+	 * same duel.
+	 *
+	 * @return Hash of the state.
+	 */
+	public int checksum() {
+		int hash = this.tick * 31 + this.winner;
+		for (int i = 0; i < 2; i++) {
+			hash = hash * 31 + this.shipX[i];
+			hash = hash * 31 + this.shipY[i];
+			hash = hash * 31 + this.lives[i];
+			hash = hash * 31 + this.shootWait[i];
+			hash = hash * 31 + this.destroyedWait[i];
+		}
+		for (int b = 0; b < this.bulletTotal; b++) {
+			hash = hash * 31 + this.bulletX[b];
+			hash = hash * 31 + this.bulletY[b];
+			hash = hash * 31 + this.bulletOwner[b];
+			hash = hash * 31 + this.bulletPierce[b];
+		}
+		return hash;
+	}
+
+	/**
+	 * Getter for the number of ticks simulated.
+	 *
+	 * @return Current tick.
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Getter for the winner.
+	 *
+	 * @return 1 or 2 for the winning player, 0 while the duel goes on.
+	 */
+	public int getWinner() {
+		return this.winner;
+	}
+
+	/**
+	 * Getter for a ship position in the X axis.
+	 *
+	 * @param ship
+	 *            0 for the bottom ship, 1 for the top one.
+	 * @return Position of the ship.
+	 */
+	public int getShipX(final int ship) {
+		return this.shipX[ship];
+	}
+
+	/**
+	 * Getter for a ship position in the Y axis.
+	 *
+	 * @param ship
+	 *            0 for the bottom ship, 1 for the top one.
+	 * @return Position of the ship.
+	 */
+	public int getShipY(final int ship) {
+		return this.shipY[ship];
+	}
+
+	/**
+	 * Getter for the lives left of a player.
+	 *
+	 * @param ship
+	 *            0 for the bottom ship, 1 for the top one.
+	 * @return Lives left.
+	 */
+	public int getLives(final int ship) {
+		return this.lives[ship];
+	}
+
+	/**
+	 * Checks if a ship is destroyed.
+	 *
+	 * @param ship
+	 *            0 for the bottom ship, 1 for the top one.
+	 * @return True while the ship is destroyed.
+	 */
+	public boolean isDestroyed(final int ship) {
+		return this.destroyedWait[ship] > 0;
+	}
+
+	/**
+	 * Getter for the shots fired by a ship.
+	 *
+	 * @param ship
+	 *            0 for the bottom ship, 1 for the top one.
+	 * @return Number of shots.
+	 */
+	public int getShots(final int ship) {
+		return this.shots[ship];
+	}
+
+	/**
+	 * Getter for the number of bullets on screen.
+	 *
+	 * @return Number of bullets.
+	 */
+	public int getBulletCount() {
+		return this.bulletTotal;
+	}
+
+	/**
+	 * Getter for a bullet position in the X axis.
+	 *
+	 * @param bullet
+	 *            Index of the bullet.
+	 * @return Position of the bullet.
+	 */
+	public int getBulletX(final int bullet) {
+		return this.bulletX[bullet];
+	}
+
+	/**
+	 * Getter for a bullet position in the Y axis.
+	 *
+	 * @param bullet
+	 *            Index of the bullet.
+	 * @return Position of the bullet.
+	 */
+	public int getBulletY(final int bullet) {
+		return this.bulletY[bullet];
+	}
+
+	/**
+	 * Getter for a bullet speed.
+	 *
+	 * @param bullet
+	 *            Index of the bullet.
+	 * @return Speed of the bullet, positive is down.
+	 */
+	public int getBulletSpeed(final int bullet) {
+		return this.bulletSpeed[bullet];
+	}
+}
@@ -0,0 +1,108 @@
+package engine;
+
+/**
+ * Hands out the random streams of a game session, or of the application,
+ * one per subsystem. Each stream is seeded from the seed of the service and
+ * its own name, not from the order streams are used in, so that a subsystem
+ * drawing more or fewer numbers, for instance the effects of a faster
+ * machine, never changes what the others draw. A session played again with
+ * the same seed and the same input plays out the same. Streams can be added
+ * or reordered without changing the others, but renaming one changes what
+ * it draws.
+ *
+ * The application service is seeded from the system property invaders.seed
+ * if set. It seeds the sessions it creates, in turn, from its own stream.
+ */
+public final class RandomService {
+
+	/**
+	 * Subsystems drawing random numbers, each getting its own stream, seeded
+	 * from its name. Renaming one changes the numbers it draws.
+	 */
+	public enum Stream {
+		/** Seeds of the sessions created from this one. */
+		SESSIONS,
+		/** Enemy picked to shoot next. */
+		ENEMY_SHOTS,
+		/** Duration of the cooldowns with variance. */
+		COOLDOWNS,
+		/** Items dropped by destroyed enemies. */
+		DROPS,
+		/** Attacks of the bosses. */
+		BOSS,
+		/** Positions of the portals. */
+		PORTALS,
+		/** Particles, stars and other effects. */
+		EFFECTS,
+		/** Animations of the menus. */
+		MENU,
+		/** Colors given by the gacha. */
+		GACHA,
+		/** Seeds of the levels generated past the last map. */
+		LEVELS
+	}
+
+	/**
+	 * Multiplies the hash of the name of a stream, added to the seed; the
+	 * golden ratio in 64 bits.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/** Seed of the service. */
+	private final long seed;
+	/** Stream of each subsystem, by ordinal. */
+	private final GameRandom[] streams;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            Seed of all the streams.
+	 */
+	public RandomService(final long seed) {
+		this.seed = seed;
+		Stream[] values = Stream.values();
+		this.streams = new GameRandom[values.length];
+		for (int i = 0; i < values.length; i++)
+			this.streams[i] = new GameRandom(mix(seed + GOLDEN_GAMMA * values[i].name().hashCode()));
+	}
+
+	/**
+	 * Gets the stream of a subsystem.
+	 *
+	 * @param stream
+	 *            Subsystem drawing the numbers.
+	 * @return Its stream, the same one on every call.
+	 */
+	public GameRandom get(final Stream stream) {
+		return this.streams[stream.ordinal()];
+	}
+
+	/**
+	 * Draws the seed of a new session from this service.
+	 *
+	 * @return Seed of the session.
+	 */
+	public long nextSessionSeed() {
+		return get(Stream.SESSIONS).nextLong();
+	}
+
+	/**
+	 * Getter for the seed.
+	 *
+	 * @return Seed of all the streams.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Scrambles the bits of a seed, so that close seeds give unrelated
+	 * streams.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,86 @@
+package engine;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Measures the cost of presenting a frame through the integer scaler.
+ * Run with the output width and height as arguments, e.g. 3840 2160.
+ */
+public final class ScaleBenchmark {
+
+	/** Frames drawn before measuring. */
+	private static final int WARMUP_FRAMES = 200;
+	/** Frames measured. */
+	private static final int MEASURED_FRAMES = 1000;
+
+	/**
+	 * Private constructor.
+	 */
+	private ScaleBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args
+	 *            Output width and height, 3840x2160 by default.
+	 */
+	public static void main(final String[] args) {
+		int outputWidth = args.length > 1 ? Integer.parseInt(args[0]) : 3840;
+		int outputHeight = args.length > 1 ? Integer.parseInt(args[1]) : 2160;
+
+		BufferedImage backBuffer = new BufferedImage(Core.WIDTH, Core.HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		Image output;
+		if (GraphicsEnvironment.isHeadless()) {
+			output = new BufferedImage(outputWidth, outputHeight,
+					BufferedImage.TYPE_INT_RGB);
+		} else {
+			GraphicsConfiguration configuration = GraphicsEnvironment
+					.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration();
+			output = configuration.createCompatibleVolatileImage(outputWidth,
+					outputHeight);
+		}
+
+		for (int i = 0; i < WARMUP_FRAMES; i++)
+			present(backBuffer, output, i);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_FRAMES; i++)
+			present(backBuffer, output, i);
+		long elapsed = System.nanoTime() - start;
+
+		int scale = IntegerScaler.computeScale(Core.WIDTH, Core.HEIGHT,
+				outputWidth, outputHeight);
+		System.out.printf("%dx%d -> %dx%d (x%d, %s): %.3f ms/frame%n",
+				Core.WIDTH, Core.HEIGHT, outputWidth, outputHeight, scale,
+				output instanceof VolatileImage ? "volatile" : "software",
+				elapsed / 1e6 / MEASURED_FRAMES);
+	}
+
+	/**
+	 * Changes the back buffer as a frame would and presents it.
+	 *
+	 * @param backBuffer
+	 *            Image at logical resolution.
+	 * @param output
+	 *            Image standing in for the window.
+	 * @param frame
+	 *            Number of the frame.
+	 */
+	private static void present(final BufferedImage backBuffer,
+			final Image output, final int frame) {
+		backBuffer.setRGB(frame % Core.WIDTH, frame % Core.HEIGHT, frame);
+		Graphics2D graphics = (Graphics2D) output.getGraphics();
+		IntegerScaler.blit(graphics, backBuffer, Core.WIDTH, Core.HEIGHT, 0,
+				0, output.getWidth(null), output.getHeight(null));
+		graphics.dispose();
+	}
+}
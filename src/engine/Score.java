@@ -20,6 +20,8 @@ public class Score implements Comparable<Score> {
     private int bullets;
     /** Accuracy Score. */
     private float accuracy;
+    /** Mode the game was played in. */
+    private GameMode mode = GameMode.SINGLE;
 
     /**
      * Constructor.
@@ -46,6 +48,29 @@ public class Score implements Comparable<Score> {
         this.accuracy = accuracy;
     }
 
+    /**
+     * Constructor for a run played in a given mode.
+     *
+     * @param name
+     *            Player name, three letters.
+     * @param score
+     *            Player score.
+     * @param stage
+     *            Stage.
+     * @param killed
+     *            Killed Enemies.
+     * @param bullets
+     *            Shooted Bullets.
+     * @param accuracy
+     *            Accuracy Score.
+     * @param mode
+     *            Mode the game was played in.
+     */
+    public Score(final String name, final int score, final int stage, final int killed, final int bullets, final float accuracy, final GameMode mode) {
+        this(name, score, stage, killed, bullets, accuracy);
+        this.mode = mode;
+    }
+
     // 현재 프로젝트에서 사용되는 생성자입니다. HighScoreScreen.java 등 생성자 쓰이는 부분 모두 반영되면 해당 생성자를 삭제할 것을 요망합니다.
     public Score(final String name, final int score) {
         this.name = name;
@@ -100,6 +125,13 @@ public class Score implements Comparable<Score> {
      */
     public final float getAccuracy() { return this.accuracy; }
 
+    /**
+     * Getter for the game mode.
+     *
+     * @return Mode the game was played in.
+     */
+    public final GameMode getMode() { return this.mode; }
+
     /**
      * Orders the scores descending by score.
      *
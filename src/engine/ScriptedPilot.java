@@ -0,0 +1,169 @@
+package engine;
+
+/**
+ * Simple player for a LevelSimulation. It keeps shooting, moves under the
+ * nearest enemy column or the boss, goes for the items falling its way,
+ * and sidesteps the bullets it sees coming within its reaction time.
+ */
+public final class ScriptedPilot implements LevelSimulation.Pilot {
+
+	/** Ship movement per tick. */
+	private static final int SHIP_SPEED = 2;
+	/** Distance to the target considered aligned. */
+	private static final int ALIGNED = 4;
+	/** Extra distance kept from the bullets on each side. */
+	private static final int MARGIN = 4;
+	/** Distance above the ship where enemies are avoided. */
+	private static final int RAM_DISTANCE = 12;
+	/** Distance above the ship at which the boss is avoided. */
+	private static final int BOSS_DISTANCE = 80;
+	/** Distance kept to the sides of the screen when avoiding the boss. */
+	private static final int SIDE = 8;
+	/** Ticks of movement considered to get away from the enemies. */
+	private static final int CLOSE_TICKS = 8;
+
+	/** Ticks ahead the bullets are seen. */
+	private final int reactionTicks;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param reactionTicks
+	 *            Ticks ahead the bullets are seen, higher plays better.
+	 */
+	public ScriptedPilot(final int reactionTicks) {
+		this.reactionTicks = reactionTicks;
+	}
+
+	@Override
+	public int decide(final LevelSimulation simulation) {
+		if (simulation.isShipDestroyed())
+			return 0;
+		int shipX = simulation.getShipX();
+		int target = target(simulation);
+
+		// Ranks standing still, left and right by the bullets they run into,
+		// breaking ties towards the target.
+		int wanted = Math.abs(target - shipX) <= ALIGNED ? 0
+				: target > shipX ? 1 : -1;
+		int best = 0;
+		double bestDanger = Double.MAX_VALUE;
+		for (int move = -1; move <= 1; move++) {
+			double danger = danger(simulation, move);
+			if (move != wanted)
+				danger += 0.001;
+			if (danger < bestDanger) {
+				bestDanger = danger;
+				best = move;
+			}
+		}
+
+		int input = PvPState.INPUT_FIRE;
+		if (best < 0)
+			input |= PvPState.INPUT_LEFT;
+		else if (best > 0)
+			input |= PvPState.INPUT_RIGHT;
+		return input;
+	}
+
+	/**
+	 * Chooses where the ship should be: under a falling item it can catch,
+	 * else under the boss, else under the nearest column.
+	 */
+	private int target(final LevelSimulation simulation) {
+		int shipX = simulation.getShipX();
+		int shipY = simulation.getShipY();
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < simulation.getItemCount(); i++) {
+			int x = simulation.getItemX(i) + LevelSimulation.ITEM_SIZE / 2
+					- LevelSimulation.SHIP_WIDTH / 2;
+			int distance = Math.abs(x - shipX);
+			int ticks = (shipY - simulation.getItemY(i)) / 2;
+			if (ticks > 0 && distance / SHIP_SPEED < ticks && distance < bestDistance) {
+				best = x;
+				bestDistance = distance;
+			}
+		}
+		if (best >= 0)
+			return best;
+
+		if (simulation.hasBoss()) {
+			int center = simulation.getBossX() + simulation.getBossWidth() / 2;
+			// Keeps to the far side while the boss comes down to the ship.
+			if (simulation.getBossY() + simulation.getBossHeight() > shipY - BOSS_DISTANCE)
+				return center < LevelSimulation.WIDTH / 2
+						? LevelSimulation.WIDTH - LevelSimulation.SHIP_WIDTH - SIDE : SIDE;
+			return center - LevelSimulation.SHIP_WIDTH / 2;
+		}
+		for (int column = 0; column < simulation.getColumns(); column++) {
+			int e = simulation.bottomEnemy(column);
+			if (e < 0)
+				continue;
+			int x = simulation.getEnemyX(e) + LevelSimulation.ENEMY_WIDTH / 2
+					- LevelSimulation.SHIP_WIDTH / 2;
+			int distance = Math.abs(x - shipX);
+			if (distance < bestDistance) {
+				best = x;
+				bestDistance = distance;
+			}
+		}
+		return best >= 0 ? best : shipX;
+	}
+
+	/**
+	 * Adds up the bullets the ship would run into while moving one way,
+	 * the closest ones weighing the most.
+	 */
+	private double danger(final LevelSimulation simulation, final int move) {
+		int shipX = simulation.getShipX();
+		int shipY = simulation.getShipY();
+		double danger = 0;
+		for (int b = 0; b < simulation.getBulletCount(); b++) {
+			int dy = simulation.getBulletDy(b);
+			if (dy <= 0)
+				continue;
+			int gap = shipY - (simulation.getBulletY(b) + LevelSimulation.BULLET_HEIGHT);
+			int ticks = Math.max(0, gap / dy);
+			if (gap < -LevelSimulation.SHIP_HEIGHT || ticks > this.reactionTicks)
+				continue;
+			int x = simulation.getBulletX(b) + simulation.getBulletDx(b) * ticks;
+			int futureX = Math.max(1, Math.min(LevelSimulation.WIDTH
+					- LevelSimulation.SHIP_WIDTH - 1, shipX + move * SHIP_SPEED * ticks));
+			if (crosses(x, futureX))
+				danger += 1.0 / (ticks + 1);
+		}
+
+		// Enemies low enough to ram the ship count as bullets about to hit.
+		int nextX = shipX + move * SHIP_SPEED * CLOSE_TICKS;
+		for (int e = 0; e < simulation.getEnemyTotal(); e++)
+			if (simulation.isEnemyAlive(e) && rams(nextX, shipY,
+					simulation.getEnemyX(e), simulation.getEnemyY(e),
+					LevelSimulation.ENEMY_WIDTH, LevelSimulation.ENEMY_HEIGHT))
+				danger += 1;
+		if (simulation.hasBoss() && rams(nextX, shipY, simulation.getBossX(),
+				simulation.getBossY(), simulation.getBossWidth(),
+				simulation.getBossHeight()))
+			danger += 1;
+		return danger;
+	}
+
+	/**
+	 * Checks if something is close enough above or over the ship to hit it.
+	 */
+	private static boolean rams(final int shipX, final int shipY, final int x,
+			final int y, final int width, final int height) {
+		return y + height > shipY - RAM_DISTANCE
+				&& y < shipY + LevelSimulation.SHIP_HEIGHT
+				&& x + width > shipX - MARGIN
+				&& x < shipX + LevelSimulation.SHIP_WIDTH + MARGIN;
+	}
+
+	/**
+	 * Checks if a bullet ends up over the ship.
+	 */
+	private static boolean crosses(final int bulletX, final int shipX) {
+		return bulletX + LevelSimulation.BULLET_WIDTH > shipX - MARGIN
+				&& bulletX < shipX + LevelSimulation.SHIP_WIDTH + MARGIN;
+	}
+}
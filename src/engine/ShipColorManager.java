@@ -169,7 +169,8 @@ public class ShipColorManager {
      * @return Random color.
      */
     public Color getRandomGachaColor() {
-        int index = (int) (Math.random() * GACHA_COLORS.length);
+        int index = Core.getRandom(RandomService.Stream.GACHA)
+                .nextInt(GACHA_COLORS.length);
         return GACHA_COLORS[index];
     }
     
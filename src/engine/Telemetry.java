@@ -0,0 +1,276 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import engine.level.EnemyType;
+import engine.level.Level;
+import entity.DropItem;
+
+/**
+ * Aggregates how a game session is played, level by level: shots, hits,
+ * kills by enemy type, items picked by type, deaths by cause, time and
+ * coins. Counting happens in fixed arrays as the events of each tick come
+ * in from the event bus, so it never allocates while playing; a record of
+ * the level is only built when it ends, and handed to the writer, if any,
+ * to be saved in the background.
+ *
+ * Shots, hits, coins and score are taken from the GameState the level
+ * starts and ends with, so they match what the score screen shows.
+ */
+public final class Telemetry implements GameEventBus.Subscriber {
+
+	/** Enemy types of a level counted apart, the rest count as other. */
+	public static final int MAX_ENEMY_TYPES = 8;
+	/** Number of causes of death, the HIT constants of GameEventBus. */
+	public static final int CAUSES = 3;
+	/** Width of the buckets of the clear time histogram, in seconds. */
+	public static final int TIME_BUCKET = 5;
+	/** Buckets of the clear time histogram. */
+	public static final int TIME_BUCKETS = 60;
+	/** Width of the buckets of the accuracy histogram, in percent. */
+	public static final int ACCURACY_BUCKET = 5;
+	/** Buckets of the accuracy histogram. */
+	public static final int ACCURACY_BUCKETS = 21;
+
+	/** Number of item types. */
+	private static final int ITEM_TYPES = DropItem.ItemType.values().length;
+
+	/** Identifies the session in the records. */
+	private final long sessionId;
+	/** Saves the records, null to only keep the totals in memory. */
+	private TelemetryWriter writer;
+
+	/** Level being played, 0 if none. */
+	private int level;
+	/** Enemy types of the level being played. */
+	private List<EnemyType> enemyTypes;
+	/** Game state the level started with. */
+	private GameState start;
+	/** Bullets fired in the level. */
+	private int bullets;
+	/** Bosses destroyed in the level. */
+	private int bosses;
+	/** Kills in the level by enemy type, the last one for other types. */
+	private final int[] kills = new int[MAX_ENEMY_TYPES + 1];
+	/** Items picked in the level by type ordinal. */
+	private final int[] items = new int[ITEM_TYPES];
+	/** Deaths in the level by cause. */
+	private final int[] deaths = new int[CAUSES];
+
+	/** Levels played in the session. */
+	private int levelsPlayed;
+	/** Levels cleared in the session. */
+	private int levelsCleared;
+	/** Items picked in the session by type ordinal. */
+	private final int[] totalItems = new int[ITEM_TYPES];
+	/** Deaths in the session by cause. */
+	private final int[] totalDeaths = new int[CAUSES];
+	/** Seconds taken to clear the levels of the session. */
+	private final Histogram clearSeconds = new Histogram(TIME_BUCKET, TIME_BUCKETS);
+	/** Accuracy in percent in the levels of the session. */
+	private final Histogram accuracy = new Histogram(ACCURACY_BUCKET, ACCURACY_BUCKETS);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sessionId
+	 *            Identifies the session in the records.
+	 */
+	public Telemetry(final long sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Sets where the records of the levels are saved.
+	 *
+	 * @param writer
+	 *            Writer of the records, null to only keep the totals.
+	 */
+	public void setWriter(final TelemetryWriter writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Starts counting a level.
+	 *
+	 * @param level
+	 *            Level number.
+	 * @param levelData
+	 *            Settings of the level.
+	 * @param state
+	 *            Game state the level starts with.
+	 */
+	public void beginLevel(final int level, final Level levelData,
+			final GameState state) {
+		this.level = level;
+		this.enemyTypes = levelData.getEnemyTypes();
+		this.start = state;
+		this.bullets = 0;
+		this.bosses = 0;
+		Arrays.fill(this.kills, 0);
+		Arrays.fill(this.items, 0);
+		Arrays.fill(this.deaths, 0);
+	}
+
+	@Override
+	public void onEvents(final GameEventBus events) {
+		if (this.level == 0)
+			return;
+		for (int i = 0; i < events.size(); i++) {
+			switch (events.getType(i)) {
+			case SHOT_FIRED:
+				this.bullets += events.getValue(i);
+				break;
+			case ENEMY_DESTROYED:
+				int type = events.getDetail(i);
+				this.kills[type >= 0 && type < MAX_ENEMY_TYPES ? type
+						: MAX_ENEMY_TYPES]++;
+				break;
+			case ITEM_PICKED:
+				this.items[events.getValue(i)]++;
+				break;
+			case PLAYER_HIT:
+				this.deaths[events.getDetail(i)]++;
+				break;
+			case BOSS_PHASE:
+				if (events.getValue(i) == GameEventBus.BOSS_DEFEATED)
+					this.bosses++;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Ends the level being counted, adding it to the totals of the session
+	 * and saving its record if there is a writer.
+	 *
+	 * @param state
+	 *            Game state the level ends with.
+	 * @param millis
+	 *            Time spent in the level, in milliseconds.
+	 * @param cleared
+	 *            True if the level was cleared.
+	 * @return Record of the level, null if no level was being counted.
+	 */
+	public TelemetryRecord endLevel(final GameState state, final long millis,
+			final boolean cleared) {
+		if (this.level == 0)
+			return null;
+		int types = Math.min(this.enemyTypes == null ? 0
+				: this.enemyTypes.size(), MAX_ENEMY_TYPES);
+		String[] names = new String[types + 1];
+		int[] levelKills = new int[types + 1];
+		for (int i = 0; i < types; i++) {
+			names[i] = this.enemyTypes.get(i).getType();
+			levelKills[i] = this.kills[i];
+		}
+		names[types] = TelemetryRecord.OTHER;
+		for (int i = types; i <= MAX_ENEMY_TYPES; i++)
+			levelKills[types] += this.kills[i];
+
+		TelemetryRecord record = new TelemetryRecord(this.sessionId,
+				System.currentTimeMillis(), this.level, cleared, (int) millis,
+				state.getBulletsShot() - this.start.getBulletsShot(),
+				this.bullets,
+				state.getShipsDestroyed() - this.start.getShipsDestroyed(),
+				this.bosses, state.getCoin() - this.start.getCoin(),
+				state.getScore() - this.start.getScore(), names, levelKills,
+				this.items.clone(), this.deaths.clone());
+
+		this.levelsPlayed++;
+		if (cleared) {
+			this.levelsCleared++;
+			this.clearSeconds.add(millis / 1000);
+		}
+		this.accuracy.add(Math.round(record.getAccuracy() * 100));
+		for (int i = 0; i < ITEM_TYPES; i++)
+			this.totalItems[i] += this.items[i];
+		for (int i = 0; i < CAUSES; i++)
+			this.totalDeaths[i] += this.deaths[i];
+		this.level = 0;
+
+		if (this.writer != null)
+			this.writer.submit(record);
+		return record;
+	}
+
+	/**
+	 * Finds the index an enemy type is counted under in a level.
+	 *
+	 * @param levelData
+	 *            Settings of the level.
+	 * @param type
+	 *            Enemy type.
+	 * @return Index of the type among those of the level, -1 if not there.
+	 */
+	public static int enemyTypeIndex(final Level levelData, final String type) {
+		List<EnemyType> types = levelData.getEnemyTypes();
+		if (type == null || types == null)
+			return -1;
+		for (int i = 0; i < types.size(); i++)
+			if (type.equals(types.get(i).getType()))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Gets the number of levels played in the session.
+	 *
+	 * @return Levels played.
+	 */
+	public int getLevelsPlayed() {
+		return this.levelsPlayed;
+	}
+
+	/**
+	 * Gets the number of levels cleared in the session.
+	 *
+	 * @return Levels cleared.
+	 */
+	public int getLevelsCleared() {
+		return this.levelsCleared;
+	}
+
+	/**
+	 * Gets the items picked in the session.
+	 *
+	 * @param type
+	 *            Type of the items.
+	 * @return Items of that type picked.
+	 */
+	public int getItemsPicked(final DropItem.ItemType type) {
+		return this.totalItems[type.ordinal()];
+	}
+
+	/**
+	 * Gets the lives lost in the session to a cause.
+	 *
+	 * @param cause
+	 *            One of the HIT constants of GameEventBus.
+	 * @return Lives lost to that cause.
+	 */
+	public int getDeaths(final int cause) {
+		return this.totalDeaths[cause];
+	}
+
+	/**
+	 * Gets the seconds taken to clear the levels of the session.
+	 *
+	 * @return Histogram of the clear times.
+	 */
+	public Histogram getClearSeconds() {
+		return this.clearSeconds;
+	}
+
+	/**
+	 * Gets the accuracy in the levels of the session.
+	 *
+	 * @return Histogram of the accuracy, in percent.
+	 */
+	public Histogram getAccuracy() {
+		return this.accuracy;
+	}
+}
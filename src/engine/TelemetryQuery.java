@@ -0,0 +1,201 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import entity.DropItem;
+
+/**
+ * Reads the daily telemetry files of many sessions and prints, for each
+ * level, how often it is cleared and the percentiles of its clear time,
+ * accuracy, coins and score, followed by its kills by enemy type, items
+ * picked and lives lost by cause.
+ *
+ * Run with the telemetry directory and optionally from, to and level as
+ * name=value arguments, e.g. telemetry from=2026-10-01 to=2026-10-19
+ * level=2.
+ */
+public final class TelemetryQuery {
+
+	/** Percentiles printed. */
+	private static final double[] PERCENTILES = { 50, 90, 99 };
+	/** Names of the causes of death, by HIT constant. */
+	private static final String[] CAUSES = { "bullet", "enemy", "boss" };
+	/** Width of the coin histogram buckets. */
+	private static final int COIN_BUCKET = 10;
+	/** Width of the score histogram buckets. */
+	private static final int SCORE_BUCKET = 100;
+
+	/**
+	 * Private constructor.
+	 */
+	private TelemetryQuery() {
+
+	}
+
+	/**
+	 * Statistics of one level across sessions.
+	 */
+	private static final class LevelStats {
+
+		/** Times the level was played. */
+		long runs;
+		/** Times the level was cleared. */
+		long clears;
+		/** Seconds to clear the level. */
+		final Histogram seconds = new Histogram(Telemetry.TIME_BUCKET,
+				Telemetry.TIME_BUCKETS);
+		/** Accuracy in percent. */
+		final Histogram accuracy = new Histogram(Telemetry.ACCURACY_BUCKET,
+				Telemetry.ACCURACY_BUCKETS);
+		/** Coins earned. */
+		final Histogram coins = new Histogram(COIN_BUCKET, 100);
+		/** Points scored. */
+		final Histogram score = new Histogram(SCORE_BUCKET, 200);
+		/** Kills by enemy type name. */
+		final Map<String, Long> kills = new TreeMap<String, Long>();
+		/** Items picked by type ordinal. */
+		final long[] items = new long[DropItem.ItemType.values().length];
+		/** Lives lost by cause. */
+		final long[] deaths = new long[CAUSES.length];
+
+		/**
+		 * Adds a record.
+		 */
+		void add(final TelemetryRecord record) {
+			this.runs++;
+			if (record.cleared) {
+				this.clears++;
+				this.seconds.add(record.millis / 1000);
+			}
+			this.accuracy.add(Math.round(record.getAccuracy() * 100));
+			this.coins.add(record.coins);
+			this.score.add(record.score);
+			for (int i = 0; i < record.enemyTypes.length; i++)
+				this.kills.merge(record.enemyTypes[i], (long) record.kills[i], Long::sum);
+			for (int i = 0; i < Math.min(record.items.length, this.items.length); i++)
+				this.items[i] += record.items[i];
+			for (int i = 0; i < Math.min(record.deaths.length, this.deaths.length); i++)
+				this.deaths[i] += record.deaths[i];
+		}
+	}
+
+	/**
+	 * Prints the statistics of the telemetry files.
+	 *
+	 * @param args
+	 *            Telemetry directory, then from, to and level as name=value.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: TelemetryQuery <directory> [from=YYYY-MM-DD] [to=YYYY-MM-DD] [level=N]");
+			return;
+		}
+		File directory = new File(args[0]);
+		LocalDate from = LocalDate.MIN;
+		LocalDate to = LocalDate.MAX;
+		int level = 0;
+		for (int i = 1; i < args.length; i++) {
+			int equals = args[i].indexOf('=');
+			if (equals < 0)
+				throw new IllegalArgumentException("Expected name=value: " + args[i]);
+			String name = args[i].substring(0, equals);
+			String value = args[i].substring(equals + 1);
+			if (name.equals("from"))
+				from = LocalDate.parse(value);
+			else if (name.equals("to"))
+				to = LocalDate.parse(value);
+			else if (name.equals("level"))
+				level = Integer.parseInt(value);
+			else
+				throw new IllegalArgumentException("Unknown argument: " + name);
+		}
+
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(TelemetryWriter.PREFIX)
+				&& name.endsWith(TelemetryWriter.SUFFIX));
+		if (files == null) {
+			System.err.println("No telemetry directory " + directory);
+			return;
+		}
+		Arrays.sort(files);
+		Map<Integer, LevelStats> levels = new TreeMap<Integer, LevelStats>();
+		Set<Long> sessions = new HashSet<Long>();
+		for (File file : files) {
+			String name = file.getName();
+			LocalDate day = LocalDate.parse(name.substring(TelemetryWriter.PREFIX.length(),
+					name.length() - TelemetryWriter.SUFFIX.length()));
+			if (day.isBefore(from) || day.isAfter(to))
+				continue;
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)))) {
+				if (in.readInt() != TelemetryWriter.MAGIC) {
+					System.err.println("Skipping " + name + ": not a telemetry file");
+					continue;
+				}
+				int version = in.readUnsignedShort();
+				while (true) {
+					byte[] data = new byte[in.readUnsignedShort()];
+					in.readFully(data);
+					if (version != TelemetryRecord.VERSION)
+						continue;
+					TelemetryRecord record = TelemetryRecord.read(
+							new DataInputStream(new ByteArrayInputStream(data)));
+					if (level != 0 && record.level != level)
+						continue;
+					sessions.add(record.sessionId);
+					levels.computeIfAbsent(record.level, l -> new LevelStats()).add(record);
+				}
+			} catch (EOFException e) {
+				// End of the file, or a record cut short by a crash, only ever
+				// the last one as the writer cuts it off before appending.
+			}
+		}
+
+		System.out.println(sessions.size() + " sessions");
+		for (Map.Entry<Integer, LevelStats> entry : levels.entrySet()) {
+			LevelStats stats = entry.getValue();
+			System.out.println(String.format(Locale.ROOT,
+					"Level %d: %d runs, %.1f%% cleared", entry.getKey(),
+					stats.runs, 100.0 * stats.clears / stats.runs));
+			print("clear seconds", stats.seconds);
+			print("accuracy %", stats.accuracy);
+			print("coins", stats.coins);
+			print("score", stats.score);
+			System.out.println("  kills: " + stats.kills);
+			StringBuilder items = new StringBuilder("  items:");
+			DropItem.ItemType[] types = DropItem.ItemType.values();
+			for (int i = 0; i < types.length; i++)
+				items.append(' ').append(types[i]).append('=').append(stats.items[i]);
+			System.out.println(items);
+			StringBuilder deaths = new StringBuilder("  deaths:");
+			for (int i = 0; i < CAUSES.length; i++)
+				deaths.append(' ').append(CAUSES[i]).append('=').append(stats.deaths[i]);
+			System.out.println(deaths);
+		}
+	}
+
+	/**
+	 * Prints the percentiles of a histogram on one line.
+	 */
+	private static void print(final String name, final Histogram histogram) {
+		StringBuilder line = new StringBuilder("  ").append(name).append(':');
+		for (double percentile : PERCENTILES)
+			line.append(String.format(Locale.ROOT, " p%.0f<=%d", percentile,
+					histogram.percentile(percentile)));
+		System.out.println(line);
+	}
+}
@@ -0,0 +1,169 @@
+package engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Statistics of one level played, as written to the telemetry files.
+ *
+ * Kills are counted by the enemy types of the level, in its order, with the
+ * enemies of other types in a last "other" entry. Items are counted by the
+ * ordinal of their type and deaths by the HIT constants of GameEventBus.
+ */
+public final class TelemetryRecord {
+
+	/** Version of the record format. */
+	static final int VERSION = 1;
+	/** Name of the entry counting the kills of unlisted enemy types. */
+	public static final String OTHER = "other";
+
+	/** Session the level was played in. */
+	final long sessionId;
+	/** Time the level ended, in milliseconds since the epoch. */
+	final long endTime;
+	/** Level number. */
+	final int level;
+	/** True if the level was cleared. */
+	final boolean cleared;
+	/** Time spent in the level, in milliseconds. */
+	final int millis;
+	/** Times the players fired. */
+	final int shots;
+	/** Bullets fired, several per shot with the spread shot. */
+	final int bullets;
+	/** Enemy ships destroyed. */
+	final int hits;
+	/** Bosses destroyed. */
+	final int bosses;
+	/** Coins earned in the level. */
+	final int coins;
+	/** Points scored in the level. */
+	final int score;
+	/** Enemy type of each kill count. */
+	final String[] enemyTypes;
+	/** Kills by enemy type. */
+	final int[] kills;
+	/** Items picked by type ordinal. */
+	final int[] items;
+	/** Deaths by cause. */
+	final int[] deaths;
+
+	/**
+	 * Constructor.
+	 */
+	TelemetryRecord(final long sessionId, final long endTime, final int level,
+			final boolean cleared, final int millis, final int shots,
+			final int bullets, final int hits, final int bosses,
+			final int coins, final int score, final String[] enemyTypes,
+			final int[] kills, final int[] items, final int[] deaths) {
+		this.sessionId = sessionId;
+		this.endTime = endTime;
+		this.level = level;
+		this.cleared = cleared;
+		this.millis = millis;
+		this.shots = shots;
+		this.bullets = bullets;
+		this.hits = hits;
+		this.bosses = bosses;
+		this.coins = coins;
+		this.score = score;
+		this.enemyTypes = enemyTypes;
+		this.kills = kills;
+		this.items = items;
+		this.deaths = deaths;
+	}
+
+	/**
+	 * Gets the share of shots that destroyed an enemy.
+	 *
+	 * @return Accuracy, from 0 to 1, 0 if nothing was fired.
+	 */
+	public double getAccuracy() {
+		return this.shots == 0 ? 0 : Math.min(1, (double) this.hits / this.shots);
+	}
+
+	/**
+	 * Writes the record.
+	 *
+	 * @param out
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	void write(final DataOutput out) throws IOException {
+		out.writeLong(this.sessionId);
+		out.writeLong(this.endTime);
+		out.writeShort(this.level);
+		out.writeBoolean(this.cleared);
+		out.writeInt(this.millis);
+		out.writeInt(this.shots);
+		out.writeInt(this.bullets);
+		out.writeInt(this.hits);
+		out.writeShort(this.bosses);
+		out.writeInt(this.coins);
+		out.writeInt(this.score);
+		out.writeByte(this.enemyTypes.length);
+		for (int i = 0; i < this.enemyTypes.length; i++) {
+			out.writeUTF(this.enemyTypes[i]);
+			out.writeShort(Math.min(this.kills[i], 0xFFFF));
+		}
+		writeCounts(out, this.items);
+		writeCounts(out, this.deaths);
+	}
+
+	/**
+	 * Reads a record written by write.
+	 *
+	 * @param in
+	 *            Input to read from.
+	 * @return The record.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	static TelemetryRecord read(final DataInput in) throws IOException {
+		long sessionId = in.readLong();
+		long endTime = in.readLong();
+		int level = in.readUnsignedShort();
+		boolean cleared = in.readBoolean();
+		int millis = in.readInt();
+		int shots = in.readInt();
+		int bullets = in.readInt();
+		int hits = in.readInt();
+		int bosses = in.readUnsignedShort();
+		int coins = in.readInt();
+		int score = in.readInt();
+		int types = in.readUnsignedByte();
+		String[] enemyTypes = new String[types];
+		int[] kills = new int[types];
+		for (int i = 0; i < types; i++) {
+			enemyTypes[i] = in.readUTF();
+			kills[i] = in.readUnsignedShort();
+		}
+		int[] items = readCounts(in);
+		int[] deaths = readCounts(in);
+		return new TelemetryRecord(sessionId, endTime, level, cleared, millis,
+				shots, bullets, hits, bosses, coins, score, enemyTypes, kills,
+				items, deaths);
+	}
+
+	/**
+	 * Writes a list of small counts preceded by its length.
+	 */
+	private static void writeCounts(final DataOutput out, final int[] counts)
+			throws IOException {
+		out.writeByte(counts.length);
+		for (int count : counts)
+			out.writeShort(Math.min(count, 0xFFFF));
+	}
+
+	/**
+	 * Reads a list of counts written by writeCounts.
+	 */
+	private static int[] readCounts(final DataInput in) throws IOException {
+		int[] counts = new int[in.readUnsignedByte()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = in.readUnsignedShort();
+		return counts;
+	}
+}
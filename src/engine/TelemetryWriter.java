@@ -0,0 +1,241 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import engine.jfr.PersistenceWriteEvent;
+
+/**
+ * Saves telemetry records on a background thread, appending them to one
+ * file per day, named telemetry-YYYY-MM-DD.bin, so the game never waits on
+ * the disk. Records submitted faster than they can be written are dropped.
+ *
+ * A file starts with a magic number and the record version, followed by
+ * the records, each preceded by its length so readers can skip the ones
+ * they do not understand and stop cleanly at a record cut short. Before
+ * appending to a file for the first time, the writer cuts off such a record,
+ * so the records appended after it can still be read.
+ */
+public final class TelemetryWriter implements Closeable {
+
+	/** First bytes of a telemetry file, "INVT". */
+	static final int MAGIC = 0x494E5654;
+	/** Prefix of the telemetry file names. */
+	static final String PREFIX = "telemetry-";
+	/** Extension of the telemetry file names. */
+	static final String SUFFIX = ".bin";
+	/** Records waiting to be written at most. */
+	private static final int QUEUE_SIZE = 256;
+	/** Bytes of the magic number and record version. */
+	private static final int HEADER_SIZE = 6;
+
+	/** Directory of the files. */
+	private final File directory;
+	/** Records waiting to be written. */
+	private final BlockingQueue<TelemetryRecord> queue;
+	/** Thread writing the records. */
+	private final Thread thread;
+	/** Last file checked for a record cut short, null if none. */
+	private File checked;
+	/** Records dropped because the queue was full. */
+	private volatile int dropped;
+	/** False once closed. */
+	private volatile boolean running;
+	/** Application logger. */
+	private final Logger logger;
+
+	/**
+	 * Constructor, starting the thread.
+	 *
+	 * @param directory
+	 *            Directory of the files, created if needed.
+	 */
+	public TelemetryWriter(final File directory) {
+		this.directory = directory;
+		this.queue = new ArrayBlockingQueue<TelemetryRecord>(QUEUE_SIZE);
+		this.logger = Core.getLogger();
+		this.running = true;
+		this.thread = new Thread(this::run, "telemetry-writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Gets the file of the records of a day.
+	 *
+	 * @param directory
+	 *            Directory of the files.
+	 * @param day
+	 *            Day of the records.
+	 * @return File of that day.
+	 */
+	public static File fileOf(final File directory, final LocalDate day) {
+		return new File(directory, PREFIX + day + SUFFIX);
+	}
+
+	/**
+	 * Queues a record to be written.
+	 *
+	 * @param record
+	 *            Record to write.
+	 */
+	public void submit(final TelemetryRecord record) {
+		if (!this.queue.offer(record))
+			this.dropped++;
+	}
+
+	/**
+	 * Gets the number of records dropped because the queue was full.
+	 *
+	 * @return Records dropped.
+	 */
+	public int getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Writes the records still queued and stops the thread.
+	 */
+	@Override
+	public void close() {
+		this.running = false;
+		this.thread.interrupt();
+		try {
+			this.thread.join(2000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes the records as they come, a batch at a time.
+	 */
+	private void run() {
+		List<TelemetryRecord> batch = new ArrayList<TelemetryRecord>();
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				TelemetryRecord first = this.queue.poll(1, TimeUnit.SECONDS);
+				if (first == null)
+					continue;
+				batch.add(first);
+			} catch (InterruptedException e) {
+				// Closing, what is left is drained below.
+			}
+			this.queue.drainTo(batch);
+			if (!batch.isEmpty())
+				write(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Appends a batch of records to the files of their days.
+	 */
+	private void write(final List<TelemetryRecord> batch) {
+		if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+			this.logger.warning("Cannot create telemetry directory " + this.directory);
+			return;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		DataOutputStream encoder = new DataOutputStream(buffer);
+		int i = 0;
+		while (i < batch.size()) {
+			LocalDate day = dayOf(batch.get(i));
+			File file = fileOf(this.directory, day);
+			if (!file.equals(this.checked)) {
+				repair(file);
+				this.checked = file;
+			}
+			boolean isNew = !file.exists() || file.length() == 0;
+			PersistenceWriteEvent event = new PersistenceWriteEvent();
+			event.begin();
+			int first = i;
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file, true)))) {
+				if (isNew) {
+					out.writeInt(MAGIC);
+					out.writeShort(TelemetryRecord.VERSION);
+				}
+				for (; i < batch.size() && dayOf(batch.get(i)).equals(day); i++) {
+					buffer.reset();
+					batch.get(i).write(encoder);
+					out.writeShort(buffer.size());
+					buffer.writeTo(out);
+				}
+			} catch (IOException e) {
+				this.logger.warning("Failed to write telemetry to " + file + ": " + e.getMessage());
+				return;
+			} finally {
+				if (event.shouldCommit()) {
+					event.file = file.getPath();
+					event.records = i - first;
+					event.commit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cuts a file after its last complete record, dropping a record cut short
+	 * by a crash while it was written. A header cut short empties the file.
+	 */
+	private void repair(final File file) {
+		long length = file.length();
+		if (length == 0)
+			return;
+		long complete = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)))) {
+			if (length >= HEADER_SIZE) {
+				in.readInt();
+				in.readUnsignedShort();
+				complete = HEADER_SIZE;
+				while (complete + 2 <= length) {
+					int size = in.readUnsignedShort();
+					if (complete + 2 + size > length)
+						break;
+					in.skipBytes(size);
+					complete += 2 + size;
+				}
+			}
+		} catch (IOException e) {
+			this.logger.warning("Failed to check telemetry file " + file + ": " + e.getMessage());
+			return;
+		}
+		if (complete == length)
+			return;
+		try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+			truncated.setLength(complete);
+			this.logger.warning("Dropped " + (length - complete)
+					+ " bytes of a record cut short from " + file);
+		} catch (IOException e) {
+			this.logger.warning("Failed to repair telemetry file " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the local day a record ended on.
+	 */
+	private static LocalDate dayOf(final TelemetryRecord record) {
+		return Instant.ofEpochMilli(record.endTime)
+				.atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+}
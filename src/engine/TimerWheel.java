@@ -0,0 +1,240 @@
+package engine;
+
+/**
+ * Runs timed actions of a game session, such as the end of a shield or of a
+ * popup, when their time comes, instead of every one of them being polled
+ * every frame.
+ *
+ * Timers are kept in a hierarchical timer wheel: four levels of 64 slots,
+ * each slot of a level spanning a whole turn of the level below it. A
+ * timer goes in the slot of its expiry on the finest level that reaches
+ * it, and moves down a level each time the level below completes a turn,
+ * until it fires. Scheduling and cancelling take constant time, and a tick
+ * only costs the timers expiring in it, however many are waiting.
+ *
+ * Timers are owned by the code using them and rescheduled as needed, so
+ * the wheel never allocates. Actions run on the thread advancing the
+ * wheel, once per tick, and may schedule or cancel timers themselves.
+ */
+public final class TimerWheel {
+
+	/** Length of a tick of the wheel, in milliseconds. */
+	public static final int TICK_MILLIS = 10;
+
+	/** Bits of the slot index on each level. */
+	private static final int SLOT_BITS = 6;
+	/** Slots on each level. */
+	private static final int SLOTS = 1 << SLOT_BITS;
+	/** Mask of the slot index on each level. */
+	private static final int SLOT_MASK = SLOTS - 1;
+	/** Number of levels. */
+	private static final int LEVELS = 4;
+	/** Ticks reached by the wheel, later timers wait on the last level. */
+	private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+	/** Slot of the timers being fired, after those of the levels. */
+	private static final int FIRING = LEVELS * SLOTS;
+
+	/**
+	 * An action to run at a given time. A timer is scheduled at most once
+	 * at a time, scheduling it again moves it.
+	 */
+	public static final class Timer {
+
+		/** Action to run when the timer expires. */
+		private final Runnable action;
+		/** Tick the timer expires at. */
+		private long expiry;
+		/** Slot the timer is in, -1 if not scheduled. */
+		private int slot = -1;
+		/** Previous timer in the slot. */
+		private Timer previous;
+		/** Next timer in the slot. */
+		private Timer next;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param action
+		 *            Action to run when the timer expires.
+		 */
+		public Timer(final Runnable action) {
+			this.action = action;
+		}
+
+		/**
+		 * Checks if the timer is waiting to expire.
+		 *
+		 * @return True if scheduled.
+		 */
+		public boolean isScheduled() {
+			return this.slot >= 0;
+		}
+	}
+
+	/** First timer of each slot, level by level, then of those firing. */
+	private final Timer[] slots = new Timer[LEVELS * SLOTS + 1];
+	/** Next tick to run. */
+	private long base;
+	/** Time the wheel was last advanced to, in milliseconds. */
+	private long now;
+	/** Timers scheduled. */
+	private int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param now
+	 *            Current time, in milliseconds.
+	 */
+	public TimerWheel(final long now) {
+		this.now = now;
+		this.base = now / TICK_MILLIS;
+	}
+
+	/**
+	 * Schedules a timer, moving it if it was already scheduled.
+	 *
+	 * @param timer
+	 *            Timer to schedule.
+	 * @param delay
+	 *            Time from the last advance until it expires, in
+	 *            milliseconds. It expires at the first tick after that time.
+	 */
+	public void schedule(final Timer timer, final long delay) {
+		if (timer.isScheduled())
+			unlink(timer);
+		else
+			this.size++;
+		timer.expiry = (this.now + Math.max(delay, 0) + TICK_MILLIS - 1) / TICK_MILLIS;
+		add(timer);
+	}
+
+	/**
+	 * Cancels a timer. Does nothing if it is not scheduled.
+	 *
+	 * @param timer
+	 *            Timer to cancel.
+	 */
+	public void cancel(final Timer timer) {
+		if (!timer.isScheduled())
+			return;
+		unlink(timer);
+		this.size--;
+	}
+
+	/**
+	 * Moves the wheel to the current time, running the actions of the
+	 * timers expired since the last advance.
+	 *
+	 * @param now
+	 *            Current time, in milliseconds.
+	 */
+	public void advance(final long now) {
+		this.now = now;
+		long target = now / TICK_MILLIS;
+		if (this.size == 0) {
+			// Nothing to run, skip the idle ticks.
+			this.base = Math.max(this.base, target + 1);
+			return;
+		}
+		while (this.base <= target)
+			tick();
+	}
+
+	/**
+	 * Gets the number of timers scheduled.
+	 *
+	 * @return Timers scheduled.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Runs the next tick: brings the timers of the coming turn down a level
+	 * when the first level starts a new turn, then fires the timers of the
+	 * tick.
+	 */
+	private void tick() {
+		int index = (int) (this.base & SLOT_MASK);
+		for (int level = 1; index == 0 && level < LEVELS; level++) {
+			index = (int) ((this.base >> (SLOT_BITS * level)) & SLOT_MASK);
+			Timer timer = detach(level * SLOTS + index);
+			while (timer != null) {
+				Timer next = timer.next;
+				add(timer);
+				timer = next;
+			}
+		}
+		// The timers of the tick are moved to their own slot, so that the
+		// actions can cancel the ones not run yet.
+		Timer firing = detach((int) (this.base & SLOT_MASK));
+		this.slots[FIRING] = firing;
+		for (Timer timer = firing; timer != null; timer = timer.next)
+			timer.slot = FIRING;
+		this.base++;
+		Timer timer;
+		while ((timer = this.slots[FIRING]) != null) {
+			unlink(timer);
+			this.size--;
+			timer.action.run();
+		}
+	}
+
+	/**
+	 * Puts a timer in the slot of its expiry, on the finest level reaching
+	 * it.
+	 */
+	private void add(final Timer timer) {
+		long expiry = timer.expiry;
+		long delta = expiry - this.base;
+		int slot;
+		if (delta < 0) {
+			// Overdue, runs on the next tick.
+			slot = (int) (this.base & SLOT_MASK);
+		} else {
+			if (delta >= MAX_TICKS) {
+				expiry = this.base + MAX_TICKS - 1;
+				delta = MAX_TICKS - 1;
+			}
+			int level = 0;
+			while (delta >= 1L << (SLOT_BITS * (level + 1)))
+				level++;
+			slot = level * SLOTS
+					+ (int) ((expiry >> (SLOT_BITS * level)) & SLOT_MASK);
+		}
+		Timer first = this.slots[slot];
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = first;
+		if (first != null)
+			first.previous = timer;
+		this.slots[slot] = timer;
+	}
+
+	/**
+	 * Takes a timer out of its slot.
+	 */
+	private void unlink(final Timer timer) {
+		if (timer.previous != null)
+			timer.previous.next = timer.next;
+		else
+			this.slots[timer.slot] = timer.next;
+		if (timer.next != null)
+			timer.next.previous = timer.previous;
+		timer.slot = -1;
+		timer.previous = null;
+		timer.next = null;
+	}
+
+	/**
+	 * Empties a slot.
+	 *
+	 * @return First of the timers it held, still linked to the others.
+	 */
+	private Timer detach(final int slot) {
+		Timer first = this.slots[slot];
+		this.slots[slot] = null;
+		return first;
+	}
+}
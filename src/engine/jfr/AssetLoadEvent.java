@@ -0,0 +1,30 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loading of an asset, such as the sprites or a sound clip.
+ */
+@Name("invaders.AssetLoad")
+@Label("Asset Load")
+@Category({ "Invaders", "Loading" })
+@Description("Loading of a sprite sheet or sound clip")
+@Enabled(false)
+public final class AssetLoadEvent extends jdk.jfr.Event {
+
+	/** Kind of asset, sprite or sound. */
+	@Label("Kind")
+	public String kind;
+
+	/** Path of the asset. */
+	@Label("Path")
+	public String path;
+
+	/** True if the asset could be loaded. */
+	@Label("Loaded")
+	public boolean loaded;
+}
@@ -0,0 +1,28 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One collision pass of the game screen, such as bullets against ships.
+ */
+@Name("invaders.CollisionPass")
+@Label("Collision Pass")
+@Category({ "Invaders", "Engine" })
+@Description("One collision pass of a frame and the pairs of entities it tested")
+@Enabled(false)
+@StackTrace(false)
+public final class CollisionPassEvent extends jdk.jfr.Event {
+
+	/** What the pass tests against what. */
+	@Label("Pass")
+	public String pass;
+
+	/** Pairs of entities tested. */
+	@Label("Pairs")
+	public int pairs;
+}
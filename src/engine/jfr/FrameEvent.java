@@ -0,0 +1,37 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One frame of a screen, from the start of its update to the end of its
+ * drawing. Its duration is the whole frame, split into update and draw time
+ * for the screens that time their drawing.
+ */
+@Name("invaders.Frame")
+@Label("Frame")
+@Category({ "Invaders", "Engine" })
+@Description("Update and drawing of one frame of a screen")
+@Enabled(false)
+@StackTrace(false)
+public final class FrameEvent extends jdk.jfr.Event {
+
+	/** Screen the frame belongs to. */
+	@Label("Screen")
+	public String screen;
+
+	/** Time spent updating, drawing excluded. */
+	@Label("Update Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long updateTime;
+
+	/** Time spent drawing. */
+	@Label("Draw Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long drawTime;
+}
@@ -0,0 +1,34 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading and parsing of the level maps.
+ */
+@Name("invaders.LevelLoad")
+@Label("Level Load")
+@Category({ "Invaders", "Loading" })
+@Description("Reading and parsing of the level maps")
+@Enabled(false)
+@StackTrace(false)
+public final class LevelLoadEvent extends jdk.jfr.Event {
+
+	/** Resource the maps were read from. */
+	@Label("Source")
+	public String source;
+
+	/** Characters of JSON read. */
+	@Label("Size")
+	@DataAmount
+	public long size;
+
+	/** Levels loaded, 0 if the hardcoded ones were used instead. */
+	@Label("Levels")
+	public int levels;
+}
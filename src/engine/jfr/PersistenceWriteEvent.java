@@ -0,0 +1,26 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing of saved data to disk, such as the scores or the achievements.
+ */
+@Name("invaders.PersistenceWrite")
+@Label("Persistence Write")
+@Category({ "Invaders", "Persistence" })
+@Description("Writing of scores, achievements, leaderboard or telemetry to disk")
+@Enabled(false)
+public final class PersistenceWriteEvent extends jdk.jfr.Event {
+
+	/** File written. */
+	@Label("File")
+	public String file;
+
+	/** Records written. */
+	@Label("Records")
+	public int records;
+}
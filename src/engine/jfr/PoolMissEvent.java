@@ -0,0 +1,22 @@
+package engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A pool of recycled entities was empty and had to create a new one.
+ */
+@Name("invaders.PoolMiss")
+@Label("Pool Miss")
+@Category({ "Invaders", "Engine" })
+@Description("An entity pool was empty and allocated a new entity")
+@Enabled(false)
+public final class PoolMissEvent extends jdk.jfr.Event {
+
+	/** Pool that missed, bullet or item. */
+	@Label("Pool")
+	public String pool;
+}
@@ -0,0 +1,135 @@
+package engine.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Item drops of one enemy type, compiled into an alias table.
+ *
+ * When an enemy is destroyed, each of its drops succeeds on its own with its
+ * drop chance, and one of the successful ones is picked at random. The table
+ * holds the resulting chance of each drop, and of none, so that a single
+ * random number picks the outcome in constant time without allocating.
+ */
+public class DropTable {
+
+    /** Drop of each outcome, null for the outcome without a drop. */
+    private final ItemDrop[] outcomes;
+    /** Chance of keeping each outcome rather than its alias. */
+    private final double[] keep;
+    /** Outcome taken instead of each one when not kept. */
+    private final int[] alias;
+
+    /**
+     * Compiles the drops of an enemy type.
+     *
+     * @param drops Drops of the enemy type.
+     */
+    public DropTable(List<ItemDrop> drops) {
+        int n = drops.size();
+        this.outcomes = new ItemDrop[n + 1];
+        double[] chances = new double[n + 1];
+        double[] p = new double[n];
+        for (int i = 0; i < n; i++) {
+            this.outcomes[i + 1] = drops.get(i);
+            p[i] = Math.max(0, Math.min(1, drops.get(i).getDropChance()));
+        }
+
+        // No drop when every roll fails.
+        chances[0] = 1;
+        for (int i = 0; i < n; i++)
+            chances[0] *= 1 - p[i];
+
+        // A drop is picked when it succeeds, with a chance of one in the
+        // number of successes, which depends on how many of the others do.
+        double[] others = new double[n];
+        for (int j = 0; j < n; j++) {
+            Arrays.fill(others, 0);
+            others[0] = 1;
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == j)
+                    continue;
+                count++;
+                for (int k = count; k > 0; k--)
+                    others[k] = others[k] * (1 - p[i]) + others[k - 1] * p[i];
+                others[0] *= 1 - p[i];
+            }
+            double picked = 0;
+            for (int k = 0; k <= count; k++)
+                picked += others[k] / (k + 1);
+            chances[j + 1] = p[j] * picked;
+        }
+
+        this.keep = new double[n + 1];
+        this.alias = new int[n + 1];
+        buildAlias(chances);
+    }
+
+    /**
+     * Builds the alias table of the outcome chances with Vose's method.
+     */
+    private void buildAlias(double[] chances) {
+        int size = chances.length;
+        double total = 0;
+        for (double chance : chances)
+            total += chance;
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = chances[i] * size / total;
+            if (scaled[i] < 1)
+                small[smallCount++] = i;
+            else
+                large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            this.keep[less] = scaled[less];
+            this.alias[less] = more;
+            scaled[more] -= 1 - scaled[less];
+            if (scaled[more] < 1)
+                small[smallCount++] = more;
+            else
+                large[largeCount++] = more;
+        }
+        // What is left is 1 up to rounding.
+        while (largeCount > 0)
+            this.keep[large[--largeCount]] = 1;
+        while (smallCount > 0)
+            this.keep[small[--smallCount]] = 1;
+    }
+
+    /**
+     * Picks the drop of a destroyed enemy.
+     *
+     * @param random Uniform random number, from 0 included to 1 excluded.
+     * @return The drop, or null if nothing drops.
+     */
+    public ItemDrop roll(double random) {
+        double scaled = random * this.outcomes.length;
+        int column = Math.min((int) scaled, this.outcomes.length - 1);
+        int outcome = scaled - column < this.keep[column] ? column : this.alias[column];
+        return this.outcomes[outcome];
+    }
+
+    /**
+     * Groups the drops of a level by enemy type.
+     *
+     * @param drops Drops of the level.
+     * @param enemyType Enemy type to keep.
+     * @return Drops of that enemy type.
+     */
+    static List<ItemDrop> dropsOf(List<ItemDrop> drops, String enemyType) {
+        List<ItemDrop> kept = new ArrayList<>();
+        for (ItemDrop drop : drops)
+            if (enemyType.equals(drop.getEnemyType()))
+                kept.add(drop);
+        return kept;
+    }
+}
@@ -34,13 +34,8 @@ public class JsonLoader {
      * @throws IOException if parsing fails.
      */
     public static List<Level> parse(String jsonContent) throws IOException {
+        List<Map<String, Object>> levelMaps = parseLevelMaps(jsonContent);
         try {
-            Map<String, Object> root = (Map<String, Object>) new JsonLoader(jsonContent).parseValue();
-            if (root == null || !root.containsKey("levels")) {
-                throw new IOException("JSON root must be an object with a 'levels' key.");
-            }
-            List<Map<String, Object>> levelMaps = (List<Map<String, Object>>) root.get("levels");
-
             List<Level> levels = new ArrayList<>();
             for (Map<String, Object> map : levelMaps) {
                 levels.add(new Level(map));
@@ -52,6 +47,41 @@ public class JsonLoader {
         }
     }
 
+    /**
+     * Parses the level data without building the levels, so callers can
+     * change values before passing each map to the Level constructor.
+     * @param jsonContent The raw string content of the JSON file.
+     * @return The map of each level, in file order.
+     * @throws IOException if parsing fails.
+     */
+    public static List<Map<String, Object>> parseLevelMaps(String jsonContent) throws IOException {
+        try {
+            Map<String, Object> root = (Map<String, Object>) new JsonLoader(jsonContent).parseValue();
+            if (root == null || !root.containsKey("levels")) {
+                throw new IOException("JSON root must be an object with a 'levels' key.");
+            }
+            return (List<Map<String, Object>>) root.get("levels");
+        } catch (Exception e) {
+            // Wrap parsing exceptions into IOException to signal failure to the caller.
+            throw new IOException("Failed to parse JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses any JSON document made of the values this loader supports.
+     * @param jsonContent The raw string content of the JSON file.
+     * @return Maps for objects, lists for arrays, and strings, numbers,
+     *         booleans or null for the rest.
+     * @throws IOException if parsing fails.
+     */
+    public static Object parseTree(String jsonContent) throws IOException {
+        try {
+            return new JsonLoader(jsonContent).parseValue();
+        } catch (Exception e) {
+            throw new IOException("Failed to parse JSON: " + e.getMessage(), e);
+        }
+    }
+
     private char next() {
         if (++at >= json.length()) {
             ch = '\0'; // End of file
@@ -1,6 +1,7 @@
 package engine.level;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +26,8 @@ public class Level {
     private LevelEnemyFormation enemyFormation;
     private List<EnemyType> enemyTypes;
     private List<ItemDrop> itemDrops;
+    // Drops compiled by enemy type, so a kill picks its drop in constant time
+    private Map<String, DropTable> dropTables;
     private String bossId;
 
     private CompletionBonus completionBonus;
@@ -72,6 +75,14 @@ public class Level {
             for (Map<String, Object> itemDropMap : (List<Map<String, Object>>) map.get("itemDrops")) {
                 this.itemDrops.add(new ItemDrop(itemDropMap));
             }
+            this.dropTables = new HashMap<>();
+            for (ItemDrop itemDrop : this.itemDrops) {
+                String enemyType = itemDrop.getEnemyType();
+                if (enemyType != null && !this.dropTables.containsKey(enemyType)) {
+                    this.dropTables.put(enemyType,
+                            new DropTable(DropTable.dropsOf(this.itemDrops, enemyType)));
+                }
+            }
         }
         this.bossId = (String) map.get("bossId");
 
@@ -133,6 +144,19 @@ public class Level {
         return itemDrops;
     }
 
+    /**
+     * Gets the compiled drops of an enemy type.
+     *
+     * @param enemyType The enemy type.
+     * @return Its drop table, or null if it drops nothing.
+     */
+    public DropTable getDropTable(String enemyType) {
+        if (dropTables == null || enemyType == null) {
+            return null;
+        }
+        return dropTables.get(enemyType);
+    }
+
     public String getBossId() {
         return bossId;
     }
@@ -0,0 +1,202 @@
+package engine.level;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import engine.GameRandom;
+
+/**
+ * Generates the levels played past the last one of the maps, for endless
+ * games.
+ *
+ * Levels pick up from the last map and get harder along a curve of their
+ * depth past it, which rises quickly at first and then flattens out: bigger
+ * and faster formations, more frequent shots and more enemies of the
+ * stronger types. A boss comes every few levels and portals now and then.
+ *
+ * Each level is drawn from its own stream, seeded from the seed of the game
+ * and its number, so a level is the same whatever the levels generated
+ * before it and generating it keeps no state. The level is built from the
+ * same map as those read from maps.json.
+ */
+public class LevelGenerator {
+
+    /** Depth at which the difficulty is half way to its maximum. */
+    private static final double HALF_DEPTH = 6;
+    /** Levels between two bosses. */
+    private static final int BOSS_EVERY = 3;
+    /** Bosses, in the order they come. */
+    private static final String[] BOSSES = { "omegaBoss", "finalBoss", "omegaAndFinal" };
+    /** Items dropped by the enemies. */
+    private static final String[] ITEMS = { "Heal", "Shield", "Push", "Slow", "Stop", "Explode" };
+    /** Chance of dropping each item, heavier ones rarer. */
+    private static final double[] ITEM_CHANCES = { 0.10, 0.10, 0.05, 0.10, 0.08, 0.04 };
+    /** Drops of each enemy type. */
+    private static final int DROPS_PER_TYPE = 2;
+    /** Chance of a level having portals. */
+    private static final double PORTAL_CHANCE = 0.3;
+    /** Names of the levels, after their number. */
+    private static final String[] NAMES = {
+            "Drift", "Outpost", "Vortex", "Rift", "Siege", "Onslaught", "Eclipse", "Abyss" };
+
+    /** Widest formation, fitting the screen. */
+    private static final int MAX_WIDTH = 9;
+    /** Highest formation, leaving room above the ship. */
+    private static final int MAX_HEIGHT = 8;
+    /** Fastest formation speed. */
+    private static final int MIN_SPEED = 2;
+    /** Shortest time between shots, in milliseconds. */
+    private static final int MIN_SHOOTING = 300;
+    /** Highest coins for clearing a level. */
+    private static final int MAX_BONUS = 200;
+
+    /** Seed of the game. */
+    private final long seed;
+    /** Number of the first level generated. */
+    private final int firstLevel;
+    /** Last map, where the difficulty starts from. */
+    private final Level last;
+
+    /**
+     * Constructor.
+     *
+     * @param seed Seed of the game, the same seed giving the same levels.
+     * @param last Last map, the levels generated coming after it.
+     */
+    public LevelGenerator(long seed, Level last) {
+        this.seed = seed;
+        this.firstLevel = last.getLevel() + 1;
+        this.last = last;
+    }
+
+    /**
+     * Gets the number of the first level generated.
+     *
+     * @return Number of the first level generated.
+     */
+    public int getFirstLevel() {
+        return this.firstLevel;
+    }
+
+    /**
+     * Generates a level. Safe to call from any thread.
+     *
+     * @param levelNumber Number of the level, from the first level generated.
+     * @return The level.
+     */
+    public Level generate(int levelNumber) {
+        int depth = Math.max(1, levelNumber - this.firstLevel + 1);
+        double difficulty = depth / (depth + HALF_DEPTH);
+        GameRandom random = new GameRandom(new GameRandom(this.seed + levelNumber).nextLong());
+        boolean boss = depth % BOSS_EVERY == 0;
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("level", levelNumber);
+        map.put("levelName", levelNumber + ". " + NAMES[random.nextInt(NAMES.length)]);
+
+        // Some levels come a little easier than the curve, and boss levels
+        // get a smaller formation, the boss being enough.
+        int width = clamp(lerp(this.last.getFormationWidth(), MAX_WIDTH, difficulty)
+                - random.nextInt(2), 1, MAX_WIDTH);
+        int height = clamp(lerp(this.last.getFormationHeight(), MAX_HEIGHT, difficulty)
+                - random.nextInt(2) - (boss ? 1 : 0), 1, MAX_HEIGHT);
+        int speed = Math.max(MIN_SPEED,
+                lerp(this.last.getBaseSpeed(), MIN_SPEED, difficulty) + random.nextInt(4));
+        int shooting = Math.max(MIN_SHOOTING,
+                lerp(this.last.getShootingFrecuency(), MIN_SHOOTING, difficulty)
+                        * (100 + random.nextInt(16)) / 100);
+        Map<String, Object> formation = new HashMap<>();
+        formation.put("formationWidth", width);
+        formation.put("formationHeight", height);
+        formation.put("baseSpeed", speed);
+        formation.put("shootingFrecuency", shooting);
+        map.put("enemyFormation", formation);
+
+        // The stronger types take over as the difficulty rises.
+        int cells = width * height;
+        int countC = (int) Math.round(cells * (0.4 + 0.3 * difficulty));
+        int countA = Math.min(cells - countC, (int) Math.round(cells * (0.2 - 0.2 * difficulty)));
+        int countB = cells - countC - countA;
+        List<Map<String, Object>> enemyTypes = new ArrayList<>();
+        List<Map<String, Object>> itemDrops = new ArrayList<>();
+        addEnemyType(enemyTypes, itemDrops, "enemyA", countA, random);
+        addEnemyType(enemyTypes, itemDrops, "enemyB", countB, random);
+        addEnemyType(enemyTypes, itemDrops, "enemyC", countC, random);
+        map.put("enemyTypes", enemyTypes);
+        map.put("itemDrops", itemDrops);
+
+        if (boss) {
+            map.put("bossId", BOSSES[(depth / BOSS_EVERY - 1) % BOSSES.length]);
+        }
+
+        Map<String, Object> bonus = new HashMap<>();
+        int lastBonus = this.last.getCompletionBonus() == null ? 0
+                : this.last.getCompletionBonus().getCurrency();
+        bonus.put("currency", Math.max(lastBonus, Math.min(MAX_BONUS, lastBonus + 10 * depth)));
+        map.put("completionBonus", bonus);
+
+        // A pair of portals on each side, at one position each, so placing
+        // them takes nothing random when the level starts.
+        if (random.chance(PORTAL_CHANCE)) {
+            List<Map<String, Object>> portals = new ArrayList<>();
+            portals.add(portal(1, 2, random.nextInt(30, 51), random.nextInt(100, 381)));
+            portals.add(portal(2, 1, random.nextInt(360, 381), random.nextInt(100, 381)));
+            map.put("portals", portals);
+        }
+        return new Level(map);
+    }
+
+    /**
+     * Adds an enemy type to a level with its drops, if it has enemies.
+     */
+    private static void addEnemyType(List<Map<String, Object>> enemyTypes,
+            List<Map<String, Object>> itemDrops, String type, int count, GameRandom random) {
+        if (count <= 0) {
+            return;
+        }
+        Map<String, Object> enemyType = new HashMap<>();
+        enemyType.put("type", type);
+        enemyType.put("count", count);
+        enemyTypes.add(enemyType);
+
+        int first = random.nextInt(ITEMS.length);
+        int step = 1 + random.nextInt(ITEMS.length - 1);
+        for (int i = 0; i < DROPS_PER_TYPE; i++) {
+            int item = (first + i * step) % ITEMS.length;
+            Map<String, Object> drop = new HashMap<>();
+            drop.put("enemyType", type);
+            drop.put("itemId", ITEMS[item]);
+            drop.put("dropChance", ITEM_CHANCES[item]);
+            itemDrops.add(drop);
+        }
+    }
+
+    /**
+     * Builds the map of a portal at a single position.
+     */
+    private static Map<String, Object> portal(int portalId, int targetPortalId, int x, int y) {
+        Map<String, Object> portal = new HashMap<>();
+        portal.put("portalId", portalId);
+        portal.put("targetPortalId", targetPortalId);
+        portal.put("color", "green");
+        portal.put("positionX", x);
+        portal.put("positionY", y);
+        return portal;
+    }
+
+    /**
+     * Interpolates between two values, rounding to the nearest integer.
+     */
+    private static int lerp(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+
+    /**
+     * Keeps a value within bounds.
+     */
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -9,6 +9,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import engine.AssetManager;
+import engine.jfr.LevelLoadEvent;
+
 public class LevelManager {
 
     private List<Level> levels;
@@ -21,7 +24,11 @@ public class LevelManager {
      * Loads the levels from the maps.json resource file.
      */
     private void loadLevels() {
-        try (InputStream inputStream = LevelManager.class.getClassLoader().getResourceAsStream("maps/maps.json")) {
+        LevelLoadEvent event = new LevelLoadEvent();
+        event.begin();
+        int size = 0;
+        int parsed = 0;
+        try (InputStream inputStream = AssetManager.getInstance().openStream("maps/maps.json")) {
             if (inputStream == null) {
                 throw new IOException("Cannot find resource file: maps/maps.json");
             }
@@ -31,7 +38,9 @@ public class LevelManager {
                 jsonContent = reader.lines().collect(Collectors.joining("\n"));
             }
             
+            size = jsonContent.length();
             this.levels = JsonLoader.parse(jsonContent);
+            parsed = this.levels.size();
 
         } catch (Exception e) {
             System.err.println("Failed to load levels from JSON resource: " + e.getMessage());
@@ -48,6 +57,12 @@ public class LevelManager {
             this.levels.add(new Level(6, 7, 7, 10, 1000));
             this.levels.add(new Level(7, 8, 7, 2, 500));
         }
+        if (event.shouldCommit()) {
+            event.source = "maps/maps.json";
+            event.size = size;
+            event.levels = parsed;
+            event.commit();
+        }
     }
     
     /**
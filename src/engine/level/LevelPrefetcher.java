@@ -0,0 +1,94 @@
+package engine.level;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import engine.jfr.LevelLoadEvent;
+
+/**
+ * Generates the levels of an endless game on a background thread, ahead of
+ * the player, so a level is ready when the previous one is cleared and the
+ * game never waits on the generator.
+ *
+ * The thread stays at most two levels ahead: one waiting in the queue and
+ * one waiting to be put in it. It then blocks until a level is taken, so
+ * the levels kept in memory do not grow however long the game lasts.
+ */
+public class LevelPrefetcher implements Closeable {
+
+    /** Levels waiting to be taken at most, besides the one being put. */
+    private static final int QUEUE_SIZE = 1;
+
+    /** Generator of the levels. */
+    private final LevelGenerator generator;
+    /** Levels generated, in order. */
+    private final BlockingQueue<Level> queue;
+    /** Thread generating the levels. */
+    private final Thread thread;
+
+    /**
+     * Constructor, starting the thread.
+     *
+     * @param generator Generator of the levels, from its first level.
+     */
+    public LevelPrefetcher(LevelGenerator generator) {
+        this.generator = generator;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        this.thread = new Thread(this::run, "level-generator");
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+        this.thread.start();
+    }
+
+    /**
+     * Takes the next level, waiting for it if it is not generated yet.
+     * Levels must be taken in order, from the first level generated; any
+     * other level is generated on the calling thread.
+     *
+     * @param levelNumber Number of the level.
+     * @return The level, or null if interrupted.
+     */
+    public Level take(int levelNumber) {
+        try {
+            Level level = this.queue.take();
+            if (level.getLevel() == levelNumber) {
+                return level;
+            }
+            return this.generator.generate(levelNumber);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Stops the thread, dropping the levels generated ahead.
+     */
+    @Override
+    public void close() {
+        this.thread.interrupt();
+        this.queue.clear();
+    }
+
+    /**
+     * Generates the levels in order, blocking while the queue is full.
+     */
+    private void run() {
+        try {
+            for (int n = this.generator.getFirstLevel(); ; n++) {
+                LevelLoadEvent event = new LevelLoadEvent();
+                event.begin();
+                Level level = this.generator.generate(n);
+                if (event.shouldCommit()) {
+                    event.source = "generated";
+                    event.levels = 1;
+                    event.commit();
+                }
+                this.queue.put(level);
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        }
+    }
+}
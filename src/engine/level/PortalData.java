@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import engine.Core;
+import engine.RandomService;
+
 /**
  * Represents portal data from the JSON level configuration.
  */
@@ -58,7 +61,8 @@ public class PortalData {
             }
             // Randomly select one position
             if (!this.possiblePositions.isEmpty()) {
-                Position selected = this.possiblePositions.get((int) (Math.random() * this.possiblePositions.size()));
+                Position selected = this.possiblePositions.get(Core.getRandom(RandomService.Stream.PORTALS)
+                        .nextInt(this.possiblePositions.size()));
                 this.positionX = selected.getX();
                 this.positionY = selected.getY();
             }
@@ -42,6 +42,18 @@ public class BossBullet extends Entity{
         this.positionX += this.dx;
         this.positionY += this.dy;
     }
+    /**
+     * amount of horizontal change per update
+     */
+    public int getDx() {
+        return this.dx;
+    }
+    /**
+     * amount of vertical change per update
+     */
+    public int getDy() {
+        return this.dy;
+    }
     /**
      * does the bullet go off the screen
      */
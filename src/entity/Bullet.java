@@ -46,7 +46,7 @@ public class Bullet extends Entity {
 
 		this.speed = speed;
 		this.penetrationCount = 0;
-		this.maxPenetration = ShopItem.getPenetrationCount();
+		this.maxPenetration = 0;
 
 		setSprite();
 	}
@@ -107,10 +107,13 @@ public class Bullet extends Entity {
 
 	/**
 	 * reset penetration setting
+	 *
+	 * @param maxPenetration
+	 *            Number of possible penetrations.
 	 */
-	public final void resetPenetration() {
+	public final void resetPenetration(final int maxPenetration) {
 		this.penetrationCount = 0;
-		this.maxPenetration = ShopItem.getPenetrationCount();
+		this.maxPenetration = maxPenetration;
 	}
 
 }
@@ -3,8 +3,10 @@ package entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import engine.jfr.PoolMissEvent;
+
 /**
- * Implements a pool of recyclable bullets.
+ * Implements a pool of recyclable bullets, one for each game session.
  * 
  * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
  * 
@@ -12,13 +14,18 @@ import java.util.Set;
 public final class BulletPool {
 
 	/** Set of already created bullets. */
-	private static Set<Bullet> pool = new HashSet<Bullet>();
+	private final Set<Bullet> pool = new HashSet<Bullet>();
+	/** Upgrades of the session, giving the penetration of the bullets. */
+	private final ShopItem shopItem;
 
 	/**
-	 * Constructor, not called.
+	 * Constructor, with an empty pool.
+	 * 
+	 * @param shopItem
+	 *            Upgrades of the session.
 	 */
-	private BulletPool() {
-
+	public BulletPool(final ShopItem shopItem) {
+		this.shopItem = shopItem;
 	}
 
 	/**
@@ -34,21 +41,26 @@ public final class BulletPool {
 	 *            on direction - positive is down.
 	 * @return Requested bullet.
 	 */
-	public static Bullet getBullet(final int positionX,
+	public Bullet getBullet(final int positionX,
 			final int positionY, final int speed) {
 		Bullet bullet;
-		if (!pool.isEmpty()) {
-			bullet = pool.iterator().next();
-			pool.remove(bullet);
+		if (!this.pool.isEmpty()) {
+			bullet = this.pool.iterator().next();
+			this.pool.remove(bullet);
 			bullet.setPositionX(positionX - bullet.getWidth() / 2);
 			bullet.setPositionY(positionY);
 			bullet.setSpeed(speed);
-			bullet.resetPenetration();
 			bullet.setSprite();
 		} else {
 			bullet = new Bullet(positionX, positionY, speed);
 			bullet.setPositionX(positionX - bullet.getWidth() / 2);
+			PoolMissEvent miss = new PoolMissEvent();
+			if (miss.shouldCommit()) {
+				miss.pool = "bullet";
+				miss.commit();
+			}
 		}
+		bullet.resetPenetration(this.shopItem.getPenetrationCount());
 		return bullet;
 	}
 
@@ -58,7 +70,7 @@ public final class BulletPool {
 	 * @param bullet
 	 *            Bullets to recycle.
 	 */
-	public static void recycle(final Set<Bullet> bullet) {
-		pool.addAll(bullet);
+	public void recycle(final Set<Bullet> bullet) {
+		this.pool.addAll(bullet);
 	}
 }
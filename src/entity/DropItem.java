@@ -2,7 +2,7 @@ package entity;
 import java.awt.Color;
 
 import engine.DrawManager.SpriteType;
-import java.util.Random;
+import engine.GameRandom;
 
 public class DropItem extends Entity {
     public enum ItemType {
@@ -20,12 +20,13 @@ public class DropItem extends Entity {
         }
 
         private static final ItemType[] VALUES = values();
-        private static final Random RANDOM = new Random();
+        private static final int[] WEIGHTS = new int[VALUES.length];
         private static final int TOTAL_WEIGHT;
 
         static {
             int sum = 0;
             for (ItemType type : VALUES) {
+                WEIGHTS[type.ordinal()] = type.weight;
                 sum += type.weight;
             }
             TOTAL_WEIGHT = sum;
@@ -34,26 +35,17 @@ public class DropItem extends Entity {
         /**
          * Return random Itemtype based on weight
          *
+         * @param random Stream drawing the type.
          * @return ItemType selected based on weight
          */
 
-        public static ItemType selectItemType() {
-            int randomWeight = RANDOM.nextInt(TOTAL_WEIGHT);
-            int cumulativeWeight = 0;
-
-            for (ItemType type : VALUES) {
-                cumulativeWeight += type.weight;
-
-                if (randomWeight < cumulativeWeight) {
-                    return type;
-                }
-            }
-            return VALUES[0];
+        public static ItemType selectItemType(final GameRandom random) {
+            return VALUES[random.pick(WEIGHTS, TOTAL_WEIGHT)];
         }
     }
 
     public static ItemType fromString(String text) {
-        for (ItemType b : ItemType.values()) {
+        for (ItemType b : ItemType.VALUES) {
             if (b.name().equalsIgnoreCase(text)) {
                 return b;
             }
@@ -102,8 +94,6 @@ public class DropItem extends Entity {
         }
     }
 
-    private static long freezeEndTime = 0;
-
     /**
      * enemy push
      * @param enemyShipFormation
@@ -115,38 +105,9 @@ public class DropItem extends Entity {
         }
 
         // All enemyship push
-        for (EnemyShip enemy : enemyShipFormation) {
-            if (enemy != null && !enemy.isDestroyed()) {
-                enemy.move(0, -distanceY);
-            }
-        }
-    }
-
-    /**
-     * Freeze DropItem : all enemy ship never move except special enemy.
-     *
-     * @param durationMillis
-     *                  Freeze duration Time
-     */
-    public static void applyTimeFreezeItem(int durationMillis) {
-        // current Time + duration Time = End Time
-        freezeEndTime = System.currentTimeMillis() + durationMillis;
+        enemyShipFormation.pushBack(distanceY);
     }
 
-    /**
-     * check If Freeze item is activated
-     *
-     * @return If returning true, don't move all enemy ship except special enemy
-     */
-    public static boolean isTimeFreezeActive() {
-        if (freezeEndTime > 0 && System.currentTimeMillis() < freezeEndTime) {
-            return true;
-        }
-        if (freezeEndTime > 0 && System.currentTimeMillis() >= freezeEndTime) {
-            freezeEndTime = 0;
-        }
-        return false;
-    }
 /**
  * Manages the in-game item (enhancement) system.
  * This is a temporary implementation focusing on functionality.
@@ -180,9 +141,9 @@ public class DropItem extends Entity {
         this.itemType = itemType;
         this.setSprite();
     }
-    public static ItemType getRandomItemType(final double proba) {
-        if (Math.random() < proba){
-            return ItemType.selectItemType();
+    public static ItemType getRandomItemType(final double proba, final GameRandom random) {
+        if (random.chance(proba)){
+            return ItemType.selectItemType(random);
         }
         else {
             return null;
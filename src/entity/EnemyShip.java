@@ -4,8 +4,7 @@ import audio.SoundManager;
 
 import java.awt.Color;
 
-import engine.Cooldown;
-import engine.Core;
+import engine.AnimationClock;
 import engine.DrawManager.SpriteType;
 
 /**
@@ -24,11 +23,26 @@ public class EnemyShip extends Entity {
 	private static final int C_TYPE_POINTS = 30;
 	/** Point value of a bonus enemy. */
 	private static final int BONUS_TYPE_POINTS = 100;
+	/** Time between sprite changes, in milliseconds. */
+	static final int ANIMATION_PERIOD = 500;
+	/** Time an explosion is shown, in milliseconds. */
+	private static final int EXPLOSION_TIME = 500;
 
-	/** Cooldown between sprite changes. */
-	private Cooldown animationCooldown;
-    /** Cooldown between explosions. */
-    private Cooldown explosionCooldown;
+	/** Clock of the session, animating the ship. */
+	private final AnimationClock clock;
+	/** Time the animation started. */
+	private long animationPhase;
+	/** Sprite shown on odd frames of the animation. */
+	private SpriteType baseSprite;
+	/** Sprite shown on even frames of the animation, null if none. */
+	private SpriteType alternateSprite;
+	/** Time the explosion ends. */
+	private long explosionEnd;
+	/**
+	 * Formation the ship moves with, null if it moves on its own. While in a
+	 * formation, the position fields hold the offset from its origin.
+	 */
+	private EnemyShipFormation formation;
 	/** Checks if the ship has been hit by a bullet. */
 	private boolean isDestroyed;
 	/** Values of the ship, in points, when destroyed. */
@@ -53,6 +67,8 @@ public class EnemyShip extends Entity {
 	/**
 	 * Constructor, establishes the ship's properties.
 	 * 
+	 * @param clock
+	 *            Clock of the session, animating the ship.
 	 * @param positionX
 	 *            Initial position of the ship in the X axis.
 	 * @param positionY
@@ -60,26 +76,39 @@ public class EnemyShip extends Entity {
 	 * @param spriteType
 	 *            Sprite type, image corresponding to the ship.
 	 */
-	public EnemyShip(final int positionX, final int positionY,
-			final SpriteType spriteType) {
+	public EnemyShip(final AnimationClock clock, final int positionX,
+			final int positionY, final SpriteType spriteType) {
 		super(positionX, positionY, 12 * 2, 8 * 2, Color.WHITE);
 
+		this.clock = clock;
 		this.spriteType = spriteType;
-		this.animationCooldown = Core.getCooldown(500);
-        this.explosionCooldown = Core.getCooldown(500);
+		this.animationPhase = clock.now();
+		this.baseSprite = spriteType;
 		this.isDestroyed = false;
 
 		switch (this.spriteType) {
 		case EnemyShipA1:
+			this.alternateSprite = SpriteType.EnemyShipA2;
+			this.pointValue = A_TYPE_POINTS;
+			break;
 		case EnemyShipA2:
+			this.alternateSprite = SpriteType.EnemyShipA1;
 			this.pointValue = A_TYPE_POINTS;
 			break;
 		case EnemyShipB1:
+			this.alternateSprite = SpriteType.EnemyShipB2;
+			this.pointValue = B_TYPE_POINTS;
+			break;
 		case EnemyShipB2:
+			this.alternateSprite = SpriteType.EnemyShipB1;
 			this.pointValue = B_TYPE_POINTS;
 			break;
 		case EnemyShipC1:
+			this.alternateSprite = SpriteType.EnemyShipC2;
+			this.pointValue = C_TYPE_POINTS;
+			break;
 		case EnemyShipC2:
+			this.alternateSprite = SpriteType.EnemyShipC1;
 			this.pointValue = C_TYPE_POINTS;
 			break;
 		default:
@@ -92,15 +121,15 @@ public class EnemyShip extends Entity {
 	 * Constructor, establishes the ship's properties for a special ship, with
 	 * known starting properties.
 	 */
-	public EnemyShip(Color color, Direction direction, int x_speed) {
+	public EnemyShip(AnimationClock clock, Color color, Direction direction, int x_speed) {
 		super(-32, 60, 16 * 2, 7 * 2, color);
 
+		this.clock = clock;
 		this.direction = direction;
 		this.X_SPEED = x_speed;
 		this.spriteType = SpriteType.EnemyShipSpecial;
 		this.isDestroyed = false;
 		this.pointValue = BONUS_TYPE_POINTS;
-        this.explosionCooldown = Core.getCooldown(500);
 	}
 
 	/**
@@ -112,6 +141,34 @@ public class EnemyShip extends Entity {
 		return this.pointValue;
 	}
 
+	/**
+	 * Makes the ship move with a formation, keeping where it is. Its
+	 * position then follows the origin of the formation without the ship
+	 * being moved itself.
+	 *
+	 * @param formation
+	 *            Formation the ship joins.
+	 */
+	final void joinFormation(final EnemyShipFormation formation) {
+		this.positionX -= formation.getOriginX();
+		this.positionY -= formation.getOriginY();
+		this.formation = formation;
+	}
+
+	@Override
+	public final int getPositionX() {
+		if (this.formation == null)
+			return this.positionX;
+		return this.formation.getOriginX() + this.positionX;
+	}
+
+	@Override
+	public final int getPositionY() {
+		if (this.formation == null)
+			return this.positionY;
+		return this.formation.getOriginY() + this.positionY;
+	}
+
 	/**
 	 * Moves the ship the specified distance.
 	 * 
@@ -126,35 +183,15 @@ public class EnemyShip extends Entity {
 	}
 
 	/**
-	 * Updates attributes, mainly used for animation purposes.
+	 * Updates attributes, mainly used for animation purposes. The sprite
+	 * changes as soon as the ship appears, then every animation period.
 	 */
 	public final void update() {
-		if (this.animationCooldown.checkFinished()) {
-			this.animationCooldown.reset();
-
-			switch (this.spriteType) {
-			case EnemyShipA1:
-				this.spriteType = SpriteType.EnemyShipA2;
-				break;
-			case EnemyShipA2:
-				this.spriteType = SpriteType.EnemyShipA1;
-				break;
-			case EnemyShipB1:
-				this.spriteType = SpriteType.EnemyShipB2;
-				break;
-			case EnemyShipB2:
-				this.spriteType = SpriteType.EnemyShipB1;
-				break;
-			case EnemyShipC1:
-				this.spriteType = SpriteType.EnemyShipC2;
-				break;
-			case EnemyShipC2:
-				this.spriteType = SpriteType.EnemyShipC1;
-				break;
-			default:
-				break;
-			}
-		}
+		if (this.isDestroyed || this.alternateSprite == null)
+			return;
+		this.spriteType = this.clock.frame(this.animationPhase,
+				ANIMATION_PERIOD, 2) == 0 ? this.alternateSprite
+				: this.baseSprite;
 	}
 
 	/**
@@ -166,7 +203,7 @@ public class EnemyShip extends Entity {
             this.spriteType = SpriteType.Explosion;
 			SoundManager.stop("sfx/disappearance.wav");
             SoundManager.play("sfx/disappearance.wav");
-            this.explosionCooldown.reset();
+            this.explosionEnd = this.clock.now() + EXPLOSION_TIME;
         }
 	}
 
@@ -200,7 +237,7 @@ public class EnemyShip extends Entity {
      * @return True if the explosion is finished.
      */
     public final boolean isExplosionFinished() {
-        return this.isDestroyed && this.explosionCooldown.checkFinished();
+        return this.isDestroyed && this.clock.isPast(this.explosionEnd);
     }
 
 	public final String getEnemyType() {
@@ -14,11 +14,18 @@ import screen.GameScreen;
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
+import engine.GameContext;
 import engine.DrawManager.SpriteType;
 import engine.GameSettings;
+import engine.RandomService;
 import engine.level.Level;
 /**
  * Groups enemy ships into a formation that moves together.
+ *
+ * Ships keep their position as an offset from the origin of the formation,
+ * so moving the formation only moves its origin. The bounds of the
+ * formation are only computed again when ships are removed, and ships are
+ * only visited when their animation frame changes or they die.
  * 
  * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
  * 
@@ -50,6 +57,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	/** Minimum speed allowed. */
 	private static final int MINIMUM_SPEED = 10;
 
+	/** Session the formation plays in. */
+	private GameContext context;
 	/** DrawManager instance. */
 	private DrawManager drawManager;
 	/** Application logger. */
@@ -89,6 +98,18 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private int positionX;
 	/** Position in the y-axis of the upper left corner of the formation. */
 	private int positionY;
+	/** Position in the x-axis the offsets of the ships are from. */
+	private int originX;
+	/** Position in the y-axis the offsets of the ships are from. */
+	private int originY;
+	/** True when ships were removed since the bounds were computed. */
+	private boolean boundsDirty;
+	/** Destroyed ships still showing their explosion. */
+	private List<EnemyShip> dying;
+	/** Time the animation of the ships started. */
+	private long animationPhase;
+	/** Animation frame the ships were last updated for. */
+	private int animationFrame;
 	/** Width of one ship. */
 	private int shipWidth;
 	/** Height of one ship. */
@@ -123,11 +144,15 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	/**
 	 * Constructor, sets the initial conditions.
 	 * 
+	 * @param context
+	 *            Session the formation plays in.
 	 * @param gameSettings
 	 *            Current game settings.
 	 */
-	public EnemyShipFormation(final GameSettings gameSettings) {
-		this.drawManager = Core.getDrawManager();
+	public EnemyShipFormation(final GameContext context,
+			final GameSettings gameSettings) {
+		this.context = context;
+		this.drawManager = context.getDrawManager();
 		this.logger = Core.getLogger();
 		this.enemyShips = new ArrayList<List<EnemyShip>>();
 		this.currentDirection = Direction.DOWN_RIGHT;
@@ -161,7 +186,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				else
 					spriteType = SpriteType.EnemyShipA1;
 
-				column.add(new EnemyShip((SEPARATION_DISTANCE 
+				column.add(new EnemyShip(context.getAnimationClock(),
+						(SEPARATION_DISTANCE 
 						* this.enemyShips.indexOf(column))
 								+ positionX, (SEPARATION_DISTANCE * i)
 								+ positionY, spriteType));
@@ -179,14 +205,17 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 		for (List<EnemyShip> column : this.enemyShips)
 			this.shooters.add(column.get(column.size() - 1));
+		joinShips();
 	}
 
     /**
      * Constructor that uses Level directly (without GameSettings).
+     * @param context Session the formation plays in.
      * @param level Current level data.
      */
-    public EnemyShipFormation(final Level level) {
-        this.drawManager = Core.getDrawManager();
+    public EnemyShipFormation(final GameContext context, final Level level) {
+        this.context = context;
+        this.drawManager = context.getDrawManager();
         this.logger = Core.getLogger();
         this.enemyShips = new ArrayList<List<EnemyShip>>();
         this.currentDirection = Direction.DOWN_RIGHT;
@@ -232,7 +261,7 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
                         chosen = SpriteType.EnemyShipA1;
                 }
 
-                column.add(new EnemyShip(
+                column.add(new EnemyShip(context.getAnimationClock(),
                         (SEPARATION_DISTANCE * this.enemyShips.indexOf(column)) + positionX,
                         (SEPARATION_DISTANCE * i) + positionY,
                         chosen));
@@ -248,8 +277,65 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
         for (List<EnemyShip> column : this.enemyShips)
             this.shooters.add(column.get(column.size() - 1));
+        joinShips();
     }
 
+	/**
+	 * Makes the ships move with the formation, from its origin.
+	 */
+	private void joinShips() {
+		this.dying = new ArrayList<EnemyShip>();
+		for (List<EnemyShip> column : this.enemyShips)
+			for (EnemyShip enemyShip : column)
+				enemyShip.joinFormation(this);
+		this.animationPhase = this.context.getAnimationClock().now();
+		this.animationFrame = -1;
+		this.boundsDirty = true;
+	}
+
+	/**
+	 * Gets the position in the x-axis the ships are placed from.
+	 *
+	 * @return Origin of the formation in the x-axis.
+	 */
+	final int getOriginX() {
+		return this.originX;
+	}
+
+	/**
+	 * Gets the position in the y-axis the ships are placed from.
+	 *
+	 * @return Origin of the formation in the y-axis.
+	 */
+	final int getOriginY() {
+		return this.originY;
+	}
+
+	/**
+	 * Moves the whole formation.
+	 */
+	private void translate(final int distanceX, final int distanceY) {
+		this.originX += distanceX;
+		this.originY += distanceY;
+		this.positionX += distanceX;
+		this.positionY += distanceY;
+	}
+
+	/**
+	 * Pushes the formation back upwards. Ships already destroyed stay where
+	 * they explode.
+	 *
+	 * @param distanceY
+	 *            Distance to push the formation by.
+	 */
+	public final void pushBack(final int distanceY) {
+		translate(0, -distanceY);
+		for (EnemyShip enemyShip : this.dying)
+			enemyShip.move(0, distanceY);
+		if (!this.dying.isEmpty())
+			this.boundsDirty = true;
+	}
+
 	/**
 	 * Associates the formation to a given screen.
 	 *
@@ -276,11 +362,13 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	public final void update() {
 		if(this.shootingCooldown == null) {
 			this.shootingCooldown = Core.getVariableCooldown(shootingInterval,
-					shootingVariance);
+					shootingVariance,
+					this.context.getRandom(RandomService.Stream.COOLDOWNS));
 			this.shootingCooldown.reset();
 		}
 
-		cleanUp();
+		if (this.boundsDirty)
+			cleanUp();
 
 		int movementX = 0;
 		int movementY = 0;
@@ -365,44 +453,52 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
                 movementY = -Y_SPEED;  // up
             }
 
-			positionX += movementX;
-			positionY += movementY;
+			translate(movementX, movementY);
 
 			// Cleans explosions.
-			List<EnemyShip> destroyed;
-			for (List<EnemyShip> column : this.enemyShips) {
-				destroyed = new ArrayList<EnemyShip>();
-				for (EnemyShip ship : column) {
-					if (ship != null && ship.isExplosionFinished()) {
-						destroyed.add(ship);
-						this.logger.info("Removed enemy "
-								+ column.indexOf(ship) + " from column "
-								+ this.enemyShips.indexOf(column));
+			Iterator<EnemyShip> dyingShips = this.dying.iterator();
+			while (dyingShips.hasNext()) {
+				EnemyShip ship = dyingShips.next();
+				if (!ship.isExplosionFinished())
+					continue;
+				dyingShips.remove();
+				for (List<EnemyShip> column : this.enemyShips) {
+					int index = column.indexOf(ship);
+					if (index >= 0) {
+						this.logger.info("Removed enemy " + index
+								+ " from column " + this.enemyShips.indexOf(column));
+						column.remove(index);
+						this.boundsDirty = true;
+						break;
 					}
 				}
-
-				column.removeAll(destroyed);
 			}
 
-			for (List<EnemyShip> column : this.enemyShips)
-				for (EnemyShip enemyShip : column) {
-					enemyShip.move(movementX, movementY);
-					enemyShip.update();
-				}
+			// The ships all animate together, when their frame changes.
+			int frame = this.context.getAnimationClock().frame(
+					this.animationPhase, EnemyShip.ANIMATION_PERIOD, 2);
+			if (frame != this.animationFrame) {
+				this.animationFrame = frame;
+				for (List<EnemyShip> column : this.enemyShips)
+					for (EnemyShip enemyShip : column)
+						enemyShip.update();
+			}
 		}
 	}
 
 	/**
 	 * Cleans empty columns, adjusts the width and height of the formation.
+	 * Only needed after ships are removed.
 	 */
 	private void cleanUp() {
+		this.boundsDirty = false;
 		Set<Integer> emptyColumns = new HashSet<Integer>();
 		int maxColumn = 0;
 		int minPositionY = Integer.MAX_VALUE;
 		for (List<EnemyShip> column : this.enemyShips) {
 			if (!column.isEmpty()) {
 				// Height of this column
-				int columnSize = column.get(column.size() - 1).positionY
+				int columnSize = column.get(column.size() - 1).getPositionY()
 						- this.positionY + this.shipHeight;
 				maxColumn = Math.max(maxColumn, columnSize);
 				minPositionY = Math.min(minPositionY, column.get(0)
@@ -444,12 +540,13 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	public final void shoot(final Set<Bullet> bullets) {
 		// For now, only ships in the bottom row are able to shoot.
 		if (this.shooters.isEmpty()) {return; }
-		int index = (int) (Math.random() * this.shooters.size());
+		int index = this.context.getRandom(RandomService.Stream.ENEMY_SHOTS)
+				.nextInt(this.shooters.size());
 		EnemyShip shooter = this.shooters.get(index);
 
 		if (this.shootingCooldown.checkFinished()) {
 			this.shootingCooldown.reset();
-			bullets.add(BulletPool.getBullet(shooter.getPositionX()
+			bullets.add(this.context.getBulletPool().getBullet(shooter.getPositionX()
 					+ shooter.width / 2, shooter.getPositionY(), BULLET_SPEED));
 		}
 	}
@@ -464,6 +561,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		for (List<EnemyShip> column : this.enemyShips)
 			for (int i = 0; i < column.size(); i++)
 				if (column.get(i).equals(destroyedShip)) {
+					if (!destroyedShip.isDestroyed())
+						this.dying.add(destroyedShip);
 					column.get(i).destroy();
 					this.logger.info("Destroyed ship in ("
 							+ this.enemyShips.indexOf(column) + "," + i + ")");
@@ -514,6 +613,15 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		return nextShooter;
 	}
 
+	/**
+	 * Gets the ships that can shoot, the lowest of each column.
+	 *
+	 * @return Shooters, not to be modified.
+	 */
+	public final List<EnemyShip> getShooters() {
+		return Collections.unmodifiableList(this.shooters);
+	}
+
 	/**
 	 * Returns an iterator over the ships in the formation.
 	 *
@@ -542,6 +650,7 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 			for (EnemyShip enemyShip : column) {
 				if (!enemyShip.isDestroyed()) {
 					enemyShip.destroy();
+					this.dying.add(enemyShip);
 					destroyed++;
 				}
 			}
@@ -600,7 +709,9 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 			column.clear();
 		}
 		this.enemyShips.clear();
+		this.dying.clear();
 		this.shipCount = 0;
+		this.boundsDirty = true;
 	}
 
    private List<SpriteType> buildLayeredQueueFromLevel(final Level level, final int width, final int height) {
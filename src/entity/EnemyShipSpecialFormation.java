@@ -10,7 +10,10 @@ import engine.level.Level;
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
+import engine.GameContext;
 import engine.GameSettings;
+import engine.RandomService;
+import engine.TimerWheel;
 
 /**
  * Groups enemy ships into a formation that moves together.
@@ -61,6 +64,10 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
      * Variance in the time between shots.
      */
     private int shootingVariance;
+    /**
+     * Session the formation plays in.
+     */
+    private GameContext context;
     /**
      * Width of one ship.
      */
@@ -75,15 +82,22 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
     private List<EnemyShip> shooters;
 
     // Cooldown Field
-    private Cooldown enemyShipSpecialCooldown;
+    private int spawnInterval;
+    private int spawnVariance;
+    private TimerWheel.Timer spawnTimer;
     private Cooldown enemyShipSpecialExplosionCooldown;
 
     /**
      * Constructor, sets the initial conditions.
      *
-     * @param gameSettings Current game settings.
+     * @param gameSettings  Current game settings.
+     * @param spawnInterval Time between appearances of the red ship.
+     * @param spawnVariance Variation in the time between appearances.
+     * @param context       Session the formation plays in.
      */
-    public EnemyShipSpecialFormation(final GameSettings gameSettings, Cooldown cooldown, Cooldown explosionCooldown) {
+    public EnemyShipSpecialFormation(final GameSettings gameSettings, final int spawnInterval,
+                                     final int spawnVariance, Cooldown explosionCooldown,
+                                     final GameContext context) {
         /** Option **/
         this.drawManager = Core.getDrawManager();
         this.logger = Core.getLogger();
@@ -96,27 +110,32 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
         this.shootingInterval = gameSettings.getShootingFrecuency();
         this.shootingVariance = (int) (gameSettings.getShootingFrecuency()
                 * SHOOTING_VARIANCE);
+        this.context = context;
 
         /** Initial : create Special Enemy **/
-        this.enemyShipSpecialRed = new EnemyShip(Color.RED, EnemyShip.Direction.RIGHT, 2);
-        this.enemyShipSpecialBlue = new EnemyShip(Color.BLUE, EnemyShip.Direction.RIGHT, 6);
+        this.enemyShipSpecialRed = new EnemyShip(context.getAnimationClock(), Color.RED, EnemyShip.Direction.RIGHT, 2);
+        this.enemyShipSpecialBlue = new EnemyShip(context.getAnimationClock(), Color.BLUE, EnemyShip.Direction.RIGHT, 6);
 
         /** special enemy information: width & height **/
         this.shipWidth = this.enemyShipSpecialRed.getWidth();
         this.shipHeight = this.enemyShipSpecialRed.getHeight();
 
         /** special enemy cooldown **/
-        this.enemyShipSpecialCooldown = cooldown;
+        this.spawnInterval = spawnInterval;
+        this.spawnVariance = spawnVariance;
+        this.spawnTimer = new TimerWheel.Timer(this::spawnRed);
         this.enemyShipSpecialExplosionCooldown = explosionCooldown;
-        cooldown.reset();
+        scheduleSpawn();
     }
 
     /**
      * Level-based constructor (preferred). Avoids passing GameSettings around.
      */
     public EnemyShipSpecialFormation(final Level level,
-                                     final Cooldown cooldown,
-                                     final Cooldown explosionCooldown) {
+                                     final int spawnInterval,
+                                     final int spawnVariance,
+                                     final Cooldown explosionCooldown,
+                                     final GameContext context) {
         this(
             new GameSettings(
                 level.getFormationWidth(),
@@ -124,8 +143,10 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
                 level.getBaseSpeed(),
                 level.getShootingFrecuency()
             ),
-            cooldown,
-            explosionCooldown
+            spawnInterval,
+            spawnVariance,
+            explosionCooldown,
+            context
         );
     }
 
@@ -161,19 +182,38 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
         // TO DO 2. Shoot feature
         if (this.shootingCooldown == null) {
             this.shootingCooldown = Core.getVariableCooldown(shootingInterval,
-                    shootingVariance);
+                    shootingVariance,
+                    this.context.getRandom(RandomService.Stream.COOLDOWNS));
             this.shootingCooldown.reset();
         }
 
         moveSpecialEnemy(enemyShipSpecialRed);
         moveSpecialEnemy(enemyShipSpecialBlue);
+    }
 
-        // recreate special enemy by CoolDown
-        if (this.enemyShipSpecialCooldown.checkFinished()) {
-            this.enemyShipSpecialRed = new EnemyShip(Color.RED, EnemyShip.Direction.RIGHT, 2);
-            this.enemyShipSpecialCooldown.reset();
-            this.logger.info("A special ship appears");
-        }
+    /**
+     * Recreates the red special enemy, when its time comes.
+     */
+    private void spawnRed() {
+        this.enemyShipSpecialRed = new EnemyShip(this.context.getAnimationClock(), Color.RED, EnemyShip.Direction.RIGHT, 2);
+        scheduleSpawn();
+        this.logger.info("A special ship appears");
+    }
+
+    /**
+     * Schedules the next appearance of the red special enemy.
+     */
+    private void scheduleSpawn() {
+        this.context.getScheduler().schedule(this.spawnTimer,
+                Cooldown.drawDuration(this.spawnInterval, this.spawnVariance,
+                        this.context.getRandom(RandomService.Stream.COOLDOWNS)));
+    }
+
+    /**
+     * Stops the special enemies from appearing, once the level is over.
+     */
+    public final void stop() {
+        this.context.getScheduler().cancel(this.spawnTimer);
     }
 
     public final void moveSpecialEnemy(EnemyShip enemyShipSpecial) {
@@ -244,7 +284,7 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
         public final void destroy (EnemyShip enemyShipSpecial){
             enemyShipSpecial.destroy();
             if(enemyShipSpecial.getColor() == Color.RED) {
-                this.enemyShipSpecialCooldown.reset();
+                scheduleSpawn();
             }
         }
 
@@ -4,6 +4,10 @@ import audio.SoundManager;
 import engine.DrawManager;
 import engine.Cooldown;
 import engine.Core;
+import engine.AnimationClock;
+import engine.GameContext;
+import engine.GameRandom;
+import engine.RandomService;
 import screen.GameScreen;
 
 import java.awt.*;
@@ -22,7 +26,12 @@ public class FinalBoss extends Entity implements BossEntity{
     /** for move pattern */
     private boolean goingDown = true;
 
-    private Cooldown animationCooldown;
+    /** time between sprite changes, in milliseconds */
+    private static final int ANIMATION_PERIOD = 500;
+    /** clock of the session, animating the boss */
+    private final AnimationClock clock;
+    /** time the animation started */
+    private final long animationPhase;
     /** Shoot1's cool down */
     private Cooldown shootCooldown1;
     /** Shoot2's cool down */
@@ -33,11 +42,13 @@ public class FinalBoss extends Entity implements BossEntity{
     private int screenHeight;
     /** random x coordinate of Shoot2's bullet  */
     private int random_x;
+    /** draws where Shoot2's bullets fall */
+    private final GameRandom random;
 
 
     /** basic attribute of final boss */
 
-    public FinalBoss(int positionX, int positionY, int screenWidth, int screenHeight){
+    public FinalBoss(int positionX, int positionY, int screenWidth, int screenHeight, GameContext context){
 
         super(positionX,positionY,100,80, Color.RED);
         this.healPoint = 80;
@@ -47,8 +58,10 @@ public class FinalBoss extends Entity implements BossEntity{
         this.isDestroyed = false;
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
+        this.random = context.getRandom(RandomService.Stream.BOSS);
+        this.clock = context.getAnimationClock();
+        this.animationPhase = this.clock.now();
 
-        this.animationCooldown = Core.getCooldown(500);
         this.shootCooldown1 = Core.getCooldown(5000);
         this.shootCooldown2 = Core.getCooldown(400);
         this.shootCooldown3 = Core.getCooldown(300);
@@ -61,17 +74,12 @@ public class FinalBoss extends Entity implements BossEntity{
      */
     @Override
     public void update(){
-        if(this.animationCooldown.checkFinished()){
-            this.animationCooldown.reset();
-
-            switch (this.spriteType) {
-                case FinalBoss1:
-                    this.spriteType = DrawManager.SpriteType.FinalBoss2;
-                    break;
-                case FinalBoss2:
-                    this.spriteType = DrawManager.SpriteType.FinalBoss1;
-                    break;
-            }
+        switch (this.spriteType) {
+            case FinalBoss1:
+            case FinalBoss2:
+                this.spriteType = this.clock.frame(this.animationPhase, ANIMATION_PERIOD, 2) == 0
+                        ? DrawManager.SpriteType.FinalBoss2 : DrawManager.SpriteType.FinalBoss1;
+                break;
         }
         movePattern();
 
@@ -161,7 +169,7 @@ public class FinalBoss extends Entity implements BossEntity{
         if (this.shootCooldown2.checkFinished()) {
             this.shootCooldown2.reset();
             Set<BossBullet> bullets = new HashSet<>();
-            int randomX = (int) (Math.random() * screenWidth);
+            int randomX = this.random.nextInt(screenWidth);
             BossBullet bullet = new BossBullet(randomX, 1, 0, 2,6,10,Color.yellow);
             bullets.add(bullet);
             return bullets;
@@ -3,9 +3,10 @@ package entity;
 import java.util.HashSet;
 import java.util.Set;
 import entity.DropItem.ItemType;
+import engine.jfr.PoolMissEvent;
 
 /**
- * Implements a pool of recyclable items.
+ * Implements a pool of recyclable items, one for each game session.
  *
  * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
  *
@@ -13,12 +14,12 @@ import entity.DropItem.ItemType;
 public final class ItemPool {
 
     /** Set of already created items. */
-    private static Set<DropItem> pool = new HashSet<DropItem>();
+    private final Set<DropItem> pool = new HashSet<DropItem>();
 
     /**
-     * Constructor, not called.
+     * Constructor, with an empty pool.
      */
-    private ItemPool() {
+    public ItemPool() {
 
     }
 
@@ -37,12 +38,12 @@ public final class ItemPool {
      *      * Requested item type.
      * @return Requested item.
      */
-    public static DropItem getItem(final int positionX,
+    public DropItem getItem(final int positionX,
                                    final int positionY, final int speed, final ItemType itemType) {
         DropItem dropItem;
-        if (!pool.isEmpty()) {
-            dropItem = pool.iterator().next();
-            pool.remove(dropItem);
+        if (!this.pool.isEmpty()) {
+            dropItem = this.pool.iterator().next();
+            this.pool.remove(dropItem);
             dropItem.setPositionX(positionX - dropItem.getWidth() / 2);
             dropItem.setPositionY(positionY);
             dropItem.setSpeed(speed);
@@ -50,6 +51,11 @@ public final class ItemPool {
         } else {
             dropItem = new DropItem(positionX, positionY, speed, itemType);
             dropItem.setPositionX(positionX - dropItem.getWidth() / 2);
+            PoolMissEvent miss = new PoolMissEvent();
+            if (miss.shouldCommit()) {
+                miss.pool = "item";
+                miss.commit();
+            }
         }
         return dropItem;
     }
@@ -60,7 +66,7 @@ public final class ItemPool {
      * @param dropItem
      *            items to recycle.
      */
-    public static void recycle(final Set<DropItem> dropItem) {
-        pool.addAll(dropItem);
+    public void recycle(final Set<DropItem> dropItem) {
+        this.pool.addAll(dropItem);
     }
 }
@@ -3,6 +3,7 @@ package entity;
 import java.awt.Color;
 
 import engine.DrawManager.SpriteType;
+import engine.TimerWheel;
 
 /**
  * Implements a portal entity that can teleport the player ship.
@@ -15,8 +16,12 @@ public class Portal extends Entity {
     private int portalId;
     /** Target portal ID (the portal this one teleports to). */
     private int targetPortalId;
-    /** Cooldown to prevent immediate re-teleportation. */
-    private long lastTeleportTime;
+    /** Checks if the portal can be used, false right after a teleportation. */
+    private boolean ready;
+    /** Runs the actions of the session. */
+    private final TimerWheel scheduler;
+    /** Makes the portal usable again once the cooldown is over. */
+    private final TimerWheel.Timer rearmTimer;
     /** Minimum time between teleportations (in milliseconds). */
     private static final long TELEPORT_COOLDOWN = 1000;
 
@@ -33,13 +38,17 @@ public class Portal extends Entity {
      *            ID of the target portal to teleport to.
      * @param color
      *            Color of the portal.
+     * @param scheduler
+     *            Runs the timed actions of the session.
      */
     public Portal(final int positionX, final int positionY, final int portalId, 
-                  final int targetPortalId, final Color color) {
+                  final int targetPortalId, final Color color, final TimerWheel scheduler) {
         super(positionX, positionY, 16, 16, color);
         this.portalId = portalId;
         this.targetPortalId = targetPortalId;
-        this.lastTeleportTime = 0;
+        this.ready = true;
+        this.scheduler = scheduler;
+        this.rearmTimer = new TimerWheel.Timer(() -> this.ready = true);
         // Use EnemyShipSpecial sprite temporarily until Portal sprite is added to graphics file
         this.spriteType = SpriteType.EnemyShipSpecial;
     }
@@ -68,15 +77,15 @@ public class Portal extends Entity {
      * @return True if the portal can be used.
      */
     public boolean canTeleport() {
-        long currentTime = System.currentTimeMillis();
-        return (currentTime - lastTeleportTime) >= TELEPORT_COOLDOWN;
+        return ready;
     }
 
     /**
      * Marks that a teleportation just occurred.
      */
     public void markTeleportUsed() {
-        this.lastTeleportTime = System.currentTimeMillis();
+        this.ready = false;
+        this.scheduler.schedule(this.rearmTimer, TELEPORT_COOLDOWN);
     }
 
     /**
@@ -6,6 +6,8 @@ import java.util.Set;
 
 import engine.Cooldown;
 import engine.Core;
+import engine.GameContext;
+import engine.TimerWheel;
 import engine.DrawManager.SpriteType;
 
 /**
@@ -23,12 +25,14 @@ public class Ship extends Entity {
 	/** Movement of the ship for each unit of time. */
 	private static final int SPEED = 2;
 	
+	/** Session the ship plays in. */
+	private final GameContext context;
 	/** Minimum time between shots. */
 	private Cooldown shootingCooldown;
 	/** Time spent inactive between hits. */
 	private Cooldown destructionCooldown;
-	/** Cooldown for the invincibility shield. */
-	private Cooldown shieldCooldown;
+	/** Ends the invincibility shield. */
+	private final TimerWheel.Timer shieldTimer;
 	/** Checks if the ship is invincible. */
 	private boolean isInvincible;
     // === [ADD] Which player: 1 = P1, 2 = P2 (default 1 for single-player compatibility) ===
@@ -48,18 +52,23 @@ public class Ship extends Entity {
 	/**
 	 * Constructor, establishes the ship's properties.
 	 * 
+	 * @param context
+	 *            Session the ship plays in, giving its upgrades.
 	 * @param positionX
 	 *            Initial position of the ship in the X axis.
 	 * @param positionY
 	 *            Initial position of the ship in the Y axis.
 	 */
-	public Ship(final int positionX, final int positionY,final Color color) {
+	public Ship(final GameContext context, final int positionX,
+			final int positionY, final Color color) {
 		super(positionX, positionY, 13 * 2, 8 * 2, color);
 
+		this.context = context;
 		this.spriteType = SpriteType.Ship;
-		this.shootingCooldown = Core.getCooldown(ShopItem.getShootingInterval());
+		this.shootingCooldown = Core.getCooldown(
+				context.getShopItem().getShootingInterval());
 		this.destructionCooldown = Core.getCooldown(1000);
-		this.shieldCooldown = Core.getCooldown(0);
+		this.shieldTimer = new TimerWheel.Timer(this::endInvincibility);
 		this.isInvincible = false;
 
 	}
@@ -69,7 +78,7 @@ public class Ship extends Entity {
 	 * reached.
 	 */
 	public final void moveRight() {
-		int shipspeed = ShopItem.getSHIPSpeedCOUNT();
+		int shipspeed = this.context.getShopItem().getSHIPSpeedCOUNT();
 		this.positionX += SPEED*(1+shipspeed/10);
 	}
 
@@ -78,7 +87,7 @@ public class Ship extends Entity {
 	 * reached.
 	 */
 	public final void moveLeft() {
-		int shipspeed = ShopItem.getSHIPSpeedCOUNT();
+		int shipspeed = this.context.getShopItem().getSHIPSpeedCOUNT();
 		this.positionX -= SPEED*(1+shipspeed/10);
 	}
 
@@ -87,7 +96,7 @@ public class Ship extends Entity {
      * reached.
      */
     public final void moveUp() {
-		int shipspeed = ShopItem.getSHIPSpeedCOUNT();
+		int shipspeed = this.context.getShopItem().getSHIPSpeedCOUNT();
 		this.positionY -= SPEED*(1+shipspeed/10);
     }
 
@@ -96,12 +105,13 @@ public class Ship extends Entity {
      * reached.
      */
     public final void moveDown() {
-		int shipspeed = ShopItem.getSHIPSpeedCOUNT();
+		int shipspeed = this.context.getShopItem().getSHIPSpeedCOUNT();
 		this.positionY += SPEED*(1+shipspeed/10);
     }
 
 	/**
-	 * Shoots a bullet upwards.
+	 * Shoots a bullet upwards. The sound of the shot is played by the
+	 * subscribers of the game events.
 	 * 
 	 * @param bullets
 	 *            List of bullets on screen, to add the new bullet.
@@ -112,8 +122,9 @@ public class Ship extends Entity {
 			this.shootingCooldown.reset();
 
 			// Get Spread Shot information from the DropItem class
-			int bulletCount = ShopItem.getMultiShotBulletCount();
-			int spacing = ShopItem.getMultiShotSpacing();
+			ShopItem shopItem = this.context.getShopItem();
+			int bulletCount = shopItem.getMultiShotBulletCount();
+			int spacing = shopItem.getMultiShotSpacing();
 
 			int centerX = positionX + this.width / 2;
 			int centerY = (this.bulletDirection == 1) ? positionY : positionY + this.height;
@@ -121,9 +132,7 @@ public class Ship extends Entity {
 
 			if (bulletCount == 1) {
 				// Normal shot (when Spread Shot is not purchased)
-				Bullet b = BulletPool.getBullet(centerX, centerY, bulletSpeed);
-				SoundManager.stop("sfx/laser.wav");
-                SoundManager.play("sfx/laser.wav");
+				Bullet b = this.context.getBulletPool().getBullet(centerX, centerY, bulletSpeed);
                 b.setOwnerId(this.playerId);  // === [ADD] Ownership flag: 1 = P1, 2 = P2, null for legacy logic ===
 
                 bullets.add(b);
@@ -133,14 +142,10 @@ public class Ship extends Entity {
 
 				for (int i = 0; i < bulletCount; i++) {
 					int offsetX = startOffset + (i * spacing);
-                    Bullet b = BulletPool.getBullet(centerX + offsetX, centerY, bulletSpeed);
+                    Bullet b = this.context.getBulletPool().getBullet(centerX + offsetX, centerY, bulletSpeed);
                     b.setOwnerId(this.playerId);   // Ownership flag
 
                     bullets.add(b);
-
-                    // might consider putting a different sound
-					SoundManager.stop("sfx/laser.wav");
-                    SoundManager.play("sfx/laser.wav");
                 }
 			}
 			return true;
@@ -152,13 +157,6 @@ public class Ship extends Entity {
 	 * Updates status of the ship.
 	 */
     public final void update() {
-        if (this.isInvincible && this.shieldCooldown.checkFinished()) {
-            this.isInvincible = false;
-            // Restore to selected color from ShipColorManager instead of hardcoded GREEN
-            engine.ShipColorManager colorManager = engine.ShipColorManager.getInstance();
-            this.setColor(colorManager.getSelectedColor());
-        }
-
         if (!this.destructionCooldown.checkFinished())
             this.spriteType = SpriteType.ShipDestroyed;
         else
@@ -211,8 +209,17 @@ public class Ship extends Entity {
      */
     public final void activateInvincibility(final int duration) {
         this.isInvincible = true;
-        this.shieldCooldown.setMilliseconds(duration);
-        this.shieldCooldown.reset();
+        this.context.getScheduler().schedule(this.shieldTimer, duration);
         this.setColor(Color.BLUE);
     }
+
+    /**
+     * Ends the ship's invincibility shield, once its duration is over.
+     */
+    private void endInvincibility() {
+        this.isInvincible = false;
+        // Restore to selected color from ShipColorManager instead of hardcoded GREEN
+        engine.ShipColorManager colorManager = engine.ShipColorManager.getInstance();
+        this.setColor(colorManager.getSelectedColor());
+    }
 }
@@ -3,18 +3,19 @@ package entity;
 /**
  * Manages the in-game item (enhancement) system.
  * This is a temporary implementation focusing on functionality.
+ * Each game session owns its levels, through its GameContext.
  *
  * Currently implemented: MultiShot, Rapid Fire, Penetration
  *
  * Example usage:
- * DropItem.setMultiShotLevel(2);  // Purchase level 2 in the shop
+ * context.getShopItem().setMultiShotLevel(2);  // Purchase level 2 in the shop
  */
 public class ShopItem {
 
     // ==================== MultiShot DropItem ====================
 
     /** MultiShot level (0 = not purchased, 1-3 = enhancement levels) */
-    private static int multiShotLevel = 0;
+    private int multiShotLevel = 0;
 
     /** Maximum MultiShot level */
     private static final int MAX_MULTI_SHOT_LEVEL = 3;
@@ -27,15 +28,14 @@ public class ShopItem {
 
 
     /**
-     * Private constructor - this class should not be instantiated.
-     * It is intended to be used only with static methods.
+     * Constructor, with no item purchased.
      */
-    private ShopItem() {
+    public ShopItem() {
     }
     //==================== Rapid Fire DropItem =======================
 
     /** Rapid Fire lever (0 = not purchased, 1~5 = enhancement levels)*/
-    private static int rapidFireLevel = 0;
+    private int rapidFireLevel = 0;
 
     /** maximum Rapid Fire level */
     private static final int MAX_RAPID_FIRE_LEVEL = 5;
@@ -50,7 +50,7 @@ public class ShopItem {
     //===================== penetration DropItem =====================
 
     /** penetration level (0 = not purchased, 1~2 = enhancement levels) */
-    private static int penetrationLevel = 0;
+    private int penetrationLevel = 0;
 
     /** maximum penetration level */
     private static final int MAX_PENETRATION_LEVEL = 2;
@@ -66,11 +66,11 @@ public class ShopItem {
     private static final int[] SHIP_SPEED = {0, 5, 10, 15, 20, 25};
 
     /** Ship Speed Increase Per Level (%)*/
-    private static int SHIPSPEEDLEVEL = 0;
+    private int SHIPSPEEDLEVEL = 0;
     // ==================== Bullet Speed DropItem ====================
 
     /** Bullet Speed level (0 = not purchased, 1-3 = enhancement levels) */
-    private static int bulletSpeedLevel = 0;
+    private int bulletSpeedLevel = 0;
 
     /** Maximum Bullet Speed level */
     private static final int MAX_BULLET_SPEED_LEVEL = 3;
@@ -78,12 +78,6 @@ public class ShopItem {
     /** Bullet speed value per level */
     private static final int[] BULLET_SPEED_VALUES = {-6, -8, -10, -12};
 
-    /**
-     * Private constructor - this class should not be instantiated.
-     * It is intended to be used only with static methods.
-     */
-
-
 
     // ==================== MultiShot Methods ====================
 
@@ -93,7 +87,7 @@ public class ShopItem {
      * @param level The level to set (0-3).
      * @return true if the level was set successfully, false otherwise.
      */
-    public static boolean setMultiShotLevel(int level) {
+    public boolean setMultiShotLevel(int level) {
         if (level < 0 || level > MAX_MULTI_SHOT_LEVEL) {
             return false;
         }
@@ -106,7 +100,7 @@ public class ShopItem {
      *
      * @return The current level (0-3).
      */
-    public static int getMultiShotLevel() {
+    public int getMultiShotLevel() {
         return multiShotLevel;
     }
 
@@ -115,7 +109,7 @@ public class ShopItem {
      *
      * @return The number of bullets (1-4).
      */
-    public static int getMultiShotBulletCount() {
+    public int getMultiShotBulletCount() {
         return MULTI_SHOT_BULLETS[multiShotLevel];
     }
 
@@ -124,7 +118,7 @@ public class ShopItem {
      *
      * @return The spacing between bullets in pixels.
      */
-    public static int getMultiShotSpacing() {
+    public int getMultiShotSpacing() {
         return MULTI_SHOT_SPACING[multiShotLevel];
     }
 
@@ -133,7 +127,7 @@ public class ShopItem {
      *
      * @return true if the level is 1 or higher, false otherwise.
      */
-    public static boolean isMultiShotActive() {
+    public boolean isMultiShotActive() {
         return multiShotLevel > 0;
     }
 
@@ -146,7 +140,7 @@ public class ShopItem {
      * @param level The level to set (0-5).
      * @return True if the level was set successfully, false otherwise.
      */
-    public static boolean setRapidFireLevel(int level) {
+    public boolean setRapidFireLevel(int level) {
         if (level < 0 || level > MAX_RAPID_FIRE_LEVEL) {
             return false;
         }
@@ -159,7 +153,7 @@ public class ShopItem {
      *
      * @return The current level (0-5).
      */
-    public static int getRapidFireLevel() {
+    public int getRapidFireLevel() {
         return rapidFireLevel;
     }
 
@@ -168,7 +162,7 @@ public class ShopItem {
      *
      * @return The shooting interval.
      */
-    public static int getShootingInterval() {
+    public int getShootingInterval() {
         int reduction = RAPID_FIRE_REDUCTION[rapidFireLevel];
         return BASE_SHOOTING_INTERVAL * (100 - reduction) / 100;
     }
@@ -182,7 +176,7 @@ public class ShopItem {
      * @param level The level to set (0-2).
      * @return True if the level was set successfully, false otherwise.
      */
-    public static boolean setPenetrationLevel(int level) {
+    public boolean setPenetrationLevel(int level) {
         if (level < 0 || level > MAX_PENETRATION_LEVEL) {
             return false;
         }
@@ -196,7 +190,7 @@ public class ShopItem {
      *
      * @return The current level (0-2).
      */
-    public static int getPenetrationLevel() {
+    public int getPenetrationLevel() {
         return penetrationLevel;
     }
 
@@ -205,7 +199,7 @@ public class ShopItem {
      *
      * @return Penetration count (0 = cannot penetrate, 1~2 = can penetrate)
      */
-    public static int getPenetrationCount() {
+    public int getPenetrationCount() {
         return PENETRATION_COUNT[penetrationLevel];
     }
 
@@ -214,7 +208,7 @@ public class ShopItem {
      *
      * @return true if the level is 1 or higher, false otherwise.
      */
-    public static boolean isPenetrationActive() {
+    public boolean isPenetrationActive() {
         return penetrationLevel > 0;
     }
 
@@ -226,7 +220,7 @@ public class ShopItem {
      * @param level The level to set (0-3).
      * @return true if the level was set successfully, false otherwise.
      */
-    public static boolean setBulletSpeedLevel(int level) {
+    public boolean setBulletSpeedLevel(int level) {
         if (level < 0 || level > MAX_BULLET_SPEED_LEVEL) {
             return false;
         }
@@ -240,7 +234,7 @@ public class ShopItem {
      * @return The current level (0-3).
      */
     //===================== ShipSpeed Methods ================
-    public static boolean setSHIPSPEED(int level){
+    public boolean setSHIPSPEED(int level){
         if (level < 0 || level > MAX_SHIP_SPEED_LEVEL) {
             return false;
         }
@@ -248,11 +242,11 @@ public class ShopItem {
         return true;
     }
 
-    public static int getSHIPSpeedCOUNT() {
+    public int getSHIPSpeedCOUNT() {
         return SHIP_SPEED[SHIPSPEEDLEVEL];
     }
 
-    public static int getBulletSpeedLevel() {
+    public int getBulletSpeedLevel() {
         return bulletSpeedLevel;
     }
 
@@ -261,7 +255,7 @@ public class ShopItem {
      *
      * @return The bullet speed.
      */
-    public static int getBulletSpeed() {
+    public int getBulletSpeed() {
         return BULLET_SPEED_VALUES[bulletSpeedLevel];
     }
 
@@ -271,7 +265,7 @@ public class ShopItem {
     /**
      * Resets all items (for testing or game reset).
      */
-    public static void resetAllItems() {
+    public void resetAllItems() {
         multiShotLevel = 0;
         rapidFireLevel = 0;
         penetrationLevel = 0;
@@ -284,7 +278,7 @@ public class ShopItem {
      *
      * @return A string representing the item status.
      */
-    public static String getItemStatus() {
+    public String getItemStatus() {
         StringBuilder status = new StringBuilder();
         status.append("=== DropItem Status ===\n");
         status.append("MultiShot Level: ").append(multiShotLevel)
@@ -308,7 +302,7 @@ public class ShopItem {
     /**
      * For testing - sets the Spread Shot to its maximum level.
      */
-    public static void setMaxLevelForTesting() {
+    public void setMaxLevelForTesting() {
         multiShotLevel = MAX_MULTI_SHOT_LEVEL;
         rapidFireLevel = MAX_RAPID_FIRE_LEVEL;
         penetrationLevel = MAX_RAPID_FIRE_LEVEL;
@@ -0,0 +1,433 @@
+package net;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import engine.Core;
+import engine.Leaderboard;
+import engine.Score;
+
+/**
+ * Sends finished runs to the online leaderboard and keeps a copy of its top
+ * runs. Everything is done on a background thread: submitted runs are saved
+ * to a pending file first, sent in compressed batches, and retried with
+ * growing delays while the server cannot be reached, also across restarts.
+ *
+ * A batch is sent with an id, and resent with the same one until the server
+ * answers, so it can ignore a batch it already stored before a timeout.
+ * Batches the server keeps rejecting as invalid are dropped after a few
+ * tries, so they do not hold back the runs after them, while a batch cut
+ * short on its way still gets sent again.
+ *
+ * The client is enabled by setting the system property
+ * invaders.leaderboard.url to the address of the server.
+ */
+public final class LeaderboardClient {
+
+	/** Property holding the address of the server. */
+	public static final String URL_PROPERTY = "invaders.leaderboard.url";
+	/** Name of the file holding the runs not sent yet. */
+	private static final String PENDING_FILE = "scores.pending";
+	/** Most runs sent in one request. */
+	private static final int BATCH_SIZE = 64;
+	/** Milliseconds a run waits for others to be sent with it. */
+	private static final long BATCH_DELAY = 500;
+	/** Milliseconds before the first retry. */
+	private static final long MIN_BACKOFF = 1000;
+	/** Longest delay between retries, in milliseconds. */
+	private static final long MAX_BACKOFF = 5 * 60 * 1000;
+	/** Milliseconds the top runs are kept before fetching them again. */
+	private static final long TOP_TTL = 30 * 1000;
+	/** Number of top runs fetched. */
+	private static final int TOP_COUNT = 50;
+	/** Timeout of every request, in milliseconds. */
+	private static final int TIMEOUT = 5000;
+	/** Times a batch is rejected before it is dropped. */
+	private static final int MAX_REJECTIONS = 5;
+
+	/** Singleton instance of the class. */
+	private static LeaderboardClient instance;
+	/** Application logger. */
+	private static Logger logger;
+
+	/** Address of the server, null when disabled. */
+	private final String baseUrl;
+	/** Runs the requests. */
+	private final ScheduledExecutorService executor;
+	/** Runs not sent yet, oldest first. */
+	private final List<Score> pending;
+	/** File holding the runs not sent yet, null if it cannot be written. */
+	private File pendingFile;
+	/** Runs at the start of pending already saved to the pending file. */
+	private int saved;
+	/** Batch being sent, until the server answers, null if none. */
+	private List<Score> batch;
+	/** Id of the batch being sent. */
+	private String batchId;
+	/** Times the batch being sent was rejected. */
+	private int rejections;
+	/** Checks if a flush is scheduled. */
+	private boolean flushScheduled;
+	/** Delay before the next retry, in milliseconds. */
+	private long backoff;
+
+	/** Top runs last fetched, best first. */
+	private volatile List<Score> top;
+	/** Time the top runs were last fetched, 0 if never. */
+	private volatile long topFetched;
+	/** Checks if the top runs are being fetched. */
+	private volatile boolean topFetching;
+	/** Increased every time the top runs change. */
+	private volatile int topVersion;
+
+	/**
+	 * private constructor, loads the runs left pending.
+	 */
+	private LeaderboardClient() {
+		logger = Core.getLogger();
+		String url = System.getProperty(URL_PROPERTY);
+		this.baseUrl = url == null || url.isEmpty() ? null
+				: url.replaceAll("/+$", "");
+		this.pending = new ArrayList<Score>();
+		this.top = new ArrayList<Score>();
+		this.backoff = MIN_BACKOFF;
+
+		if (this.baseUrl == null) {
+			this.executor = null;
+			return;
+		}
+		this.executor = Executors.newSingleThreadScheduledExecutor(
+				runnable -> {
+					Thread thread = new Thread(runnable, "leaderboard-client");
+					thread.setDaemon(true);
+					return thread;
+				});
+		loadPending();
+		if (!this.pending.isEmpty()) {
+			logger.info(this.pending.size() + " runs pending for the online leaderboard.");
+			scheduleFlush(0);
+		}
+	}
+
+	/**
+	 * Returns shared instance of LeaderboardClient.
+	 *
+	 * @return Shared instance of LeaderboardClient.
+	 */
+	public static synchronized LeaderboardClient getInstance() {
+		if (instance == null)
+			instance = new LeaderboardClient();
+		return instance;
+	}
+
+	/**
+	 * Checks if an online leaderboard is configured.
+	 *
+	 * @return True if runs are sent online.
+	 */
+	public boolean isEnabled() {
+		return this.baseUrl != null;
+	}
+
+	/**
+	 * Queues a finished run to be sent. Returns at once, the run being saved
+	 * to the pending file on the client thread.
+	 *
+	 * @param score
+	 *            The run.
+	 */
+	public synchronized void submit(final Score score) {
+		if (!isEnabled())
+			return;
+		this.pending.add(score);
+		this.executor.execute(this::appendPending);
+		scheduleFlush(BATCH_DELAY);
+	}
+
+	/**
+	 * Returns the best runs of the online leaderboard, as last fetched.
+	 * Never waits: if they are older than their time to live, they are
+	 * fetched again in the background.
+	 *
+	 * @param count
+	 *            Maximum number of runs.
+	 * @return Best runs, best first. Empty until first fetched.
+	 */
+	public List<Score> getTop(final int count) {
+		if (!isEnabled())
+			return new ArrayList<Score>();
+		if (!this.topFetching
+				&& System.currentTimeMillis() - this.topFetched > TOP_TTL) {
+			this.topFetching = true;
+			this.executor.execute(this::fetchTop);
+		}
+		List<Score> cached = this.top;
+		return new ArrayList<Score>(cached.subList(0,
+				Math.min(count, cached.size())));
+	}
+
+	/**
+	 * Returns a number increased every time new top runs are fetched, to
+	 * know when to read them again.
+	 *
+	 * @return Version of the top runs.
+	 */
+	public int getTopVersion() {
+		return this.topVersion;
+	}
+
+	/**
+	 * Schedules sending the pending runs, unless already scheduled.
+	 *
+	 * @param delay
+	 *            Milliseconds before sending.
+	 */
+	private synchronized void scheduleFlush(final long delay) {
+		if (this.flushScheduled)
+			return;
+		this.flushScheduled = true;
+		this.executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sends the oldest pending runs. Runs on the client thread.
+	 */
+	private void flush() {
+		List<Score> sent;
+		String sentId;
+		synchronized (this) {
+			this.flushScheduled = false;
+			if (this.batch == null) {
+				if (this.pending.isEmpty())
+					return;
+				this.batch = new ArrayList<Score>(this.pending.subList(0,
+						Math.min(BATCH_SIZE, this.pending.size())));
+				this.batchId = UUID.randomUUID().toString();
+			}
+			sent = this.batch;
+			sentId = this.batchId;
+		}
+
+		int status;
+		try {
+			status = send(sent, sentId);
+		} catch (IOException e) {
+			retry(e.getMessage());
+			return;
+		}
+		// Timeouts and throttling are worth retrying. Other client errors
+		// would be answered the same way every time, unless the batch was
+		// damaged on its way, so they are only retried a few times.
+		boolean rejected = status / 100 == 4
+				&& status != HttpURLConnection.HTTP_CLIENT_TIMEOUT && status != 429;
+		if (rejected && ++this.rejections < MAX_REJECTIONS) {
+			retry("Server rejected the runs with " + status);
+			return;
+		}
+		if (status / 100 != 2 && !rejected) {
+			retry("Server answered " + status);
+			return;
+		}
+		if (rejected)
+			logger.warning("Server rejected " + sent.size() + " runs with "
+					+ status + " " + this.rejections + " times, dropping them.");
+
+		synchronized (this) {
+			this.pending.subList(0, sent.size()).clear();
+			this.batch = null;
+			this.batchId = null;
+			this.rejections = 0;
+			this.backoff = MIN_BACKOFF;
+			savePending();
+			if (!this.pending.isEmpty())
+				scheduleFlush(0);
+		}
+		this.topFetched = 0;
+	}
+
+	/**
+	 * Posts a batch of runs.
+	 *
+	 * @param scores
+	 *            Runs of the batch.
+	 * @param id
+	 *            Id of the batch.
+	 * @return Status the server answered.
+	 * @throws IOException
+	 *             In case the server cannot be reached.
+	 */
+	private int send(final List<Score> scores, final String id)
+			throws IOException {
+		byte[] body = ScoreCodec.encode(scores);
+		HttpURLConnection connection = open("/scores");
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "application/octet-stream");
+		connection.setRequestProperty(LeaderboardServer.BATCH_ID_HEADER, id);
+		connection.setFixedLengthStreamingMode(body.length);
+		try (OutputStream output = connection.getOutputStream()) {
+			output.write(body);
+		}
+		int status = connection.getResponseCode();
+		InputStream response = status / 100 == 2 ? connection.getInputStream()
+				: connection.getErrorStream();
+		if (response != null)
+			response.close();
+		return status;
+	}
+
+	/**
+	 * Schedules sending the batch again, after a growing delay.
+	 *
+	 * @param reason
+	 *            Why it could not be sent.
+	 */
+	private synchronized void retry(final String reason) {
+		long delay = this.backoff
+				+ ThreadLocalRandom.current().nextLong(this.backoff / 2 + 1);
+		this.backoff = Math.min(this.backoff * 2, MAX_BACKOFF);
+		logger.fine("Couldn't send runs, retrying in " + delay + "ms: " + reason);
+		scheduleFlush(delay);
+	}
+
+	/**
+	 * Fetches the top runs. Runs on the client thread.
+	 */
+	private void fetchTop() {
+		try {
+			HttpURLConnection connection = open("/scores/top?count=" + TOP_COUNT);
+			int status = connection.getResponseCode();
+			if (status / 100 != 2)
+				throw new IOException("Server answered " + status);
+			try (InputStream input = connection.getInputStream()) {
+				this.top = ScoreCodec.decode(input);
+			}
+			this.topVersion++;
+		} catch (IOException e) {
+			logger.fine("Couldn't fetch the online leaderboard: " + e.getMessage());
+		} finally {
+			this.topFetched = System.currentTimeMillis();
+			this.topFetching = false;
+		}
+	}
+
+	/**
+	 * Opens a connection to the server.
+	 *
+	 * @param path
+	 *            Path of the request.
+	 * @return The connection.
+	 * @throws IOException
+	 *             In case the address is invalid.
+	 */
+	private HttpURLConnection open(final String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(
+				this.baseUrl + path).openConnection();
+		connection.setConnectTimeout(TIMEOUT);
+		connection.setReadTimeout(TIMEOUT);
+		return connection;
+	}
+
+	/**
+	 * Reads the runs left pending by earlier sessions.
+	 */
+	private void loadPending() {
+		try {
+			this.pendingFile = Core.getFileManager().getUserFile(PENDING_FILE);
+		} catch (IOException e) {
+			logger.warning("Couldn't locate the pending runs file, runs sent while offline may be lost.");
+			return;
+		}
+		if (!this.pendingFile.exists())
+			return;
+
+		// Offset after the last complete run, where the file is cut if it ends
+		// with a run cut short by a crash, so the runs appended next are not
+		// read out of step.
+		long complete = 0;
+		long length = 0;
+		try {
+			byte[] data = Files.readAllBytes(this.pendingFile.toPath());
+			length = data.length;
+			ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+			DataInputStream input = new DataInputStream(bytes);
+			while (complete < length) {
+				this.pending.add(Leaderboard.readRecord(input));
+				complete = length - bytes.available();
+			}
+		} catch (EOFException e) {
+			// The last run was cut short.
+		} catch (IOException e) {
+			logger.warning("Couldn't read the pending runs: " + e.getMessage());
+		}
+		this.saved = this.pending.size();
+		if (complete < length) {
+			logger.warning("Dropping " + (length - complete)
+					+ " bytes of a run cut short from the pending runs.");
+			try (RandomAccessFile truncated = new RandomAccessFile(this.pendingFile, "rw")) {
+				truncated.setLength(complete);
+			} catch (IOException e) {
+				logger.warning("Couldn't repair the pending runs file, runs sent while offline may be lost.");
+				this.pendingFile = null;
+			}
+		}
+	}
+
+	/**
+	 * Appends the runs submitted since the last save to the pending file.
+	 * Runs on the client thread.
+	 */
+	private synchronized void appendPending() {
+		if (this.pendingFile == null || this.saved >= this.pending.size())
+			return;
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(this.pendingFile, true)))) {
+			for (Score score : this.pending.subList(this.saved, this.pending.size()))
+				Leaderboard.writeRecord(output, score);
+		} catch (IOException e) {
+			logger.warning("Couldn't save the pending run: " + e.getMessage());
+		}
+		this.saved = this.pending.size();
+	}
+
+	/**
+	 * Rewrites the pending file with the runs still pending.
+	 */
+	private void savePending() {
+		this.saved = this.pending.size();
+		if (this.pendingFile == null)
+			return;
+		if (this.pending.isEmpty()) {
+			if (this.pendingFile.exists() && !this.pendingFile.delete())
+				logger.warning("Couldn't delete the pending runs file.");
+			return;
+		}
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(this.pendingFile)))) {
+			for (Score score : this.pending)
+				Leaderboard.writeRecord(output, score);
+		} catch (IOException e) {
+			logger.warning("Couldn't save the pending runs: " + e.getMessage());
+		}
+	}
+}
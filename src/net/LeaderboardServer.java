@@ -0,0 +1,218 @@
+package net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import engine.Score;
+
+/**
+ * Reference online leaderboard server, keeping the runs in memory. Runs
+ * locally to test the client or to measure its load.
+ *
+ * POST /scores adds a batch of runs, GET /scores/top?count=N returns the
+ * best N runs, both encoded by {@link ScoreCodec}. A batch posted again
+ * with the id of one already stored is acknowledged without storing it
+ * twice.
+ */
+public final class LeaderboardServer {
+
+	/** Default port. */
+	public static final int DEFAULT_PORT = 8080;
+	/** Header holding the id of a batch of runs, set by the client. */
+	public static final String BATCH_ID_HEADER = "X-Batch-Id";
+	/** Most runs returned by one request. */
+	private static final int MAX_TOP = 1000;
+	/** Ids of the latest batches remembered to ignore them if resent. */
+	private static final int MAX_BATCH_IDS = 100000;
+
+	/** Underlying HTTP server. */
+	private final HttpServer server;
+	/** Handles the requests. */
+	private final ExecutorService executor;
+	/** Every run, best first. */
+	private final List<Score> scores;
+	/** Ids of the latest batches stored, oldest first. */
+	private final Map<String, Boolean> batchIds;
+
+	/**
+	 * Constructor, binds the server without starting it.
+	 *
+	 * @param port
+	 *            Port to listen on, 0 for any free port.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public LeaderboardServer(final int port) throws IOException {
+		this.scores = new ArrayList<Score>();
+		this.batchIds = new LinkedHashMap<String, Boolean>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+				return size() > MAX_BATCH_IDS;
+			}
+		};
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+		this.executor = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors());
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/scores/top", this::handleTop);
+		this.server.createContext("/scores", this::handleSubmit);
+	}
+
+	/**
+	 * Starts serving requests.
+	 */
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	 * Stops serving requests.
+	 */
+	public void stop() {
+		this.server.stop(0);
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Getter for the port the server listens on.
+	 *
+	 * @return Port of the server.
+	 */
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Getter for the number of runs received.
+	 *
+	 * @return Number of runs.
+	 */
+	public synchronized int size() {
+		return this.scores.size();
+	}
+
+	/**
+	 * Adds a batch of runs.
+	 *
+	 * @param exchange
+	 *            The request.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	private void handleSubmit(final HttpExchange exchange) throws IOException {
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			respond(exchange, 405, null);
+			return;
+		}
+		List<Score> batch;
+		try (InputStream input = exchange.getRequestBody()) {
+			batch = ScoreCodec.decode(input);
+		} catch (IOException e) {
+			respond(exchange, 400, null);
+			return;
+		}
+		String batchId = exchange.getRequestHeaders().getFirst(BATCH_ID_HEADER);
+		synchronized (this) {
+			if (batchId == null || this.batchIds.put(batchId, Boolean.TRUE) == null)
+				for (Score score : batch)
+					this.scores.add(insertionPoint(score), score);
+		}
+		respond(exchange, 204, null);
+	}
+
+	/**
+	 * Returns the best runs.
+	 *
+	 * @param exchange
+	 *            The request.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	private void handleTop(final HttpExchange exchange) throws IOException {
+		if (!"GET".equals(exchange.getRequestMethod())) {
+			respond(exchange, 405, null);
+			return;
+		}
+		int count = 10;
+		String query = exchange.getRequestURI().getQuery();
+		if (query != null && query.startsWith("count=")) {
+			try {
+				count = Integer.parseInt(query.substring("count=".length()));
+			} catch (NumberFormatException e) {
+				respond(exchange, 400, null);
+				return;
+			}
+		}
+		count = Math.max(0, Math.min(count, MAX_TOP));
+
+		List<Score> top;
+		synchronized (this) {
+			top = new ArrayList<Score>(this.scores.subList(0,
+					Math.min(count, this.scores.size())));
+		}
+		respond(exchange, 200, ScoreCodec.encode(top));
+	}
+
+	/**
+	 * Returns the position a run goes in, after the runs it ties with.
+	 */
+	private int insertionPoint(final Score score) {
+		int low = 0;
+		int high = this.scores.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.scores.get(middle).compareTo(score) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Sends the response of a request.
+	 */
+	private static void respond(final HttpExchange exchange, final int status,
+			final byte[] body) throws IOException {
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			exchange.getResponseHeaders().set("Content-Type",
+					"application/octet-stream");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		}
+		exchange.close();
+	}
+
+	/**
+	 * Runs the server until the process is stopped.
+	 *
+	 * @param args
+	 *            Port to listen on, 8080 by default.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public static void main(final String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		LeaderboardServer server = new LeaderboardServer(port);
+		server.start();
+		System.out.println("Leaderboard server listening on port "
+				+ server.getPort());
+	}
+}
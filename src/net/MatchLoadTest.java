@@ -0,0 +1,147 @@
+package net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+/**
+ * Fills a MatchServer of this process with duels between players sending
+ * random inputs over loopback, then prints the tick times of the sessions
+ * and how many players were refused. Run with the number of duels, the
+ * number of workers and the seconds to play as arguments, e.g. 1000 16 20.
+ */
+public final class MatchLoadTest {
+
+	/** Ticks between two inputs of a player that did not change. */
+	private static final int KEEP_ALIVE = 30;
+	/** Milliseconds without an answer after which join requests are lost. */
+	private static final int JOIN_TIMEOUT = 1000;
+
+	/**
+	 * Private constructor.
+	 */
+	private MatchLoadTest() {
+
+	}
+
+	/**
+	 * Runs the load test.
+	 *
+	 * @param args
+	 *            Duels, workers and seconds; 1000, one worker per core and
+	 *            20 by default.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the next tick.
+	 */
+	public static void main(final String[] args) throws IOException,
+			InterruptedException {
+		int duels = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int workers = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		int players = duels * 2;
+
+		// The server tells the players apart by address, so the two ships
+		// of a duel play from different sockets. Joins alternate between
+		// them, and a session always takes two joins in a row.
+		try (MatchServer server = new MatchServer(0, workers, duels * 2);
+				DatagramChannel bottom = DatagramChannel.open();
+				DatagramChannel top = DatagramChannel.open()) {
+			server.start();
+			InetSocketAddress address = new InetSocketAddress("127.0.0.1",
+					server.getPort());
+			DatagramChannel[] clients = { bottom, top };
+			for (DatagramChannel client : clients) {
+				client.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 22);
+				client.bind(new InetSocketAddress("127.0.0.1", 0));
+				client.configureBlocking(false);
+			}
+			ByteBuffer packet = ByteBuffer.allocate(UdpTransport.MAX_PACKET);
+
+			// Join in small batches so the socket buffers do not overflow.
+			int[] sessionIds = new int[players];
+			int[] sockets = new int[players];
+			int joined = 0;
+			int refused = 0;
+			int asked = 0;
+			long lastAnswer = System.currentTimeMillis();
+			while (joined + refused < asked || asked < players) {
+				if (System.currentTimeMillis() - lastAnswer > JOIN_TIMEOUT) {
+					System.out.println((asked - joined - refused)
+							+ " join requests lost.");
+					break;
+				}
+				while (asked < players && asked - joined - refused < 32) {
+					packet.clear();
+					packet.putShort(MatchServer.MAGIC).put(MatchServer.JOIN).flip();
+					clients[asked % 2].send(packet, address);
+					asked++;
+				}
+				packet.clear();
+				int socket = 0;
+				if (bottom.receive(packet) == null) {
+					socket = 1;
+					if (top.receive(packet) == null) {
+						Thread.sleep(0, 100000);
+						continue;
+					}
+				}
+				packet.flip();
+				if (packet.remaining() < 8 || packet.getShort() != MatchServer.MAGIC)
+					continue;
+				lastAnswer = System.currentTimeMillis();
+				byte type = packet.get();
+				if (type == MatchServer.JOINED) {
+					sessionIds[joined] = packet.getInt();
+					sockets[joined] = socket;
+					joined++;
+				} else if (type == MatchServer.REJECTED) {
+					refused++;
+				}
+			}
+			System.out.println(joined + " players joined, " + refused
+					+ " refused.");
+
+			Random random = new Random(42);
+			int[] inputs = new int[joined];
+			long period = 1000000000L / MatchServer.FPS;
+			long states = 0;
+			long next = System.nanoTime();
+			for (int tick = 0; tick < seconds * MatchServer.FPS; tick++) {
+				for (int p = 0; p < joined; p++) {
+					boolean changed = random.nextInt(8) == 0;
+					if (changed)
+						inputs[p] = random.nextInt(32);
+					if (!changed && (tick + p) % KEEP_ALIVE != 0)
+						continue;
+					packet.clear();
+					packet.putShort(MatchServer.MAGIC).put(MatchServer.INPUT)
+							.putInt(sessionIds[p]).put((byte) inputs[p]).flip();
+					clients[sockets[p]].send(packet, address);
+				}
+				next += period;
+				while (System.nanoTime() < next) {
+					boolean received = false;
+					for (DatagramChannel client : clients) {
+						packet.clear();
+						if (client.receive(packet) != null) {
+							states++;
+							received = true;
+						}
+					}
+					if (!received)
+						Thread.sleep(0, 200000);
+				}
+				if ((tick + 1) % (MatchServer.FPS * 5) == 0)
+					System.out.println(server.getStats());
+			}
+			System.out.println(states + " states received.");
+			System.out.println(server.getStats());
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import engine.Core;
+import engine.PvPState;
+
+/**
+ * Headless server hosting many duels at once, with no window. Players join
+ * over UDP and are paired in sessions, each an independent PvPState
+ * simulated by the server from the inputs the players send.
+ *
+ * One scheduler thread starts a round every tick and splits the sessions
+ * among a pool of worker threads, one per core. New sessions are refused
+ * while rounds take too much of the tick, so the hosted ones keep their
+ * deadlines.
+ *
+ * Packets start with MAGIC and a type. JOIN has nothing else; the server
+ * answers JOINED with the session id and ship, or REJECTED. INPUT carries
+ * the session id and input bits, applied to the ship of the address it
+ * comes from. STATE is sent to both players every tick.
+ */
+public final class MatchServer implements Closeable {
+
+	/** Marks a packet of this protocol. */
+	static final short MAGIC = 0x4D53;
+	/** Packet asking to join a session. */
+	static final byte JOIN = 1;
+	/** Packet giving the session joined. */
+	static final byte JOINED = 2;
+	/** Packet refusing a player. */
+	static final byte REJECTED = 3;
+	/** Packet with the input of a player. */
+	static final byte INPUT = 4;
+	/** Packet with the state of a session. */
+	static final byte STATE = 5;
+
+	/** Default port. */
+	public static final int DEFAULT_PORT = 47300;
+	/** Ticks per second. */
+	public static final int FPS = 60;
+	/** Screen width of the duels. */
+	private static final int WIDTH = 448;
+	/** Screen height of the duels. */
+	private static final int HEIGHT = 520;
+	/** Fraction of the tick rounds may take before sessions are refused. */
+	private static final double MAX_LOAD = 0.7;
+	/** Weight of the last round in the load average. */
+	private static final double LOAD_SMOOTHING = 0.05;
+	/** Seconds without news from a player before its session is closed. */
+	private static final int PLAYER_TIMEOUT = 10;
+	/** Seconds between two statistics logs. */
+	private static final int STATS_PERIOD = 10;
+
+	/** Application logger. */
+	private static Logger logger;
+
+	/** Channel all players talk to. */
+	private final DatagramChannel channel;
+	/** Runs the rounds. */
+	private final ScheduledExecutorService scheduler;
+	/** Ticks the sessions. */
+	private final ExecutorService workers;
+	/** Number of worker threads. */
+	private final int workerCount;
+	/** Most sessions at once. */
+	private final int maxSessions;
+	/** Sessions by id. */
+	private final Map<Integer, MatchSession> sessions;
+	/** Session waiting for a second player, null if none. */
+	private MatchSession waiting;
+	/** Id of the next session. */
+	private final AtomicInteger nextId;
+	/** Thread receiving the packets. */
+	private Thread receiver;
+
+	/** Average fraction of the tick taken by a round. */
+	private volatile double load;
+	/** Rounds that took longer than a tick. */
+	private long overruns;
+	/** Rounds run. */
+	private long rounds;
+	/** Players refused. */
+	private final AtomicInteger rejected;
+
+	/**
+	 * Constructor, binds the server without starting it.
+	 *
+	 * @param port
+	 *            Port to listen on, 0 for any free port.
+	 * @param workerCount
+	 *            Number of threads ticking the sessions.
+	 * @param maxSessions
+	 *            Most sessions at once.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public MatchServer(final int port, final int workerCount,
+			final int maxSessions) throws IOException {
+		logger = Core.getLogger();
+		this.channel = DatagramChannel.open();
+		this.channel.bind(new InetSocketAddress(port));
+		this.workerCount = workerCount;
+		this.maxSessions = maxSessions;
+		this.sessions = new ConcurrentHashMap<Integer, MatchSession>();
+		this.nextId = new AtomicInteger(1);
+		this.rejected = new AtomicInteger();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				runnable -> new Thread(runnable, "match-scheduler"));
+		AtomicInteger workerNumber = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(workerCount,
+				runnable -> {
+					Thread thread = new Thread(runnable, "match-worker-"
+							+ workerNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Starts receiving players and ticking the sessions.
+	 */
+	public void start() {
+		this.receiver = new Thread(this::receive, "match-receiver");
+		this.receiver.setDaemon(true);
+		this.receiver.start();
+		long period = 1000000000L / FPS;
+		this.scheduler.scheduleAtFixedRate(this::round, period, period,
+				TimeUnit.NANOSECONDS);
+		this.scheduler.scheduleAtFixedRate(this::logStats, STATS_PERIOD,
+				STATS_PERIOD, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Receives packets until the channel is closed.
+	 */
+	private void receive() {
+		ByteBuffer packet = ByteBuffer.allocate(UdpTransport.MAX_PACKET);
+		while (true) {
+			SocketAddress from;
+			try {
+				packet.clear();
+				from = this.channel.receive(packet);
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				logger.warning("Match server receive error: " + e.getMessage());
+				continue;
+			}
+			packet.flip();
+			if (packet.remaining() < 3 || packet.getShort() != MAGIC)
+				continue;
+			byte type = packet.get();
+			if (type == JOIN) {
+				join(from);
+			} else if (type == INPUT && packet.remaining() >= 5) {
+				MatchSession session = this.sessions.get(packet.getInt());
+				int input = packet.get();
+				if (session != null)
+					session.setInput(from, input);
+			}
+		}
+	}
+
+	/**
+	 * Places a player in the waiting session, or a new one if the server
+	 * has room for it.
+	 */
+	private void join(final SocketAddress player) {
+		MatchSession session;
+		int ship;
+		synchronized (this) {
+			if (this.waiting == null) {
+				if (this.sessions.size() >= this.maxSessions
+						|| this.load > MAX_LOAD) {
+					this.rejected.incrementAndGet();
+					reply(player, REJECTED, 0, 0);
+					return;
+				}
+				int id = this.nextId.getAndIncrement();
+				this.waiting = new MatchSession(id,
+						PvPState.standard(WIDTH, HEIGHT, FPS));
+				this.sessions.put(id, this.waiting);
+			}
+			session = this.waiting;
+			ship = session.join(player);
+			if (session.isFull())
+				this.waiting = null;
+		}
+		reply(player, JOINED, session.getId(), ship);
+	}
+
+	/**
+	 * Sends an answer to a join request.
+	 */
+	private void reply(final SocketAddress player, final byte type,
+			final int sessionId, final int ship) {
+		ByteBuffer packet = ByteBuffer.allocate(8);
+		packet.putShort(MAGIC).put(type).putInt(sessionId).put((byte) ship).flip();
+		try {
+			this.channel.send(packet, player);
+		} catch (IOException e) {
+			logger.warning("Couldn't answer " + player + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Ticks every session once, split among the workers, then removes the
+	 * finished ones.
+	 */
+	private void round() {
+		long start = System.nanoTime();
+		List<MatchSession> active = new ArrayList<MatchSession>(this.sessions.values());
+		int slices = Math.min(this.workerCount, Math.max(1, active.size()));
+		CountDownLatch done = new CountDownLatch(slices);
+		for (int s = 0; s < slices; s++) {
+			final int from = active.size() * s / slices;
+			final int to = active.size() * (s + 1) / slices;
+			this.workers.execute(() -> {
+				try {
+					for (int i = from; i < to; i++)
+						active.get(i).tick(this.channel);
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		long timeout = TimeUnit.SECONDS.toNanos(PLAYER_TIMEOUT);
+		for (MatchSession session : active) {
+			if (session.isFinished(timeout)) {
+				this.sessions.remove(session.getId());
+				synchronized (this) {
+					if (this.waiting == session)
+						this.waiting = null;
+				}
+			}
+		}
+
+		double taken = (double) (System.nanoTime() - start) * FPS / 1e9;
+		this.load += (taken - this.load) * LOAD_SMOOTHING;
+		this.rounds++;
+		if (taken > 1.0)
+			this.overruns++;
+	}
+
+	/**
+	 * Logs the load and the tick times of the sessions.
+	 */
+	private void logStats() {
+		logger.info(getStats());
+	}
+
+	/**
+	 * Describes the load and the tick times of the sessions.
+	 *
+	 * @return Statistics of the server.
+	 */
+	public String getStats() {
+		long total = 0;
+		long max = 0;
+		int ticking = 0;
+		for (MatchSession session : this.sessions.values()) {
+			if (session.getTicks() == 0)
+				continue;
+			total += session.getAverageTickNanos();
+			max = Math.max(max, session.getMaxTickNanos());
+			ticking++;
+		}
+		return String.format("%d sessions (%d playing), load %.0f%%, "
+				+ "tick avg %.1fus max %.1fus, %d/%d rounds over deadline, "
+				+ "%d players refused",
+				this.sessions.size(), ticking, this.load * 100,
+				ticking == 0 ? 0.0 : total / 1000.0 / ticking, max / 1000.0,
+				this.overruns, this.rounds, this.rejected.get());
+	}
+
+	/**
+	 * Getter for the number of sessions.
+	 *
+	 * @return Sessions hosted.
+	 */
+	public int getSessionCount() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Getter for the number of players refused.
+	 *
+	 * @return Players refused.
+	 */
+	public int getRejectedCount() {
+		return this.rejected.get();
+	}
+
+	/**
+	 * Getter for the port the server listens on.
+	 *
+	 * @return Port of the server.
+	 * @throws IOException
+	 *             In case the server is closed.
+	 */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.scheduler.shutdownNow();
+		this.workers.shutdownNow();
+		this.channel.close();
+	}
+
+	/**
+	 * Runs the server until the process is stopped.
+	 *
+	 * @param args
+	 *            Port, number of workers and most sessions; 47300, one
+	 *            worker per core and 4000 by default.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public static void main(final String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workerCount = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 4000;
+		MatchServer server = new MatchServer(port, workerCount, maxSessions);
+		server.start();
+		logger.info("Match server listening on port " + server.getPort()
+				+ " with " + workerCount + " workers.");
+	}
+}
@@ -0,0 +1,240 @@
+package net;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import engine.PvPState;
+
+/**
+ * One duel hosted by a MatchServer. The server simulates it authoritatively
+ * from the last input each player sent, and sends both players its state
+ * every tick.
+ */
+final class MatchSession {
+
+	/** Identifier of the session. */
+	private final int id;
+	/** Duel being played. */
+	private final PvPState state;
+	/** Address of each player, null until joined. */
+	private final SocketAddress[] players = new SocketAddress[2];
+	/** Last input of the bottom player. */
+	private volatile int inputBottom;
+	/** Last input of the top player. */
+	private volatile int inputTop;
+	/**
+	 * Time anything was last received from the bottom player, or the
+	 * session was created, in nanoseconds.
+	 */
+	private volatile long heardBottom;
+	/**
+	 * Time anything was last received from the top player, or the session
+	 * was created, in nanoseconds.
+	 */
+	private volatile long heardTop;
+	/** Buffer of the state sent to the players. */
+	private final ByteBuffer outgoing = ByteBuffer.allocate(UdpTransport.MAX_PACKET);
+
+	/** Ticks simulated. */
+	private long ticks;
+	/** Time spent ticking, in nanoseconds. */
+	private long tickNanos;
+	/** Longest tick, in nanoseconds. */
+	private long maxTickNanos;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param id
+	 *            Identifier of the session.
+	 * @param state
+	 *            Duel to play.
+	 */
+	MatchSession(final int id, final PvPState state) {
+		this.id = id;
+		this.state = state;
+		this.heardBottom = System.nanoTime();
+		this.heardTop = this.heardBottom;
+	}
+
+	/**
+	 * Adds a player. A player joining again from the same address keeps
+	 * its ship, so both ships never share an address.
+	 *
+	 * @param address
+	 *            Address of the player.
+	 * @return Ship given, 0 bottom or 1 top, -1 if the session is full.
+	 */
+	synchronized int join(final SocketAddress address) {
+		int ship = shipOf(address);
+		for (int i = 0; i < 2 && ship < 0; i++) {
+			if (this.players[i] == null) {
+				this.players[i] = address;
+				ship = i;
+			}
+		}
+		if (ship >= 0)
+			heard(ship);
+		return ship;
+	}
+
+	/**
+	 * Checks if both players joined.
+	 *
+	 * @return True when the duel can start.
+	 */
+	synchronized boolean isFull() {
+		return this.players[1] != null;
+	}
+
+	/**
+	 * Keeps the input of a player, given to the ship joined from the
+	 * address it came from. Input from any other address is ignored, so a
+	 * player can only steer its own ship.
+	 *
+	 * @param from
+	 *            Address the input came from.
+	 * @param input
+	 *            Input bits.
+	 * @return True if the input was kept.
+	 */
+	boolean setInput(final SocketAddress from, final int input) {
+		int ship = shipOf(from);
+		if (ship == 0)
+			this.inputBottom = input;
+		else if (ship == 1)
+			this.inputTop = input;
+		else
+			return false;
+		heard(ship);
+		return true;
+	}
+
+	/**
+	 * Keeps the time a player was last heard from.
+	 */
+	private void heard(final int ship) {
+		if (ship == 0)
+			this.heardBottom = System.nanoTime();
+		else
+			this.heardTop = System.nanoTime();
+	}
+
+	/**
+	 * Finds the ship joined from an address.
+	 *
+	 * @return Ship of the player, -1 if none joined from there.
+	 */
+	private synchronized int shipOf(final SocketAddress address) {
+		for (int i = 0; i < 2; i++)
+			if (address.equals(this.players[i]))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Simulates one tick and sends the state to the players. Does nothing
+	 * until both players joined.
+	 *
+	 * @param channel
+	 *            Channel to send from.
+	 */
+	void tick(final DatagramChannel channel) {
+		if (!isFull())
+			return;
+		long start = System.nanoTime();
+		this.state.step(this.inputBottom, this.inputTop);
+		encodeState();
+		for (SocketAddress player : this.players) {
+			this.outgoing.rewind();
+			try {
+				channel.send(this.outgoing, player);
+			} catch (IOException e) {
+				// The player will be timed out if it stays unreachable.
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		this.ticks++;
+		this.tickNanos += elapsed;
+		this.maxTickNanos = Math.max(this.maxTickNanos, elapsed);
+	}
+
+	/**
+	 * Writes the state packet.
+	 */
+	private void encodeState() {
+		ByteBuffer packet = this.outgoing;
+		packet.clear();
+		packet.putShort(MatchServer.MAGIC);
+		packet.put(MatchServer.STATE);
+		packet.putInt(this.id);
+		packet.putInt(this.state.getTick());
+		packet.put((byte) this.state.getWinner());
+		for (int i = 0; i < 2; i++) {
+			packet.putShort((short) this.state.getShipX(i));
+			packet.putShort((short) this.state.getShipY(i));
+			packet.put((byte) this.state.getLives(i));
+			packet.put((byte) (this.state.isDestroyed(i) ? 1 : 0));
+		}
+		int bullets = this.state.getBulletCount();
+		packet.put((byte) bullets);
+		for (int b = 0; b < bullets; b++) {
+			packet.putShort((short) this.state.getBulletX(b));
+			packet.putShort((short) this.state.getBulletY(b));
+		}
+		packet.flip();
+	}
+
+	/**
+	 * Checks if the duel is over, or either player stopped answering or
+	 * never joined.
+	 *
+	 * @param timeoutNanos
+	 *            Silence after which a player is considered gone.
+	 * @return True if the session can be removed.
+	 */
+	boolean isFinished(final long timeoutNanos) {
+		long now = System.nanoTime();
+		return this.state.getWinner() != 0
+				|| now - this.heardBottom > timeoutNanos
+				|| now - this.heardTop > timeoutNanos;
+	}
+
+	/**
+	 * Getter for the identifier.
+	 *
+	 * @return Identifier of the session.
+	 */
+	int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Getter for the number of ticks simulated.
+	 *
+	 * @return Ticks simulated.
+	 */
+	long getTicks() {
+		return this.ticks;
+	}
+
+	/**
+	 * Getter for the average tick time.
+	 *
+	 * @return Average time of a tick, in nanoseconds.
+	 */
+	long getAverageTickNanos() {
+		return this.ticks == 0 ? 0 : this.tickNanos / this.ticks;
+	}
+
+	/**
+	 * Getter for the longest tick time.
+	 *
+	 * @return Longest tick, in nanoseconds.
+	 */
+	long getMaxTickNanos() {
+		return this.maxTickNanos;
+	}
+}
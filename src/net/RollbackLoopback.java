@@ -0,0 +1,104 @@
+package net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Random;
+
+import engine.PvPState;
+
+/**
+ * Plays an online duel between two sessions of this process over loopback,
+ * with simulated latency and packet loss and random inputs, then checks
+ * both simulated the same duel. Run with the round trip time in
+ * milliseconds and the loss in percent as arguments, e.g. 100 5.
+ */
+public final class RollbackLoopback {
+
+	/** Ticks per second. */
+	private static final int FPS = 60;
+	/** Frames played. */
+	private static final int FRAMES = 600;
+	/** Ticks local inputs are delayed by. */
+	private static final int INPUT_DELAY = 2;
+	/** First port used. */
+	private static final int PORT = 47100;
+
+	/**
+	 * Private constructor.
+	 */
+	private RollbackLoopback() {
+
+	}
+
+	/**
+	 * Runs the duel.
+	 *
+	 * @param args
+	 *            Round trip time and loss, 100 ms and 5% by default.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the next frame.
+	 */
+	public static void main(final String[] args) throws IOException,
+			InterruptedException {
+		int roundTrip = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		double loss = (args.length > 1 ? Integer.parseInt(args[1]) : 5) / 100.0;
+
+		InetSocketAddress addressA = new InetSocketAddress("127.0.0.1", PORT);
+		InetSocketAddress addressB = new InetSocketAddress("127.0.0.1", PORT + 1);
+		try (UdpTransport linkA = new UdpTransport(PORT, addressB,
+				roundTrip / 2, roundTrip / 10, loss, 1);
+				UdpTransport linkB = new UdpTransport(PORT + 1, addressA,
+						roundTrip / 2, roundTrip / 10, loss, 2)) {
+			RollbackSession a = new RollbackSession(
+					PvPState.standard(448, 520, FPS), linkA, 0, INPUT_DELAY);
+			RollbackSession b = new RollbackSession(
+					PvPState.standard(448, 520, FPS), linkB, 1, INPUT_DELAY);
+
+			Random random = new Random(42);
+			int inputA = 0;
+			int inputB = 0;
+			for (int frame = 0; frame < FRAMES; frame++) {
+				long start = System.nanoTime();
+				if (random.nextInt(8) == 0)
+					inputA = random.nextInt(32);
+				if (random.nextInt(8) == 0)
+					inputB = random.nextInt(32);
+				a.advance(inputA);
+				b.advance(inputB);
+				sleepUntil(start + 1000000000L / FPS);
+			}
+			// Idle until each side knows what the other did.
+			int target = Math.max(a.getTick(), b.getTick());
+			while (a.getConfirmedTick() < target || b.getConfirmedTick() < target) {
+				long start = System.nanoTime();
+				a.advance(inputA);
+				b.advance(inputB);
+				sleepUntil(start + 1000000000L / FPS);
+			}
+
+			int tick = target;
+			boolean same = a.getChecksum(tick) == b.getChecksum(tick);
+			System.out.printf("rtt=%dms loss=%.0f%%: tick %d %s, "
+					+ "resimulated %d/%d ticks, stalled %d/%d frames, "
+					+ "packets %d/%d received%n",
+					roundTrip, loss * 100, tick, same ? "in sync" : "DESYNC",
+					a.getResimulatedTicks(), b.getResimulatedTicks(),
+					a.getStalledFrames(), b.getStalledFrames(),
+					linkA.getPacketsReceived(), linkB.getPacketsSent());
+			if (!same)
+				System.exit(1);
+		}
+	}
+
+	/**
+	 * Sleeps until a time given by System.nanoTime().
+	 */
+	private static void sleepUntil(final long time)
+			throws InterruptedException {
+		long remaining = time - System.nanoTime();
+		if (remaining > 0)
+			Thread.sleep(remaining / 1000000L, (int) (remaining % 1000000L));
+	}
+}
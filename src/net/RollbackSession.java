@@ -0,0 +1,308 @@
+package net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import engine.PvPState;
+
+/**
+ * Runs an online duel with input delay and rollback. Local inputs are
+ * applied a few ticks late and sent at once; the remote player is predicted
+ * to keep pressing what it last did. When its real input for a past tick
+ * arrives and differs from the prediction, the duel is restored to that
+ * tick and simulated again up to the present.
+ *
+ * Every packet repeats all the local inputs the peer has not acknowledged
+ * yet, so a lost packet is covered by the next one.
+ */
+public final class RollbackSession {
+
+	/** Ticks of states and inputs kept, more than the longest rollback. */
+	private static final int HISTORY = 128;
+	/** Most ticks simulated ahead of the last input received. */
+	public static final int MAX_PREDICTION = 12;
+	/** Most local inputs sent in one packet. */
+	private static final int MAX_INPUTS = 64;
+	/** Marks a packet of this protocol. */
+	private static final short MAGIC = 0x5056;
+
+	/** Duel as shown, at the current tick. */
+	private final PvPState state;
+	/** Saved state at the start of each tick. */
+	private final PvPState[] saved;
+	/** Link to the other player. */
+	private final UdpTransport transport;
+	/** Ship of the local player, 0 bottom or 1 top. */
+	private final int localShip;
+	/** Ticks local inputs are delayed by. */
+	private final int inputDelay;
+
+	/** Local input of each tick. */
+	private final int[] localInputs = new int[HISTORY];
+	/** Input of the remote player of each tick, real or predicted. */
+	private final int[] remoteInputs = new int[HISTORY];
+	/** Tick each remote input slot was last received for. */
+	private final int[] remoteTicks = new int[HISTORY];
+
+	/** Next tick to simulate. */
+	private int tick;
+	/** Latest tick a local input was recorded for. */
+	private int localTick;
+	/** Latest tick every remote input up to was received. */
+	private int confirmedTick;
+	/** Latest tick the peer has every local input up to. */
+	private int ackedTick;
+	/** Earliest tick a late input changed, -1 if none. */
+	private int rollbackTo;
+	/** Checks if anything was received from the peer. */
+	private boolean connected;
+
+	/** Ticks simulated again after late inputs. */
+	private long resimulatedTicks;
+	/** Frames the duel waited for the peer. */
+	private long stalledFrames;
+
+	/** Buffer of outgoing packets. */
+	private final ByteBuffer outgoing = ByteBuffer.allocate(UdpTransport.MAX_PACKET);
+	/** Buffer of incoming packets. */
+	private final ByteBuffer incoming = ByteBuffer.allocate(UdpTransport.MAX_PACKET);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param initial
+	 *            State the duel starts from, the same on both machines.
+	 * @param transport
+	 *            Link to the other player.
+	 * @param localShip
+	 *            Ship of the local player, 0 bottom or 1 top.
+	 * @param inputDelay
+	 *            Ticks local inputs are delayed by.
+	 */
+	public RollbackSession(final PvPState initial, final UdpTransport transport,
+			final int localShip, final int inputDelay) {
+		this.state = initial;
+		this.transport = transport;
+		this.localShip = localShip;
+		this.inputDelay = inputDelay;
+		this.saved = new PvPState[HISTORY];
+		for (int i = 0; i < HISTORY; i++) {
+			this.saved[i] = initial.copy();
+			this.remoteTicks[i] = -1;
+		}
+		// Inputs before the delay has passed are empty on both sides.
+		for (int t = 0; t < inputDelay; t++)
+			this.remoteTicks[t] = t;
+		this.localTick = inputDelay - 1;
+		this.confirmedTick = inputDelay - 1;
+		this.ackedTick = inputDelay - 1;
+		this.rollbackTo = -1;
+	}
+
+	/**
+	 * Advances the duel by one frame: records the local input, exchanges
+	 * inputs with the peer, rolls back if needed and simulates the next tick
+	 * unless too far ahead of the peer.
+	 *
+	 * @param localInput
+	 *            Input bits of the local player this frame.
+	 * @return True if a tick was simulated, false if waiting for the peer.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	public boolean advance(final int localInput) throws IOException {
+		receive();
+		if (!this.connected) {
+			sendInputs();
+			return false;
+		}
+		if (this.rollbackTo >= 0) {
+			rollback(this.rollbackTo);
+			this.rollbackTo = -1;
+		}
+
+		if (this.tick - this.confirmedTick > MAX_PREDICTION) {
+			this.stalledFrames++;
+			sendInputs();
+			return false;
+		}
+
+		this.localTick = this.tick + this.inputDelay;
+		this.localInputs[this.localTick % HISTORY] = localInput;
+		sendInputs();
+
+		simulate(this.tick);
+		this.tick++;
+		return true;
+	}
+
+	/**
+	 * Reads every packet received, keeping the new remote inputs.
+	 */
+	private void receive() throws IOException {
+		while (this.transport.receive(this.incoming)) {
+			ByteBuffer packet = this.incoming;
+			if (packet.remaining() < 11 || packet.getShort() != MAGIC)
+				continue;
+			this.connected = true;
+			int first = packet.getInt();
+			int ack = packet.getInt();
+			int count = packet.get() & 0xFF;
+			if (packet.remaining() < count)
+				continue;
+			this.ackedTick = Math.max(this.ackedTick, ack);
+
+			for (int i = 0; i < count; i++) {
+				int t = first + i;
+				int input = packet.get();
+				if (t <= this.confirmedTick || t >= this.confirmedTick + HISTORY / 2)
+					continue;
+				int slot = t % HISTORY;
+				this.remoteTicks[slot] = t;
+				if (t < this.tick && this.remoteInputs[slot] != input
+						&& (this.rollbackTo < 0 || t < this.rollbackTo))
+					this.rollbackTo = t;
+				this.remoteInputs[slot] = input;
+			}
+			while (this.remoteTicks[(this.confirmedTick + 1) % HISTORY]
+					== this.confirmedTick + 1)
+				this.confirmedTick++;
+		}
+	}
+
+	/**
+	 * Sends the oldest local inputs the peer has not acknowledged, or the
+	 * latest one if it has them all, to keep the peer informed of the acks.
+	 */
+	private void sendInputs() throws IOException {
+		int first = Math.min(this.ackedTick + 1, this.localTick);
+		int count = Math.min(MAX_INPUTS, this.localTick - first + 1);
+		ByteBuffer packet = this.outgoing;
+		packet.clear();
+		packet.putShort(MAGIC);
+		packet.putInt(first);
+		packet.putInt(this.confirmedTick);
+		packet.put((byte) count);
+		for (int i = 0; i < count; i++)
+			packet.put((byte) localInput(first + i));
+		packet.flip();
+		this.transport.send(packet);
+	}
+
+	/**
+	 * Returns the local input of a tick.
+	 */
+	private int localInput(final int t) {
+		return t < this.inputDelay ? 0 : this.localInputs[t % HISTORY];
+	}
+
+	/**
+	 * Returns the remote input of a tick, predicting it as the last one
+	 * received if it has not arrived.
+	 */
+	private int remoteInput(final int t) {
+		int slot = t % HISTORY;
+		if (this.remoteTicks[slot] == t)
+			return this.remoteInputs[slot];
+		int predicted = this.confirmedTick < 0 ? 0
+				: this.remoteInputs[this.confirmedTick % HISTORY];
+		this.remoteInputs[slot] = predicted;
+		return predicted;
+	}
+
+	/**
+	 * Saves the state at the start of a tick and simulates it.
+	 */
+	private void simulate(final int t) {
+		this.saved[t % HISTORY].copyFrom(this.state);
+		int local = localInput(t);
+		int remote = remoteInput(t);
+		if (this.localShip == 0)
+			this.state.step(local, remote);
+		else
+			this.state.step(remote, local);
+	}
+
+	/**
+	 * Restores the state of a past tick and simulates again up to the
+	 * present.
+	 */
+	private void rollback(final int from) {
+		this.state.copyFrom(this.saved[from % HISTORY]);
+		for (int t = from; t < this.tick; t++) {
+			simulate(t);
+			this.resimulatedTicks++;
+		}
+	}
+
+	/**
+	 * Returns the hash of the state at the start of a tick all inputs before
+	 * are known for, to check both machines simulated the same duel.
+	 *
+	 * @param t
+	 *            Tick, from getConfirmedTick() + 1 down to a hundred ticks
+	 *            before, and before the current tick.
+	 * @return Hash of the state.
+	 */
+	public int getChecksum(final int t) {
+		if (t > this.confirmedTick + 1 || t >= this.tick
+				|| t <= this.tick - HISTORY)
+			throw new IllegalArgumentException("State of tick " + t
+					+ " is not final or no longer kept.");
+		return this.saved[t % HISTORY].checksum();
+	}
+
+	/**
+	 * Getter for the duel as shown.
+	 *
+	 * @return Current state.
+	 */
+	public PvPState getState() {
+		return this.state;
+	}
+
+	/**
+	 * Checks if anything was received from the peer.
+	 *
+	 * @return True once the peer is connected.
+	 */
+	public boolean isConnected() {
+		return this.connected;
+	}
+
+	/**
+	 * Getter for the next tick to simulate.
+	 *
+	 * @return Current tick.
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Getter for the latest tick the remote inputs are all known up to.
+	 *
+	 * @return Confirmed tick.
+	 */
+	public int getConfirmedTick() {
+		return this.confirmedTick;
+	}
+
+	/**
+	 * Getter for the number of ticks simulated again after late inputs.
+	 *
+	 * @return Resimulated ticks.
+	 */
+	public long getResimulatedTicks() {
+		return this.resimulatedTicks;
+	}
+
+	/**
+	 * Getter for the number of frames spent waiting for the peer.
+	 *
+	 * @return Stalled frames.
+	 */
+	public long getStalledFrames() {
+		return this.stalledFrames;
+	}
+}
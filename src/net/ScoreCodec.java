@@ -0,0 +1,73 @@
+package net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import engine.Leaderboard;
+import engine.Score;
+
+/**
+ * Encodes batches of runs exchanged with the leaderboard server: a count
+ * followed by records in the leaderboard file format, gzip compressed.
+ */
+public final class ScoreCodec {
+
+	/** Most runs accepted in one batch. */
+	public static final int MAX_BATCH = 10000;
+
+	/**
+	 * Private constructor.
+	 */
+	private ScoreCodec() {
+
+	}
+
+	/**
+	 * Encodes a batch of runs.
+	 *
+	 * @param scores
+	 *            Runs to encode.
+	 * @return Compressed batch.
+	 * @throws IOException
+	 *             In case of encoding problems.
+	 */
+	public static byte[] encode(final List<Score> scores) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(
+				new GZIPOutputStream(buffer))) {
+			output.writeInt(scores.size());
+			for (Score score : scores)
+				Leaderboard.writeRecord(output, score);
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Decodes a batch of runs.
+	 *
+	 * @param inputStream
+	 *            Compressed batch.
+	 * @return Decoded runs.
+	 * @throws IOException
+	 *             In case of a malformed batch.
+	 */
+	public static List<Score> decode(final InputStream inputStream)
+			throws IOException {
+		DataInputStream input = new DataInputStream(
+				new GZIPInputStream(inputStream));
+		int count = input.readInt();
+		if (count < 0 || count > MAX_BATCH)
+			throw new IOException("Invalid batch size: " + count);
+		List<Score> scores = new ArrayList<Score>(count);
+		for (int i = 0; i < count; i++)
+			scores.add(Leaderboard.readRecord(input));
+		return scores;
+	}
+}
@@ -0,0 +1,275 @@
+package net;
+
+import java.util.Arrays;
+
+import engine.DrawManager;
+
+/**
+ * What a broadcast screen drew in one frame: the sprites with their
+ * positions and colors, and the HUD values. Sprites keep the order they were
+ * drawn in, which changes little between frames, so each one is encoded as
+ * the difference with the sprite at the same index in an earlier frame.
+ */
+public final class Snapshot {
+
+	/** Values of a sprite: type, position X, position Y, color. */
+	static final int SPRITE_FIELDS = 4;
+
+	/** Frame number. */
+	private int tick;
+	/** HUD values, -1 for the ones not drawn. */
+	private final int[] hud;
+	/** Sprite values, SPRITE_FIELDS per sprite. */
+	private int[] sprites;
+	/** Number of sprites. */
+	private int spriteCount;
+
+	/**
+	 * Constructor, empty snapshot.
+	 */
+	public Snapshot() {
+		this.hud = new int[DrawManager.HUD_FIELDS];
+		this.sprites = new int[64 * SPRITE_FIELDS];
+		clear(0);
+	}
+
+	/**
+	 * Empties the snapshot for a new frame.
+	 *
+	 * @param frame
+	 *            Frame number.
+	 */
+	public void clear(final int frame) {
+		this.tick = frame;
+		Arrays.fill(this.hud, -1);
+		this.spriteCount = 0;
+	}
+
+	/**
+	 * Adds a sprite.
+	 *
+	 * @param type
+	 *            Ordinal of the sprite type.
+	 * @param positionX
+	 *            Position in the X axis.
+	 * @param positionY
+	 *            Position in the Y axis.
+	 * @param rgb
+	 *            Color of the sprite.
+	 */
+	public void addSprite(final int type, final int positionX,
+			final int positionY, final int rgb) {
+		int offset = this.spriteCount * SPRITE_FIELDS;
+		if (offset + SPRITE_FIELDS > this.sprites.length)
+			this.sprites = Arrays.copyOf(this.sprites, this.sprites.length * 2);
+		this.sprites[offset] = type;
+		this.sprites[offset + 1] = positionX;
+		this.sprites[offset + 2] = positionY;
+		this.sprites[offset + 3] = rgb;
+		this.spriteCount++;
+	}
+
+	/**
+	 * Sets a HUD value.
+	 *
+	 * @param field
+	 *            One of the DrawManager.HUD_ constants.
+	 * @param value
+	 *            Value drawn.
+	 */
+	public void setHUD(final int field, final int value) {
+		this.hud[field] = value;
+	}
+
+	/**
+	 * Creates a copy using no more memory than needed.
+	 *
+	 * @return Copy of the snapshot.
+	 */
+	public Snapshot copy() {
+		Snapshot copy = new Snapshot(this.spriteCount);
+		copy.copyFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Constructor, empty snapshot with room for a number of sprites.
+	 */
+	private Snapshot(final int capacity) {
+		this.hud = new int[DrawManager.HUD_FIELDS];
+		this.sprites = new int[Math.max(1, capacity) * SPRITE_FIELDS];
+		clear(0);
+	}
+
+	/**
+	 * Copies another snapshot.
+	 *
+	 * @param other
+	 *            Snapshot to copy.
+	 */
+	public void copyFrom(final Snapshot other) {
+		this.tick = other.tick;
+		System.arraycopy(other.hud, 0, this.hud, 0, this.hud.length);
+		int length = other.spriteCount * SPRITE_FIELDS;
+		if (this.sprites.length < length)
+			this.sprites = new int[length];
+		System.arraycopy(other.sprites, 0, this.sprites, 0, length);
+		this.spriteCount = other.spriteCount;
+	}
+
+	/**
+	 * Getter for the frame number.
+	 *
+	 * @return Frame number.
+	 */
+	public int getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Getter for a HUD value.
+	 *
+	 * @param field
+	 *            One of the DrawManager.HUD_ constants.
+	 * @return Value drawn, -1 if not drawn.
+	 */
+	public int getHUD(final int field) {
+		return this.hud[field];
+	}
+
+	/**
+	 * Getter for the number of sprites.
+	 *
+	 * @return Number of sprites.
+	 */
+	public int getSpriteCount() {
+		return this.spriteCount;
+	}
+
+	/**
+	 * Getter for a value of a sprite.
+	 *
+	 * @param sprite
+	 *            Index of the sprite.
+	 * @param field
+	 *            0 type, 1 position X, 2 position Y, 3 color.
+	 * @return The value.
+	 */
+	int getSpriteField(final int sprite, final int field) {
+		return this.sprites[sprite * SPRITE_FIELDS + field];
+	}
+
+	/**
+	 * Getter for the sprite type ordinal of a sprite.
+	 *
+	 * @param sprite
+	 *            Index of the sprite.
+	 * @return Ordinal of the sprite type.
+	 */
+	public int getSpriteType(final int sprite) {
+		return this.sprites[sprite * SPRITE_FIELDS];
+	}
+
+	/**
+	 * Getter for the position in the X axis of a sprite.
+	 *
+	 * @param sprite
+	 *            Index of the sprite.
+	 * @return Position of the sprite.
+	 */
+	public int getSpriteX(final int sprite) {
+		return this.sprites[sprite * SPRITE_FIELDS + 1];
+	}
+
+	/**
+	 * Getter for the position in the Y axis of a sprite.
+	 *
+	 * @param sprite
+	 *            Index of the sprite.
+	 * @return Position of the sprite.
+	 */
+	public int getSpriteY(final int sprite) {
+		return this.sprites[sprite * SPRITE_FIELDS + 2];
+	}
+
+	/**
+	 * Getter for the color of a sprite.
+	 *
+	 * @param sprite
+	 *            Index of the sprite.
+	 * @return RGB color of the sprite.
+	 */
+	public int getSpriteColor(final int sprite) {
+		return this.sprites[sprite * SPRITE_FIELDS + 3];
+	}
+
+	/**
+	 * Encodes the snapshot as the difference with an earlier one.
+	 *
+	 * @param baseline
+	 *            Earlier snapshot the viewer has, null to encode it whole.
+	 * @param output
+	 *            Buffer to write to.
+	 */
+	void encode(final Snapshot baseline, final VarIntBuffer output) {
+		output.writeVarInt(this.tick);
+		output.writeVarInt(baseline == null ? 0 : this.tick - baseline.tick);
+		for (int i = 0; i < this.hud.length; i++)
+			output.writeSigned(this.hud[i] - (baseline == null ? -1 : baseline.hud[i]));
+		output.writeVarInt(this.spriteCount);
+		int shared = baseline == null ? 0 : Math.min(this.spriteCount, baseline.spriteCount);
+		for (int s = 0; s < this.spriteCount; s++) {
+			int offset = s * SPRITE_FIELDS;
+			int mask = 0;
+			for (int f = 0; f < SPRITE_FIELDS; f++) {
+				int previous = s < shared ? baseline.sprites[offset + f] : 0;
+				if (this.sprites[offset + f] != previous)
+					mask |= 1 << f;
+			}
+			output.writeByte(mask);
+			for (int f = 0; f < SPRITE_FIELDS; f++) {
+				if ((mask & (1 << f)) != 0) {
+					int previous = s < shared ? baseline.sprites[offset + f] : 0;
+					output.writeSigned(this.sprites[offset + f] - previous);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes a snapshot encoded by encode() into this one.
+	 *
+	 * @param input
+	 *            Buffer to read from.
+	 * @param baseline
+	 *            Last snapshot decoded, null if none.
+	 * @throws IllegalStateException
+	 *             If the snapshot was encoded against another baseline.
+	 */
+	void decode(final VarIntBuffer input, final Snapshot baseline) {
+		int frame = input.readVarInt();
+		int distance = input.readVarInt();
+		Snapshot base = distance == 0 ? null : baseline;
+		if (distance != 0 && (baseline == null || frame - distance != baseline.tick))
+			throw new IllegalStateException("Snapshot " + frame
+					+ " needs a baseline the viewer does not have.");
+
+		this.tick = frame;
+		for (int i = 0; i < this.hud.length; i++)
+			this.hud[i] = (base == null ? -1 : base.hud[i]) + input.readSigned();
+		int count = input.readVarInt();
+		if (this.sprites.length < count * SPRITE_FIELDS)
+			this.sprites = new int[count * SPRITE_FIELDS];
+		int shared = base == null ? 0 : Math.min(count, base.spriteCount);
+		for (int s = 0; s < count; s++) {
+			int offset = s * SPRITE_FIELDS;
+			int mask = input.readByte();
+			for (int f = 0; f < SPRITE_FIELDS; f++) {
+				int previous = s < shared ? base.sprites[offset + f] : 0;
+				this.sprites[offset + f] = (mask & (1 << f)) != 0
+						? previous + input.readSigned() : previous;
+			}
+		}
+		this.spriteCount = count;
+	}
+}
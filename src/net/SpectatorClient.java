@@ -0,0 +1,132 @@
+package net;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.logging.Logger;
+
+import engine.Core;
+
+/**
+ * Receives the frames streamed by a SpectatorServer on a background thread
+ * and keeps the newest one.
+ */
+public final class SpectatorClient implements Closeable {
+
+	/** Largest frame accepted, in bytes. */
+	private static final int MAX_FRAME = 1 << 20;
+	/** Milliseconds allowed to connect. */
+	private static final int CONNECT_TIMEOUT = 5000;
+
+	/** Application logger. */
+	private static Logger logger;
+
+	/** Address of the server. */
+	private final InetSocketAddress address;
+	/** Connection to the server. */
+	private final Socket socket;
+	/** Thread reading the frames. */
+	private Thread thread;
+	/** Newest frame received, null until the first one. */
+	private volatile Snapshot latest;
+	/** Checks if the connection is open. */
+	private volatile boolean connected;
+	/** Frames received. */
+	private volatile long framesReceived;
+
+	/**
+	 * Constructor, without connecting yet.
+	 *
+	 * @param address
+	 *            Address of the server.
+	 */
+	public SpectatorClient(final InetSocketAddress address) {
+		logger = Core.getLogger();
+		this.address = address;
+		this.socket = new Socket();
+	}
+
+	/**
+	 * Connects to the server and starts receiving frames in the background.
+	 */
+	public void start() {
+		this.thread = new Thread(this::run, "spectator-client");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Receives frames until the connection closes.
+	 */
+	private void run() {
+		try {
+			this.socket.connect(this.address, CONNECT_TIMEOUT);
+			this.socket.setTcpNoDelay(true);
+			this.connected = true;
+			DataInputStream input = new DataInputStream(new BufferedInputStream(
+					this.socket.getInputStream()));
+			byte[] data = new byte[4096];
+			while (true) {
+				int length = input.readInt();
+				if (length < 0 || length > MAX_FRAME)
+					throw new IOException("Invalid frame length: " + length);
+				if (data.length < length)
+					data = new byte[Math.max(length, data.length * 2)];
+				input.readFully(data, 0, length);
+
+				Snapshot frame = new Snapshot();
+				frame.decode(new VarIntBuffer(data, length), this.latest);
+				this.latest = frame;
+				this.framesReceived++;
+			}
+		} catch (EOFException e) {
+			logger.info("Spectating ended, the game was closed.");
+		} catch (IOException | IllegalStateException e) {
+			if (!this.socket.isClosed())
+				logger.info("Spectating ended: " + e.getMessage());
+		} finally {
+			this.connected = false;
+			try {
+				this.socket.close();
+			} catch (IOException e) {
+				// Already closed.
+			}
+		}
+	}
+
+	/**
+	 * Getter for the newest frame.
+	 *
+	 * @return Newest frame, null if none was received.
+	 */
+	public Snapshot getLatest() {
+		return this.latest;
+	}
+
+	/**
+	 * Checks if the connection is open.
+	 *
+	 * @return True while connected.
+	 */
+	public boolean isConnected() {
+		return this.connected;
+	}
+
+	/**
+	 * Getter for the number of frames received.
+	 *
+	 * @return Frames received.
+	 */
+	public long getFramesReceived() {
+		return this.framesReceived;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.socket.close();
+	}
+}
@@ -0,0 +1,354 @@
+package net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import engine.Core;
+import engine.DrawManager;
+import engine.DrawManager.SpriteType;
+
+/**
+ * Streams the frames of broadcast screens to spectators over TCP. Records
+ * what DrawManager draws, and one selector thread sends every viewer the
+ * newest frame as the difference with the last frame that viewer was sent.
+ *
+ * A viewer still receiving a frame skips the newer ones and then gets the
+ * newest, so a slow viewer costs one pending frame of memory and never
+ * holds up the others. Viewers sent the same last frame share the encoding
+ * of the next one, so the encoding work does not grow with the viewers.
+ */
+public final class SpectatorServer implements DrawManager.FrameRecorder, Closeable {
+
+	/** Default port. */
+	public static final int DEFAULT_PORT = 47200;
+	/** Frames kept to encode differences against. */
+	private static final int HISTORY = 64;
+	/** Default most viewers at once. */
+	private static final int DEFAULT_MAX_VIEWERS = 512;
+
+	/** Application logger. */
+	private static Logger logger;
+
+	/**
+	 * A connected viewer.
+	 */
+	private static final class Viewer {
+		/** Connection to the viewer. */
+		final SocketChannel channel;
+		/** Frame being sent, null when idle. */
+		ByteBuffer pending;
+		/** Number of the frame being sent. */
+		int pendingTick;
+		/** Number of the last frame sent whole, -1 if none. */
+		int sentTick = -1;
+
+		Viewer(final SocketChannel channel) {
+			this.channel = channel;
+		}
+	}
+
+	/** Accepts the viewers. */
+	private final ServerSocketChannel server;
+	/** Waits for connections and writable viewers. */
+	private final Selector selector;
+	/** Most viewers at once. */
+	private final int maxViewers;
+	/** Connected viewers. */
+	private final List<Viewer> viewers;
+	/** Frame being recorded, game thread only. */
+	private final Snapshot recording;
+	/** Number of the next frame recorded. */
+	private int frameNumber;
+
+	/** Last frames recorded, by frame number. */
+	private final Snapshot[] history;
+	/** Number of the newest frame, -1 if none. */
+	private int newestTick;
+	/** Newest frame sent to the idle viewers. */
+	private int distributedTick;
+	/** Encodings of the newest frame, by the frame it is relative to. */
+	private final Map<Integer, ByteBuffer> encodings;
+	/** Scratch buffer for encoding. */
+	private final VarIntBuffer scratch;
+	/** Scratch buffer for reading from viewers. */
+	private final ByteBuffer discard;
+
+	/** Thread running the selector. */
+	private Thread thread;
+	/** Checks if the server is running. */
+	private volatile boolean running;
+	/** Bytes sent to viewers. */
+	private long bytesSent;
+
+	/**
+	 * Constructor, binds the server without starting it.
+	 *
+	 * @param port
+	 *            Port to listen on, 0 for any free port.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public SpectatorServer(final int port) throws IOException {
+		logger = Core.getLogger();
+		this.maxViewers = Integer.getInteger("invaders.spectate.maxViewers",
+				DEFAULT_MAX_VIEWERS);
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		this.server.bind(new InetSocketAddress(port));
+		this.server.configureBlocking(false);
+		this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+		this.viewers = new ArrayList<Viewer>();
+		this.recording = new Snapshot();
+		this.history = new Snapshot[HISTORY];
+		this.newestTick = -1;
+		this.distributedTick = -1;
+		this.encodings = new HashMap<Integer, ByteBuffer>();
+		this.scratch = new VarIntBuffer(4096);
+		this.discard = ByteBuffer.allocate(256);
+	}
+
+	/**
+	 * Starts accepting viewers.
+	 */
+	public void start() {
+		this.running = true;
+		this.thread = new Thread(this::run, "spectator-server");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void beginFrame() {
+		this.recording.clear(++this.frameNumber);
+	}
+
+	@Override
+	public void recordSprite(final SpriteType type, final int positionX,
+			final int positionY, final int rgb) {
+		this.recording.addSprite(type.ordinal(), positionX, positionY, rgb);
+	}
+
+	@Override
+	public void recordHUD(final int field, final int value) {
+		this.recording.setHUD(field, value);
+	}
+
+	@Override
+	public void endFrame() {
+		Snapshot frame = this.recording.copy();
+		synchronized (this.history) {
+			this.history[frame.getTick() % HISTORY] = frame;
+			this.newestTick = frame.getTick();
+		}
+		this.selector.wakeup();
+	}
+
+	/**
+	 * Runs the selector until closed.
+	 */
+	private void run() {
+		while (this.running) {
+			try {
+				this.selector.select(100);
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid())
+						continue;
+					if (key.isAcceptable())
+						accept();
+					else
+						serve(key);
+				}
+				distribute();
+			} catch (IOException e) {
+				logger.warning("Spectator server error: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Accepts a viewer, unless there are too many.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = this.server.accept();
+		if (channel == null)
+			return;
+		if (this.viewers.size() >= this.maxViewers) {
+			channel.close();
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Viewer viewer = new Viewer(channel);
+		channel.register(this.selector, SelectionKey.OP_READ, viewer);
+		this.viewers.add(viewer);
+	}
+
+	/**
+	 * Reads from or writes to a viewer.
+	 */
+	private void serve(final SelectionKey key) {
+		Viewer viewer = (Viewer) key.attachment();
+		try {
+			if (key.isReadable()) {
+				this.discard.clear();
+				if (viewer.channel.read(this.discard) < 0) {
+					disconnect(viewer);
+					return;
+				}
+			}
+			if (key.isWritable() && write(viewer) && viewer.sentTick < this.distributedTick)
+				send(viewer);
+		} catch (IOException e) {
+			disconnect(viewer);
+		}
+	}
+
+	/**
+	 * Sends the newest frame to every idle viewer.
+	 */
+	private void distribute() {
+		int tick;
+		synchronized (this.history) {
+			tick = this.newestTick;
+		}
+		if (tick == this.distributedTick)
+			return;
+		this.distributedTick = tick;
+		this.encodings.clear();
+		for (Viewer viewer : new ArrayList<Viewer>(this.viewers)) {
+			if (viewer.pending != null)
+				continue;
+			try {
+				send(viewer);
+			} catch (IOException e) {
+				disconnect(viewer);
+			}
+		}
+	}
+
+	/**
+	 * Starts sending the newest frame to an idle viewer.
+	 */
+	private void send(final Viewer viewer) throws IOException {
+		int tick = this.distributedTick;
+		Snapshot frame;
+		Snapshot baseline = null;
+		synchronized (this.history) {
+			frame = this.history[tick % HISTORY];
+			if (viewer.sentTick >= 0 && tick - viewer.sentTick < HISTORY) {
+				Snapshot candidate = this.history[viewer.sentTick % HISTORY];
+				if (candidate != null && candidate.getTick() == viewer.sentTick)
+					baseline = candidate;
+			}
+		}
+		if (frame == null || frame.getTick() != tick)
+			return;
+
+		Integer key = baseline == null ? -1 : baseline.getTick();
+		ByteBuffer encoded = this.encodings.get(key);
+		if (encoded == null) {
+			this.scratch.clear();
+			frame.encode(baseline, this.scratch);
+			int length = this.scratch.getLength();
+			encoded = ByteBuffer.allocate(4 + length);
+			encoded.putInt(length).put(this.scratch.getData(), 0, length).flip();
+			this.encodings.put(key, encoded);
+		}
+		viewer.pending = encoded.duplicate();
+		viewer.pendingTick = tick;
+		write(viewer);
+	}
+
+	/**
+	 * Writes as much of the pending frame as the viewer accepts.
+	 *
+	 * @return True if the frame was sent whole.
+	 */
+	private boolean write(final Viewer viewer) throws IOException {
+		if (viewer.pending == null)
+			return true;
+		this.bytesSent += viewer.channel.write(viewer.pending);
+		SelectionKey key = viewer.channel.keyFor(this.selector);
+		if (viewer.pending.hasRemaining()) {
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			return false;
+		}
+		viewer.pending = null;
+		viewer.sentTick = viewer.pendingTick;
+		key.interestOps(SelectionKey.OP_READ);
+		return true;
+	}
+
+	/**
+	 * Drops a viewer.
+	 */
+	private void disconnect(final Viewer viewer) {
+		this.viewers.remove(viewer);
+		try {
+			viewer.channel.close();
+		} catch (IOException e) {
+			// Already gone.
+		}
+	}
+
+	/**
+	 * Getter for the port the server listens on.
+	 *
+	 * @return Port of the server.
+	 * @throws IOException
+	 *             In case the server is closed.
+	 */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) this.server.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Getter for the number of viewers connected.
+	 *
+	 * @return Number of viewers.
+	 */
+	public int getViewerCount() {
+		return this.viewers.size();
+	}
+
+	/**
+	 * Getter for the bytes sent to viewers.
+	 *
+	 * @return Bytes sent.
+	 */
+	public long getBytesSent() {
+		return this.bytesSent;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.selector.wakeup();
+		if (this.thread != null) {
+			try {
+				this.thread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (Viewer viewer : new ArrayList<Viewer>(this.viewers))
+			disconnect(viewer);
+		this.server.close();
+		this.selector.close();
+	}
+}
@@ -0,0 +1,220 @@
+package net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Non-blocking UDP link to one peer. Can add latency, jitter and packet loss
+ * to what it sends, to try netcode on loopback as if over the internet.
+ *
+ * The simulated conditions can be set with the system properties
+ * invaders.net.latency and invaders.net.jitter, in milliseconds one way, and
+ * invaders.net.loss, in percent.
+ */
+public final class UdpTransport implements Closeable {
+
+	/** Largest datagram sent or received. */
+	public static final int MAX_PACKET = 512;
+
+	/** Channel bound to the local port. */
+	private final DatagramChannel channel;
+	/** Address of the peer. */
+	private final SocketAddress peer;
+	/** Added one way delay, in milliseconds. */
+	private final int latency;
+	/** Largest random variation of the delay, in milliseconds. */
+	private final int jitter;
+	/** Fraction of the packets dropped. */
+	private final double loss;
+	/** Draws the simulated delays and losses. */
+	private final Random random;
+	/** Packets held back by the simulated delay, earliest first. */
+	private final PriorityQueue<Delayed> delayed;
+	/** Orders delayed packets sent at the same time. */
+	private long sequence;
+
+	/** Packets sent, including the dropped ones. */
+	private long packetsSent;
+	/** Packets received. */
+	private long packetsReceived;
+
+	/**
+	 * A packet waiting for its simulated delay.
+	 */
+	private static final class Delayed implements Comparable<Delayed> {
+		/** Time to send it, in nanoseconds. */
+		final long due;
+		/** Order it was sent in. */
+		final long order;
+		/** Contents. */
+		final ByteBuffer data;
+
+		Delayed(final long due, final long order, final ByteBuffer data) {
+			this.due = due;
+			this.order = order;
+			this.data = data;
+		}
+
+		@Override
+		public int compareTo(final Delayed other) {
+			if (this.due != other.due)
+				return Long.compare(this.due, other.due);
+			return Long.compare(this.order, other.order);
+		}
+	}
+
+	/**
+	 * Constructor, with the conditions of the system properties.
+	 *
+	 * @param localPort
+	 *            Port to receive on, 0 for any free port.
+	 * @param peer
+	 *            Address of the peer.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public UdpTransport(final int localPort, final SocketAddress peer)
+			throws IOException {
+		this(localPort, peer, Integer.getInteger("invaders.net.latency", 0),
+				Integer.getInteger("invaders.net.jitter", 0),
+				Integer.getInteger("invaders.net.loss", 0) / 100.0,
+				System.nanoTime());
+	}
+
+	/**
+	 * Constructor, with simulated conditions.
+	 *
+	 * @param localPort
+	 *            Port to receive on, 0 for any free port.
+	 * @param peer
+	 *            Address of the peer.
+	 * @param latency
+	 *            Added one way delay, in milliseconds.
+	 * @param jitter
+	 *            Largest random variation of the delay, in milliseconds.
+	 * @param loss
+	 *            Fraction of the packets dropped, from 0 to 1.
+	 * @param seed
+	 *            Seed of the simulated delays and losses.
+	 * @throws IOException
+	 *             In case the port cannot be bound.
+	 */
+	public UdpTransport(final int localPort, final SocketAddress peer,
+			final int latency, final int jitter, final double loss,
+			final long seed) throws IOException {
+		this.channel = DatagramChannel.open();
+		this.channel.configureBlocking(false);
+		this.channel.bind(new InetSocketAddress(localPort));
+		this.peer = peer;
+		this.latency = latency;
+		this.jitter = jitter;
+		this.loss = loss;
+		this.random = new Random(seed);
+		this.delayed = new PriorityQueue<Delayed>();
+	}
+
+	/**
+	 * Sends a packet to the peer, or holds it for the simulated delay. The
+	 * packet is sent from its position to its limit.
+	 *
+	 * @param packet
+	 *            Contents of the packet.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	public void send(final ByteBuffer packet) throws IOException {
+		this.packetsSent++;
+		if (this.loss > 0 && this.random.nextDouble() < this.loss) {
+			packet.position(packet.limit());
+			return;
+		}
+		if (this.latency == 0 && this.jitter == 0) {
+			this.channel.send(packet, this.peer);
+			return;
+		}
+		ByteBuffer copy = ByteBuffer.allocate(packet.remaining());
+		copy.put(packet).flip();
+		long delay = this.latency + (this.jitter > 0
+				? this.random.nextInt(this.jitter + 1) : 0);
+		this.delayed.add(new Delayed(System.nanoTime() + delay * 1000000L,
+				this.sequence++, copy));
+		flush();
+	}
+
+	/**
+	 * Sends the delayed packets that are due.
+	 *
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	private void flush() throws IOException {
+		long now = System.nanoTime();
+		while (!this.delayed.isEmpty() && this.delayed.peek().due <= now)
+			this.channel.send(this.delayed.poll().data, this.peer);
+	}
+
+	/**
+	 * Receives a packet from the peer, if one has arrived. Packets from other
+	 * addresses are ignored.
+	 *
+	 * @param packet
+	 *            Buffer to receive into, cleared first and flipped after.
+	 * @return True if a packet was received.
+	 * @throws IOException
+	 *             In case of connection problems.
+	 */
+	public boolean receive(final ByteBuffer packet) throws IOException {
+		flush();
+		while (true) {
+			packet.clear();
+			SocketAddress from = this.channel.receive(packet);
+			if (from == null)
+				return false;
+			if (!from.equals(this.peer))
+				continue;
+			packet.flip();
+			this.packetsReceived++;
+			return true;
+		}
+	}
+
+	/**
+	 * Getter for the port packets are received on.
+	 *
+	 * @return Local port.
+	 * @throws IOException
+	 *             In case the channel is closed.
+	 */
+	public int getLocalPort() throws IOException {
+		return ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Getter for the number of packets sent.
+	 *
+	 * @return Packets sent, including the ones dropped on purpose.
+	 */
+	public long getPacketsSent() {
+		return this.packetsSent;
+	}
+
+	/**
+	 * Getter for the number of packets received.
+	 *
+	 * @return Packets received.
+	 */
+	public long getPacketsReceived() {
+		return this.packetsReceived;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,129 @@
+package net;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer of variable length integers: 7 bits per byte, small
+ * values in one byte. Signed values are zigzag encoded first, so small
+ * negative values are short too.
+ */
+final class VarIntBuffer {
+
+	/** Contents. */
+	private byte[] data;
+	/** Number of bytes written. */
+	private int length;
+	/** Position of the next byte read. */
+	private int position;
+
+	/**
+	 * Constructor, empty buffer to write to.
+	 *
+	 * @param capacity
+	 *            Initial capacity in bytes.
+	 */
+	VarIntBuffer(final int capacity) {
+		this.data = new byte[capacity];
+	}
+
+	/**
+	 * Constructor, buffer to read the given bytes from.
+	 *
+	 * @param data
+	 *            Bytes to read.
+	 * @param length
+	 *            Number of bytes to read.
+	 */
+	VarIntBuffer(final byte[] data, final int length) {
+		this.data = data;
+		this.length = length;
+	}
+
+	/**
+	 * Empties the buffer.
+	 */
+	void clear() {
+		this.length = 0;
+		this.position = 0;
+	}
+
+	/**
+	 * Writes a byte.
+	 */
+	void writeByte(final int value) {
+		if (this.length == this.data.length)
+			this.data = Arrays.copyOf(this.data, this.data.length * 2);
+		this.data[this.length++] = (byte) value;
+	}
+
+	/**
+	 * Writes an integer, short if it is small and not negative.
+	 */
+	void writeVarInt(final int value) {
+		int rest = value;
+		while ((rest & ~0x7F) != 0) {
+			writeByte((rest & 0x7F) | 0x80);
+			rest >>>= 7;
+		}
+		writeByte(rest);
+	}
+
+	/**
+	 * Writes an integer, short if it is close to zero.
+	 */
+	void writeSigned(final int value) {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Reads a byte.
+	 *
+	 * @throws IllegalStateException
+	 *             If there is nothing left to read.
+	 */
+	int readByte() {
+		if (this.position >= this.length)
+			throw new IllegalStateException("Truncated snapshot.");
+		return this.data[this.position++] & 0xFF;
+	}
+
+	/**
+	 * Reads an integer written by writeVarInt().
+	 */
+	int readVarInt() {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IllegalStateException("Malformed snapshot.");
+	}
+
+	/**
+	 * Reads an integer written by writeSigned().
+	 */
+	int readSigned() {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Getter for the contents.
+	 *
+	 * @return Backing array, valid up to getLength().
+	 */
+	byte[] getData() {
+		return this.data;
+	}
+
+	/**
+	 * Getter for the number of bytes written.
+	 *
+	 * @return Length of the contents.
+	 */
+	int getLength() {
+		return this.length;
+	}
+}
@@ -12,15 +12,21 @@ import engine.Core;
  */
 public class AchievementScreen extends Screen {
 
+    /** Achievements shown. */
+    private final AchievementManager achievementManager;
+
     /**
      * Constructor for the AchievementScreen.
      *
      * @param width  Screen width.
      * @param height Screen height.
      * @param fps    Frames per second.
+     * @param achievementManager Achievements to show.
      */
-    public AchievementScreen(int width, int height, int fps) {
+    public AchievementScreen(int width, int height, int fps,
+                             AchievementManager achievementManager) {
         super(width, height, fps);
+        this.achievementManager = achievementManager;
         this.returnCode = 1; // Default return code
     }
 
@@ -60,7 +66,7 @@ public class AchievementScreen extends Screen {
      */
     private void draw() {
         drawManager.initDrawing(this);
-        List<Achievement> achievements = AchievementManager.getInstance().getAchievements();
+        List<Achievement> achievements = this.achievementManager.getAchievements();
         drawManager.drawAchievements(this, achievements);
         drawManager.completeDrawing(this);
     }
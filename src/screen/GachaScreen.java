@@ -4,7 +4,9 @@ import java.awt.Color;
 import java.awt.event.KeyEvent;
 import engine.Cooldown;
 import engine.Core;
+import engine.GameRandom;
 import engine.GameState;
+import engine.RandomService;
 import engine.ShipColorManager;
 
 /**
@@ -220,10 +222,11 @@ public class GachaScreen extends Screen {
         gameState.deductCoins(GACHA_PRICE);
 
         // Set random result
-        targetIndex = (int) (Math.random() * ShipColorManager.GACHA_COLORS.length);
+        GameRandom random = Core.getRandom(RandomService.Stream.GACHA);
+        targetIndex = random.nextInt(ShipColorManager.GACHA_COLORS.length);
         
         // Start roulette animation from a random position
-        rouletteIndex = (int) (Math.random() * ShipColorManager.GACHA_COLORS.length);
+        rouletteIndex = random.nextInt(ShipColorManager.GACHA_COLORS.length);
         isSpinning = true;
         spinFrames = 0;
         resultColor = null; // Clear previous result
@@ -8,12 +8,18 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Logger;
 
+import engine.Autopilot;
 import engine.Cooldown;
 import engine.Core;
 import engine.GameState;
 import engine.GameTimer;
-import engine.AchievementManager;
-import engine.ItemHUDManager;
+import engine.GameContext;
+import engine.GameEventBus;
+import engine.ParticleSystem;
+import engine.RandomService;
+import engine.Telemetry;
+import engine.TimerWheel;
+import engine.jfr.CollisionPassEvent;
 import entity.*;
 import java.awt.event.KeyEvent;
 import java.util.HashSet;
@@ -45,6 +51,18 @@ public class GameScreen extends Screen {
     private static final int BOSS_EXPLOSION = 600;
     /** Time from finishing the level to screen change. */
     private static final int SCREEN_CHANGE_INTERVAL = 1500;
+    /** Maximum number of live effect particles. */
+    private static final int PARTICLE_CAPACITY = 2048;
+    /** Maximum number of effect particles emitted per frame. */
+    private static final int PARTICLE_FRAME_BUDGET = 256;
+    /** Particles emitted by a destroyed enemy. */
+    private static final int ENEMY_EXPLOSION_PARTICLES = 24;
+    /** Particles emitted by a destroyed boss. */
+    private static final int BOSS_EXPLOSION_PARTICLES = 160;
+    /** Fragments thrown by a destroyed player ship. */
+    private static final int SHIP_DEBRIS_PARTICLES = 30;
+    /** Color of the player ship exhaust. */
+    private static final int THRUSTER_COLOR = 0xFF8C20;
     /** Height of the interface separation line. */
     private static final int SEPARATION_LINE_HEIGHT = 45;
     /** Height of the items separation line (above items). */
@@ -68,16 +86,14 @@ public class GameScreen extends Screen {
     private Ship shipP2;
     /** Bonus enemy ship that appears sometimes. */
     private EnemyShip enemyShipSpecial;
-    /** Minimum time between bonus ship appearances. */
-    private Cooldown enemyShipSpecialCooldown;
     /** team drawing may implement */
     private FinalBoss finalBoss;
     /** Time until bonus ship explosion disappears. */
     private Cooldown enemyShipSpecialExplosionCooldown;
     /** Time until Boss explosion disappears. */
     private Cooldown bossExplosionCooldown;
-    /** Time from finishing the level to screen change. */
-    private Cooldown screenFinishedCooldown;
+    /** Changes screen once the level is finished. */
+    private TimerWheel.Timer screenFinishedTimer;
     /** OmegaBoss */
     private MidBoss omegaBoss;
     /** Set of all bullets fired by on-screen ships. */
@@ -86,6 +102,8 @@ public class GameScreen extends Screen {
     private Set<DropItem> dropItems;
     /** Set of all portals on screen. */
     private Set<Portal> portals;
+    /** Explosion, debris and thruster effects. */
+    private ParticleSystem particles;
     /** Current score. */
     private int score;
     // === [ADD] Independent scores for two players ===
@@ -133,20 +151,30 @@ public class GameScreen extends Screen {
     private long elapsedTime;
     // Achievement popup
     private String achievementText;
-    private Cooldown achievementPopupCooldown;
+    private TimerWheel.Timer achievementPopupTimer;
     private enum StagePhase{wave, boss_wave};
     private StagePhase currentPhase;
     /** Health change popup. */
     private String healthPopupText;
-    private Cooldown healthPopupCooldown;
+    private TimerWheel.Timer healthPopupTimer;
+    /** Logs the events of each tick and shows their popups. */
+    private final GameEventBus.Subscriber screenEvents = this::onEvents;
+    /** Item types, by ordinal. */
+    private static final DropItem.ItemType[] ITEM_TYPES = DropItem.ItemType.values();
+    /** Pairs of entities tested for collision in the current pass. */
+    private int collisionPairs;
     /* Track if pause key was pressed*/
     private boolean pauseKeyPreviouslyDown = false;
 
     private GameState gameState;
+    /** Session the level is played in. */
+    private GameContext context;
 
     /**
      * Constructor, establishes the properties of the screen.
      *
+     * @param context
+     *            Session the level is played in.
      * @param gameState
      *            Current game state.	 * @param level
      *            Current level settings.
@@ -161,11 +189,14 @@ public class GameScreen extends Screen {
      * @param fps
      *            Frames per second, frame rate at which the game is run.
      */
-    public GameScreen(final GameState gameState,
+    public GameScreen(final GameContext context, final GameState gameState,
                       final Level level, final boolean bonusLife, final int maxLives,
                       final int width, final int height, final int fps) {
         super(width, height, fps);
 
+        this.context = context;
+        this.inputManager = context.getInputManager();
+
         this.currentLevel = level;
         this.bonusLife = bonusLife;
         this.currentlevel = level;
@@ -190,10 +221,13 @@ public class GameScreen extends Screen {
     public final void initialize() {
         super.initialize();
 
-        AchievementManager.getInstance().setCurrentScreen(this);
+        this.context.getAchievementManager().setCurrentScreen(this);
+        this.context.getEventBus().clear();
+        this.context.getEventBus().subscribe(this.screenEvents);
+        this.context.getTelemetry().beginLevel(this.level, this.currentLevel, this.gameState);
         /** Initialize the bullet Boss fired */
         this.bossBullets = new HashSet<>();
-        enemyShipFormation = new EnemyShipFormation(this.currentLevel);
+        enemyShipFormation = new EnemyShipFormation(this.context, this.currentLevel);
         enemyShipFormation.attach(this);
         this.enemyShipFormation.applyEnemyColorByLevel(this.currentLevel);
         
@@ -201,10 +235,10 @@ public class GameScreen extends Screen {
         engine.ShipColorManager colorManager = engine.ShipColorManager.getInstance();
         java.awt.Color player1Color = colorManager.getSelectedColor();
         
-        this.ship = new Ship(this.width / 2 - 100, ITEMS_SEPARATION_LINE_HEIGHT - 20, player1Color);
+        this.ship = new Ship(this.context, this.width / 2 - 100, ITEMS_SEPARATION_LINE_HEIGHT - 20, player1Color);
         this.ship.setPlayerId(1);   //=== [ADD] Player 1 ===
 
-        this.shipP2 = new Ship(this.width / 2 + 100, ITEMS_SEPARATION_LINE_HEIGHT - 20,Color.pink);
+        this.shipP2 = new Ship(this.context, this.width / 2 + 100, ITEMS_SEPARATION_LINE_HEIGHT - 20,Color.pink);
         this.shipP2.setPlayerId(2); // === [ADD] Player2 ===
 
         // If the game is not set to 2player mode : remove the second player's ship
@@ -215,15 +249,20 @@ public class GameScreen extends Screen {
 
         // Special enemy initial
         enemyShipSpecialFormation = new EnemyShipSpecialFormation(this.currentLevel,
-                Core.getVariableCooldown(BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE),
-                Core.getCooldown(BONUS_SHIP_EXPLOSION));
+                BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE,
+                Core.getCooldown(BONUS_SHIP_EXPLOSION),
+                this.context);
         enemyShipSpecialFormation.attach(this);
         this.bossExplosionCooldown = Core
                 .getCooldown(BOSS_EXPLOSION);
-        this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
+        this.screenFinishedTimer = new TimerWheel.Timer(this::leaveLevel);
+        this.achievementPopupTimer = new TimerWheel.Timer(() -> this.achievementText = null);
+        this.healthPopupTimer = new TimerWheel.Timer(() -> this.healthPopupText = null);
         this.bullets = new HashSet<Bullet>();
         this.dropItems = new HashSet<DropItem>();
         this.portals = new HashSet<Portal>();
+        this.particles = new ParticleSystem(PARTICLE_CAPACITY, PARTICLE_FRAME_BUDGET,
+                this.context.getRandom(RandomService.Stream.EFFECTS));
         
         // Initialize portals from level data
         try {
@@ -235,7 +274,8 @@ public class GameScreen extends Screen {
                         portalData.getPositionY(),
                         portalData.getPortalId(),
                         portalData.getTargetPortalId(),
-                        portalColor
+                        portalColor,
+                        this.context.getScheduler()
                     );
                     this.portals.add(portal);
                 }
@@ -265,19 +305,39 @@ public class GameScreen extends Screen {
      */
     public final int run() {
         super.run();
+        this.context.getEventBus().unsubscribe(this.screenEvents);
+        this.enemyShipSpecialFormation.stop();
+
+        // Keys pressed by the autopilot would carry into the next screens.
+        Autopilot autopilot = this.context.getAutopilot();
+        if (autopilot != null) {
+            autopilot.release();
+            if (autopilot.getOverBudgetCount() > 0)
+                this.logger.warning("Autopilot over budget: " + autopilot.getStats());
+            else
+                this.logger.info("Autopilot: " + autopilot.getStats());
+        }
 
         this.score += LIFE_SCORE * (this.livesP1 - 1);
         this.score += LIFE_SCORE * (this.livesP2 - 1);
         this.logger.info("Screen cleared with a score of " + this.score);
+        this.context.getTelemetry().endLevel(getGameState(), this.elapsedTime,
+                this.livesP1 > 0 || (this.shipP2 != null && this.livesP2 > 0));
 
         return this.returnCode;
     }
 
+    @Override
+    public boolean isBroadcast() {
+        return true;
+    }
+
     /**
      * Updates the elements on screen and checks for events.
      */
     protected final void update() {
         super.update();
+        this.context.tick();
 
         if (this.inputDelay.checkFinished() && !this.levelFinished) {
 
@@ -297,6 +357,20 @@ public class GameScreen extends Screen {
                 this.gameTimer.start();
             }
 
+            Autopilot autopilot = this.context.getAutopilot();
+            if (autopilot != null && this.livesP1 > 0) {
+                Entity boss = null;
+                if (this.finalBoss != null && !this.finalBoss.isDestroyed())
+                    boss = this.finalBoss;
+                else if (this.omegaBoss != null && !this.omegaBoss.isDestroyed())
+                    boss = this.omegaBoss;
+                autopilot.drive(this.ship, this.bullets, this.bossBullets,
+                        this.enemyShipFormation, boss);
+            } else if (autopilot != null) {
+                // The first player is out, let go of its keys.
+                autopilot.release();
+            }
+
             if (this.livesP1 > 0 && !this.ship.isDestroyed()) {
                 boolean p1Right = inputManager.isP1KeyDown(java.awt.event.KeyEvent.VK_D);
                 boolean p1Left  = inputManager.isP1KeyDown(java.awt.event.KeyEvent.VK_A);
@@ -319,7 +393,8 @@ public class GameScreen extends Screen {
                 if (p1Fire) {
                     if (this.ship.shoot(this.bullets)) {
                         this.bulletsShot++;
-                        AchievementManager.getInstance().onShotFired();
+                        post(GameEventBus.Type.SHOT_FIRED, 1,
+                                this.context.getShopItem().getMultiShotBulletCount(), 0, this.ship);
                     }
                 }
             }
@@ -346,13 +421,14 @@ public class GameScreen extends Screen {
                 if (p2Fire) {
                     if (this.shipP2.shoot(this.bullets)) {
                         this.bulletsShot++;
-                        AchievementManager.getInstance().onShotFired();
+                        post(GameEventBus.Type.SHOT_FIRED, 2,
+                                this.context.getShopItem().getMultiShotBulletCount(), 0, this.shipP2);
                     }
                 }
             }
             switch (this.currentPhase) {
                 case wave:
-                    if (!DropItem.isTimeFreezeActive()) {
+                    if (!this.context.isTimeFreezeActive()) {
                         this.enemyShipFormation.update();
                         this.enemyShipFormation.shoot(this.bullets);
                     }
@@ -373,22 +449,19 @@ public class GameScreen extends Screen {
                         if (this.omegaBoss.isDestroyed()) {
                             if ("omegaAndFinal".equals(this.currentlevel.getBossId())) {
                                 this.omegaBoss = null;
-                                this.finalBoss = new FinalBoss(this.width / 2 - 50, 50, this.width, this.height);
+                                this.finalBoss = new FinalBoss(this.width / 2 - 50, 50, this.width, this.height,
+                                        this.context);
                                 this.logger.info("Final Boss has spawned!");
                             } else {
                                 this.levelFinished = true;
-                                this.screenFinishedCooldown.reset();
+                                scheduleScreenChange();
 
                                 // UNLOCK ACHIEVEMENT ON LEVEL COMPLETION
-                                if (this.level == 1) {
-                                    AchievementManager.getInstance().unlockAchievement("Beginner");
-                                } else if (this.level == 3) {
-                                    AchievementManager.getInstance().unlockAchievement("Intermediate");
-                                }
+                                this.context.getAchievementManager().onLevelCleared(this.level);
 
                                 String achievement = this.currentlevel.getAchievementTrigger();
                                 if (achievement != null && !achievement.isEmpty()) {
-                                    AchievementManager.getInstance().unlockAchievement(achievement);
+                                    this.context.getAchievementManager().unlockAchievement(achievement);
                                     this.logger.info("Unlocked achievement: " + achievement);
                                 }
                             }
@@ -397,18 +470,14 @@ public class GameScreen extends Screen {
                     else{
                         if(!this.levelFinished){
                             this.levelFinished = true;
-                            this.screenFinishedCooldown.reset();
+                            scheduleScreenChange();
 
                             // UNLOCK ACHIEVEMENT ON LEVEL COMPLETION (no boss case)
-                            if (this.level == 1) {
-                                AchievementManager.getInstance().unlockAchievement("Beginner");
-                            } else if (this.level == 3) {
-                                AchievementManager.getInstance().unlockAchievement("Intermediate");
-                            }
+                            this.context.getAchievementManager().onLevelCleared(this.level);
 
                             String achievement = this.currentlevel.getAchievementTrigger();
                             if (achievement != null && !achievement.isEmpty()) {
-                                AchievementManager.getInstance().unlockAchievement(achievement);
+                                this.context.getAchievementManager().unlockAchievement(achievement);
                                 this.logger.info("Unlocked achievement: " + achievement);
                             }
                         }
@@ -425,36 +494,58 @@ public class GameScreen extends Screen {
 
         if (this.gameTimer.isRunning()) {
             this.elapsedTime = this.gameTimer.getElapsedTime();
-            AchievementManager.getInstance().onTimeElapsedSeconds((int)(this.elapsedTime / 1000));
+            this.context.getAchievementManager().onTimeElapsedSeconds((int)(this.elapsedTime / 1000));
         }
+        emitThrusters();
+        this.particles.update();
         cleanItems();
+        CollisionPassEvent pass = startPass();
         manageBulletShipCollisions();
+        endPass(pass, "bullets");
+        pass = startPass();
         manageShipEnemyCollisions();
+        endPass(pass, "ships");
+        pass = startPass();
         manageItemCollisions();
+        endPass(pass, "items");
+        pass = startPass();
         managePortalCollisions();
+        endPass(pass, "portals");
         updatePortals();
         cleanBullets();
+        this.context.getEventBus().flush();
+        long drawStart = System.nanoTime();
         draw();
+        addDrawTime(System.nanoTime() - drawStart);
 
         // Game over condition (both players dead)
         if (((this.livesP1 == 0) && (this.shipP2 == null || this.livesP2 == 0)) && !this.levelFinished) {
             this.levelFinished = true;
-            this.screenFinishedCooldown.reset();
+            scheduleScreenChange();
             if (this.gameTimer.isRunning()) {
                 this.gameTimer.stop();
             }
         }
+    }
 
-        // Screen transition after level finishes
-        if (this.levelFinished && this.screenFinishedCooldown.checkFinished()) {
-            if (this.livesP1 > 0 || (this.shipP2 != null && this.livesP2 > 0)) { // Check for win condition
-                if (this.currentlevel.getCompletionBonus() != null) {
-                    this.coin += this.currentlevel.getCompletionBonus().getCurrency();
-                    this.logger.info("Awarded " + this.currentlevel.getCompletionBonus().getCurrency() + " coins for level completion.");
-                }
+    /**
+     * Schedules the screen change once the level is finished.
+     */
+    private void scheduleScreenChange() {
+        this.context.getScheduler().schedule(this.screenFinishedTimer, SCREEN_CHANGE_INTERVAL);
+    }
+
+    /**
+     * Screen transition after level finishes.
+     */
+    private void leaveLevel() {
+        if (this.livesP1 > 0 || (this.shipP2 != null && this.livesP2 > 0)) { // Check for win condition
+            if (this.currentlevel.getCompletionBonus() != null) {
+                this.coin += this.currentlevel.getCompletionBonus().getCurrency();
+                this.logger.info("Awarded " + this.currentlevel.getCompletionBonus().getCurrency() + " coins for level completion.");
             }
-            this.isRunning = false;
         }
+        this.isRunning = false;
     }
 
 
@@ -511,6 +602,8 @@ public class GameScreen extends Screen {
             }
         }
 
+        drawManager.drawParticles(this, this.particles, 0);
+
         // Interface.
         // Display game elements depending on the number of active players
         drawManager.drawScore(this, this.scoreP1);
@@ -525,22 +618,18 @@ public class GameScreen extends Screen {
             drawManager.drawLivesP2(this, this.livesP2);
         }
         drawManager.drawTime(this, this.elapsedTime);
-        drawManager.drawItemsHUD(this);
+        drawManager.drawItemsHUD(this, this.context.getItemHUDManager());
         drawManager.drawLevel(this, this.currentLevel.getLevelName());
         drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
         drawManager.drawHorizontalLine(this, ITEMS_SEPARATION_LINE_HEIGHT);
 
-        if (this.achievementText != null && !this.achievementPopupCooldown.checkFinished()) {
+        if (this.achievementText != null) {
             drawManager.drawAchievementPopup(this, this.achievementText);
-        } else {
-            this.achievementText = null; // clear once expired
         }
 
         // Health notification popup
-        if(this.healthPopupText != null && !this.healthPopupCooldown.checkFinished()) {
+        if(this.healthPopupText != null) {
             drawManager.drawHealthPopup(this, this.healthPopupText);
-        } else {
-            this.healthPopupText = null;
         }
 
         // Countdown to game start.
@@ -572,7 +661,7 @@ public class GameScreen extends Screen {
                 recyclable.add(bullet);
         }
         this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+        this.context.getBulletPool().recycle(recyclable);
     }
 
     /**
@@ -588,7 +677,7 @@ public class GameScreen extends Screen {
                 recyclable.add(dropItem);
         }
         this.dropItems.removeAll(recyclable);
-        ItemPool.recycle(recyclable);
+        this.context.getItemPool().recycle(recyclable);
     }
 
     /**
@@ -603,10 +692,9 @@ public class GameScreen extends Screen {
                     if (!this.ship.isInvincible()) {
                         if (!this.ship.isDestroyed()) {
                             this.ship.destroy();
+                            shatter(this.ship);
                             this.livesP1--;
-                            showHealthPopup("-1 Health");
-                            this.logger.info("Hit on player ship, " + this.livesP1
-                                    + " lives remaining.");
+                            postHit(this.ship, this.livesP1, GameEventBus.HIT_BULLET);
                         }
                     }
                 } else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed()
@@ -615,10 +703,9 @@ public class GameScreen extends Screen {
                     if (!this.shipP2.isInvincible()) {
                         if (!this.shipP2.isDestroyed()) {
                             this.shipP2.destroy();
+                            shatter(this.shipP2);
                             this.livesP2--;
-                            showHealthPopup("-1 Health");
-                            this.logger.info("Hit on player ship, " + this.livesP2
-                                    + " lives remaining.");
+                            postHit(this.shipP2, this.livesP2, GameEventBus.HIT_BULLET);
                         }
                     }
                 }
@@ -633,29 +720,19 @@ public class GameScreen extends Screen {
 
                         String enemyType = enemyShip.getEnemyType();
                         this.enemyShipFormation.destroy(enemyShip);
-                        AchievementManager.getInstance().onEnemyDefeated();
-                        if (enemyType != null && this.currentLevel.getItemDrops() != null) {
-                            List<engine.level.ItemDrop> potentialDrops = new ArrayList<>();
-                            for (engine.level.ItemDrop itemDrop : this.currentLevel.getItemDrops()) {
-                                if (enemyType.equals(itemDrop.getEnemyType())) {
-                                    potentialDrops.add(itemDrop);
-                                }
-                            }
-
-                            List<engine.level.ItemDrop> successfulDrops = new ArrayList<>();
-                            for (engine.level.ItemDrop itemDrop : potentialDrops) {
-                                if (Math.random() < itemDrop.getDropChance()) {
-                                    successfulDrops.add(itemDrop);
-                                }
-                            }
-
-                            if (!successfulDrops.isEmpty()) {
-                                engine.level.ItemDrop selectedDrop = successfulDrops.get((int) (Math.random() * successfulDrops.size()));
+                        explode(enemyShip, ENEMY_EXPLOSION_PARTICLES);
+                        post(GameEventBus.Type.ENEMY_DESTROYED, ownerOf(bullet), pts,
+                                Telemetry.enemyTypeIndex(this.currentLevel, enemyType), enemyShip);
+                        engine.level.DropTable dropTable = this.currentLevel.getDropTable(enemyType);
+                        if (dropTable != null) {
+                            engine.level.ItemDrop selectedDrop = dropTable.roll(
+                                    this.context.getRandom(RandomService.Stream.DROPS).nextDouble());
+                            if (selectedDrop != null) {
                                 DropItem.ItemType droppedType = DropItem.fromString(selectedDrop.getItemId());
                                 if (droppedType != null) {
                                     final int ITEM_DROP_SPEED = 2;
 
-                                    DropItem newDropItem = ItemPool.getItem(
+                                    DropItem newDropItem = this.context.getItemPool().getItem(
                                             enemyShip.getPositionX() + enemyShip.getWidth() / 2,
                                             enemyShip.getPositionY() + enemyShip.getHeight() / 2,
                                             ITEM_DROP_SPEED,
@@ -681,6 +758,7 @@ public class GameScreen extends Screen {
                         this.coin += (pts / 10);
                         this.shipsDestroyed++;
                         this.enemyShipSpecialFormation.destroy(enemyShipSpecial);
+                        explode(enemyShipSpecial, ENEMY_EXPLOSION_PARTICLES);
                         recyclable.add(bullet);
                     }
                 if (this.omegaBoss != null
@@ -693,7 +771,9 @@ public class GameScreen extends Screen {
                         addPointsFor(bullet, pts);
                         this.coin += (pts / 10);
                         this.omegaBoss.destroy();
-                        AchievementManager.getInstance().unlockAchievement("Boss Slayer");
+                        explode(this.omegaBoss, BOSS_EXPLOSION_PARTICLES);
+                        post(GameEventBus.Type.BOSS_PHASE, ownerOf(bullet),
+                                GameEventBus.BOSS_DEFEATED, 0, this.omegaBoss);
                         this.bossExplosionCooldown.reset();
                     }
                     recyclable.add(bullet);
@@ -707,13 +787,15 @@ public class GameScreen extends Screen {
                         addPointsFor(bullet, pts);
                         this.coin += (pts / 10);
                         this.finalBoss.destroy();
-                        AchievementManager.getInstance().unlockAchievement("Boss Slayer");
+                        explode(this.finalBoss, BOSS_EXPLOSION_PARTICLES);
+                        post(GameEventBus.Type.BOSS_PHASE, ownerOf(bullet),
+                                GameEventBus.BOSS_DEFEATED, 0, this.finalBoss);
                     }
                     recyclable.add(bullet);
                 }
             }
         this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+        this.context.getBulletPool().recycle(recyclable);
     }
 
     /**
@@ -728,11 +810,11 @@ public class GameScreen extends Screen {
             for (EnemyShip enemyShip : this.enemyShipFormation) {
                 if (!enemyShip.isDestroyed() && checkCollision(this.ship, enemyShip)) {
                     this.enemyShipFormation.destroy(enemyShip);
+                    explode(enemyShip, ENEMY_EXPLOSION_PARTICLES);
                     this.ship.destroy();
+                    shatter(this.ship);
                     this.livesP1--;
-                    showHealthPopup("-1 Life (Collision!)");
-                    this.logger.info("Ship collided with enemy! " + this.livesP1
-                            + " lives remaining.");
+                    postHit(this.ship, this.livesP1, GameEventBus.HIT_ENEMY);
                     return;
                 }
             }
@@ -742,11 +824,11 @@ public class GameScreen extends Screen {
                 if (enemyShipSpecial != null && !enemyShipSpecial.isDestroyed()
                         && checkCollision(this.ship, enemyShipSpecial)) {
                     enemyShipSpecial.destroy();
+                    explode(enemyShipSpecial, ENEMY_EXPLOSION_PARTICLES);
                     this.ship.destroy();
+                    shatter(this.ship);
                     this.livesP1--;
-                    showHealthPopup("-1 Life (Collision!)");
-                    this.logger.info("Ship collided with special enemy formation! "
-                            + this.livesP1 + " lives remaining.");
+                    postHit(this.ship, this.livesP1, GameEventBus.HIT_ENEMY);
                     return;
                 }
             }
@@ -754,10 +836,9 @@ public class GameScreen extends Screen {
             if (this.omegaBoss != null && !this.omegaBoss.isDestroyed()
                     && checkCollision(this.ship, this.omegaBoss)) {
                 this.ship.destroy();
+                shatter(this.ship);
                 this.livesP1--;
-                showHealthPopup("-1 Life (Boss Collision!)");
-                this.logger.info("Ship collided with omega boss! " + this.livesP1
-                        + " lives remaining.");
+                postHit(this.ship, this.livesP1, GameEventBus.HIT_BOSS);
                 return;
             }
 
@@ -765,10 +846,9 @@ public class GameScreen extends Screen {
             if (this.finalBoss != null && !this.finalBoss.isDestroyed()
                     && checkCollision(this.ship, this.finalBoss)) {
                 this.ship.destroy();
+                shatter(this.ship);
                 this.livesP1--;
-                showHealthPopup("-1 Life (Boss Collision!)");
-                this.logger.info("Ship collided with final boss! " + this.livesP1
-                        + " lives remaining.");
+                postHit(this.ship, this.livesP1, GameEventBus.HIT_BOSS);
                 return;
             }
         }
@@ -780,11 +860,11 @@ public class GameScreen extends Screen {
             for (EnemyShip enemyShip : this.enemyShipFormation) {
                 if (!enemyShip.isDestroyed() && checkCollision(this.shipP2, enemyShip)) {
                     this.enemyShipFormation.destroy(enemyShip);
+                    explode(enemyShip, ENEMY_EXPLOSION_PARTICLES);
                     this.shipP2.destroy();
+                    shatter(this.shipP2);
                     this.livesP2--;
-                    showHealthPopup("-1 Life (Collision!)");
-                    this.logger.info("Ship P2 collided with enemy! " + this.livesP2
-                            + " lives remaining.");
+                    postHit(this.shipP2, this.livesP2, GameEventBus.HIT_ENEMY);
                     return;
                 }
             }
@@ -794,11 +874,11 @@ public class GameScreen extends Screen {
                 if (enemyShipSpecial != null && !enemyShipSpecial.isDestroyed()
                         && checkCollision(this.shipP2, enemyShipSpecial)) {
                     enemyShipSpecial.destroy();
+                    explode(enemyShipSpecial, ENEMY_EXPLOSION_PARTICLES);
                     this.shipP2.destroy();
+                    shatter(this.shipP2);
                     this.livesP2--;
-                    showHealthPopup("-1 Life (Collision!)");
-                    this.logger.info("Ship P2 collided with special enemy formation! "
-                            + this.livesP2 + " lives remaining.");
+                    postHit(this.shipP2, this.livesP2, GameEventBus.HIT_ENEMY);
                     return;
                 }
             }
@@ -807,10 +887,9 @@ public class GameScreen extends Screen {
             if (this.omegaBoss != null && !this.omegaBoss.isDestroyed()
                     && checkCollision(this.shipP2, this.omegaBoss)) {
                 this.shipP2.destroy();
+                shatter(this.shipP2);
                 this.livesP2--;
-                showHealthPopup("-1 Life (Boss Collision!)");
-                this.logger.info("Ship P2 collided with omega boss! " + this.livesP2
-                        + " lives remaining.");
+                postHit(this.shipP2, this.livesP2, GameEventBus.HIT_BOSS);
                 return;
             }
 
@@ -818,10 +897,9 @@ public class GameScreen extends Screen {
             if (this.finalBoss != null && !this.finalBoss.isDestroyed()
                     && checkCollision(this.shipP2, this.finalBoss)) {
                 this.shipP2.destroy();
+                shatter(this.shipP2);
                 this.livesP2--;
-                showHealthPopup("-1 Life (Boss Collision!)");
-                this.logger.info("Ship P2 collided with final boss! " + this.livesP2
-                        + " lives remaining.");
+                postHit(this.shipP2, this.livesP2, GameEventBus.HIT_BOSS);
                 return;
             }
         }
@@ -945,10 +1023,7 @@ public class GameScreen extends Screen {
             for (DropItem dropItem : this.dropItems) {
 
                 if (this.livesP1 > 0 && !this.ship.isDestroyed() && checkCollision(this.ship, dropItem)) {
-                    this.logger.info("Player acquired dropItem: " + dropItem.getItemType());
-
-                    // Add item to HUD display
-                    ItemHUDManager.getInstance().addDroppedItem(dropItem.getItemType());
+                    post(GameEventBus.Type.ITEM_PICKED, 1, dropItem.getItemType().ordinal(), 0, dropItem);
 
                     switch (dropItem.getItemType()) {
                         case Heal:
@@ -958,7 +1033,7 @@ public class GameScreen extends Screen {
                             ship.activateInvincibility(5000); // 5 seconds of invincibility
                             break;
                         case Stop:
-                            DropItem.applyTimeFreezeItem(3000);
+                            this.context.applyTimeFreeze(3000);
                             break;
                         case Push:
                             DropItem.PushbackItem(this.enemyShipFormation,20);
@@ -979,10 +1054,7 @@ public class GameScreen extends Screen {
                     acquiredDropItems.add(dropItem);
                 } else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed()
                         && checkCollision(this.shipP2, dropItem)) {
-                    this.logger.info("Player acquired dropItem: " + dropItem.getItemType());
-
-                    // Add item to HUD display
-                    ItemHUDManager.getInstance().addDroppedItem(dropItem.getItemType());
+                    post(GameEventBus.Type.ITEM_PICKED, 2, dropItem.getItemType().ordinal(), 0, dropItem);
 
                     switch (dropItem.getItemType()) {
                         case Heal:
@@ -992,7 +1064,7 @@ public class GameScreen extends Screen {
                             shipP2.activateInvincibility(5000); // 5 seconds of invincibility
                             break;
                         case Stop:
-                            DropItem.applyTimeFreezeItem(3000);
+                            this.context.applyTimeFreeze(3000);
                             break;
                         case Push:
                             DropItem.PushbackItem(this.enemyShipFormation,20);
@@ -1014,11 +1086,131 @@ public class GameScreen extends Screen {
                 }
             }
             this.dropItems.removeAll(acquiredDropItems);
-            ItemPool.recycle(acquiredDropItems);
+            this.context.getItemPool().recycle(acquiredDropItems);
         }
     }
 
 
+    /**
+     * Starts a collision pass.
+     *
+     * @return Event of the pass.
+     */
+    private CollisionPassEvent startPass() {
+        this.collisionPairs = 0;
+        CollisionPassEvent event = new CollisionPassEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends a collision pass, recording it if flight recording asks for it.
+     */
+    private void endPass(final CollisionPassEvent event, final String name) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.pass = name;
+            event.pairs = this.collisionPairs;
+            event.commit();
+        }
+    }
+
+    /**
+     * Posts an event of the tick at the center of an entity.
+     */
+    private void post(final GameEventBus.Type type, final int player,
+            final int value, final int detail, final Entity entity) {
+        this.context.getEventBus().post(type, player, value, detail,
+                entity.getPositionX() + entity.getWidth() / 2,
+                entity.getPositionY() + entity.getHeight() / 2);
+    }
+
+    /**
+     * Posts the loss of a life of a player ship.
+     */
+    private void postHit(final Ship playerShip, final int livesLeft, final int cause) {
+        post(GameEventBus.Type.PLAYER_HIT, playerShip.getPlayerId(), livesLeft, cause, playerShip);
+    }
+
+    /**
+     * Gets the player who fired a bullet, 0 if unknown.
+     */
+    private static int ownerOf(final Bullet bullet) {
+        Integer owner = bullet.getOwnerId();
+        return owner != null ? owner : 0;
+    }
+
+    /**
+     * Logs the items picked and the lives lost during a tick, and shows the
+     * popup of the lives lost.
+     */
+    private void onEvents(final GameEventBus events) {
+        for (int i = 0; i < events.size(); i++) {
+            switch (events.getType(i)) {
+                case ITEM_PICKED:
+                    this.logger.info("Player acquired dropItem: " + ITEM_TYPES[events.getValue(i)]);
+                    break;
+                case PLAYER_HIT:
+                    String who = events.getPlayer(i) == 2 ? "Ship P2" : "Ship";
+                    int lives = events.getValue(i);
+                    switch (events.getDetail(i)) {
+                        case GameEventBus.HIT_ENEMY:
+                            showHealthPopup("-1 Life (Collision!)");
+                            this.logger.info(who + " collided with enemy! " + lives
+                                    + " lives remaining.");
+                            break;
+                        case GameEventBus.HIT_BOSS:
+                            showHealthPopup("-1 Life (Boss Collision!)");
+                            this.logger.info(who + " collided with boss! " + lives
+                                    + " lives remaining.");
+                            break;
+                        default:
+                            showHealthPopup("-1 Health");
+                            this.logger.info("Hit on player ship, " + lives
+                                    + " lives remaining.");
+                            break;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Emits an explosion at the center of an entity, in its color.
+     */
+    private void explode(final Entity entity, final int amount) {
+        this.particles.emitExplosion(
+                entity.getPositionX() + entity.getWidth() / 2f,
+                entity.getPositionY() + entity.getHeight() / 2f,
+                entity.getColor().getRGB() & 0xFFFFFF, amount);
+    }
+
+    /**
+     * Throws debris from a destroyed player ship.
+     */
+    private void shatter(final Ship playerShip) {
+        this.particles.emitDebris(
+                playerShip.getPositionX() + playerShip.getWidth() / 2f,
+                playerShip.getPositionY() + playerShip.getHeight() / 2f,
+                playerShip.getColor().getRGB() & 0xFFFFFF, SHIP_DEBRIS_PARTICLES);
+    }
+
+    /**
+     * Emits the exhaust of every player ship still flying.
+     */
+    private void emitThrusters() {
+        if (this.livesP1 > 0 && !this.ship.isDestroyed())
+            this.particles.emitThruster(
+                    this.ship.getPositionX() + this.ship.getWidth() / 2f,
+                    this.ship.getPositionY() + this.ship.getHeight(), THRUSTER_COLOR);
+        if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed())
+            this.particles.emitThruster(
+                    this.shipP2.getPositionX() + this.shipP2.getWidth() / 2f,
+                    this.shipP2.getPositionY() + this.shipP2.getHeight(), THRUSTER_COLOR);
+    }
+
     /**
      * Checks if two entities are colliding.
      *
@@ -1029,6 +1221,7 @@ public class GameScreen extends Screen {
      * @return Result of the collision test.
      */
     private boolean checkCollision(final Entity a, final Entity b) {
+        this.collisionPairs++;
         // Calculate center point of the entities in both axis.
         int centerAX = a.getPositionX() + a.getWidth() / 2;
         int centerAY = a.getPositionY() + a.getHeight() / 2;
@@ -1052,8 +1245,7 @@ public class GameScreen extends Screen {
      */
     public void showAchievement(String message) {
         this.achievementText = message;
-        this.achievementPopupCooldown = Core.getCooldown(2500); // Show for 2.5 seconds
-        this.achievementPopupCooldown.reset();
+        this.context.getScheduler().schedule(this.achievementPopupTimer, 2500); // Show for 2.5 seconds
     }
 
     /**
@@ -1065,8 +1257,7 @@ public class GameScreen extends Screen {
 
     public void showHealthPopup(String message) {
         this.healthPopupText = message;
-        this.healthPopupCooldown = Core.getCooldown(500);
-        this.healthPopupCooldown.reset();
+        this.context.getScheduler().schedule(this.healthPopupTimer, 500);
     }
 
     /**
@@ -1075,9 +1266,7 @@ public class GameScreen extends Screen {
      * @return Current game state.
      */
     public final GameState getGameState() {
-        if (this.coin > 2000) {
-            AchievementManager.getInstance().unlockAchievement("Mr. Greedy");
-        }
+        this.context.getAchievementManager().onCoins(this.coin);
         return new GameState(this.level, this.score, this.livesP1,this.livesP2,
                 this.bulletsShot, this.shipsDestroyed,this.coin);
     }
@@ -1107,14 +1296,17 @@ public class GameScreen extends Screen {
         this.logger.info("Spawning boss: " + bossName);
         switch (bossName) {
             case "finalBoss":
-                this.finalBoss = new FinalBoss(this.width / 2 - 50, 50, this.width, this.height);
+                this.finalBoss = new FinalBoss(this.width / 2 - 50, 50, this.width, this.height,
+                        this.context);
                 this.logger.info("Final Boss has spawned!");
+                post(GameEventBus.Type.BOSS_PHASE, 0, GameEventBus.BOSS_SPAWNED, 0, this.finalBoss);
                 break;
             case "omegaBoss":
             case "omegaAndFinal":
                 this.omegaBoss = new OmegaBoss(Color.ORANGE, ITEMS_SEPARATION_LINE_HEIGHT);
                 omegaBoss.attach(this);
                 this.logger.info("Omega Boss has spawned!");
+                post(GameEventBus.Type.BOSS_PHASE, 0, GameEventBus.BOSS_SPAWNED, 0, this.omegaBoss);
                 break;
             default:
                 this.logger.warning("Unknown bossId: " + bossName);
@@ -1136,6 +1328,7 @@ public class GameScreen extends Screen {
                     bossBullets.clear();
                     is_cleared = true;
                     logger.info("boss is angry");
+                    post(GameEventBus.Type.BOSS_PHASE, 0, GameEventBus.BOSS_ENRAGED, 0, this.finalBoss);
                 } else {
                     bossBullets.addAll(this.finalBoss.shoot3());
                 }
@@ -1155,16 +1348,18 @@ public class GameScreen extends Screen {
                 else if (this.livesP1 > 0 && this.checkCollision(b, this.ship)) {
                     if (!this.ship.isDestroyed()) {
                         this.ship.destroy();
+                        shatter(this.ship);
                         this.livesP1--;
-                        this.logger.info("Hit on player ship, " + this.livesP1 + " lives remaining.");
+                        postHit(this.ship, this.livesP1, GameEventBus.HIT_BULLET);
                     }
                     bulletsToRemove.add(b);
                 }
                 else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed() && this.checkCollision(b, this.shipP2)) {
                     if (!this.shipP2.isDestroyed()) {
                         this.shipP2.destroy();
+                        shatter(this.shipP2);
                         this.livesP2--;
-                        this.logger.info("Hit on player ship, " + this.livesP2 + " lives remaining.");
+                        postHit(this.shipP2, this.livesP2, GameEventBus.HIT_BULLET);
                     }
                     bulletsToRemove.add(b);
                 }
@@ -1175,7 +1370,7 @@ public class GameScreen extends Screen {
         }
         if (this.finalBoss != null && this.finalBoss.isDestroyed()) {
             this.levelFinished = true;
-            this.screenFinishedCooldown.reset();
+            scheduleScreenChange();
         }
     }
 }
\ No newline at end of file
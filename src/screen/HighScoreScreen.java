@@ -1,11 +1,11 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import java.io.IOException;
 import java.util.List;
 
-import engine.Core;
+import engine.Leaderboard;
 import engine.Score;
+import net.LeaderboardClient;
 
 /**
  * Implements the high scores screen, it shows player records.
@@ -15,8 +15,13 @@ import engine.Score;
  */
 public class HighScoreScreen extends Screen {
 
+	/** Number of high scores shown. */
+	private static final int MAX_HIGH_SCORE_NUM = 7;
+
 	/** List of past high scores. */
 	private List<Score> highScores;
+	/** Version of the online high scores shown, -1 if local ones are. */
+	private int onlineVersion;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -33,10 +38,23 @@ public class HighScoreScreen extends Screen {
 
 		this.returnCode = 1;
 
-		try {
-			this.highScores = Core.getFileManager().loadHighScores();
-		} catch (NumberFormatException | IOException e) {
-			logger.warning("Couldn't load high scores!");
+		this.highScores = Leaderboard.getInstance().getTop(MAX_HIGH_SCORE_NUM);
+		this.onlineVersion = -1;
+		updateOnlineScores();
+	}
+
+	/**
+	 * Shows the online high scores instead of the local ones once they have
+	 * been fetched.
+	 */
+	private void updateOnlineScores() {
+		LeaderboardClient client = LeaderboardClient.getInstance();
+		if (!client.isEnabled() || client.getTopVersion() == this.onlineVersion)
+			return;
+		List<Score> online = client.getTop(MAX_HIGH_SCORE_NUM);
+		if (!online.isEmpty()) {
+			this.highScores = online;
+			this.onlineVersion = client.getTopVersion();
 		}
 	}
 
@@ -57,6 +75,7 @@ public class HighScoreScreen extends Screen {
 	protected final void update() {
 		super.update();
 
+		updateOnlineScores();
 		draw();
 		if (inputManager.isKeyDown(KeyEvent.VK_SPACE)
 				&& this.inputDelay.checkFinished())
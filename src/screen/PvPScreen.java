@@ -2,86 +2,127 @@ package screen;
 
 import java.awt.Color;
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 
+import audio.SoundManager;
 import engine.Cooldown;
 import engine.Core;
+import engine.GameContext;
+import engine.PvPState;
 import engine.ShipColorManager;
 import entity.Bullet;
-import entity.BulletPool;
-import entity.Entity;
 import entity.Ship;
+import net.RollbackSession;
+import net.UdpTransport;
 
 /**
  * Duel PvP screen: two human players face each other with three lives.
+ *
+ * Both players share the keyboard, unless the system property
+ * invaders.pvp.peer is set to the host:port of another machine, in which
+ * case the duel is played online: invaders.pvp.player picks the ship (1
+ * bottom, 2 top), invaders.pvp.port the local port and invaders.pvp.delay
+ * the input delay in frames.
  */
 public class PvPScreen extends Screen {
 
-    private static final int MAX_LIVES = 3;
     private static final int ROUND_END_DELAY = 2000;
-
-    /** Player at the bottom (uses P1 controls). */
+    /** Default local port of online duels. */
+    private static final int DEFAULT_PORT = 47000;
+    /** Default input delay of online duels, in frames. */
+    private static final int DEFAULT_INPUT_DELAY = 2;
+
+    /** Session whose upgrades the local duel uses. */
+    private GameContext context;
+    /** Duel being played. */
+    private PvPState state;
+    /** Online duel, null when both players share the keyboard. */
+    private RollbackSession session;
+    /** Link to the other player of an online duel. */
+    private UdpTransport transport;
+
+    /** Player at the bottom (uses P1 controls), drawn at the duel position. */
     private Ship playerBottom;
-    /** Player at the top (uses P2 controls). */
+    /** Player at the top (uses P2 controls), drawn at the duel position. */
     private Ship playerTop;
+    /** Drawn at the position of every bullet. */
+    private Bullet bulletSprite;
 
-    private int livesBottom = MAX_LIVES;
-    private int livesTop = MAX_LIVES;
-
-    private Set<Bullet> bullets;
+    /** Lives shown last frame, to play the hit effects. */
+    private int[] shownLives;
+    /** Shots shown last frame, to play the shot sounds. */
+    private int[] shownShots;
 
     private boolean matchOver;
     private String winnerText;
     private Cooldown roundEndCooldown;
 
-    /** Vertical boundaries so each ship stays in its half. */
-    private int topZoneBottom;
-    private int bottomZoneTop;
-
     /**
      * Constructor.
      */
-    public PvPScreen(final int width, final int height, final int fps) {
+    public PvPScreen(final GameContext context, final int width, final int height, final int fps) {
         super(width, height, fps);
+        this.context = context;
+        this.inputManager = context.getInputManager();
         this.returnCode = 1; // Return to title screen when finished.
     }
 
     @Override
     public void initialize() {
         super.initialize();
-        this.bullets = new HashSet<>();
         this.matchOver = false;
         this.roundEndCooldown = Core.getCooldown(ROUND_END_DELAY);
 
-        // Define the halves of the arena.
-        this.topZoneBottom = this.height / 2 - 40;
-        this.bottomZoneTop = this.height / 2 + 40;
+        String peer = System.getProperty("invaders.pvp.peer");
+        if (peer != null && !peer.isEmpty()) {
+            try {
+                int separator = peer.lastIndexOf(':');
+                InetSocketAddress address = new InetSocketAddress(peer.substring(0, separator),
+                        Integer.parseInt(peer.substring(separator + 1)));
+                this.transport = new UdpTransport(Integer.getInteger("invaders.pvp.port", DEFAULT_PORT), address);
+                this.state = PvPState.standard(this.width, this.height, this.fps);
+                int localShip = Integer.getInteger("invaders.pvp.player", 1) == 2 ? 1 : 0;
+                this.session = new RollbackSession(this.state, this.transport, localShip,
+                        Integer.getInteger("invaders.pvp.delay", DEFAULT_INPUT_DELAY));
+                this.logger.info("Online duel with " + address + " as player " + (localShip + 1) + ".");
+            } catch (IOException | RuntimeException e) {
+                this.logger.warning("Couldn't start the online duel, playing locally: " + e.getMessage());
+                closeTransport();
+                this.session = null;
+            }
+        }
+        if (this.session == null)
+            this.state = PvPState.withUpgrades(this.context.getShopItem(), this.width, this.height, this.fps);
 
         ShipColorManager colorManager = ShipColorManager.getInstance();
 
-        this.playerBottom = new Ship(this.width / 2 - 26, this.height - 100, colorManager.getSelectedColor());
+        this.playerBottom = new Ship(this.context, this.state.getShipX(0), this.state.getShipY(0), colorManager.getSelectedColor());
         this.playerBottom.setPlayerId(1);
-        this.playerBottom.setShootsUpwards(true);
-
-        this.playerTop = new Ship(this.width / 2 - 26, 80, Color.PINK);
+        this.playerTop = new Ship(this.context, this.state.getShipX(1), this.state.getShipY(1), Color.PINK);
         this.playerTop.setPlayerId(2);
-        this.playerTop.setShootsUpwards(false); // Fire downwards.
-        
-        // Reset shooting cooldowns to prevent immediate shots when entering PvP mode
-        // This is done by attempting a shoot (which will reset the cooldown) but the inputDelay
-        // will prevent any actual shooting until the delay is finished
+        this.bulletSprite = new Bullet(0, 0, 0);
+
+        this.shownLives = new int[] { this.state.getLives(0), this.state.getLives(1) };
+        this.shownShots = new int[2];
     }
 
     @Override
     public int run() {
         super.run();
+        closeTransport();
         return this.returnCode;
     }
 
+    @Override
+    public boolean isBroadcast() {
+        return true;
+    }
+
     @Override
     protected void update() {
         super.update();
+        this.context.tick();
 
         if (matchOver) {
             draw();
@@ -93,120 +134,73 @@ public class PvPScreen extends Screen {
 
         // Only handle input after the input delay to prevent accidental shots when entering PvP mode
         boolean readyForInput = this.inputDelay.checkFinished();
-        if (readyForInput) {
-            handlePlayerInput();
-        }
-        updateBullets();
-        draw();
-    }
-
-    private void handlePlayerInput() {
-        // Bottom player (P1)
-        if (this.livesBottom > 0 && !this.playerBottom.isDestroyed()) {
-            boolean right = inputManager.isP1KeyDown(KeyEvent.VK_D);
-            boolean left = inputManager.isP1KeyDown(KeyEvent.VK_A);
-            boolean up = inputManager.isP1KeyDown(KeyEvent.VK_W);
-            boolean down = inputManager.isP1KeyDown(KeyEvent.VK_S);
-            boolean fire = inputManager.isP1KeyDown(KeyEvent.VK_SPACE);
-
-            if (right && this.playerBottom.getPositionX() + this.playerBottom.getWidth() + this.playerBottom.getSpeed() < this.width - 10) {
-                this.playerBottom.moveRight();
-            }
-            if (left && this.playerBottom.getPositionX() - this.playerBottom.getSpeed() > 10) {
-                this.playerBottom.moveLeft();
-            }
-            if (up && this.playerBottom.getPositionY() - this.playerBottom.getSpeed() > this.bottomZoneTop) {
-                this.playerBottom.moveUp();
-            }
-            if (down && this.playerBottom.getPositionY() + this.playerBottom.getHeight() + this.playerBottom.getSpeed() < this.height - 30) {
-                this.playerBottom.moveDown();
-            }
-            if (fire) {
-                this.playerBottom.shoot(this.bullets);
+        if (this.session == null) {
+            this.state.step(readyForInput ? readBottomInput() : 0,
+                    readyForInput ? readTopInput() : 0);
+        } else {
+            try {
+                this.session.advance(readyForInput ? readBottomInput() | readTopInput() : 0);
+            } catch (IOException e) {
+                this.logger.warning("Online duel lost: " + e.getMessage());
+                this.isRunning = false;
+                return;
             }
         }
 
-        // Top player (P2)
-        if (this.livesTop > 0 && !this.playerTop.isDestroyed()) {
-            boolean right = inputManager.isP2KeyDown(KeyEvent.VK_RIGHT);
-            boolean left = inputManager.isP2KeyDown(KeyEvent.VK_LEFT);
-            boolean up = inputManager.isP2KeyDown(KeyEvent.VK_UP);
-            boolean down = inputManager.isP2KeyDown(KeyEvent.VK_DOWN);
-            boolean fire = inputManager.isP2KeyDown(KeyEvent.VK_ENTER);
-
-            if (right && this.playerTop.getPositionX() + this.playerTop.getWidth() + this.playerTop.getSpeed() < this.width - 10) {
-                this.playerTop.moveRight();
-            }
-            if (left && this.playerTop.getPositionX() - this.playerTop.getSpeed() > 10) {
-                this.playerTop.moveLeft();
-            }
-            if (up && this.playerTop.getPositionY() - this.playerTop.getSpeed() > 30) {
-                this.playerTop.moveUp();
-            }
-            if (down && this.playerTop.getPositionY() + this.playerTop.getHeight() + this.playerTop.getSpeed() < this.topZoneBottom) {
-                this.playerTop.moveDown();
-            }
-            if (fire) {
-                this.playerTop.shoot(this.bullets);
-            }
+        showEffects();
+        // An online win is only final once the inputs leading to it are known.
+        if (this.state.getWinner() != 0 && (this.session == null
+                || this.session.getConfirmedTick() >= this.session.getTick() - 1)) {
+            declareWinner("Player " + this.state.getWinner() + " wins!");
         }
-
-        this.playerBottom.update();
-        this.playerTop.update();
+        draw();
     }
 
-    private void updateBullets() {
-        Set<Bullet> recyclable = new HashSet<>();
-
-        for (Bullet bullet : this.bullets) {
-            bullet.update();
-
-            if (bullet.getPositionY() < 0 || bullet.getPositionY() > this.height) {
-                recyclable.add(bullet);
-                continue;
-            }
-
-            Integer owner = bullet.getOwnerId();
-            if (owner != null && owner == 1) {
-                // Shot by bottom player; can hit top.
-                if (this.livesTop > 0 && !this.playerTop.isDestroyed() && checkCollision(bullet, this.playerTop)) {
-                    handleHitOnTop(bullet, recyclable);
-                }
-            } else if (owner != null && owner == 2) {
-                if (this.livesBottom > 0 && !this.playerBottom.isDestroyed() && checkCollision(bullet, this.playerBottom)) {
-                    handleHitOnBottom(bullet, recyclable);
-                }
-            }
-        }
+    /**
+     * Reads the input of the bottom player (P1 controls).
+     */
+    private int readBottomInput() {
+        return readInput(inputManager.isP1KeyDown(KeyEvent.VK_A), inputManager.isP1KeyDown(KeyEvent.VK_D),
+                inputManager.isP1KeyDown(KeyEvent.VK_W), inputManager.isP1KeyDown(KeyEvent.VK_S),
+                inputManager.isP1KeyDown(KeyEvent.VK_SPACE));
+    }
 
-        this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+    /**
+     * Reads the input of the top player (P2 controls).
+     */
+    private int readTopInput() {
+        return readInput(inputManager.isP2KeyDown(KeyEvent.VK_LEFT), inputManager.isP2KeyDown(KeyEvent.VK_RIGHT),
+                inputManager.isP2KeyDown(KeyEvent.VK_UP), inputManager.isP2KeyDown(KeyEvent.VK_DOWN),
+                inputManager.isP2KeyDown(KeyEvent.VK_ENTER));
     }
 
-    private void handleHitOnTop(final Bullet bullet, final Set<Bullet> recyclable) {
-        if (!this.playerTop.isInvincible()) {
-            this.playerTop.destroy();
-            this.livesTop--;
-            if (this.livesTop <= 0) {
-                declareWinner("Player 1 wins!");
-            }
-        }
-        if (!bullet.penetration()) {
-            recyclable.add(bullet);
-        }
+    private static int readInput(final boolean left, final boolean right, final boolean up,
+                                 final boolean down, final boolean fire) {
+        return (left ? PvPState.INPUT_LEFT : 0) | (right ? PvPState.INPUT_RIGHT : 0)
+                | (up ? PvPState.INPUT_UP : 0) | (down ? PvPState.INPUT_DOWN : 0)
+                | (fire ? PvPState.INPUT_FIRE : 0);
     }
 
-    private void handleHitOnBottom(final Bullet bullet, final Set<Bullet> recyclable) {
-        if (!this.playerBottom.isInvincible()) {
-            this.playerBottom.destroy();
-            this.livesBottom--;
-            if (this.livesBottom <= 0) {
-                declareWinner("Player 2 wins!");
+    /**
+     * Plays the sounds of the shots and hits since the last frame, and
+     * shows hit ships as destroyed.
+     */
+    private void showEffects() {
+        for (int i = 0; i < 2; i++) {
+            int shots = this.state.getShots(i);
+            if (shots > this.shownShots[i]) {
+                SoundManager.stop("sfx/laser.wav");
+                SoundManager.play("sfx/laser.wav");
             }
+            this.shownShots[i] = shots;
+
+            int lives = this.state.getLives(i);
+            if (lives < this.shownLives[i])
+                (i == 0 ? this.playerBottom : this.playerTop).destroy();
+            this.shownLives[i] = lives;
         }
-        if (!bullet.penetration()) {
-            recyclable.add(bullet);
-        }
+        this.playerBottom.update();
+        this.playerTop.update();
     }
 
     private void declareWinner(final String text) {
@@ -216,28 +210,44 @@ public class PvPScreen extends Screen {
         this.roundEndCooldown.reset();
     }
 
+    private void closeTransport() {
+        if (this.transport == null) return;
+        try {
+            this.transport.close();
+        } catch (IOException e) {
+            this.logger.warning("Couldn't close the online duel: " + e.getMessage());
+        }
+        this.transport = null;
+    }
+
     private void draw() {
         drawManager.initDrawing(this);
 
         // Arena divider.
         drawManager.drawHorizontalLine(this, this.height / 2);
 
-        if (this.livesBottom > 0) {
-            drawManager.drawEntity(this.playerBottom, this.playerBottom.getPositionX(), this.playerBottom.getPositionY());
+        if (this.state.getLives(0) > 0) {
+            drawManager.drawEntity(this.playerBottom, this.state.getShipX(0), this.state.getShipY(0));
         }
 
-        if (this.livesTop > 0) {
-            drawManager.drawEntity(this.playerTop, this.playerTop.getPositionX(), this.playerTop.getPositionY());
+        if (this.state.getLives(1) > 0) {
+            drawManager.drawEntity(this.playerTop, this.state.getShipX(1), this.state.getShipY(1));
         }
 
-        for (Bullet bullet : this.bullets) {
-            drawManager.drawEntity(bullet, bullet.getPositionX(), bullet.getPositionY());
+        for (int i = 0; i < this.state.getBulletCount(); i++) {
+            this.bulletSprite.setSpeed(this.state.getBulletSpeed(i));
+            this.bulletSprite.setSprite();
+            drawManager.drawEntity(this.bulletSprite, this.state.getBulletX(i), this.state.getBulletY(i));
         }
 
-        drawManager.drawLives(this, this.livesBottom);
-        drawManager.drawLivesP2(this, this.livesTop);
+        drawManager.drawLives(this, this.state.getLives(0));
+        drawManager.drawLivesP2(this, this.state.getLives(1));
 
-        drawManager.drawCenteredRegularString(this, "PvP Mode - WASD + SPACE vs. ARROWS + ENTER", 70);
+        if (this.session == null) {
+            drawManager.drawCenteredRegularString(this, "PvP Mode - WASD + SPACE vs. ARROWS + ENTER", 70);
+        } else if (!this.session.isConnected()) {
+            drawManager.drawCenteredRegularString(this, "Waiting for the other player...", this.height / 2 - 20);
+        }
 
         if (this.matchOver && this.winnerText != null) {
             drawManager.drawGameOver(this, false, false);
@@ -246,21 +256,4 @@ public class PvPScreen extends Screen {
 
         drawManager.completeDrawing(this);
     }
-
-    private boolean checkCollision(final Entity a, final Entity b) {
-        int centerAX = a.getPositionX() + a.getWidth() / 2;
-        int centerAY = a.getPositionY() + a.getHeight() / 2;
-        int centerBX = b.getPositionX() + b.getWidth() / 2;
-        int centerBY = b.getPositionY() + b.getHeight() / 2;
-
-        int maxDistanceX = a.getWidth() / 2 + b.getWidth() / 2;
-        int maxDistanceY = a.getHeight() / 2 + b.getHeight() / 2;
-
-        int distanceX = Math.abs(centerAX - centerBX);
-        int distanceY = Math.abs(centerAY - centerBY);
-
-        return distanceX < maxDistanceX && distanceY < maxDistanceY;
-    }
 }
-
-
@@ -1,14 +1,14 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
 import engine.Cooldown;
 import engine.Core;
+import engine.GameMode;
 import engine.GameState;
+import engine.Leaderboard;
 import engine.Score;
+import net.LeaderboardClient;
 
 /**
  * Implements the score screen.
@@ -35,8 +35,8 @@ public class ScoreScreen extends Screen {
 	private int bulletsShot;
 	/** Total ships destroyed by the player. */
 	private int shipsDestroyed;
-	/** List of past high scores. */
-	private List<Score> highScores;
+	/** Level the game ended in. */
+	private int level;
 	/** Checks if current score is a new high score. */
 	private boolean isNewRecord;
 	/** Player name for record input. */
@@ -66,22 +66,14 @@ public class ScoreScreen extends Screen {
 		this.livesRemaining = gameState.getLivesRemaining();
 		this.bulletsShot = gameState.getBulletsShot();
 		this.shipsDestroyed = gameState.getShipsDestroyed();
-		this.isNewRecord = false;
+		this.level = gameState.getLevel();
 		this.name = "AAA".toCharArray();
 		this.nameCharSelected = 0;
 		this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
 		this.selectionCooldown.reset();
 
-		try {
-			this.highScores = Core.getFileManager().loadHighScores();
-			if (highScores.size() < MAX_HIGH_SCORE_NUM
-					|| highScores.get(highScores.size() - 1).getScore()
-					< this.score)
-				this.isNewRecord = true;
-
-		} catch (IOException e) {
-			logger.warning("Couldn't load high scores!");
-		}
+		this.isNewRecord = Leaderboard.getInstance().getRank(this.score)
+				<= MAX_HIGH_SCORE_NUM;
 	}
 
 	/**
@@ -107,14 +99,12 @@ public class ScoreScreen extends Screen {
 				// Return to main menu.
 				this.returnCode = 1;
 				this.isRunning = false;
-				if (this.isNewRecord)
-					saveScore();
+				saveScore();
 			} else if (inputManager.isKeyDown(KeyEvent.VK_SPACE)) {
 				// Play again.
 				this.returnCode = 2;
 				this.isRunning = false;
-				if (this.isNewRecord)
-					saveScore();
+				saveScore();
 			}
 
 			if (this.isNewRecord && this.selectionCooldown.checkFinished()) {
@@ -148,19 +138,18 @@ public class ScoreScreen extends Screen {
 	}
 
 	/**
-	 * Saves the score as a high score.
+	 * Saves the run in the local and online leaderboards. Every finished run
+	 * is saved, the name only being asked for new records.
 	 */
 	private void saveScore() {
-		highScores.add(new Score(new String(this.name), score));
-		Collections.sort(highScores);
-		if (highScores.size() > MAX_HIGH_SCORE_NUM)
-			highScores.remove(highScores.size() - 1);
-
-		try {
-			Core.getFileManager().saveHighScores(highScores);
-		} catch (IOException e) {
-			logger.warning("Couldn't load high scores!");
-		}
+		float accuracy = this.bulletsShot == 0 ? 0f
+				: (float) this.shipsDestroyed / this.bulletsShot;
+		GameMode mode = Core.isTwoPlayerGame() ? GameMode.COOP
+				: GameMode.SINGLE;
+		Score run = new Score(new String(this.name), this.score, this.level,
+				this.shipsDestroyed, this.bulletsShot, accuracy, mode);
+		Leaderboard.getInstance().submit(run);
+		LeaderboardClient.getInstance().submit(run);
 	}
 
 	/**
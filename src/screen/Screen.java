@@ -8,6 +8,7 @@ import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
 import engine.InputManager;
+import engine.jfr.FrameEvent;
 
 /**
  * Implements a generic screen.
@@ -42,6 +43,8 @@ public class Screen {
 	protected boolean isRunning;
 	/** What kind of screen goes next. */
 	protected int returnCode;
+	/** Time spent drawing in the current frame, in nanoseconds. */
+	private long drawTime;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -84,7 +87,18 @@ public class Screen {
 		while (this.isRunning) {
 			long time = System.currentTimeMillis();
 
+			FrameEvent frame = new FrameEvent();
+			frame.begin();
+			long start = System.nanoTime();
+			this.drawTime = 0;
 			update();
+			frame.end();
+			if (frame.shouldCommit()) {
+				frame.screen = getClass().getSimpleName();
+				frame.drawTime = this.drawTime;
+				frame.updateTime = System.nanoTime() - start - this.drawTime;
+				frame.commit();
+			}
 
 			time = (1000 / this.fps) - (System.currentTimeMillis() - time);
 			if (time > 0) {
@@ -105,6 +119,26 @@ public class Screen {
 	protected void update() {
 	}
 
+	/**
+	 * Adds to the time spent drawing the current frame, reported apart from
+	 * the update time in the frame events of flight recordings.
+	 * 
+	 * @param nanos
+	 *            Time spent drawing, in nanoseconds.
+	 */
+	protected final void addDrawTime(final long nanos) {
+		this.drawTime += nanos;
+	}
+
+	/**
+	 * Checks if what the screen draws is sent to spectators.
+	 * 
+	 * @return True if spectators can watch the screen.
+	 */
+	public boolean isBroadcast() {
+		return false;
+	}
+
 	/**
 	 * Getter for screen width.
 	 * 
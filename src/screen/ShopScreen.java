@@ -4,8 +4,8 @@ import java.awt.event.KeyEvent;
 import engine.Cooldown;
 import engine.Core;
 import engine.GameState;
+import engine.GameContext;
 import entity.ShopItem;
-import engine.AchievementManager;
 
 /**
  * Implements the shop screen where players can purchase item upgrades.
@@ -24,6 +24,9 @@ public class ShopScreen extends Screen {
     /** Current game state containing player's coin balance. */
     private GameState gameState;
 
+    /** Upgrades of the session, changed by purchases. */
+    private ShopItem shopItem;
+
     /** Currently selected item index. */
     private int selectedItem;
 
@@ -92,6 +95,8 @@ public class ShopScreen extends Screen {
     /**
      * Constructor, establishes the properties of the screen.
      *
+     * @param context
+     *            Session the upgrades are bought for.
      * @param gameState
      *            Current game state with player's coin balance.
      * @param width
@@ -101,11 +106,13 @@ public class ShopScreen extends Screen {
      * @param fps
      *            Frames per second, frame rate at which the game is run.
      */
-    public ShopScreen(final GameState gameState, final int width,
-                      final int height, final int fps,
+    public ShopScreen(final GameContext context, final GameState gameState,
+                      final int width, final int height, final int fps,
                       final boolean betweenLevels) {
         super(width, height, fps);
 
+        this.inputManager = context.getInputManager();
+        this.shopItem = context.getShopItem();
         this.gameState = gameState;
         this.selectedItem = 0;
         this.selectedLevel = 1;
@@ -126,7 +133,7 @@ public class ShopScreen extends Screen {
         this.logger.info("Shop screen initialized with " +
                 gameState.getCoin() + " coins. BetweenLevels=" + betweenLevels);
 
-        String recentAchievement = AchievementManager.getInstance().getRecentlyUnlocked();
+        String recentAchievement = context.getAchievementManager().getRecentlyUnlocked();
         if (recentAchievement != null) {
             this.achievementText = recentAchievement;
             this.achievementPopupCooldown = Core.getCooldown(2500);
@@ -380,15 +387,15 @@ public class ShopScreen extends Screen {
     private boolean applyUpgrade(final int itemIndex, final int level) {
         switch (itemIndex) {
             case ITEM_MULTISHOT:
-                return ShopItem.setMultiShotLevel(level);
+                return this.shopItem.setMultiShotLevel(level);
             case ITEM_RAPID_FIRE:
-                return ShopItem.setRapidFireLevel(level);
+                return this.shopItem.setRapidFireLevel(level);
             case ITEM_PENETRATION:
-                return ShopItem.setPenetrationLevel(level);
+                return this.shopItem.setPenetrationLevel(level);
             case ITEM_BULLET_SPEED:
-                return ShopItem.setBulletSpeedLevel(level);
+                return this.shopItem.setBulletSpeedLevel(level);
             case ITEM_SHIP_SPEED:
-                return ShopItem.setSHIPSPEED(level);
+                return this.shopItem.setSHIPSPEED(level);
             default:
                 return false;
         }
@@ -403,15 +410,15 @@ public class ShopScreen extends Screen {
     private int getCurrentLevel(final int itemIndex) {
         switch (itemIndex) {
             case ITEM_MULTISHOT:
-                return ShopItem.getMultiShotLevel();
+                return this.shopItem.getMultiShotLevel();
             case ITEM_RAPID_FIRE:
-                return ShopItem.getRapidFireLevel();
+                return this.shopItem.getRapidFireLevel();
             case ITEM_PENETRATION:
-                return ShopItem.getPenetrationLevel();
+                return this.shopItem.getPenetrationLevel();
             case ITEM_BULLET_SPEED:
-                return ShopItem.getBulletSpeedLevel();
+                return this.shopItem.getBulletSpeedLevel();
             case ITEM_SHIP_SPEED:
-                return ShopItem.getSHIPSpeedCOUNT() / 5; // Convert back to level
+                return this.shopItem.getSHIPSpeedCOUNT() / 5; // Convert back to level
             default:
                 return 0;
         }
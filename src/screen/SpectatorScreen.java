@@ -0,0 +1,144 @@
+package screen;
+
+import java.awt.Color;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+import engine.DrawManager;
+import engine.DrawManager.SpriteType;
+import net.Snapshot;
+import net.SpectatorClient;
+
+/**
+ * Shows a game streamed by another player, as it is played.
+ */
+public class SpectatorScreen extends Screen {
+
+	/** Sprite types, by ordinal. */
+	private static final SpriteType[] SPRITE_TYPES = SpriteType.values();
+
+	/** Receives the frames. */
+	private SpectatorClient client;
+	/** Address of the game watched. */
+	private InetSocketAddress address;
+	/** Colors by RGB value, to avoid creating them every frame. */
+	private Map<Integer, Color> colors;
+
+	/**
+	 * Constructor, establishes the properties of the screen.
+	 *
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param fps
+	 *            Frames per second, frame rate at which the game is run.
+	 * @param address
+	 *            Address of the game to watch.
+	 */
+	public SpectatorScreen(final int width, final int height, final int fps,
+			final InetSocketAddress address) {
+		super(width, height, fps);
+		this.address = address;
+		this.colors = new HashMap<Integer, Color>();
+		this.returnCode = 1;
+	}
+
+	/**
+	 * Connects to the game.
+	 */
+	public final void initialize() {
+		super.initialize();
+		this.client = new SpectatorClient(this.address);
+		this.client.start();
+	}
+
+	/**
+	 * Starts the action.
+	 *
+	 * @return Next screen code.
+	 */
+	public final int run() {
+		super.run();
+		try {
+			this.client.close();
+		} catch (IOException e) {
+			logger.warning("Couldn't close the spectator connection.");
+		}
+		return this.returnCode;
+	}
+
+	/**
+	 * Updates the elements on screen and checks for events.
+	 */
+	protected final void update() {
+		super.update();
+
+		draw();
+		if (inputManager.isKeyDown(KeyEvent.VK_ESCAPE)
+				&& this.inputDelay.checkFinished())
+			this.isRunning = false;
+	}
+
+	/**
+	 * Draws the newest frame received.
+	 */
+	private void draw() {
+		drawManager.initDrawing(this);
+
+		Snapshot frame = this.client.getLatest();
+		if (frame == null) {
+			drawManager.drawCenteredRegularString(this,
+					this.client.isConnected() ? "Waiting for the game..."
+							: "Connecting to " + this.address + "...",
+					this.height / 2);
+		} else {
+			for (int i = 0; i < frame.getSpriteCount(); i++) {
+				int type = frame.getSpriteType(i);
+				if (type < 0 || type >= SPRITE_TYPES.length)
+					continue;
+				drawManager.drawSprite(SPRITE_TYPES[type], frame.getSpriteX(i),
+						frame.getSpriteY(i), colorOf(frame.getSpriteColor(i)));
+			}
+			drawHUD(frame);
+			if (!this.client.isConnected())
+				drawManager.drawCenteredRegularString(this,
+						"The game has ended", this.height / 2);
+		}
+
+		drawManager.completeDrawing(this);
+	}
+
+	/**
+	 * Draws the HUD values of a frame.
+	 */
+	private void drawHUD(final Snapshot frame) {
+		if (frame.getHUD(DrawManager.HUD_SCORE) >= 0)
+			drawManager.drawScore(this, frame.getHUD(DrawManager.HUD_SCORE));
+		if (frame.getHUD(DrawManager.HUD_SCORE_P2) >= 0)
+			drawManager.drawScoreP2(this, frame.getHUD(DrawManager.HUD_SCORE_P2));
+		if (frame.getHUD(DrawManager.HUD_COIN) >= 0)
+			drawManager.drawCoin(this, frame.getHUD(DrawManager.HUD_COIN));
+		if (frame.getHUD(DrawManager.HUD_LIVES) >= 0)
+			drawManager.drawLives(this, frame.getHUD(DrawManager.HUD_LIVES));
+		if (frame.getHUD(DrawManager.HUD_LIVES_P2) >= 0)
+			drawManager.drawLivesP2(this, frame.getHUD(DrawManager.HUD_LIVES_P2));
+		if (frame.getHUD(DrawManager.HUD_TIME) >= 0)
+			drawManager.drawTime(this, frame.getHUD(DrawManager.HUD_TIME) * 1000L);
+	}
+
+	/**
+	 * Returns the color of an RGB value.
+	 */
+	private Color colorOf(final int rgb) {
+		Color color = this.colors.get(rgb);
+		if (color == null) {
+			color = new Color(rgb, true);
+			this.colors.put(rgb, color);
+		}
+		return color;
+	}
+}
@@ -4,12 +4,15 @@ import java.awt.event.KeyEvent;
 import java.awt.Color;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
 
+import engine.AssetManager;
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
 import engine.DrawManager.SpriteType;
+import engine.GameRandom;
+import engine.ParticleSystem;
+import engine.RandomService;
 import entity.Entity;
 import entity.SoundButton;
 
@@ -24,26 +27,6 @@ import audio.SoundManager;
  */
 public class TitleScreen extends Screen {
 
-	/**
-	 * A simple class to represent a star for the animated background.
-	 * Stores the non-rotating base coordinates and speed.
-	 */
-	public static class Star {
-		public float baseX;
-		public float baseY;
-		public float speed;
-		public float brightness;
-        public float brightnessOffset;
-
-		public Star(float baseX, float baseY, float speed) {
-			this.baseX = baseX;
-			this.baseY = baseY;
-			this.speed = speed;
-			this.brightness = 0;
-			this.brightnessOffset = (float) (Math.random() * Math.PI * 2);
-		}
-	}
-
 	/**
 	 * A simple class to represent a shooting star.
 	 */
@@ -100,8 +83,8 @@ public class TitleScreen extends Screen {
 	/** Cooldown for shooting star spawning. */
     private Cooldown shootingStarCooldown;
 
-	/** List of stars for the background animation. */
-	private List<Star> stars;
+	/** Stars of the background animation. */
+	private ParticleSystem starfield;
 	/** List of background enemies. */
 	private List<Entity> backgroundEnemies;
 	/** List of shooting stars. */
@@ -118,7 +101,7 @@ public class TitleScreen extends Screen {
     private float targetAngle;
 
 	/** Random number generator. */
-    private Random random;
+    private GameRandom random;
 
     /** Player selection state and current choice. */
     private boolean selectingPlayers;
@@ -147,12 +130,14 @@ public class TitleScreen extends Screen {
 		this.enemySpawnCooldown.reset();
 		this.shootingStarCooldown.reset();
 
-		this.random = new Random();
-		this.stars = new ArrayList<Star>();
+		this.random = Core.getRandom(RandomService.Stream.MENU);
+		this.starfield = new ParticleSystem(NUM_STARS, NUM_STARS,
+				Core.getRandom(RandomService.Stream.EFFECTS));
+		this.starfield.setBounds(width, height);
 		for (int i = 0; i < NUM_STARS; i++) {
-			float speed = (float) (Math.random() * 2.5 + 0.5);
-			this.stars.add(new Star((float) (Math.random() * width),
-					(float) (Math.random() * height), speed));
+			float speed = this.random.nextFloat() * 2.5f + 0.5f;
+			this.starfield.addStar(this.random.nextFloat() * width,
+					this.random.nextFloat() * height, speed);
 		}
 
 		this.backgroundEnemies = new ArrayList<Entity>();
@@ -191,23 +176,15 @@ public class TitleScreen extends Screen {
         }
 
 		// Animate stars in their non-rotating space
-		for (Star star : this.stars) {
-			star.baseY += star.speed;
-			if (star.baseY > this.getHeight()) {
-				star.baseY = 0;
-				star.baseX = (float) (Math.random() * this.getWidth());
-			}
-			// Update brightness for twinkling effect
-			star.brightness = 0.5f + (float) (Math.sin(star.brightnessOffset + System.currentTimeMillis() / 500.0) + 1.0) / 4.0f;
-		}
+		this.starfield.update();
 
 		// Spawn and move background enemies
 		if (this.enemySpawnCooldown.checkFinished()) {
 			this.enemySpawnCooldown.reset();
-			if (Math.random() < ENEMY_SPAWN_CHANCE) {
+			if (random.chance(ENEMY_SPAWN_CHANCE)) {
 				SpriteType[] enemyTypes = { SpriteType.EnemyShipA1, SpriteType.EnemyShipB1, SpriteType.EnemyShipC1 };
 				SpriteType randomEnemyType = enemyTypes[random.nextInt(enemyTypes.length)];
-				int randomX = (int) (Math.random() * this.getWidth());
+				int randomX = random.nextInt(this.getWidth());
 				int speed = random.nextInt(2) + 1;
 				this.backgroundEnemies.add(new BackgroundEnemy(randomX, -20, speed, randomEnemyType));
 			}
@@ -225,9 +202,9 @@ public class TitleScreen extends Screen {
 		// Spawn and move shooting stars
         if (this.shootingStarCooldown.checkFinished()) {
             this.shootingStarCooldown.reset();
-            if (Math.random() < SHOOTING_STAR_SPAWN_CHANCE) {
-                float speedX = (float) (Math.random() * 10 + 5) * (Math.random() > 0.5 ? 1 : -1);
-                float speedY = (float) (Math.random() * 10 + 5) * (Math.random() > 0.5 ? 1 : -1);
+            if (random.chance(SHOOTING_STAR_SPAWN_CHANCE)) {
+                float speedX = (random.nextFloat() * 10 + 5) * (random.chance(0.5) ? 1 : -1);
+                float speedY = (random.nextFloat() * 10 + 5) * (random.chance(0.5) ? 1 : -1);
                 this.shootingStars.add(new ShootingStar(random.nextInt(this.getWidth()), -10, speedX, speedY));
             }
         }
@@ -396,7 +373,7 @@ public class TitleScreen extends Screen {
 		drawManager.initDrawing(this);
 
 		// Draw stars with rotation
-		drawManager.drawStars(this, this.stars, this.currentAngle);
+		drawManager.drawParticles(this, this.starfield, this.currentAngle);
 
 		// Draw shooting stars with rotation
         drawManager.drawShootingStars(this, this.shootingStars, this.currentAngle);
@@ -429,6 +406,8 @@ public class TitleScreen extends Screen {
         {
             drawManager.drawPlayerSelectionOverlay(this, this.playerSelection);
         }
+		if (!AssetManager.getInstance().isFinished())
+			drawManager.drawLoadingProgress(this, AssetManager.getInstance().getProgress());
 		drawManager.completeDrawing(this);
 	}
 